@@ -0,0 +1,196 @@
+package com.example.app.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Size-bounded, read-through cache with a time-to-live and least-recently-used eviction. Concurrent
+ * misses for the same key share a single load. Invalidating a key while its load is in flight keeps
+ * that (possibly stale) result out of the cache. Null results are returned but never cached.
+ */
+public class BoundedCache<K, V> {
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlMillis;
+
+    // Access-ordered, so the eldest entry is the least recently used; guarded by this
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+    private final AtomicLong maxLoadNanos = new AtomicLong();
+
+    public BoundedCache(String name, int maxSize, long ttlMillis) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > BoundedCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        return get(key, value -> true, loader);
+    }
+
+    // A cached value that fails the check, e.g. one built from an older version, counts as a miss and is replaced
+    public V get(K key, Predicate<? super V> usable, Function<? super K, ? extends V> loader) {
+        if (maxSize > 0) {
+            V cached = lookup(key);
+            if (cached != null && usable.test(cached)) {
+                hits.increment();
+                return cached;
+            }
+        }
+        misses.increment();
+
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return join(existing);
+        }
+        V value;
+        long start = System.nanoTime();
+        try {
+            loads.increment();
+            value = loader.apply(key);
+        } catch (RuntimeException e) {
+            loadFailures.increment();
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            loadNanos.add(elapsed);
+            maxLoadNanos.accumulateAndGet(elapsed, Math::max);
+        }
+        synchronized (this) {
+            // Not registered any more means the key was invalidated while loading
+            if (inFlight.remove(key, flight) && value != null && maxSize > 0) {
+                entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+            }
+        }
+        flight.complete(value);
+        return value;
+    }
+
+    // Replaces the cached value, e.g. with one recomputed in the background
+    public synchronized void put(K key, V value) {
+        if (maxSize > 0 && value != null) {
+            entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+        }
+    }
+
+    /**
+     * Applies an in-place change, such as a counter increment, to a cached value. An absent key is
+     * left alone, but a load in flight for it is disowned, since it may have read the value from
+     * before the change. The entry keeps its expiry time.
+     */
+    public synchronized void update(K key, UnaryOperator<V> change) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            inFlight.remove(key);
+            return;
+        }
+        V value = change.apply(entry.value);
+        if (value != null) {
+            entries.put(key, new Entry<>(value, entry.expiresAt));
+        } else {
+            entries.remove(key);
+        }
+    }
+
+    // Cached value without loading or counting a hit or miss
+    public V getIfPresent(K key) {
+        return maxSize > 0 ? lookup(key) : null;
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+        inFlight.remove(key);
+        invalidations.increment();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        inFlight.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public Map<String, Object> stats() {
+        long hitCount = hits.sum();
+        long requests = hitCount + misses.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", name);
+        stats.put("size", size());
+        stats.put("maxSize", maxSize);
+        stats.put("hits", hitCount);
+        stats.put("misses", misses.sum());
+        stats.put("hitRate", requests == 0 ? 0.0 : (double) hitCount / requests);
+        stats.put("loads", loads.sum());
+        stats.put("loadFailures", loadFailures.sum());
+        long loadCount = loads.sum();
+        stats.put("averageLoadMillis", loadCount == 0 ? 0.0 : loadNanos.sum() / 1e6 / loadCount);
+        stats.put("maxLoadMillis", maxLoadNanos.get() / 1e6);
+        stats.put("evictions", evictions.sum());
+        stats.put("expirations", expirations.sum());
+        stats.put("invalidations", invalidations.sum());
+        return stats;
+    }
+
+    private synchronized V lookup(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (ttlMillis > 0 && entry.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(key);
+            expirations.increment();
+            return null;
+        }
+        return entry.value;
+    }
+
+    private static <V> V join(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt) {}
+}
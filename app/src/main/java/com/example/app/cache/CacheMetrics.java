@@ -0,0 +1,30 @@
+package com.example.app.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Registry of the application's in-process caches, so their hit, miss and eviction counters can be
+ * read from one place (GET /api/user/metrics/caches).
+ */
+@Component
+public class CacheMetrics {
+
+    private final List<BoundedCache<?, ?>> caches = new CopyOnWriteArrayList<>();
+
+    public void register(BoundedCache<?, ?> cache) {
+        caches.add(cache);
+    }
+
+    public List<Map<String, Object>> snapshot() {
+        List<Map<String, Object>> stats = new ArrayList<>();
+        for (BoundedCache<?, ?> cache : caches) {
+            stats.add(cache.stats());
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.app.cache;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * A JSON array response body made of already-encoded elements, written to the response as is by
+ * JsonArrayHttpMessageConverter.
+ */
+public class JsonArray {
+
+    private final List<byte[]> elements;
+
+    public JsonArray(List<byte[]> elements) {
+        this.elements = elements;
+    }
+
+    public int size() {
+        return elements.size();
+    }
+
+    public long contentLength() {
+        long length = 2 + Math.max(0, elements.size() - 1);
+        for (byte[] element : elements) {
+            length += element.length;
+        }
+        return length;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write('[');
+        for (int i = 0; i < elements.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write(elements.get(i));
+        }
+        out.write(']');
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.app.cache;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+// Writes a JsonArray's pre-encoded elements straight to the response stream; write-only
+public class JsonArrayHttpMessageConverter extends AbstractHttpMessageConverter<JsonArray> {
+
+    public JsonArrayHttpMessageConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return JsonArray.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected JsonArray readInternal(Class<? extends JsonArray> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("JsonArray is write-only", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(JsonArray array, MediaType contentType) {
+        return array.contentLength();
+    }
+
+    @Override
+    protected void writeInternal(JsonArray array, HttpOutputMessage outputMessage) throws IOException {
+        array.writeTo(outputMessage.getBody());
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.app.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Encoded UTF-8 JSON of individual list items, keyed by id and tagged with a version, so a page of
+ * items the app has served before is written by concatenating bytes instead of running Jackson
+ * again. The version holds the fields that change without going through this instance's write
+ * paths (counters bumped with $inc, an author's embedded snapshot, edits on other instances); a
+ * fragment whose version no longer matches the item is re-encoded. Everything else must be
+ * invalidated on write.
+ */
+public class JsonFragmentCache<T> {
+
+    private final BoundedCache<String, Fragment> cache;
+    private final ObjectWriter writer;
+    private final Function<T, String> ids;
+    private final Function<T, Object> versions;
+
+    public JsonFragmentCache(BoundedCache<String, Fragment> cache, ObjectWriter writer,
+                             Function<T, String> ids, Function<T, Object> versions) {
+        this.cache = cache;
+        this.writer = writer;
+        this.ids = ids;
+        this.versions = versions;
+    }
+
+    public byte[] bytes(T item) {
+        String id = ids.apply(item);
+        Object version = versions.apply(item);
+        if (id == null) {
+            return encode(item);
+        }
+        Fragment fragment = cache.get(id, cached -> Objects.equals(cached.version(), version),
+                key -> new Fragment(version, encode(item)));
+        // Joined a load for another version of the item: encode this one without caching it
+        return Objects.equals(fragment.version(), version) ? fragment.json() : encode(item);
+    }
+
+    public JsonArray array(List<T> items) {
+        List<byte[]> fragments = new ArrayList<>(items.size());
+        for (T item : items) {
+            fragments.add(bytes(item));
+        }
+        return new JsonArray(fragments);
+    }
+
+    public void invalidate(String id) {
+        cache.invalidate(id);
+    }
+
+    private byte[] encode(T item) {
+        try {
+            return writer.writeValueAsBytes(item);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + ids.apply(item), e);
+        }
+    }
+
+    public record Fragment(Object version, byte[] json) {}
+}
@@ -0,0 +1,16 @@
+package com.example.app.controllers;
+
+import com.example.app.exceptions.BadRequestException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+// Invalid input (a bad cursor or page size, a missing title, ...) is a 400 with the reason on every endpoint
+@RestControllerAdvice
+public class BadRequestAdvice {
+
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<String> handleBadRequest(BadRequestException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
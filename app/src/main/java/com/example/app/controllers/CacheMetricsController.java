@@ -0,0 +1,71 @@
+package com.example.app.controllers;
+
+import com.example.app.cache.CacheMetrics;
+import com.example.app.services.SearchService;
+import com.example.app.services.SocialGraphService;
+import com.example.app.services.SuggestService;
+import com.example.app.services.TagIndexService;
+import com.example.app.services.TrendingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/user/metrics")
+public class CacheMetricsController {
+
+    @Autowired
+    private CacheMetrics cacheMetrics;
+
+    @Autowired
+    private SocialGraphService socialGraphService;
+
+    @Autowired
+    private TagIndexService tagIndexService;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private SuggestService suggestService;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @GetMapping("/caches")
+    public ResponseEntity<List<Map<String, Object>>> getCacheStats() {
+        return ResponseEntity.ok(cacheMetrics.snapshot());
+    }
+
+    // Node, edge and overlay counts, and the CSR footprint next to the per-user id list estimate
+    @GetMapping("/graph")
+    public ResponseEntity<Map<String, Object>> getGraphStats() {
+        return ResponseEntity.ok(socialGraphService.stats());
+    }
+
+    @GetMapping("/tags")
+    public ResponseEntity<Map<String, Object>> getTagIndexStats() {
+        return ResponseEntity.ok(tagIndexService.stats());
+    }
+
+    // Segments, live and deleted docs, and bytes on disk of the full-text index
+    @GetMapping("/search")
+    public ResponseEntity<Map<String, Object>> getSearchIndexStats() {
+        return ResponseEntity.ok(searchService.stats());
+    }
+
+    // Entries, overlay size and array footprint of the tag and user-name completion indexes
+    @GetMapping("/suggest")
+    public ResponseEntity<Map<String, Object>> getSuggestIndexStats() {
+        return ResponseEntity.ok(suggestService.stats());
+    }
+
+    // Per window: sketch dimensions and bytes, epsilon and delta, and the resulting overcount bound
+    @GetMapping("/trending")
+    public ResponseEntity<List<Map<String, Object>>> getTrendingStats() {
+        return ResponseEntity.ok(trendingService.stats());
+    }
+}
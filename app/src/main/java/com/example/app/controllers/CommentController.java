@@ -1,6 +1,9 @@
 package com.example.app.controllers;
 
 import com.example.app.models.Comment;
+import com.example.app.pagination.CursorPage;
+import com.example.app.security.CurrentUser;
+import com.example.app.security.UserPrincipal;
 import com.example.app.services.CommentService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -16,26 +19,31 @@ public class CommentController {
     private CommentService commentService;
 
     @PostMapping("/post/{postId}")
-    public ResponseEntity<Comment> createComment(@PathVariable String postId, @RequestBody Comment comment) {
-        Comment createdComment = commentService.createComment(postId, comment);
+    public ResponseEntity<Comment> createComment(@PathVariable String postId, @RequestBody Comment comment,
+                                                 @CurrentUser UserPrincipal currentUser) {
+        Comment createdComment = commentService.createComment(postId, comment, currentUser);
         return ResponseEntity.ok(createdComment);
     }
 
     @GetMapping("/post/{postId}")
-    public ResponseEntity<List<Comment>> getCommentsByPostId(@PathVariable String postId) {
-        List<Comment> comments = commentService.getCommentsByPostId(postId);
-        return ResponseEntity.ok(comments);
+    public ResponseEntity<List<Comment>> getCommentsByPostId(
+            @PathVariable String postId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        CursorPage<Comment> comments = commentService.getCommentsByPostId(postId, cursor, limit);
+        return comments.toResponseEntity();
     }
 
     @PutMapping("/{commentId}")
-    public ResponseEntity<Comment> updateComment(@PathVariable String commentId, @RequestBody Comment comment) {
-        Comment updatedComment = commentService.updateComment(commentId, comment);
+    public ResponseEntity<Comment> updateComment(@PathVariable String commentId, @RequestBody Comment comment,
+                                                 @CurrentUser UserPrincipal currentUser) {
+        Comment updatedComment = commentService.updateComment(commentId, comment, currentUser);
         return ResponseEntity.ok(updatedComment);
     }
 
     @DeleteMapping("/{commentId}")
-    public ResponseEntity<Void> deleteComment(@PathVariable String commentId) {
-        commentService.deleteComment(commentId);
+    public ResponseEntity<Void> deleteComment(@PathVariable String commentId, @CurrentUser UserPrincipal currentUser) {
+        commentService.deleteComment(commentId, currentUser);
         return ResponseEntity.noContent().build();
     }
 }
@@ -1,6 +1,12 @@
 package com.example.app.controllers;
 
+import com.example.app.exceptions.BadRequestException;
 import com.example.app.models.LearningPlan;
+import com.example.app.models.LearningProgressSummary;
+import com.example.app.models.TopicBulkOperation;
+import com.example.app.pagination.CursorPage;
+import com.example.app.security.CurrentUser;
+import com.example.app.security.UserPrincipal;
 import com.example.app.services.LearningPlanService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -16,51 +22,90 @@ public class LearningPlanController {
     private LearningPlanService learningPlanService;
 
     @PostMapping
-    public ResponseEntity<LearningPlan> createLearningPlan(@RequestBody LearningPlan learningPlan) {
+    public ResponseEntity<LearningPlan> createLearningPlan(@RequestBody LearningPlan learningPlan,
+                                                           @CurrentUser UserPrincipal currentUser) {
         if (learningPlan.getTitle() == null || learningPlan.getTitle().trim().isEmpty()) {
-            throw new IllegalArgumentException("Learning plan title is required");
+            throw new BadRequestException("Learning plan title is required");
         }
-        LearningPlan createdPlan = learningPlanService.createLearningPlan(learningPlan);
+        LearningPlan createdPlan = learningPlanService.createLearningPlan(learningPlan, currentUser);
         return ResponseEntity.ok(createdPlan);
     }
 
     @GetMapping
-    public ResponseEntity<List<LearningPlan>> getLearningPlansByUser(@RequestParam(value = "userId", required = false) String userId) {
-        List<LearningPlan> plans = learningPlanService.getLearningPlansByUser(userId);
-        return ResponseEntity.ok(plans);
+    public ResponseEntity<List<LearningPlan>> getLearningPlansByUser(
+            @RequestParam(value = "userId", required = false) String userId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @CurrentUser UserPrincipal currentUser) {
+        CursorPage<LearningPlan> plans = learningPlanService.getLearningPlansByUser(userId, cursor, limit, currentUser);
+        return plans.toResponseEntity();
     }
 
+    // Progress across the user's plans (the caller's by default), from counters only
+    @GetMapping("/summary")
+    public ResponseEntity<LearningProgressSummary> getProgressSummary(
+            @RequestParam(value = "userId", required = false) String userId,
+            @CurrentUser UserPrincipal currentUser) {
+        return ResponseEntity.ok(learningPlanService.getProgressSummary(userId, currentUser));
+    }
+
+    // ?topics=false leaves the topics out, for clients that page through them with GET /{planId}/topics
     @GetMapping("/{planId}")
-    public ResponseEntity<LearningPlan> getLearningPlanById(@PathVariable String planId) {
-        LearningPlan plan = learningPlanService.getLearningPlanById(planId);
+    public ResponseEntity<LearningPlan> getLearningPlanById(
+            @PathVariable String planId,
+            @RequestParam(value = "topics", defaultValue = "true") boolean includeTopics,
+            @CurrentUser UserPrincipal currentUser) {
+        LearningPlan plan = learningPlanService.getLearningPlanById(planId, includeTopics, currentUser);
         return ResponseEntity.ok(plan);
     }
 
     @PutMapping("/{planId}")
     public ResponseEntity<LearningPlan> updateLearningPlan(
             @PathVariable String planId,
-            @RequestBody LearningPlan learningPlan) {
+            @RequestBody LearningPlan learningPlan,
+            @CurrentUser UserPrincipal currentUser) {
         if (learningPlan.getTitle() == null || learningPlan.getTitle().trim().isEmpty()) {
-            throw new IllegalArgumentException("Learning plan title is required");
+            throw new BadRequestException("Learning plan title is required");
         }
-        LearningPlan updatedPlan = learningPlanService.updateLearningPlan(planId, learningPlan);
+        LearningPlan updatedPlan = learningPlanService.updateLearningPlan(planId, learningPlan, currentUser);
         return ResponseEntity.ok(updatedPlan);
     }
 
     @DeleteMapping("/{planId}")
-    public ResponseEntity<Void> deleteLearningPlan(@PathVariable String planId) {
-        learningPlanService.deleteLearningPlan(planId);
+    public ResponseEntity<Void> deleteLearningPlan(@PathVariable String planId, @CurrentUser UserPrincipal currentUser) {
+        learningPlanService.deleteLearningPlan(planId, currentUser);
         return ResponseEntity.noContent().build();
     }
 
+    @GetMapping("/{planId}/topics")
+    public ResponseEntity<List<LearningPlan.Topic>> getTopics(
+            @PathVariable String planId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @CurrentUser UserPrincipal currentUser) {
+        CursorPage<LearningPlan.Topic> topics = learningPlanService.getTopics(planId, cursor, limit, currentUser);
+        return topics.toResponseEntity();
+    }
+
+    // e.g. {"action": "move", "topicIds": [...], "after": "<topic id>", "before": "<topic id>"}
+    @PostMapping("/{planId}/topics/bulk")
+    public ResponseEntity<LearningPlan> bulkUpdateTopics(
+            @PathVariable String planId,
+            @RequestBody TopicBulkOperation operation,
+            @CurrentUser UserPrincipal currentUser) {
+        LearningPlan updatedPlan = learningPlanService.bulkUpdateTopics(planId, operation, currentUser);
+        return ResponseEntity.ok(updatedPlan);
+    }
+
     @PostMapping("/{planId}/topics")
     public ResponseEntity<LearningPlan> addTopic(
             @PathVariable String planId,
-            @RequestBody LearningPlan.Topic topic) {
+            @RequestBody LearningPlan.Topic topic,
+            @CurrentUser UserPrincipal currentUser) {
         if (topic.getTitle() == null || topic.getTitle().trim().isEmpty()) {
-            throw new IllegalArgumentException("Topic title is required");
+            throw new BadRequestException("Topic title is required");
         }
-        LearningPlan updatedPlan = learningPlanService.addTopic(planId, topic);
+        LearningPlan updatedPlan = learningPlanService.addTopic(planId, topic, currentUser);
         return ResponseEntity.ok(updatedPlan);
     }
 
@@ -68,19 +113,21 @@ public class LearningPlanController {
     public ResponseEntity<LearningPlan> updateTopic(
             @PathVariable String planId,
             @PathVariable String topicId,
-            @RequestBody LearningPlan.Topic topic) {
+            @RequestBody LearningPlan.Topic topic,
+            @CurrentUser UserPrincipal currentUser) {
         if (topic.getTitle() == null || topic.getTitle().trim().isEmpty()) {
-            throw new IllegalArgumentException("Topic title is required");
+            throw new BadRequestException("Topic title is required");
         }
-        LearningPlan updatedPlan = learningPlanService.updateTopic(planId, topicId, topic);
+        LearningPlan updatedPlan = learningPlanService.updateTopic(planId, topicId, topic, currentUser);
         return ResponseEntity.ok(updatedPlan);
     }
 
     @DeleteMapping("/{planId}/topics/{topicId}")
     public ResponseEntity<LearningPlan> deleteTopic(
             @PathVariable String planId,
-            @PathVariable String topicId) {
-        LearningPlan updatedPlan = learningPlanService.deleteTopic(planId, topicId);
+            @PathVariable String topicId,
+            @CurrentUser UserPrincipal currentUser) {
+        LearningPlan updatedPlan = learningPlanService.deleteTopic(planId, topicId, currentUser);
         return ResponseEntity.ok(updatedPlan);
     }
 
@@ -88,8 +135,9 @@ public class LearningPlanController {
     public ResponseEntity<LearningPlan> markTopicCompleted(
             @PathVariable String planId,
             @PathVariable String topicId,
-            @RequestBody boolean completed) {
-        LearningPlan updatedPlan = learningPlanService.markTopicCompleted(planId, topicId, completed);
+            @RequestBody boolean completed,
+            @CurrentUser UserPrincipal currentUser) {
+        LearningPlan updatedPlan = learningPlanService.markTopicCompleted(planId, topicId, completed, currentUser);
         return ResponseEntity.ok(updatedPlan);
     }
 }
\ No newline at end of file
@@ -1,9 +1,11 @@
 package com.example.app.controllers;
 
 import com.example.app.models.Like;
+import com.example.app.pagination.CursorPage;
+import com.example.app.security.CurrentUser;
+import com.example.app.security.UserPrincipal;
 import com.example.app.services.LikeService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -17,27 +19,23 @@ public class LikeController {
     private LikeService likeService;
 
     @PostMapping("/post/{postId}")
-    public ResponseEntity<Like> likePost(@PathVariable String postId) {
-        try {
-            Like like = likeService.likePost(postId);
-            return ResponseEntity.ok(like);
-        } catch (RuntimeException e) {
-            if (e.getMessage().equals("User already liked this post")) {
-                return ResponseEntity.status(HttpStatus.CONFLICT).body(null);
-            }
-            throw e;
-        }
+    public ResponseEntity<Like> likePost(@PathVariable String postId, @CurrentUser UserPrincipal currentUser) {
+        Like like = likeService.likePost(postId, currentUser);
+        return ResponseEntity.ok(like);
     }
 
     @DeleteMapping("/post/{postId}")
-    public ResponseEntity<Void> unlikePost(@PathVariable String postId) {
-        likeService.unlikePost(postId);
+    public ResponseEntity<Void> unlikePost(@PathVariable String postId, @CurrentUser UserPrincipal currentUser) {
+        likeService.unlikePost(postId, currentUser);
         return ResponseEntity.noContent().build();
     }
 
     @GetMapping("/post/{postId}")
-    public ResponseEntity<List<Like>> getLikesByPostId(@PathVariable String postId) {
-        List<Like> likes = likeService.getLikesByPostId(postId);
-        return ResponseEntity.ok(likes);
+    public ResponseEntity<List<Like>> getLikesByPostId(
+            @PathVariable String postId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        CursorPage<Like> likes = likeService.getLikesByPostId(postId, cursor, limit);
+        return likes.toResponseEntity();
     }
 }
\ No newline at end of file
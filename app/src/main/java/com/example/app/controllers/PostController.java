@@ -1,6 +1,13 @@
 package com.example.app.controllers;
 
+import com.example.app.cache.JsonArray;
 import com.example.app.models.Post;
+import com.example.app.models.PostEngagement;
+import com.example.app.pagination.CursorPage;
+import com.example.app.security.CurrentUser;
+import com.example.app.security.UserPrincipal;
+import com.example.app.services.EngagementService;
+import com.example.app.services.PostJsonCache;
 import com.example.app.services.PostService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -16,16 +23,33 @@ public class PostController {
     @Autowired
     private PostService postService;
 
+    @Autowired
+    private EngagementService engagementService;
+
+    @Autowired
+    private PostJsonCache postJsonCache;
+
     @PostMapping
-    public ResponseEntity<Post> createPost(@RequestBody Post post) {
-        Post createdPost = postService.createPost(post);
+    public ResponseEntity<Post> createPost(@RequestBody Post post, @CurrentUser UserPrincipal currentUser) {
+        Post createdPost = postService.createPost(post, currentUser);
         return ResponseEntity.ok(createdPost);
     }
 
     @GetMapping
-    public ResponseEntity<List<Post>> getAllPosts() {
-        List<Post> posts = postService.getAllPosts();
-        return ResponseEntity.ok(posts);
+    public ResponseEntity<JsonArray> getAllPosts(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        CursorPage<Post> posts = postService.getAllPosts(cursor, limit);
+        return posts.toResponseEntity(postJsonCache::summaries);
+    }
+
+    @GetMapping("/engagement")
+    public ResponseEntity<List<PostEngagement>> getEngagementSummary(
+            @RequestParam("ids") List<String> postIds,
+            @RequestParam(value = "comments", defaultValue = "3") int latestComments,
+            @CurrentUser UserPrincipal currentUser) {
+        List<PostEngagement> summary = engagementService.getEngagementSummary(postIds, latestComments, currentUser);
+        return ResponseEntity.ok(summary);
     }
 
     @GetMapping("/{id}")
@@ -36,26 +60,45 @@ public class PostController {
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Post>> getPostsByUserId(@PathVariable String userId) {
-        List<Post> posts = postService.getPostsByUserId(userId);
-        return ResponseEntity.ok(posts);
+    public ResponseEntity<JsonArray> getPostsByUserId(
+            @PathVariable String userId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        CursorPage<Post> posts = postService.getPostsByUserId(userId, cursor, limit);
+        return posts.toResponseEntity(postJsonCache::summaries);
     }
 
     @GetMapping("/tag/{tag}")
-    public ResponseEntity<List<Post>> getPostsByTag(@PathVariable String tag) {
-        List<Post> posts = postService.getPostsByTag(tag);
-        return ResponseEntity.ok(posts);
+    public ResponseEntity<JsonArray> getPostsByTag(
+            @PathVariable String tag,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        CursorPage<Post> posts = postService.getPostsByTag(tag, cursor, limit);
+        return posts.toResponseEntity(postJsonCache::summaries);
+    }
+
+    // e.g. ?all=java,spring&none=beginner; any= matches posts with at least one of the tags
+    @GetMapping("/tags")
+    public ResponseEntity<JsonArray> getPostsByTags(
+            @RequestParam(value = "all", required = false) List<String> all,
+            @RequestParam(value = "any", required = false) List<String> any,
+            @RequestParam(value = "none", required = false) List<String> none,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        CursorPage<Post> posts = postService.getPostsByTags(all, any, none, cursor, limit);
+        return posts.toResponseEntity(postJsonCache::summaries);
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Post> updatePost(@PathVariable String id, @RequestBody Post post) {
-        Post updatedPost = postService.updatePost(id, post);
+    public ResponseEntity<Post> updatePost(@PathVariable String id, @RequestBody Post post,
+                                           @CurrentUser UserPrincipal currentUser) {
+        Post updatedPost = postService.updatePost(id, post, currentUser);
         return ResponseEntity.ok(updatedPost);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deletePost(@PathVariable String id) {
-        postService.deletePost(id);
+    public ResponseEntity<Void> deletePost(@PathVariable String id, @CurrentUser UserPrincipal currentUser) {
+        postService.deletePost(id, currentUser);
         return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
@@ -1,6 +1,9 @@
 package com.example.app.controllers;
 
 import com.example.app.models.ProgressUpdate;
+import com.example.app.pagination.CursorPage;
+import com.example.app.security.CurrentUser;
+import com.example.app.security.UserPrincipal;
 import com.example.app.services.ProgressUpdateService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -18,33 +21,38 @@ public class ProgressUpdateController {
     @PostMapping
     public ResponseEntity<ProgressUpdate> createProgressUpdate(
             @RequestBody ProgressUpdate progressUpdate,
-            @RequestParam(value = "learningPlanId", required = false) String learningPlanId) {
-        ProgressUpdate createdUpdate = progressUpdateService.createProgressUpdate(progressUpdate, learningPlanId);
+            @RequestParam(value = "learningPlanId", required = false) String learningPlanId,
+            @CurrentUser UserPrincipal currentUser) {
+        ProgressUpdate createdUpdate = progressUpdateService.createProgressUpdate(progressUpdate, learningPlanId, currentUser);
         return ResponseEntity.ok(createdUpdate);
     }
 
     @GetMapping
     public ResponseEntity<List<ProgressUpdate>> getProgressUpdatesByUser(
-            @RequestParam(value = "userId", required = false) String userId) {
-        List<ProgressUpdate> updates;
+            @RequestParam(value = "userId", required = false) String userId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @CurrentUser UserPrincipal currentUser) {
+        CursorPage<ProgressUpdate> updates;
         if (userId != null) {
-            updates = progressUpdateService.getProgressUpdatesByUserId(userId);
+            updates = progressUpdateService.getProgressUpdatesByUserId(userId, cursor, limit);
         } else {
-            updates = progressUpdateService.getProgressUpdatesByUser();
+            updates = progressUpdateService.getProgressUpdatesByUser(cursor, limit, currentUser);
         }
-        return ResponseEntity.ok(updates);
+        return updates.toResponseEntity();
     }
 
     @GetMapping("/learning-plan/{learningPlanId}")
     public ResponseEntity<List<ProgressUpdate>> getProgressUpdatesByLearningPlan(
-            @PathVariable String learningPlanId) {
-        List<ProgressUpdate> updates = progressUpdateService.getProgressUpdatesByLearningPlanId(learningPlanId);
+            @PathVariable String learningPlanId,
+            @CurrentUser UserPrincipal currentUser) {
+        List<ProgressUpdate> updates = progressUpdateService.getProgressUpdatesByLearningPlanId(learningPlanId, currentUser);
         return ResponseEntity.ok(updates);
     }
 
     @GetMapping("/{updateId}")
-    public ResponseEntity<ProgressUpdate> getProgressUpdateById(@PathVariable String updateId) {
-        ProgressUpdate update = progressUpdateService.getProgressUpdateById(updateId);
+    public ResponseEntity<ProgressUpdate> getProgressUpdateById(@PathVariable String updateId, @CurrentUser UserPrincipal currentUser) {
+        ProgressUpdate update = progressUpdateService.getProgressUpdateById(updateId, currentUser);
         return ResponseEntity.ok(update);
     }
 
@@ -52,14 +60,16 @@ public class ProgressUpdateController {
     public ResponseEntity<ProgressUpdate> updateProgressUpdate(
             @PathVariable String updateId,
             @RequestBody ProgressUpdate progressUpdate,
-            @RequestParam(value = "learningPlanId", required = false) String learningPlanId) {
-        ProgressUpdate updatedUpdate = progressUpdateService.updateProgressUpdate(updateId, progressUpdate, learningPlanId);
+            @RequestParam(value = "learningPlanId", required = false) String learningPlanId,
+            @CurrentUser UserPrincipal currentUser) {
+        ProgressUpdate updatedUpdate = progressUpdateService.updateProgressUpdate(updateId, progressUpdate, learningPlanId,
+                currentUser);
         return ResponseEntity.ok(updatedUpdate);
     }
 
     @DeleteMapping("/{updateId}")
-    public ResponseEntity<Void> deleteProgressUpdate(@PathVariable String updateId) {
-        progressUpdateService.deleteProgressUpdate(updateId);
+    public ResponseEntity<Void> deleteProgressUpdate(@PathVariable String updateId, @CurrentUser UserPrincipal currentUser) {
+        progressUpdateService.deleteProgressUpdate(updateId, currentUser);
         return ResponseEntity.noContent().build();
     }
 }
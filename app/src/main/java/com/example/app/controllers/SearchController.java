@@ -0,0 +1,35 @@
+package com.example.app.controllers;
+
+import com.example.app.pagination.CursorPage;
+import com.example.app.security.CurrentUser;
+import com.example.app.security.UserPrincipal;
+import com.example.app.services.SearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/user/search")
+public class SearchController {
+
+    @Autowired
+    private SearchService searchService;
+
+    // Best match first; type is "post", "comment" or "plan" (only the caller's own plans match)
+    @GetMapping
+    public ResponseEntity<?> search(
+            @RequestParam("q") String query,
+            @RequestParam(value = "type", required = false) String type,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @CurrentUser UserPrincipal currentUser) {
+        try {
+            CursorPage<Map<String, Object>> results = searchService.search(query, type, cursor, limit, currentUser);
+            return results.toResponseEntity();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).body(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.app.controllers;
+
+import com.example.app.services.SuggestService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/user/suggest")
+public class SuggestController {
+
+    @Autowired
+    private SuggestService suggestService;
+
+    // Top completions of q: type "tag" for post tags (most used first), "user" for names (most followed first)
+    @GetMapping
+    public ResponseEntity<?> suggest(
+            @RequestParam(value = "q", required = false) String prefix,
+            @RequestParam(value = "type", defaultValue = "tag") String type,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        try {
+            return switch (type) {
+                case "tag" -> ResponseEntity.ok(suggestService.suggestTags(prefix, limit));
+                case "user" -> ResponseEntity.ok(suggestService.suggestUsers(prefix, limit));
+                default -> ResponseEntity.badRequest().body("Unknown suggestion type: " + type);
+            };
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).body(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.app.controllers;
+
+import com.example.app.cache.JsonArray;
+import com.example.app.models.Post;
+import com.example.app.pagination.CursorPage;
+import com.example.app.security.CurrentUser;
+import com.example.app.security.UserPrincipal;
+import com.example.app.services.FeedRankingService;
+import com.example.app.services.PostJsonCache;
+import com.example.app.services.TimelineService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/user/timeline")
+public class TimelineController {
+
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private FeedRankingService feedRankingService;
+
+    @Autowired
+    private PostJsonCache postJsonCache;
+
+    @GetMapping
+    public ResponseEntity<JsonArray> getHomeTimeline(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @CurrentUser UserPrincipal currentUser) {
+        CursorPage<Post> posts = timelineService.getHomeTimeline(cursor, limit, currentUser);
+        return posts.toResponseEntity(postJsonCache::summaries);
+    }
+
+    // Best first by recency, engagement and the viewer's affinities; one page, no cursor
+    @GetMapping("/ranked")
+    public ResponseEntity<JsonArray> getRankedTimeline(
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @CurrentUser UserPrincipal currentUser) {
+        return ResponseEntity.ok(postJsonCache.summaries(feedRankingService.getRankedFeed(limit, currentUser)));
+    }
+}
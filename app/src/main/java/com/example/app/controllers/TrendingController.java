@@ -0,0 +1,27 @@
+package com.example.app.controllers;
+
+import com.example.app.services.TrendingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/user/trending")
+public class TrendingController {
+
+    @Autowired
+    private TrendingService trendingService;
+
+    // Best first, by time-decayed activity; type "tags" or "posts", window "hour" or "day"
+    @GetMapping
+    public ResponseEntity<?> getTrending(
+            @RequestParam(value = "type", defaultValue = "tags") String type,
+            @RequestParam(value = "window", defaultValue = "hour") String window,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return switch (type) {
+            case "tags" -> ResponseEntity.ok(trendingService.trendingTags(window, limit));
+            case "posts" -> ResponseEntity.ok(trendingService.trendingPosts(window, limit));
+            default -> ResponseEntity.badRequest().body("Type must be tags or posts");
+        };
+    }
+}
@@ -1,14 +1,23 @@
 package com.example.app.controllers;
 
+import com.example.app.models.ActivityHeatmap;
+import com.example.app.models.Recommendation;
 import com.example.app.models.User;
-import com.example.app.repositories.UserRepository;
+import com.example.app.pagination.CursorPage;
+import com.example.app.security.CurrentUser;
+import com.example.app.security.JwtTokenProvider;
+import com.example.app.security.UserPrincipal;
+import com.example.app.services.ActivityService;
+import com.example.app.services.FollowService;
+import com.example.app.services.RecommendationService;
+import com.example.app.services.SocialGraphService;
+import com.example.app.services.UserCache;
 import com.example.app.services.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,97 +29,122 @@ import java.util.stream.Collectors;
 public class UserController {
 
     @Autowired
-    private UserRepository userRepository;
+    private UserService userService;
 
     @Autowired
-    private UserService userService;
+    private UserCache userCache;
 
-    @GetMapping("/user/me")
-    public ResponseEntity<?> getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
+    @Autowired
+    private FollowService followService;
 
-        Optional<User> userOptional = userRepository.findByEmail(email);
+    @Autowired
+    private RecommendationService recommendationService;
 
-        if (userOptional.isPresent()) {
-            User user = userOptional.get();
-            Map<String, Object> userDetails = new HashMap<>();
-            userDetails.put("id", user.getId());
-            userDetails.put("email", user.getEmail());
-            userDetails.put("name", user.getName());
-            userDetails.put("pictureUrl", user.getPictureUrl());
-            userDetails.put("followers", user.getFollowers());
-            userDetails.put("following", user.getFollowing());
+    @Autowired
+    private SocialGraphService socialGraphService;
 
-            return ResponseEntity.ok(userDetails);
+    @Autowired
+    private ActivityService activityService;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @GetMapping("/user/me")
+    public ResponseEntity<?> getCurrentUser(@CurrentUser UserPrincipal currentUser) {
+        // Follow counts are not in the token, so this one still reads the user document
+        Optional<User> userOptional = userCache.findById(currentUser.getId());
+
+        if (userOptional.isPresent()) {
+            return ResponseEntity.ok(toUserDetails(userOptional.get()));
         }
 
         return ResponseEntity.status(404).body("User not found");
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<?> getUserById(@PathVariable String userId) {
-        Optional<User> userOptional = userRepository.findById(userId);
+    public ResponseEntity<?> getUserById(@PathVariable String userId, @CurrentUser UserPrincipal currentUser) {
+        Optional<User> userOptional = userCache.findById(userId);
 
         if (userOptional.isPresent()) {
-            User user = userOptional.get();
-            Map<String, Object> userDetails = new HashMap<>();
-            userDetails.put("id", user.getId());
-            userDetails.put("email", user.getEmail());
-            userDetails.put("name", user.getName());
-            userDetails.put("pictureUrl", user.getPictureUrl());
-            userDetails.put("followers", user.getFollowers());
-            userDetails.put("following", user.getFollowing());
-
+            Map<String, Object> userDetails = toUserDetails(userOptional.get());
+            userDetails.put("followedByMe", followService.isFollowing(currentUser.getId(), userId));
             return ResponseEntity.ok(userDetails);
         }
 
         return ResponseEntity.status(404).body("User not found");
     }
 
-    @GetMapping("/users")
-    public ResponseEntity<?> getAllUsers() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        Optional<User> currentUserOptional = userRepository.findByEmail(email);
+    @GetMapping("/user/{userId}/followers")
+    public ResponseEntity<List<Map<String, Object>>> getFollowers(
+            @PathVariable String userId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return toUserDetailsPage(followService.getFollowers(userId, cursor, limit));
+    }
 
-        if (!currentUserOptional.isPresent()) {
-            return ResponseEntity.status(404).body("Current user not found");
-        }
+    @GetMapping("/user/{userId}/following")
+    public ResponseEntity<List<Map<String, Object>>> getFollowing(
+            @PathVariable String userId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return toUserDetailsPage(followService.getFollowing(userId, cursor, limit));
+    }
 
-        User currentUser = currentUserOptional.get();
-        List<Map<String, Object>> users = userRepository.findAll().stream()
-                .filter(user -> !user.getId().equals(currentUser.getId())) // Exclude current user
-                .filter(user -> !currentUser.getFollowers().contains(user.getId())) // Exclude followers
-                .filter(user -> !currentUser.getFollowing().contains(user.getId())) // Exclude following
-                .map(user -> {
-                    Map<String, Object> userDetails = new HashMap<>();
-                    userDetails.put("id", user.getId());
-                    userDetails.put("email", user.getEmail());
-                    userDetails.put("name", user.getName());
-                    userDetails.put("pictureUrl", user.getPictureUrl());
-                    userDetails.put("followers", user.getFollowers());
-                    userDetails.put("following", user.getFollowing());
-                    return userDetails;
-                })
-                .collect(Collectors.toList());
+    // Accounts that follow both the current user and this user
+    @GetMapping("/user/{userId}/mutual-followers")
+    public ResponseEntity<?> getMutualFollowers(
+            @PathVariable String userId,
+            @RequestParam(value = "limit", defaultValue = "10") int limit,
+            @CurrentUser UserPrincipal currentUser) {
+        return toIntersection(socialGraphService.mutualFollowers(currentUser.getId(), userId, Math.max(0, Math.min(limit, 100))));
+    }
 
+    // Accounts the current user follows that follow this user ("followed by people you follow")
+    @GetMapping("/user/{userId}/followed-by-following")
+    public ResponseEntity<?> getFollowedByFollowing(
+            @PathVariable String userId,
+            @RequestParam(value = "limit", defaultValue = "10") int limit,
+            @CurrentUser UserPrincipal currentUser) {
+        return toIntersection(socialGraphService.followedByFollowing(currentUser.getId(), userId, Math.max(0, Math.min(limit, 100))));
+    }
+
+    // Daily activity counts and streaks for the profile heatmap: ?year=2026, or the last 365 days by default
+    @GetMapping("/user/{userId}/activity")
+    public ResponseEntity<ActivityHeatmap> getActivity(
+            @PathVariable String userId,
+            @RequestParam(value = "year", required = false) Integer year) {
+        ActivityHeatmap heatmap = activityService.getHeatmap(userId, year);
+        return ResponseEntity.ok(heatmap);
+    }
+
+    // People you may know, best match first; each entry says why the user was suggested
+    @GetMapping("/users")
+    public ResponseEntity<List<Map<String, Object>>> getRecommendedUsers(
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @CurrentUser UserPrincipal currentUser) {
+        List<Map<String, Object>> users = new ArrayList<>();
+        for (Map.Entry<Recommendation, User> entry : recommendationService.getRecommendations(currentUser.getId(), limit).entrySet()) {
+            Recommendation recommendation = entry.getKey();
+            Map<String, Object> userDetails = toUserDetails(entry.getValue());
+            userDetails.put("mutualCount", recommendation.getMutualCount());
+            userDetails.put("sharedTags", recommendation.getSharedTags());
+            userDetails.put("sharedTopics", recommendation.getSharedTopics());
+            users.add(userDetails);
+        }
         return ResponseEntity.ok(users);
     }
 
     @PutMapping("/user/me")
-    public ResponseEntity<?> updateUserProfile(@RequestBody Map<String, String> updates) {
+    public ResponseEntity<?> updateUserProfile(@RequestBody Map<String, String> updates,
+                                               @CurrentUser UserPrincipal currentUser) {
         try {
             String name = updates.get("name");
             String pictureUrl = updates.get("pictureUrl");
-            User updatedUser = userService.updateUserProfile(name, pictureUrl);
-            Map<String, Object> userDetails = new HashMap<>();
-            userDetails.put("id", updatedUser.getId());
-            userDetails.put("email", updatedUser.getEmail());
-            userDetails.put("name", updatedUser.getName());
-            userDetails.put("pictureUrl", updatedUser.getPictureUrl());
-            userDetails.put("followers", updatedUser.getFollowers());
-            userDetails.put("following", updatedUser.getFollowing());
+            User updatedUser = userService.updateUserProfile(name, pictureUrl, currentUser);
+            Map<String, Object> userDetails = toUserDetails(updatedUser);
+            // The old token still carries the previous name and picture
+            userDetails.put("token", tokenProvider.generateToken(updatedUser.getEmail(), updatedUser.getId(),
+                    updatedUser.getName(), updatedUser.getPictureUrl()));
             return ResponseEntity.ok(userDetails);
         } catch (RuntimeException e) {
             return ResponseEntity.status(400).body(e.getMessage());
@@ -118,9 +152,9 @@ public class UserController {
     }
 
     @DeleteMapping("/user/me")
-    public ResponseEntity<?> deleteUserAccount() {
+    public ResponseEntity<?> deleteUserAccount(@CurrentUser UserPrincipal currentUser) {
         try {
-            userService.deleteUserAccount();
+            userService.deleteUserAccount(currentUser);
             return ResponseEntity.ok("Account deleted successfully");
         } catch (RuntimeException e) {
             return ResponseEntity.status(400).body(e.getMessage());
@@ -128,9 +162,9 @@ public class UserController {
     }
 
     @PostMapping("/user/follow/{userId}")
-    public ResponseEntity<?> followUser(@PathVariable String userId) {
+    public ResponseEntity<?> followUser(@PathVariable String userId, @CurrentUser UserPrincipal currentUser) {
         try {
-            userService.followUser(userId);
+            userService.followUser(userId, currentUser);
             return ResponseEntity.ok("Successfully followed user");
         } catch (RuntimeException e) {
             return ResponseEntity.status(400).body(e.getMessage());
@@ -138,9 +172,9 @@ public class UserController {
     }
 
     @PostMapping("/user/unfollow/{userId}")
-    public ResponseEntity<?> unfollowUser(@PathVariable String userId) {
+    public ResponseEntity<?> unfollowUser(@PathVariable String userId, @CurrentUser UserPrincipal currentUser) {
         try {
-            userService.unfollowUser(userId);
+            userService.unfollowUser(userId, currentUser);
             return ResponseEntity.ok("Successfully unfollowed user");
         } catch (RuntimeException e) {
             return ResponseEntity.status(400).body(e.getMessage());
@@ -151,4 +185,31 @@ public class UserController {
     public ResponseEntity<?> healthCheck() {
         return ResponseEntity.ok("Service is up and running!");
     }
+
+    // Counts instead of follower/following id lists, so the payload size does not grow with the network
+    private Map<String, Object> toUserDetails(User user) {
+        Map<String, Object> userDetails = new HashMap<>();
+        userDetails.put("id", user.getId());
+        userDetails.put("email", user.getEmail());
+        userDetails.put("name", user.getName());
+        userDetails.put("pictureUrl", user.getPictureUrl());
+        userDetails.put("followerCount", user.getFollowerCount());
+        userDetails.put("followingCount", user.getFollowingCount());
+        return userDetails;
+    }
+
+    private ResponseEntity<?> toIntersection(SocialGraphService.Intersection intersection) {
+        if (intersection == null) {
+            return ResponseEntity.status(503).body("Social graph is still loading");
+        }
+        Map<String, Object> body = new HashMap<>();
+        body.put("count", intersection.count());
+        body.put("users", followService.findUsers(intersection.userIds()).stream().map(this::toUserDetails).collect(Collectors.toList()));
+        return ResponseEntity.ok(body);
+    }
+
+    private ResponseEntity<List<Map<String, Object>>> toUserDetailsPage(CursorPage<User> page) {
+        List<Map<String, Object>> users = page.getItems().stream().map(this::toUserDetails).collect(Collectors.toList());
+        return new CursorPage<>(users, page.getNextCursor()).toResponseEntity();
+    }
 }
\ No newline at end of file
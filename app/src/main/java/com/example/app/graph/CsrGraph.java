@@ -0,0 +1,86 @@
+package com.example.app.graph;
+
+import java.util.Arrays;
+
+/**
+ * Immutable follow graph in compressed sparse row form. Row {@code u} of the outgoing arrays holds
+ * the accounts u follows, {@code outTargets[outOffsets[u] .. outOffsets[u + 1])}, sorted ascending;
+ * the incoming arrays hold followers the same way. An edge costs 8 bytes (one int in each
+ * direction) and a user 12 bytes of id plus two offsets.
+ */
+public final class CsrGraph {
+
+    private final UserIdIndex ids;
+    private final int[] outOffsets;
+    private final int[] outTargets;
+    private final int[] inOffsets;
+    private final int[] inSources;
+
+    private CsrGraph(UserIdIndex ids, int[] outOffsets, int[] outTargets, int[] inOffsets, int[] inSources) {
+        this.ids = ids;
+        this.outOffsets = outOffsets;
+        this.outTargets = outTargets;
+        this.inOffsets = inOffsets;
+        this.inSources = inSources;
+    }
+
+    /**
+     * Builds the graph from parallel edge arrays of dense ids, {@code sources[i]} following
+     * {@code targets[i]} for i below edgeCount. Edges must be unique.
+     */
+    public static CsrGraph build(UserIdIndex ids, int[] sources, int[] targets, int edgeCount) {
+        int nodes = ids.size();
+        int[] outOffsets = offsets(sources, edgeCount, nodes);
+        int[] inOffsets = offsets(targets, edgeCount, nodes);
+        int[] outTargets = new int[edgeCount];
+        int[] inSources = new int[edgeCount];
+        int[] outNext = Arrays.copyOf(outOffsets, nodes);
+        int[] inNext = Arrays.copyOf(inOffsets, nodes);
+        for (int i = 0; i < edgeCount; i++) {
+            outTargets[outNext[sources[i]]++] = targets[i];
+            inSources[inNext[targets[i]]++] = sources[i];
+        }
+        for (int u = 0; u < nodes; u++) {
+            Arrays.sort(outTargets, outOffsets[u], outOffsets[u + 1]);
+            Arrays.sort(inSources, inOffsets[u], inOffsets[u + 1]);
+        }
+        return new CsrGraph(ids, outOffsets, outTargets, inOffsets, inSources);
+    }
+
+    public UserIdIndex ids() {
+        return ids;
+    }
+
+    public int nodeCount() {
+        return ids.size();
+    }
+
+    public int edgeCount() {
+        return outTargets.length;
+    }
+
+    public IntRow following(int node) {
+        return new IntRow(outTargets, outOffsets[node], outOffsets[node + 1]);
+    }
+
+    public IntRow followers(int node) {
+        return new IntRow(inSources, inOffsets[node], inOffsets[node + 1]);
+    }
+
+    // Payload of the primitive arrays, without the few dozen bytes of object headers
+    public long memoryBytes() {
+        return ids.memoryBytes() + 4L * (outOffsets.length + outTargets.length + inOffsets.length + inSources.length);
+    }
+
+    // Prefix sums of the degree of each node, with a trailing entry for the total
+    private static int[] offsets(int[] nodes, int edgeCount, int nodeCount) {
+        int[] offsets = new int[nodeCount + 1];
+        for (int i = 0; i < edgeCount; i++) {
+            offsets[nodes[i] + 1]++;
+        }
+        for (int u = 0; u < nodeCount; u++) {
+            offsets[u + 1] += offsets[u];
+        }
+        return offsets;
+    }
+}
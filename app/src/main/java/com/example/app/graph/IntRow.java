@@ -0,0 +1,98 @@
+package com.example.app.graph;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A read-only view of a sorted run of ints, usually one adjacency row of a CSR array. Views share
+ * the backing array, so reading a row of a large account costs nothing until it is iterated.
+ */
+public final class IntRow {
+
+    public static final IntRow EMPTY = new IntRow(new int[0], 0, 0);
+
+    // Above this size ratio, probing the larger row by binary search beats a linear merge
+    private static final int GALLOP_RATIO = 32;
+
+    private final int[] data;
+    private final int from;
+    private final int to;
+
+    IntRow(int[] data, int from, int to) {
+        this.data = data;
+        this.from = from;
+        this.to = to;
+    }
+
+    public static IntRow of(int[] sorted) {
+        return new IntRow(sorted, 0, sorted.length);
+    }
+
+    public int size() {
+        return to - from;
+    }
+
+    public int get(int index) {
+        return data[from + index];
+    }
+
+    public boolean contains(int value) {
+        return Arrays.binarySearch(data, from, to, value) >= 0;
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOfRange(data, from, to);
+    }
+
+    /**
+     * Values present in both rows, in ascending order. Every common value is counted; only the first
+     * {@code limit} are passed to the consumer.
+     */
+    public static int intersect(IntRow a, IntRow b, int limit, IntConsumer consumer) {
+        if (a.size() > b.size()) {
+            IntRow swap = a;
+            a = b;
+            b = swap;
+        }
+        if (a.size() == 0) {
+            return 0;
+        }
+        int count = 0;
+        if ((long) a.size() * GALLOP_RATIO < b.size()) {
+            int low = b.from;
+            for (int i = a.from; i < a.to; i++) {
+                int found = Arrays.binarySearch(b.data, low, b.to, a.data[i]);
+                if (found >= 0) {
+                    if (count++ < limit) {
+                        consumer.accept(a.data[i]);
+                    }
+                    low = found + 1;
+                } else {
+                    low = -found - 1;
+                }
+                if (low >= b.to) {
+                    break;
+                }
+            }
+            return count;
+        }
+        int i = a.from;
+        int j = b.from;
+        while (i < a.to && j < b.to) {
+            int x = a.data[i];
+            int y = b.data[j];
+            if (x < y) {
+                i++;
+            } else if (x > y) {
+                j++;
+            } else {
+                if (count++ < limit) {
+                    consumer.accept(x);
+                }
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.app.graph;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A CSR snapshot plus an overlay of the follows and unfollows made since it was built. The overlay
+ * records the latest state of each changed edge, so replaying a change the snapshot already has is
+ * harmless. Users who signed up after the snapshot get dense ids past its last node. Rows of users
+ * without changes are served straight from the snapshot; the overlay is folded in by building the
+ * next snapshot.
+ */
+public class SocialGraph {
+
+    private final CsrGraph base;
+    private final long builtAt;
+    private final long buildMillis;
+
+    // Guarded by this
+    private final Map<String, Integer> extraIds = new HashMap<>();
+    private final List<String> extraNames = new ArrayList<>();
+    private final Map<Integer, TreeMap<Integer, Boolean>> outChanges = new HashMap<>();
+    private final Map<Integer, TreeMap<Integer, Boolean>> inChanges = new HashMap<>();
+    private int changedEdges;
+
+    public SocialGraph(CsrGraph base, long builtAt, long buildMillis) {
+        this.base = base;
+        this.builtAt = builtAt;
+        this.buildMillis = buildMillis;
+    }
+
+    public synchronized void setEdge(String followerId, String followeeId, boolean present) {
+        int follower = indexOrAdd(followerId);
+        int followee = indexOrAdd(followeeId);
+        if (follower < 0 || followee < 0) {
+            return;
+        }
+        Boolean previous = outChanges.computeIfAbsent(follower, k -> new TreeMap<>()).put(followee, present);
+        inChanges.computeIfAbsent(followee, k -> new TreeMap<>()).put(follower, present);
+        if (previous == null) {
+            changedEdges++;
+        }
+    }
+
+    // Dense id of the user, or -1 if the graph has never seen them
+    public synchronized int indexOf(String userId) {
+        int index = base.ids().indexOf(userId);
+        if (index >= 0) {
+            return index;
+        }
+        Integer extra = extraIds.get(userId);
+        return extra != null ? extra : -1;
+    }
+
+    public synchronized String idAt(int index) {
+        int nodes = base.nodeCount();
+        return index < nodes ? base.ids().idAt(index) : extraNames.get(index - nodes);
+    }
+
+    public IntRow following(int node) {
+        return node < base.nodeCount() ? merge(base.following(node), outChanges, node) : merge(IntRow.EMPTY, outChanges, node);
+    }
+
+    public IntRow followers(int node) {
+        return node < base.nodeCount() ? merge(base.followers(node), inChanges, node) : merge(IntRow.EMPTY, inChanges, node);
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("nodes", base.nodeCount() + extraNames.size());
+        stats.put("edges", base.edgeCount());
+        stats.put("overlayEdges", changedEdges);
+        stats.put("overlayNodes", extraNames.size());
+        stats.put("builtAt", builtAt);
+        stats.put("buildMillis", buildMillis);
+        stats.put("csrBytes", base.memoryBytes());
+        long boxed = boxedListBytes(base.nodeCount(), base.edgeCount());
+        stats.put("boxedListEstimateBytes", boxed);
+        stats.put("compressionRatio", base.memoryBytes() == 0 ? 0.0 : (double) boxed / base.memoryBytes());
+        return stats;
+    }
+
+    /**
+     * Estimated heap held by the same graph as a followers and a following List&lt;String&gt; per
+     * user, the layout the user documents had before the follows collection (64-bit JVM, compressed
+     * oops): every edge is stored twice as a 24-char hex String (24-byte String + 40-byte byte[])
+     * plus a 4-byte list slot, and every user holds two ArrayLists (24 bytes + 16-byte array header).
+     */
+    public static long boxedListBytes(long users, long edges) {
+        return users * 2 * (24 + 16) + edges * 2 * (24 + 40 + 4);
+    }
+
+    private synchronized IntRow merge(IntRow row, Map<Integer, TreeMap<Integer, Boolean>> changes, int node) {
+        TreeMap<Integer, Boolean> changed = changes.get(node);
+        if (changed == null) {
+            return row;
+        }
+        int[] merged = new int[row.size() + changed.size()];
+        int size = 0;
+        int i = 0;
+        for (Map.Entry<Integer, Boolean> change : changed.entrySet()) {
+            int neighbour = change.getKey();
+            while (i < row.size() && row.get(i) < neighbour) {
+                merged[size++] = row.get(i++);
+            }
+            if (i < row.size() && row.get(i) == neighbour) {
+                i++; // The change decides whether this edge stays
+            }
+            if (change.getValue()) {
+                merged[size++] = neighbour;
+            }
+        }
+        while (i < row.size()) {
+            merged[size++] = row.get(i++);
+        }
+        return new IntRow(merged, 0, size);
+    }
+
+    private int indexOrAdd(String userId) {
+        int index = indexOf(userId);
+        if (index >= 0 || userId == null) {
+            return index;
+        }
+        index = base.nodeCount() + extraNames.size();
+        extraIds.put(userId, index);
+        extraNames.add(userId);
+        return index;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.app.graph;
+
+import org.bson.types.ObjectId;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Maps user ids (ObjectId hex strings) to dense ints 0..n-1 and back. The 12-byte ObjectIds are
+ * kept sorted in two primitive arrays, 12 bytes per user, and looked up by binary search, so no
+ * String or boxed Integer is held per user.
+ */
+public final class UserIdIndex {
+
+    private final long[] high; // First 8 bytes of each ObjectId
+    private final int[] low;   // Last 4 bytes
+
+    private UserIdIndex(long[] high, int[] low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    public static UserIdIndex of(Collection<ObjectId> ids) {
+        ObjectId[] sorted = ids.toArray(new ObjectId[0]);
+        Arrays.sort(sorted); // Unsigned byte order, the same order compare() uses below
+        long[] high = new long[sorted.length];
+        int[] low = new int[sorted.length];
+        int size = 0;
+        for (ObjectId id : sorted) {
+            ByteBuffer bytes = ByteBuffer.wrap(id.toByteArray());
+            long h = bytes.getLong();
+            int l = bytes.getInt();
+            if (size > 0 && high[size - 1] == h && low[size - 1] == l) {
+                continue; // Duplicate id
+            }
+            high[size] = h;
+            low[size] = l;
+            size++;
+        }
+        return new UserIdIndex(Arrays.copyOf(high, size), Arrays.copyOf(low, size));
+    }
+
+    public int size() {
+        return high.length;
+    }
+
+    // Dense id of the user, or -1 if the id is unknown or not an ObjectId
+    public int indexOf(String id) {
+        if (id == null || !ObjectId.isValid(id)) {
+            return -1;
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(new ObjectId(id).toByteArray());
+        long h = bytes.getLong();
+        int l = bytes.getInt();
+        int lowIndex = 0;
+        int highIndex = high.length - 1;
+        while (lowIndex <= highIndex) {
+            int mid = (lowIndex + highIndex) >>> 1;
+            int cmp = compare(high[mid], low[mid], h, l);
+            if (cmp < 0) {
+                lowIndex = mid + 1;
+            } else if (cmp > 0) {
+                highIndex = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    public String idAt(int index) {
+        ByteBuffer bytes = ByteBuffer.allocate(12).putLong(high[index]).putInt(low[index]);
+        return new ObjectId(bytes.array()).toHexString();
+    }
+
+    public long memoryBytes() {
+        return 12L * high.length;
+    }
+
+    private static int compare(long h1, int l1, long h2, int l2) {
+        int cmp = Long.compareUnsigned(h1, h2);
+        return cmp != 0 ? cmp : Integer.compareUnsigned(l1, l2);
+    }
+}
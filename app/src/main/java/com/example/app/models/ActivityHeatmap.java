@@ -0,0 +1,57 @@
+package com.example.app.models;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+// Daily activity counts over a date range (UTC days, only active ones listed) with the user's streaks
+public class ActivityHeatmap {
+
+    private LocalDate from;
+    private LocalDate to;
+    private Map<LocalDate, Integer> days;
+    private long total;
+    private int currentStreak;
+    private int longestStreak;
+    private LocalDate lastActiveDate;
+
+    // Constructor
+    public ActivityHeatmap(LocalDate from, LocalDate to, Map<LocalDate, Integer> days, int currentStreak,
+                           int longestStreak, LocalDate lastActiveDate) {
+        this.from = from;
+        this.to = to;
+        this.days = days;
+        this.total = days.values().stream().mapToLong(Integer::longValue).sum();
+        this.currentStreak = currentStreak;
+        this.longestStreak = longestStreak;
+        this.lastActiveDate = lastActiveDate;
+    }
+
+    // Getters
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public Map<LocalDate, Integer> getDays() {
+        return days;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public int getCurrentStreak() {
+        return currentStreak;
+    }
+
+    public int getLongestStreak() {
+        return longestStreak;
+    }
+
+    public LocalDate getLastActiveDate() {
+        return lastActiveDate;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.app.models;
+
+import com.fasterxml.jackson.annotation.JsonView;
+
+// The few user fields shown next to content, embedded so list reads need no join.
+// Kept in sync with the user document by AuthorSnapshotService when a profile changes.
+public class AuthorSnapshot {
+
+    @JsonView(Views.Summary.class)
+    private String id;
+    @JsonView(Views.Summary.class)
+    private String name;
+    @JsonView(Views.Summary.class)
+    private String pictureUrl;
+
+    // Default constructor
+    public AuthorSnapshot() {}
+
+    // Constructor
+    public AuthorSnapshot(String id, String name, String pictureUrl) {
+        this.id = id;
+        this.name = name;
+        this.pictureUrl = pictureUrl;
+    }
+
+    public static AuthorSnapshot of(User user) {
+        return new AuthorSnapshot(user.getId(), user.getName(), user.getPictureUrl());
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getPictureUrl() {
+        return pictureUrl;
+    }
+
+    public void setPictureUrl(String pictureUrl) {
+        this.pictureUrl = pictureUrl;
+    }
+}
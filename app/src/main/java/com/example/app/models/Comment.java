@@ -1,12 +1,18 @@
 package com.example.app.models;
 
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.mapping.DBRef;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
 
 @Document(collection = "comments")
+@CompoundIndexes({
+        @CompoundIndex(name = "postId_createdAt_id", def = "{'postId': 1, 'createdAt': 1, '_id': 1}"),
+        // A user's recent comments, read to build their feed affinity
+        @CompoundIndex(name = "author_createdAt", def = "{'user._id': 1, 'createdAt': -1}")
+})
 public class Comment {
 
     @Id
@@ -14,11 +20,9 @@ public class Comment {
 
     private String content;
 
-    @DBRef
-    private User user;
+    private AuthorSnapshot user; // Embedded author snapshot, refreshed on profile changes
 
-    @DBRef
-    private Post post;
+    private String postId;
 
     private Date createdAt;
 
@@ -26,10 +30,10 @@ public class Comment {
     public Comment() {}
 
     // Constructor
-    public Comment(String content, User user, Post post) {
+    public Comment(String content, AuthorSnapshot user, String postId) {
         this.content = content;
         this.user = user;
-        this.post = post;
+        this.postId = postId;
         this.createdAt = new Date();
     }
 
@@ -50,20 +54,20 @@ public class Comment {
         this.content = content;
     }
 
-    public User getUser() {
+    public AuthorSnapshot getUser() {
         return user;
     }
 
-    public void setUser(User user) {
+    public void setUser(AuthorSnapshot user) {
         this.user = user;
     }
 
-    public Post getPost() {
-        return post;
+    public String getPostId() {
+        return postId;
     }
 
-    public void setPost(Post post) {
-        this.post = post;
+    public void setPostId(String postId) {
+        this.postId = postId;
     }
 
     public Date getCreatedAt() {
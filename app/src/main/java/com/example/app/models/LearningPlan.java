@@ -1,15 +1,28 @@
 package com.example.app.models;
 
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.mapping.DBRef;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.DayOfWeek;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 
 @Document(collection = "learning_plans")
+@CompoundIndexes({
+        @CompoundIndex(name = "author_createdAt_id", def = "{'user._id': 1, 'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "topics_title", def = "{'topics.title': 1}"),
+        // Covers the progress summary, which reads only these counters
+        @CompoundIndex(name = "author_progress", def = "{'user._id': 1, 'completed': 1, 'totalTopics': 1, "
+                + "'completedTopics': 1, 'progressWeek': 1, 'completedThisWeek': 1, 'lastCompletionDate': 1}")
+})
 public class LearningPlan {
 
     @Id
@@ -17,11 +30,16 @@ public class LearningPlan {
     private String title;
     private String description;
     private List<Topic> topics;
-    @DBRef
-    private User user;
+    private AuthorSnapshot user; // Embedded owner snapshot, refreshed on profile changes
     private Date createdAt;
     private boolean completed;
     private Date completionDate;
+    // Progress counters, kept in the same write as every topic change
+    private int totalTopics;
+    private int completedTopics;
+    private Date lastCompletionDate; // Latest completionDate among the topics
+    private Date progressWeek; // Start of the week completedThisWeek counts in, as of the last topic change
+    private int completedThisWeek;
 
     // Default constructor
     public LearningPlan() {
@@ -31,7 +49,7 @@ public class LearningPlan {
     }
 
     // Constructor
-    public LearningPlan(String title, String description, List<Topic> topics, User user) {
+    public LearningPlan(String title, String description, List<Topic> topics, AuthorSnapshot user) {
         this.title = title;
         this.description = description;
         this.topics = topics != null ? topics : new ArrayList<>();
@@ -73,11 +91,11 @@ public class LearningPlan {
         this.topics = topics;
     }
 
-    public User getUser() {
+    public AuthorSnapshot getUser() {
         return user;
     }
 
-    public void setUser(User user) {
+    public void setUser(AuthorSnapshot user) {
         this.user = user;
     }
 
@@ -110,14 +128,93 @@ public class LearningPlan {
         this.completionDate = completionDate;
     }
 
+    public int getTotalTopics() {
+        return totalTopics;
+    }
+
+    public void setTotalTopics(int totalTopics) {
+        this.totalTopics = totalTopics;
+    }
+
+    public int getCompletedTopics() {
+        return completedTopics;
+    }
+
+    public void setCompletedTopics(int completedTopics) {
+        this.completedTopics = completedTopics;
+    }
+
+    public Date getLastCompletionDate() {
+        return lastCompletionDate;
+    }
+
+    public void setLastCompletionDate(Date lastCompletionDate) {
+        this.lastCompletionDate = lastCompletionDate;
+    }
+
+    public Date getProgressWeek() {
+        return progressWeek;
+    }
+
+    public void setProgressWeek(Date progressWeek) {
+        this.progressWeek = progressWeek;
+    }
+
+    public int getCompletedThisWeek() {
+        return completedThisWeek;
+    }
+
+    public void setCompletedThisWeek(int completedThisWeek) {
+        this.completedThisWeek = completedThisWeek;
+    }
+
+    // Recounts the progress counters from the topics, for writes that replace the whole list
+    public void countProgress(Date now) {
+        Date week = weekOf(now);
+        totalTopics = topics != null ? topics.size() : 0;
+        completedTopics = 0;
+        completedThisWeek = 0;
+        lastCompletionDate = null;
+        for (Topic topic : topics != null ? topics : List.<Topic>of()) {
+            if (!topic.isCompleted()) {
+                continue;
+            }
+            completedTopics++;
+            Date date = topic.getCompletionDate();
+            if (date != null && !date.before(week)) {
+                completedThisWeek++;
+            }
+            if (date != null && (lastCompletionDate == null || date.after(lastCompletionDate))) {
+                lastCompletionDate = date;
+            }
+        }
+        progressWeek = week;
+    }
+
+    // Monday 00:00 UTC of the week the date falls in
+    public static Date weekOf(Date date) {
+        return Date.from(date.toInstant().atOffset(ZoneOffset.UTC).truncatedTo(ChronoUnit.DAYS)
+                .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).toInstant());
+    }
+
     // Embedded Topic class
     public static class Topic {
+        // By order key, then id; topics from before order keys (no key) come first in their array order
+        public static final Comparator<Topic> IN_ORDER = (a, b) -> {
+            if (a.order == null || b.order == null) {
+                return a.order == null ? (b.order == null ? 0 : -1) : 1;
+            }
+            int byOrder = a.order.compareTo(b.order);
+            return byOrder != 0 ? byOrder : Comparator.nullsFirst(Comparator.<String>naturalOrder()).compare(a.id, b.id);
+        };
+
         private String id;
         private String title;
         private String description;
         private List<String> resources;
         private boolean completed;
         private Date completionDate;
+        private String order; // Fractional key (OrderKeys); the array itself is not kept in order
 
         // Default constructor
         public Topic() {
@@ -188,6 +285,14 @@ public class LearningPlan {
         public void setCompletionDate(Date completionDate) {
             this.completionDate = completionDate;
         }
+
+        public String getOrder() {
+            return order;
+        }
+
+        public void setOrder(String order) {
+            this.order = order;
+        }
     }
 }
 
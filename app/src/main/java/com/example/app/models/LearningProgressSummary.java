@@ -0,0 +1,72 @@
+package com.example.app.models;
+
+import java.util.Date;
+
+// A user's progress across all of their learning plans, summed from the plans' progress counters
+public class LearningProgressSummary {
+
+    private long plans;
+    private long completedPlans;
+    private long totalTopics;
+    private long completedTopics;
+    private long topicsCompletedThisWeek;
+    private Date lastCompletionDate;
+
+    // Getters and Setters
+    public long getPlans() {
+        return plans;
+    }
+
+    public void setPlans(long plans) {
+        this.plans = plans;
+    }
+
+    public long getCompletedPlans() {
+        return completedPlans;
+    }
+
+    public void setCompletedPlans(long completedPlans) {
+        this.completedPlans = completedPlans;
+    }
+
+    public long getPlansInProgress() {
+        return plans - completedPlans;
+    }
+
+    public long getTotalTopics() {
+        return totalTopics;
+    }
+
+    public void setTotalTopics(long totalTopics) {
+        this.totalTopics = totalTopics;
+    }
+
+    public long getCompletedTopics() {
+        return completedTopics;
+    }
+
+    public void setCompletedTopics(long completedTopics) {
+        this.completedTopics = completedTopics;
+    }
+
+    // Share of all topics completed, 0 to 100
+    public double getCompletionPercent() {
+        return totalTopics == 0 ? 0 : 100.0 * completedTopics / totalTopics;
+    }
+
+    public long getTopicsCompletedThisWeek() {
+        return topicsCompletedThisWeek;
+    }
+
+    public void setTopicsCompletedThisWeek(long topicsCompletedThisWeek) {
+        this.topicsCompletedThisWeek = topicsCompletedThisWeek;
+    }
+
+    public Date getLastCompletionDate() {
+        return lastCompletionDate;
+    }
+
+    public void setLastCompletionDate(Date lastCompletionDate) {
+        this.lastCompletionDate = lastCompletionDate;
+    }
+}
@@ -1,22 +1,28 @@
 package com.example.app.models;
 
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.mapping.DBRef;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
 
 @Document(collection = "likes")
+@CompoundIndexes({
+        @CompoundIndex(name = "postId_createdAt_id", def = "{'postId': 1, 'createdAt': -1, '_id': -1}"),
+        // A user's recent likes, read to build their feed affinity
+        @CompoundIndex(name = "userId_createdAt", def = "{'userId': 1, 'createdAt': -1}"),
+        // The (user, post) upsert matches on exactly this index
+        @CompoundIndex(name = "userId_postId", def = "{'userId': 1, 'postId': 1}", unique = true)
+})
 public class Like {
 
     @Id
     private String id;
 
-    @DBRef
-    private User user;
+    private String userId;
 
-    @DBRef
-    private Post post;
+    private String postId;
 
     private Date createdAt;
 
@@ -24,9 +30,9 @@ public class Like {
     public Like() {}
 
     // Constructor
-    public Like(User user, Post post) {
-        this.user = user;
-        this.post = post;
+    public Like(String userId, String postId) {
+        this.userId = userId;
+        this.postId = postId;
         this.createdAt = new Date();
     }
 
@@ -39,20 +45,20 @@ public class Like {
         this.id = id;
     }
 
-    public User getUser() {
-        return user;
+    public String getUserId() {
+        return userId;
     }
 
-    public void setUser(User user) {
-        this.user = user;
+    public void setUserId(String userId) {
+        this.userId = userId;
     }
 
-    public Post getPost() {
-        return post;
+    public String getPostId() {
+        return postId;
     }
 
-    public void setPost(Post post) {
-        this.post = post;
+    public void setPostId(String postId) {
+        this.postId = postId;
     }
 
     public Date getCreatedAt() {
@@ -0,0 +1,167 @@
+package com.example.app.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fractional order keys: strings that sort in the intended order, where a key can always be made
+ * between two others, so moving an item only rewrites that item's key. A key is an integer part (a
+ * head character giving its length, then base-62 digits) followed by an optional fraction that
+ * never ends in '0'. Appending bumps the integer, which keeps keys short however many items are
+ * added at the end; inserting between two neighbours extends the fraction. Digits are ASCII
+ * ordered, so keys compare the same in Java and in MongoDB.
+ */
+public final class OrderKeys {
+
+    private static final String DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    private static final int BASE = DIGITS.length();
+    private static final String SMALLEST_INTEGER = "A" + "0".repeat(26);
+    private static final String FIRST = "a0";
+
+    private OrderKeys() {}
+
+    /** A key after before and ahead of after; either may be null for the start or end of the list. */
+    public static String between(String before, String after) {
+        if (before != null && after != null && before.compareTo(after) >= 0) {
+            throw new IllegalArgumentException(before + " is not before " + after);
+        }
+        if (before == null && after == null) {
+            return FIRST;
+        }
+        if (before == null) {
+            String integer = integerPart(after);
+            String fraction = after.substring(integer.length());
+            if (integer.equals(SMALLEST_INTEGER)) {
+                return integer + midpoint("", fraction);
+            }
+            if (integer.compareTo(after) < 0) {
+                return integer;
+            }
+            String decremented = decrement(integer);
+            if (decremented == null) {
+                throw new IllegalArgumentException("Cannot go before " + after);
+            }
+            return decremented;
+        }
+        String integer = integerPart(before);
+        String fraction = before.substring(integer.length());
+        if (after == null) {
+            String incremented = increment(integer);
+            return incremented != null ? incremented : integer + midpoint(fraction, null);
+        }
+        String afterInteger = integerPart(after);
+        if (integer.equals(afterInteger)) {
+            return integer + midpoint(fraction, after.substring(afterInteger.length()));
+        }
+        String incremented = increment(integer);
+        if (incremented == null) {
+            throw new IllegalArgumentException("Cannot go after " + before);
+        }
+        return incremented.compareTo(after) < 0 ? incremented : integer + midpoint(fraction, null);
+    }
+
+    /** count ascending keys after before and ahead of after, e.g. for items moved or added together. */
+    public static List<String> between(String before, String after, int count) {
+        List<String> keys = new ArrayList<>(count);
+        String previous = before;
+        for (int i = 0; i < count; i++) {
+            previous = between(previous, after);
+            keys.add(previous);
+        }
+        return keys;
+    }
+
+    // Fraction strictly between a and b (b null for the end), neither ending in '0'
+    private static String midpoint(String a, String b) {
+        if (b != null) {
+            int common = 0;
+            while (common < b.length() && (common < a.length() ? a.charAt(common) : '0') == b.charAt(common)) {
+                common++;
+            }
+            if (common > 0) {
+                return b.substring(0, common) + midpoint(a.substring(Math.min(common, a.length())), b.substring(common));
+            }
+        }
+        int digitA = a.isEmpty() ? 0 : DIGITS.indexOf(a.charAt(0));
+        int digitB = b != null ? DIGITS.indexOf(b.charAt(0)) : BASE;
+        if (digitB - digitA > 1) {
+            return String.valueOf(DIGITS.charAt((digitA + digitB + 1) / 2));
+        }
+        if (b != null && b.length() > 1) {
+            return b.substring(0, 1);
+        }
+        return DIGITS.charAt(digitA) + midpoint(a.isEmpty() ? "" : a.substring(1), null);
+    }
+
+    private static String integerPart(String key) {
+        int length = integerLength(key.charAt(0));
+        if (length > key.length()) {
+            throw new IllegalArgumentException("Invalid order key " + key);
+        }
+        return key.substring(0, length);
+    }
+
+    // 'a'..'z' head non-negative integers of 1..26 digits, 'Z'..'A' negative ones
+    private static int integerLength(char head) {
+        if (head >= 'a' && head <= 'z') {
+            return head - 'a' + 2;
+        }
+        if (head >= 'A' && head <= 'Z') {
+            return 'Z' - head + 2;
+        }
+        throw new IllegalArgumentException("Invalid order key head " + head);
+    }
+
+    private static String increment(String integer) {
+        char head = integer.charAt(0);
+        StringBuilder digits = new StringBuilder(integer.substring(1));
+        for (int i = digits.length() - 1; i >= 0; i--) {
+            int digit = DIGITS.indexOf(digits.charAt(i)) + 1;
+            if (digit < BASE) {
+                digits.setCharAt(i, DIGITS.charAt(digit));
+                return head + digits.toString();
+            }
+            digits.setCharAt(i, '0');
+        }
+        // Carried out of every digit: one more digit, or from the negatives to zero
+        if (head == 'Z') {
+            return FIRST;
+        }
+        if (head == 'z') {
+            return null;
+        }
+        char next = (char) (head + 1);
+        if (next > 'a') {
+            digits.append('0');
+        } else {
+            digits.setLength(digits.length() - 1);
+        }
+        return next + digits.toString();
+    }
+
+    private static String decrement(String integer) {
+        char head = integer.charAt(0);
+        StringBuilder digits = new StringBuilder(integer.substring(1));
+        for (int i = digits.length() - 1; i >= 0; i--) {
+            int digit = DIGITS.indexOf(digits.charAt(i)) - 1;
+            if (digit >= 0) {
+                digits.setCharAt(i, DIGITS.charAt(digit));
+                return head + digits.toString();
+            }
+            digits.setCharAt(i, DIGITS.charAt(BASE - 1));
+        }
+        if (head == 'a') {
+            return "Z" + DIGITS.charAt(BASE - 1);
+        }
+        if (head == 'A') {
+            return null;
+        }
+        char previous = (char) (head - 1);
+        if (previous < 'Z') {
+            digits.append(DIGITS.charAt(BASE - 1));
+        } else {
+            digits.setLength(digits.length() - 1);
+        }
+        return previous + digits.toString();
+    }
+}
@@ -1,29 +1,57 @@
 package com.example.app.models;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonView;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.mapping.DBRef;
+import org.springframework.data.annotation.ReadOnlyProperty;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
 import java.util.List;
 
 @Document(collection = "posts")
+@CompoundIndexes({
+        @CompoundIndex(name = "createdAt_id", def = "{'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "author_createdAt_id", def = "{'user._id': 1, 'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "tags_createdAt_id", def = "{'tags': 1, 'createdAt': -1, '_id': -1}")
+})
 public class Post {
 
     @Id
+    @JsonView(Views.Summary.class)
     private String id;
 
+    @JsonView(Views.Summary.class)
     private String title;
+    @JsonView(Views.Detail.class)
     private String content;
+    @JsonView(Views.Summary.class)
     private List<String> mediaUrls; // URLs of the media files
+    @JsonView(Views.Summary.class)
     private List<String> fileTypes; // Types of the media files (e.g., "image", "video")
+    @JsonView(Views.Summary.class)
     private List<String> tags; // Tags for categorization
 
-    @DBRef
-    private User user; // Reference to the User document
+    // Start of the content, computed by the list projection (ListProjections.postSummary) and never stored
+    @ReadOnlyProperty
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonView(Views.Summary.class)
+    private String excerpt;
 
+    @JsonView(Views.Summary.class)
+    private AuthorSnapshot user; // Embedded author snapshot, refreshed on profile changes
+
+    @JsonView(Views.Summary.class)
     private Date createdAt; // Timestamp for when the post was created
 
+    // Denormalized counters, maintained with atomic $inc by the like and comment services
+    @JsonView(Views.Summary.class)
+    private long likeCount;
+    @JsonView(Views.Summary.class)
+    private long commentCount;
+
     // Getters and Setters
     public String getId() {
         return id;
@@ -49,6 +77,14 @@ public class Post {
         this.content = content;
     }
 
+    public String getExcerpt() {
+        return excerpt;
+    }
+
+    public void setExcerpt(String excerpt) {
+        this.excerpt = excerpt;
+    }
+
     public List<String> getMediaUrls() {
         return mediaUrls;
     }
@@ -73,11 +109,11 @@ public class Post {
         this.tags = tags;
     }
 
-    public User getUser() {
+    public AuthorSnapshot getUser() {
         return user;
     }
 
-    public void setUser(User user) {
+    public void setUser(AuthorSnapshot user) {
         this.user = user;
     }
 
@@ -88,4 +124,20 @@ public class Post {
     public void setCreatedAt(Date createdAt) {
         this.createdAt = createdAt;
     }
+
+    public long getLikeCount() {
+        return likeCount;
+    }
+
+    public void setLikeCount(long likeCount) {
+        this.likeCount = likeCount;
+    }
+
+    public long getCommentCount() {
+        return commentCount;
+    }
+
+    public void setCommentCount(long commentCount) {
+        this.commentCount = commentCount;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,65 @@
+package com.example.app.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Engagement summary for one post, returned in batches for a page of posts
+public class PostEngagement {
+
+    private String postId;
+    private long likeCount;
+    private long commentCount;
+    private boolean likedByMe;
+    private List<Comment> latestComments = new ArrayList<>();
+
+    // Default constructor
+    public PostEngagement() {}
+
+    // Constructor
+    public PostEngagement(String postId, long likeCount, long commentCount) {
+        this.postId = postId;
+        this.likeCount = likeCount;
+        this.commentCount = commentCount;
+    }
+
+    // Getters and Setters
+    public String getPostId() {
+        return postId;
+    }
+
+    public void setPostId(String postId) {
+        this.postId = postId;
+    }
+
+    public long getLikeCount() {
+        return likeCount;
+    }
+
+    public void setLikeCount(long likeCount) {
+        this.likeCount = likeCount;
+    }
+
+    public long getCommentCount() {
+        return commentCount;
+    }
+
+    public void setCommentCount(long commentCount) {
+        this.commentCount = commentCount;
+    }
+
+    public boolean isLikedByMe() {
+        return likedByMe;
+    }
+
+    public void setLikedByMe(boolean likedByMe) {
+        this.likedByMe = likedByMe;
+    }
+
+    public List<Comment> getLatestComments() {
+        return latestComments;
+    }
+
+    public void setLatestComments(List<Comment> latestComments) {
+        this.latestComments = latestComments;
+    }
+}
@@ -1,22 +1,24 @@
 package com.example.app.models;
 
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.mapping.DBRef;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
 
 @Document(collection = "progress_updates")
+@CompoundIndex(name = "author_createdAt_id", def = "{'user._id': 1, 'createdAt': -1, '_id': -1}")
 public class ProgressUpdate {
 
     @Id
     private String id;
     private String content;
     private String templateType;
-    @DBRef
-    private User user;
-    @DBRef
-    private LearningPlan learningPlan;
+    private AuthorSnapshot user; // Embedded author snapshot, refreshed on profile changes
+    @Indexed
+    private String learningPlanId;
+    private String learningPlanTitle; // Copied from the plan, refreshed when the plan is renamed
     private Date createdAt;
 
     // Default constructor
@@ -25,11 +27,11 @@ public class ProgressUpdate {
     }
 
     // Constructor
-    public ProgressUpdate(String content, String templateType, User user, LearningPlan learningPlan) {
+    public ProgressUpdate(String content, String templateType, AuthorSnapshot user, LearningPlan learningPlan) {
         this.content = content;
         this.templateType = templateType;
         this.user = user;
-        this.learningPlan = learningPlan;
+        setLearningPlan(learningPlan);
         this.createdAt = new Date();
     }
 
@@ -58,20 +60,34 @@ public class ProgressUpdate {
         this.templateType = templateType;
     }
 
-    public User getUser() {
+    public AuthorSnapshot getUser() {
         return user;
     }
 
-    public void setUser(User user) {
+    public void setUser(AuthorSnapshot user) {
         this.user = user;
     }
 
-    public LearningPlan getLearningPlan() {
-        return learningPlan;
+    public String getLearningPlanId() {
+        return learningPlanId;
     }
 
-    public void setLearningPlan(LearningPlan learningPlan) {
-        this.learningPlan = learningPlan;
+    public void setLearningPlanId(String learningPlanId) {
+        this.learningPlanId = learningPlanId;
+    }
+
+    public String getLearningPlanTitle() {
+        return learningPlanTitle;
+    }
+
+    public void setLearningPlanTitle(String learningPlanTitle) {
+        this.learningPlanTitle = learningPlanTitle;
+    }
+
+    // Links (or with null, unlinks) a learning plan by id and title; final, as the constructor calls it
+    public final void setLearningPlan(LearningPlan learningPlan) {
+        this.learningPlanId = learningPlan != null ? learningPlan.getId() : null;
+        this.learningPlanTitle = learningPlan != null ? learningPlan.getTitle() : null;
     }
 
     public Date getCreatedAt() {
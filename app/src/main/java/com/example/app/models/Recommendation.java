@@ -0,0 +1,63 @@
+package com.example.app.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// One "people you may know" candidate and why it was suggested
+public class Recommendation {
+
+    private String userId;
+    private double score;
+    private long mutualCount; // Accounts the viewer follows that follow this user
+    private List<String> sharedTags = new ArrayList<>();
+    private List<String> sharedTopics = new ArrayList<>();
+
+    // Default constructor
+    public Recommendation() {}
+
+    // Constructor
+    public Recommendation(String userId) {
+        this.userId = userId;
+    }
+
+    // Getters and Setters
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+
+    public long getMutualCount() {
+        return mutualCount;
+    }
+
+    public void setMutualCount(long mutualCount) {
+        this.mutualCount = mutualCount;
+    }
+
+    public List<String> getSharedTags() {
+        return sharedTags;
+    }
+
+    public void setSharedTags(List<String> sharedTags) {
+        this.sharedTags = sharedTags;
+    }
+
+    public List<String> getSharedTopics() {
+        return sharedTopics;
+    }
+
+    public void setSharedTopics(List<String> sharedTopics) {
+        this.sharedTopics = sharedTopics;
+    }
+}
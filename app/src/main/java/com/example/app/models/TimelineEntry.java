@@ -0,0 +1,83 @@
+package com.example.app.models;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+// One post in one user's materialized home timeline, written by fan-out when the post is created
+@Document(collection = "timeline_entries")
+@CompoundIndexes({
+        @CompoundIndex(name = "owner_createdAt_post", def = "{'ownerId': 1, 'createdAt': -1, 'postId': -1}"),
+        @CompoundIndex(name = "owner_post", def = "{'ownerId': 1, 'postId': 1}", unique = true),
+        @CompoundIndex(name = "owner_author", def = "{'ownerId': 1, 'authorId': 1}")
+})
+public class TimelineEntry {
+
+    @Id
+    private String id;
+
+    private String ownerId; // User whose timeline this entry belongs to
+
+    @Indexed
+    private String postId;
+
+    private String authorId;
+
+    private Date createdAt; // Copied from the post so the timeline sorts like the posts collection
+
+    // Default constructor
+    public TimelineEntry() {}
+
+    // Constructor
+    public TimelineEntry(String ownerId, String postId, String authorId, Date createdAt) {
+        this.ownerId = ownerId;
+        this.postId = postId;
+        this.authorId = authorId;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getOwnerId() {
+        return ownerId;
+    }
+
+    public void setOwnerId(String ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    public String getPostId() {
+        return postId;
+    }
+
+    public void setPostId(String postId) {
+        this.postId = postId;
+    }
+
+    public String getAuthorId() {
+        return authorId;
+    }
+
+    public void setAuthorId(String authorId) {
+        this.authorId = authorId;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.app.models;
+
+import java.util.List;
+
+// Body of a bulk topic request: one action applied to a set of topics of one plan
+public class TopicBulkOperation {
+
+    private String action; // complete, uncomplete, delete or move
+    private List<String> topicIds;
+    private String after; // move: the topic the moved ones land after, none for the start of the plan
+    private String before; // move: the topic they land before, none for the end
+
+    // Getters and Setters
+    public String getAction() {
+        return action;
+    }
+
+    public void setAction(String action) {
+        this.action = action;
+    }
+
+    public List<String> getTopicIds() {
+        return topicIds;
+    }
+
+    public void setTopicIds(List<String> topicIds) {
+        this.topicIds = topicIds;
+    }
+
+    public String getAfter() {
+        return after;
+    }
+
+    public void setAfter(String after) {
+        this.after = after;
+    }
+
+    public String getBefore() {
+        return before;
+    }
+
+    public void setBefore(String before) {
+        this.before = before;
+    }
+}
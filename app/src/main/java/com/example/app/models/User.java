@@ -1,12 +1,10 @@
 package com.example.app.models;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.IndexDirection;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
-import java.util.ArrayList;
-import java.util.List;
-
 @Document(collection = "users")
 public class User {
     @Id
@@ -19,8 +17,11 @@ public class User {
     private String pictureUrl;
     private String provider; // "google", "facebook", etc.
     private String providerId;
-    private List<String> followers = new ArrayList<>();
-    private List<String> following = new ArrayList<>();
+
+    // Maintained alongside the follows collection; the edges themselves live there
+    @Indexed(direction = IndexDirection.DESCENDING)
+    private long followerCount;
+    private long followingCount;
 
     // Default constructor
     public User() {}
@@ -32,8 +33,6 @@ public class User {
         this.pictureUrl = pictureUrl;
         this.provider = provider;
         this.providerId = providerId;
-        this.followers = new ArrayList<>();
-        this.following = new ArrayList<>();
     }
 
     // Getters and setters
@@ -85,19 +84,19 @@ public class User {
         this.providerId = providerId;
     }
 
-    public List<String> getFollowers() {
-        return followers;
+    public long getFollowerCount() {
+        return followerCount;
     }
 
-    public void setFollowers(List<String> followers) {
-        this.followers = followers;
+    public void setFollowerCount(long followerCount) {
+        this.followerCount = followerCount;
     }
 
-    public List<String> getFollowing() {
-        return following;
+    public long getFollowingCount() {
+        return followingCount;
     }
 
-    public void setFollowing(List<String> following) {
-        this.following = following;
+    public void setFollowingCount(long followingCount) {
+        this.followingCount = followingCount;
     }
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+package com.example.app.models;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// A user's activity (progress updates posted, topics completed) counted per UTC day, one document per user
+@Document(collection = "user_activity")
+public class UserActivity {
+
+    @Id
+    private String id; // The user's id
+    private Map<String, Map<String, Integer>> years = new HashMap<>(); // "2026" -> "10-18" -> events that day
+    private long total;
+    private Long lastActiveDay; // Epoch day of the latest event
+    private int currentStreak; // Consecutive active days up to lastActiveDay
+    private int longestStreak;
+    private boolean backfilled; // History from before activity was recorded has been added
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Map<String, Map<String, Integer>> getYears() {
+        return years;
+    }
+
+    public void setYears(Map<String, Map<String, Integer>> years) {
+        this.years = years;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public Long getLastActiveDay() {
+        return lastActiveDay;
+    }
+
+    public void setLastActiveDay(Long lastActiveDay) {
+        this.lastActiveDay = lastActiveDay;
+    }
+
+    public int getCurrentStreak() {
+        return currentStreak;
+    }
+
+    public void setCurrentStreak(int currentStreak) {
+        this.currentStreak = currentStreak;
+    }
+
+    public int getLongestStreak() {
+        return longestStreak;
+    }
+
+    public void setLongestStreak(int longestStreak) {
+        this.longestStreak = longestStreak;
+    }
+
+    public boolean isBackfilled() {
+        return backfilled;
+    }
+
+    public void setBackfilled(boolean backfilled) {
+        this.backfilled = backfilled;
+    }
+}
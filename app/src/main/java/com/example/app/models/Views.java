@@ -0,0 +1,11 @@
+package com.example.app.models;
+
+// Jackson views: list endpoints serialize Summary, single-document endpoints everything
+public final class Views {
+
+    public interface Summary {}
+
+    public interface Detail extends Summary {}
+
+    private Views() {}
+}
@@ -0,0 +1,49 @@
+package com.example.app.pagination;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is an opaque token that
+ * resumes the listing after the last item, or {@code null} when there are no more items.
+ */
+public class CursorPage<T> {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    // The body stays a plain JSON array so existing clients keep working; the cursor travels in a header
+    public ResponseEntity<List<T>> toResponseEntity() {
+        return toResponseEntity(Function.identity());
+    }
+
+    // Same headers, with the items turned into another body, e.g. pre-encoded JSON
+    public <B> ResponseEntity<B> toResponseEntity(Function<List<T>, B> body) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nextCursor != null) {
+            response.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return response.body(body.apply(items));
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.app.pagination;
+
+import com.example.app.exceptions.BadRequestException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Field;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Keyset pagination over (createdAt, _id). Each page is a single indexed range scan of
+ * {@code limit + 1} documents, so the cost of a page does not depend on how deep into the
+ * collection the cursor points, unlike skip/offset paging. Collections whose rows stand in for
+ * another document (e.g. timeline entries for posts) can break ties on a different property so
+ * their cursors line up with the source collection. An optional projection narrows the fields
+ * read for list views; the cursor fields are always kept.
+ */
+@Component
+public class KeysetPager {
+
+    private static final String CREATED_AT = "createdAt";
+    private static final String ID = "id";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.pagination.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${app.pagination.max-size:100}")
+    private int maxPageSize;
+
+    public <T> CursorPage<T> page(Class<T> type, Criteria criteria, String cursor, Integer limit,
+                                  Sort.Direction direction, String tieBreaker, Consumer<Field> projection) {
+        int pageSize = resolvePageSize(limit);
+
+        Query query = new Query();
+        Criteria keyset = cursor != null && !cursor.isEmpty()
+                ? keysetCriteria(decode(cursor), direction, tieBreaker) : null;
+        if (criteria != null && keyset != null) {
+            query.addCriteria(new Criteria().andOperator(criteria, keyset));
+        } else if (criteria != null) {
+            query.addCriteria(criteria);
+        } else if (keyset != null) {
+            query.addCriteria(keyset);
+        }
+        query.with(Sort.by(direction, CREATED_AT, tieBreaker));
+        query.limit(pageSize + 1);
+        if (projection != null) {
+            projection.accept(query.fields());
+            query.fields().include(CREATED_AT, tieBreaker);
+        }
+
+        List<T> results = mongoTemplate.find(query, type);
+        if (results.size() <= pageSize) {
+            return new CursorPage<>(results, null);
+        }
+        List<T> items = results.subList(0, pageSize);
+        return new CursorPage<>(items, cursorAfter(type, items.get(pageSize - 1), tieBreaker));
+    }
+
+    public <T> CursorPage<T> page(Class<T> type, Criteria criteria, String cursor, Integer limit,
+                                  Sort.Direction direction, String tieBreaker) {
+        return page(type, criteria, cursor, limit, direction, tieBreaker, null);
+    }
+
+    public <T> CursorPage<T> page(Class<T> type, Criteria criteria, String cursor, Integer limit,
+                                  Sort.Direction direction) {
+        return page(type, criteria, cursor, limit, direction, ID);
+    }
+
+    // Newest first, the order every feed-like listing uses
+    public <T> CursorPage<T> page(Class<T> type, Criteria criteria, String cursor, Integer limit) {
+        return page(type, criteria, cursor, limit, Sort.Direction.DESC);
+    }
+
+    public <T> CursorPage<T> page(Class<T> type, Criteria criteria, String cursor, Integer limit,
+                                  Consumer<Field> projection) {
+        return page(type, criteria, cursor, limit, Sort.Direction.DESC, ID, projection);
+    }
+
+    public int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        if (limit < 1) {
+            throw new BadRequestException("Page size must be positive");
+        }
+        return Math.min(limit, maxPageSize);
+    }
+
+    private Criteria keysetCriteria(Position position, Sort.Direction direction, String tieBreaker) {
+        if (direction.isDescending()) {
+            return new Criteria().orOperator(
+                    Criteria.where(CREATED_AT).lt(position.createdAt),
+                    new Criteria().andOperator(
+                            Criteria.where(CREATED_AT).is(position.createdAt),
+                            Criteria.where(tieBreaker).lt(position.id)));
+        }
+        return new Criteria().orOperator(
+                Criteria.where(CREATED_AT).gt(position.createdAt),
+                new Criteria().andOperator(
+                        Criteria.where(CREATED_AT).is(position.createdAt),
+                        Criteria.where(tieBreaker).gt(position.id)));
+    }
+
+    // Cursor that resumes a listing right after the given document
+    public <T> String cursorAfter(Class<T> type, T last) {
+        return cursorAfter(type, last, ID);
+    }
+
+    public <T> String cursorAfter(Class<T> type, T last, String tieBreaker) {
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(type);
+        PersistentPropertyAccessor<T> accessor = entity.getPropertyAccessor(last);
+        Date createdAt = (Date) accessor.getProperty(entity.getRequiredPersistentProperty(CREATED_AT));
+        Object id = accessor.getProperty(entity.getRequiredPersistentProperty(tieBreaker));
+        return cursorAt(createdAt, String.valueOf(id));
+    }
+
+    public String cursorAt(Date createdAt, String id) {
+        return encode(new Position(createdAt, id));
+    }
+
+    // Position a cursor points at, for listings that are paged outside MongoDB
+    public Position parseCursor(String cursor) {
+        return decode(cursor);
+    }
+
+    static String encode(Position position) {
+        String raw = position.createdAt.getTime() + ":" + position.id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Position decode(String cursor) {
+        String raw;
+        long createdAt;
+        int separator;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            separator = raw.indexOf(':');
+            createdAt = Long.parseLong(raw.substring(0, Math.max(separator, 0)));
+        } catch (IllegalArgumentException e) {
+            // Malformed Base64 or a non-numeric timestamp (NumberFormatException)
+            throw new BadRequestException("Invalid cursor", e);
+        }
+        if (separator == raw.length() - 1) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        return new Position(new Date(createdAt), raw.substring(separator + 1));
+    }
+
+    public static final class Position {
+        final Date createdAt;
+        final String id;
+
+        Position(Date createdAt, String id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+
+        public Date getCreatedAt() {
+            return createdAt;
+        }
+
+        public String getId() {
+            return id;
+        }
+    }
+}
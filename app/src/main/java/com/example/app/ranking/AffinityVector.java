@@ -0,0 +1,63 @@
+package com.example.app.ranking;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * How much one user engages with each author (likes and comments given, weighted) and which tags
+ * their learning plans are about. Immutable: an update returns a new vector, so the ranker can read
+ * one while a like event replaces it. Authors beyond the cap are dropped weakest first.
+ */
+public final class AffinityVector {
+
+    public static final AffinityVector EMPTY = new AffinityVector(Map.of(), Map.of());
+
+    private static final int MAX_AUTHORS = 500;
+
+    private final Map<String, Double> authors;
+    private final Map<String, Double> tags;
+
+    public AffinityVector(Map<String, Double> authors, Map<String, Double> tags) {
+        this.authors = Map.copyOf(authors);
+        this.tags = Map.copyOf(tags);
+    }
+
+    public double author(String authorId) {
+        return authorId != null ? authors.getOrDefault(authorId, 0.0) : 0.0;
+    }
+
+    public double tag(String tag) {
+        return tags.getOrDefault(tag, 0.0);
+    }
+
+    public boolean hasTags() {
+        return !tags.isEmpty();
+    }
+
+    public AffinityVector withAuthor(String authorId, double weight) {
+        Map<String, Double> updated = new HashMap<>(authors);
+        updated.merge(authorId, weight, Double::sum);
+        if (updated.size() > MAX_AUTHORS) {
+            updated.entrySet().stream()
+                    .filter(entry -> !entry.getKey().equals(authorId))
+                    .min(Map.Entry.comparingByValue())
+                    .ifPresent(weakest -> updated.remove(weakest.getKey()));
+        }
+        return new AffinityVector(updated, tags);
+    }
+
+    // Strongest tags first, for finding candidates outside the follow graph
+    public List<String> topTags(int limit) {
+        return tags.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue(Comparator.reverseOrder()).thenComparing(Map.Entry::getKey))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    public int authorCount() {
+        return authors.size();
+    }
+}
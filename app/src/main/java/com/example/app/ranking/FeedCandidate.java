@@ -0,0 +1,8 @@
+package com.example.app.ranking;
+
+import java.util.List;
+
+/** What the ranker needs to know about a post; tags are normalized. */
+public record FeedCandidate(String postId, String authorId, long createdAt, long likeCount, long commentCount,
+                            List<String> tags) {
+}
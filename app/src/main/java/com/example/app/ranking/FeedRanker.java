@@ -0,0 +1,100 @@
+package com.example.app.ranking;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Scores feed candidates for one viewer and keeps the best K. A score is recency times a sum of
+ * boosts:
+ *
+ *   e^(-ln 2 age / halfLife) x (1 + engagement x ln(1 + likes + 2 comments)
+ *                                  + author x a / (a + 1) + tag x t / (t + 1))
+ *
+ * where a is the viewer's affinity with the author and t the summed affinity with the post's tags,
+ * both saturating so a single favourite cannot crowd out everything else. Sources are read round
+ * robin into one bounded min-heap, skipping posts already seen in another source, so memory is
+ * O(K) however many candidates there are. Scoring stops at the deadline with the best found so far,
+ * and since sources are interleaved a cut-off costs every source alike.
+ */
+public class FeedRanker {
+
+    private static final double LN2 = Math.log(2);
+    // How often the clock is read; nanoTime costs about as much as scoring a candidate
+    private static final int DEADLINE_CHECK_EVERY = 256;
+
+    private static final Comparator<Scored> BY_SCORE =
+            Comparator.comparingDouble(Scored::score).thenComparing(scored -> scored.candidate().postId());
+
+    private final Weights weights;
+
+    public FeedRanker(Weights weights) {
+        this.weights = weights;
+    }
+
+    public Result rank(List<List<FeedCandidate>> sources, AffinityVector affinity, int limit, long now, long budgetNanos) {
+        long deadline = System.nanoTime() + budgetNanos;
+        PriorityQueue<Scored> best = new PriorityQueue<>(Math.max(1, limit + 1), BY_SCORE);
+        Set<String> seen = new HashSet<>();
+        int[] positions = new int[sources.size()];
+        int scored = 0;
+        boolean truncated = false;
+        boolean remaining = true;
+
+        while (remaining && !truncated) {
+            remaining = false;
+            for (int source = 0; source < sources.size(); source++) {
+                List<FeedCandidate> candidates = sources.get(source);
+                if (positions[source] >= candidates.size()) {
+                    continue;
+                }
+                remaining = true;
+                FeedCandidate candidate = candidates.get(positions[source]++);
+                if (!seen.add(candidate.postId())) {
+                    continue;
+                }
+                double score = score(candidate, affinity, now);
+                if (best.size() < limit) {
+                    best.add(new Scored(candidate, score));
+                } else if (limit > 0 && score > best.peek().score()) {
+                    best.poll();
+                    best.add(new Scored(candidate, score));
+                }
+                if (++scored % DEADLINE_CHECK_EVERY == 0 && System.nanoTime() > deadline) {
+                    truncated = true;
+                    break;
+                }
+            }
+        }
+
+        List<Scored> ranked = new ArrayList<>(best);
+        ranked.sort(BY_SCORE.reversed());
+        return new Result(ranked, scored, truncated);
+    }
+
+    public double score(FeedCandidate candidate, AffinityVector affinity, long now) {
+        double age = Math.max(0, now - candidate.createdAt());
+        double recency = Math.exp(-LN2 * age / weights.halfLifeMillis());
+        double engagement = Math.log(1 + candidate.likeCount() + 2.0 * candidate.commentCount()); // log is an intrinsic, log1p is not
+        double author = affinity.author(candidate.authorId());
+        double tag = 0;
+        if (candidate.tags() != null && affinity.hasTags()) {
+            for (String name : candidate.tags()) {
+                tag += affinity.tag(name);
+            }
+        }
+        return recency * (1 + weights.engagement() * engagement
+                + weights.author() * author / (author + 1)
+                + weights.tag() * tag / (tag + 1));
+    }
+
+    public record Weights(long halfLifeMillis, double engagement, double author, double tag) {}
+
+    public record Scored(FeedCandidate candidate, double score) {}
+
+    /** The best candidates, best first; truncated when the budget ran out before every candidate was scored. */
+    public record Result(List<Scored> ranked, int scored, boolean truncated) {}
+}
@@ -0,0 +1,133 @@
+package com.example.app.repositories;
+
+import com.example.app.models.UserActivity;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * One-off backfill of user_activity from the history recorded before it: progress updates by
+ * their creation day and completed topics by their completion day, counted per user and UTC day
+ * in one aggregation and streamed a user at a time. The history covers everything recording has
+ * counted since (bar topics reopened in between), so a user's counts and streaks are replaced
+ * rather than added to. Users already backfilled are skipped, so an interrupted run resumes; a
+ * marker in the migrations collection makes later startups a no-op.
+ */
+@Component
+public class ActivityMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActivityMigration.class);
+
+    private static final String MIGRATIONS = "migrations";
+    private static final String MARKER = "activity-backfill";
+    private static final String DAY_FORMAT = "%Y-%m-%d";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    public void migrate() {
+        if (mongoTemplate.exists(new Query(Criteria.where("_id").is(MARKER)), MIGRATIONS)) {
+            return;
+        }
+        Set<String> done = new HashSet<>();
+        Query backfilled = new Query(Criteria.where("backfilled").is(true));
+        backfilled.fields().include("id");
+        mongoTemplate.find(backfilled, UserActivity.class).forEach(activity -> done.add(activity.getId()));
+
+        long migrated = 0;
+        String user = null;
+        TreeMap<LocalDate, Integer> days = new TreeMap<>();
+        try (Stream<Document> rows = mongoTemplate.aggregateStream(history(), "progress_updates", Document.class)) {
+            for (Document row : (Iterable<Document>) rows::iterator) {
+                Document key = row.get("_id", Document.class);
+                String rowUser = String.valueOf(key.get("user"));
+                if (!rowUser.equals(user)) {
+                    migrated += flush(user, days, done);
+                    user = rowUser;
+                    days.clear();
+                }
+                days.put(LocalDate.parse(key.getString("day")), ((Number) row.get("count")).intValue());
+            }
+        }
+        migrated += flush(user, days, done);
+        mongoTemplate.insert(new Document("_id", MARKER).append("completedAt", new Date()), MIGRATIONS);
+        if (migrated > 0) {
+            logger.info("Backfilled activity of {} users", migrated);
+        }
+    }
+
+    // (user, day) -> events, sorted by user then day
+    private static Aggregation history() {
+        Document completedTopics = new Document("coll", "learning_plans").append("pipeline", List.of(
+                new Document("$unwind", "$topics"),
+                new Document("$match", new Document("topics.completed", true)
+                        .append("topics.completionDate", new Document("$type", "date"))),
+                new Document("$project", new Document("_id", 0).append("user", "$user._id")
+                        .append("day", new Document("$dateToString", new Document("format", DAY_FORMAT)
+                                .append("date", "$topics.completionDate"))))));
+        return Aggregation.newAggregation(
+                Aggregation.stage(new Document("$match", new Document("createdAt", new Document("$type", "date")))),
+                Aggregation.stage(new Document("$project", new Document("_id", 0).append("user", "$user._id")
+                        .append("day", new Document("$dateToString", new Document("format", DAY_FORMAT)
+                                .append("date", "$createdAt"))))),
+                Aggregation.stage(new Document("$unionWith", completedTopics)),
+                Aggregation.stage(new Document("$match", new Document("user", new Document("$ne", null)))),
+                Aggregation.stage(new Document("$group", new Document("_id",
+                        new Document("user", "$user").append("day", "$day")).append("count", new Document("$sum", 1)))),
+                Aggregation.stage(new Document("$sort", new Document("_id.user", 1).append("_id.day", 1))))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+    }
+
+    private int flush(String userId, TreeMap<LocalDate, Integer> days, Set<String> done) {
+        if (userId == null || days.isEmpty() || done.contains(userId)) {
+            return 0;
+        }
+        Map<String, Map<String, Integer>> years = new HashMap<>();
+        long total = 0;
+        int current = 0;
+        int longest = 0;
+        LocalDate previous = null;
+        for (Map.Entry<LocalDate, Integer> day : days.entrySet()) {
+            LocalDate date = day.getKey();
+            years.computeIfAbsent(String.valueOf(date.getYear()), y -> new HashMap<>())
+                    .put(date.toString().substring(5), day.getValue());
+            total += day.getValue();
+            current = previous != null && previous.plusDays(1).equals(date) ? current + 1 : 1;
+            longest = Math.max(longest, current);
+            previous = date;
+        }
+        Update update = new Update()
+                .set("years", years)
+                .set("total", total)
+                .set("lastActiveDay", previous.toEpochDay())
+                .set("currentStreak", current)
+                .set("longestStreak", longest)
+                .set("backfilled", true);
+        try {
+            mongoTemplate.upsert(new Query(Criteria.where("id").is(userId).and("backfilled").ne(true)), update,
+                    UserActivity.class);
+        } catch (DuplicateKeyException e) {
+            return 0; // Backfilled meanwhile
+        }
+        return 1;
+    }
+}
@@ -1,8 +1,6 @@
 package com.example.app.repositories;
 
 import com.example.app.models.Comment;
-import com.example.app.models.Post;
-import com.example.app.models.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
@@ -10,7 +8,7 @@ import java.util.List;
 
 @Repository
 public interface CommentRepository extends MongoRepository<Comment, String> {
-    List<Comment> findByPost(Post post);
-    List<Comment> findByUser(User user);
-    void deleteByPost(Post post);
+    List<Comment> findByPostId(String postId);
+    List<Comment> findByUserId(String userId);
+    void deleteByPostId(String postId);
 }
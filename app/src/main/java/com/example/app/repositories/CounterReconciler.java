@@ -0,0 +1,99 @@
+package com.example.app.repositories;
+
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * The repair behind the denormalized counters (post likes and comments, user follows). Walks a
+ * collection in _id order a batch at a time, recounts each counter for the whole batch with one
+ * grouped count, and writes a fix only where the counters still hold the values read, so an $inc
+ * that lands while it runs is never overwritten.
+ */
+final class CounterReconciler {
+
+    private CounterReconciler() {}
+
+    /**
+     * @param counters counter field -> count of each document id in a batch (missing ids count 0)
+     * @param onRepaired called with the id of each repaired document once its fix is written
+     * @return the number of documents repaired
+     */
+    static long reconcile(MongoTemplate mongoTemplate, Class<?> type, int batchSize,
+                          Map<String, Function<List<String>, Map<String, Long>>> counters, Consumer<String> onRepaired) {
+        String collection = mongoTemplate.getCollectionName(type);
+        long repaired = 0;
+        Object lastId = null;
+        while (true) {
+            Query batchQuery = new Query();
+            if (lastId != null) {
+                batchQuery.addCriteria(Criteria.where("_id").gt(lastId));
+            }
+            batchQuery.with(Sort.by(Sort.Direction.ASC, "_id")).limit(batchSize);
+            counters.keySet().forEach(batchQuery.fields()::include);
+            List<Document> batch = mongoTemplate.find(batchQuery, Document.class, collection);
+            if (batch.isEmpty()) {
+                return repaired;
+            }
+
+            List<String> ids = new ArrayList<>(batch.size());
+            for (Document document : batch) {
+                ids.add(String.valueOf(document.get("_id")));
+            }
+            Map<String, Map<String, Long>> counts = new HashMap<>();
+            counters.forEach((field, count) -> counts.put(field, count.apply(ids)));
+
+            BulkOperations fixes = null;
+            List<String> fixed = new ArrayList<>();
+            for (Document document : batch) {
+                String id = String.valueOf(document.get("_id"));
+                List<Criteria> unchanged = new ArrayList<>();
+                unchanged.add(Criteria.where("_id").is(document.get("_id")));
+                Update update = new Update();
+                boolean drifted = false;
+                for (String field : counters.keySet()) {
+                    long stored = stored(document, field);
+                    long counted = counts.get(field).getOrDefault(id, 0L);
+                    unchanged.add(counterIs(field, stored));
+                    update.set(field, counted);
+                    drifted |= counted != stored;
+                }
+                if (!drifted) {
+                    continue;
+                }
+                if (fixes == null) {
+                    fixes = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+                }
+                fixes.updateOne(new Query(new Criteria().andOperator(unchanged)), update);
+                fixed.add(id);
+            }
+            if (fixes != null) {
+                fixes.execute();
+                fixed.forEach(onRepaired);
+                repaired += fixed.size();
+            }
+            lastId = batch.get(batch.size() - 1).get("_id");
+        }
+    }
+
+    // Documents written before a counter existed have no field at all, which reads back as 0
+    private static long stored(Document document, String field) {
+        Object value = document.get(field);
+        return value instanceof Number number ? number.longValue() : 0;
+    }
+
+    private static Criteria counterIs(String field, long value) {
+        return value == 0 ? Criteria.where(field).in(0L, null) : Criteria.where(field).is(value);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.app.repositories;
+
+import com.example.app.models.Follow;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * One-off move of the follow graph from the followers/following arrays embedded in user documents
+ * to the follows collection, then a recount of every user's follower and following counters.
+ * Ids of users that no longer exist are dropped. A no-op once no user carries either array.
+ */
+@Component
+public class FollowMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(FollowMigration.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    public void migrate() {
+        long migrated = 0;
+        Date now = new Date();
+        while (true) {
+            Query pending = new Query(new Criteria().orOperator(
+                    Criteria.where("followers").exists(true), Criteria.where("following").exists(true)))
+                    .limit(BATCH_SIZE);
+            pending.fields().include("followers", "following");
+            List<Document> batch = mongoTemplate.find(pending, Document.class, "users");
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            // Each edge usually appears twice, in one user's following and the other's followers
+            Set<List<String>> edges = new LinkedHashSet<>();
+            List<Object> userIds = new ArrayList<>();
+            for (Document user : batch) {
+                String userId = user.getObjectId("_id").toHexString();
+                userIds.add(user.get("_id"));
+                for (String followee : user.getList("following", String.class, List.of())) {
+                    edges.add(List.of(userId, followee));
+                }
+                for (String follower : user.getList("followers", String.class, List.of())) {
+                    edges.add(List.of(follower, userId));
+                }
+            }
+            Set<String> existing = existingUserIds(edges);
+
+            BulkOperations inserts = null;
+            for (List<String> edge : edges) {
+                if (!existing.contains(edge.get(0)) || !existing.contains(edge.get(1)) || edge.get(0).equals(edge.get(1))) {
+                    continue;
+                }
+                if (inserts == null) {
+                    inserts = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Follow.class);
+                }
+                inserts.upsert(Query.query(Criteria.where("followerId").is(edge.get(0)).and("followeeId").is(edge.get(1))),
+                        new Update().setOnInsert("createdAt", now));
+            }
+            if (inserts != null) {
+                inserts.execute();
+            }
+            mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(userIds)),
+                    new Update().unset("followers").unset("following"), "users");
+            migrated += batch.size();
+        }
+        if (migrated > 0) {
+            long repaired = userRepository.reconcileFollowCounts(BATCH_SIZE);
+            logger.info("Moved the follow lists of {} users to the follows collection, set counters on {}", migrated, repaired);
+        }
+    }
+
+    private Set<String> existingUserIds(Set<List<String>> edges) {
+        Set<ObjectId> ids = new HashSet<>();
+        for (List<String> edge : edges) {
+            for (String id : edge) {
+                if (ObjectId.isValid(id)) {
+                    ids.add(new ObjectId(id));
+                }
+            }
+        }
+        Set<String> existing = new HashSet<>();
+        if (ids.isEmpty()) {
+            return existing;
+        }
+        Query query = Query.query(Criteria.where("_id").in(ids));
+        query.fields().include("_id");
+        for (Document user : mongoTemplate.find(query, Document.class, "users")) {
+            existing.add(user.getObjectId("_id").toHexString());
+        }
+        return existing;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.app.repositories;
+
+import com.example.app.models.Follow;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface FollowRepository extends MongoRepository<Follow, String>, FollowRepositoryCustom {
+    boolean existsByFollowerIdAndFolloweeId(String followerId, String followeeId);
+}
@@ -0,0 +1,19 @@
+package com.example.app.repositories;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public interface FollowRepositoryCustom {
+    boolean insertIfAbsent(String followerId, String followeeId, Date createdAt);
+    boolean removeFollow(String followerId, String followeeId);
+    Set<String> findFolloweeIdsAmong(String followerId, Collection<String> candidates);
+    Set<String> findFollowerIdsAmong(String followeeId, Collection<String> candidates);
+    List<String> findFollowerIdsAfter(String followeeId, String afterFollowerId, int limit);
+    List<String> removeFollowing(String followerId, int limit);
+    List<String> removeFollowers(String followeeId, int limit);
+    Map<String, Long> countFollowers(Collection<String> userIds);
+    Map<String, Long> countFollowing(Collection<String> userIds);
+}
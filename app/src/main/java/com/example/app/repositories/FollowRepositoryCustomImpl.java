@@ -0,0 +1,147 @@
+package com.example.app.repositories;
+
+import com.example.app.models.Follow;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Follow edge writes keyed on the unique (followerId, followeeId) index: following twice, or two
+ * concurrent follows of the same pair, leave exactly one edge, and every write is one index lookup.
+ */
+public class FollowRepositoryCustomImpl implements FollowRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Returns false when the edge already existed
+    @Override
+    public boolean insertIfAbsent(String followerId, String followeeId, Date createdAt) {
+        try {
+            return mongoTemplate.upsert(byPair(followerId, followeeId),
+                    new Update().setOnInsert("createdAt", createdAt), Follow.class).getUpsertedId() != null;
+        } catch (DuplicateKeyException e) {
+            return false; // A concurrent upsert for the same pair won the race
+        }
+    }
+
+    @Override
+    public boolean removeFollow(String followerId, String followeeId) {
+        return mongoTemplate.remove(byPair(followerId, followeeId), Follow.class).getDeletedCount() > 0;
+    }
+
+    // Which of the candidates the user follows, answered from the (follower, followee) index alone
+    @Override
+    public Set<String> findFolloweeIdsAmong(String followerId, Collection<String> candidates) {
+        return findAmong("followerId", followerId, "followeeId", candidates);
+    }
+
+    // Which of the candidates follow the user, answered from the (followee, follower) index alone
+    @Override
+    public Set<String> findFollowerIdsAmong(String followeeId, Collection<String> candidates) {
+        return findAmong("followeeId", followeeId, "followerId", candidates);
+    }
+
+    // Walks a followee's followers in follower id order, for batch jobs such as timeline fan-out
+    @Override
+    public List<String> findFollowerIdsAfter(String followeeId, String afterFollowerId, int limit) {
+        Criteria criteria = Criteria.where("followeeId").is(followeeId);
+        if (afterFollowerId != null) {
+            criteria.and("followerId").gt(afterFollowerId);
+        }
+        Query query = Query.query(criteria).with(Sort.by(Sort.Direction.ASC, "followerId")).limit(limit);
+        query.fields().include("followerId").exclude("id");
+        List<String> followerIds = new ArrayList<>();
+        for (Follow follow : mongoTemplate.find(query, Follow.class)) {
+            followerIds.add(follow.getFollowerId());
+        }
+        return followerIds;
+    }
+
+    // Removes up to limit edges going out of the user and returns the followees they pointed to
+    @Override
+    public List<String> removeFollowing(String followerId, int limit) {
+        return removeEdges("followerId", followerId, "followeeId", limit);
+    }
+
+    // Removes up to limit edges coming into the user and returns the followers they came from
+    @Override
+    public List<String> removeFollowers(String followeeId, int limit) {
+        return removeEdges("followeeId", followeeId, "followerId", limit);
+    }
+
+    @Override
+    public Map<String, Long> countFollowers(Collection<String> userIds) {
+        return countBy("followeeId", userIds);
+    }
+
+    @Override
+    public Map<String, Long> countFollowing(Collection<String> userIds) {
+        return countBy("followerId", userIds);
+    }
+
+    private Set<String> findAmong(String field, String userId, String otherField, Collection<String> candidates) {
+        Set<String> found = new HashSet<>();
+        if (candidates.isEmpty()) {
+            return found;
+        }
+        Query query = Query.query(Criteria.where(field).is(userId).and(otherField).in(candidates));
+        query.fields().include(otherField).exclude("id");
+        for (Follow follow : mongoTemplate.find(query, Follow.class)) {
+            found.add(otherId(follow, otherField));
+        }
+        return found;
+    }
+
+    private List<String> removeEdges(String field, String userId, String otherField, int limit) {
+        Query query = Query.query(Criteria.where(field).is(userId)).limit(limit);
+        query.fields().include("id", otherField);
+        List<String> edgeIds = new ArrayList<>();
+        List<String> others = new ArrayList<>();
+        for (Follow follow : mongoTemplate.find(query, Follow.class)) {
+            edgeIds.add(follow.getId());
+            others.add(otherId(follow, otherField));
+        }
+        if (!edgeIds.isEmpty()) {
+            mongoTemplate.remove(Query.query(Criteria.where("id").in(edgeIds)), Follow.class);
+        }
+        return others;
+    }
+
+    private Map<String, Long> countBy(String field, Collection<String> userIds) {
+        Map<String, Long> counts = new HashMap<>();
+        if (userIds.isEmpty()) {
+            return counts;
+        }
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where(field).in(userIds)),
+                Aggregation.group(field).count().as("count"));
+        for (Document result : mongoTemplate.aggregate(aggregation, Follow.class, Document.class)) {
+            counts.put(result.getString("_id"), ((Number) result.get("count")).longValue());
+        }
+        return counts;
+    }
+
+    private static String otherId(Follow follow, String otherField) {
+        return "followerId".equals(otherField) ? follow.getFollowerId() : follow.getFolloweeId();
+    }
+
+    private static Query byPair(String followerId, String followeeId) {
+        return Query.query(Criteria.where("followerId").is(followerId).and("followeeId").is(followeeId));
+    }
+}
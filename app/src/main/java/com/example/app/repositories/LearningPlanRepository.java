@@ -5,9 +5,6 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 
 import java.util.List;
 
-public interface LearningPlanRepository extends MongoRepository<LearningPlan, String> {
+public interface LearningPlanRepository extends MongoRepository<LearningPlan, String>, LearningPlanRepositoryCustom {
     List<LearningPlan> findByUserId(String userId);
 }
-
-
-
@@ -0,0 +1,19 @@
+package com.example.app.repositories;
+
+import com.example.app.models.LearningPlan;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface LearningPlanRepositoryCustom {
+    LearningPlan pushTopic(String planId, String ownerId, LearningPlan.Topic topic);
+    LearningPlan updateTopic(String planId, String ownerId, String topicId, LearningPlan.Topic content, boolean completed);
+    LearningPlan pullTopic(String planId, String ownerId, String topicId);
+    LearningPlan setTopicsCompleted(String planId, String ownerId, Collection<String> topicIds, boolean completed);
+    LearningPlan pullTopics(String planId, String ownerId, Collection<String> topicIds);
+    LearningPlan setTopicOrders(String planId, String ownerId, Map<String, String> orders);
+    LearningPlan findTopics(String planId, String ownerId, Collection<String> topicIds);
+    LearningPlan findLastTopic(String planId, String ownerId);
+    List<LearningPlan.Topic> findTopicPage(String planId, String ownerId, String afterOrder, String afterId, int limit);
+}
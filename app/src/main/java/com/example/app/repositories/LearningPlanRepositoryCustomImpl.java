@@ -0,0 +1,383 @@
+package com.example.app.repositories;
+
+import com.example.app.models.LearningPlan;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Topic edits as single atomic updates of the plan document, so concurrent edits of different
+ * topics cannot overwrite each other. Each method matches the plan, its owner and (where given)
+ * every one of the topics in the same query, and returns the updated plan, or null when nothing
+ * matched.
+ *
+ * Adding, editing, closing, reopening or removing one topic is a field-level update of that one
+ * element (array filters, $push, $pull), so the write does not grow with the plan, and the progress
+ * counters move by $inc in the same update. The query matches the state the edit usually finds (an
+ * open topic, a plan counting this week), so the common case is one round trip. Otherwise the plan
+ * is read and the update that its state calls for is written, guarded in the query by that state
+ * and the counters it adjusts; unticking a topic, which is usually completed, starts there. Reopening
+ * a topic reopens the plan outright; once closing or removing one leaves no topic open, a second
+ * update completes the plan, guarded by the counters it read.
+ *
+ * Edits of many topics, adding a completed topic and single-topic edits whose guard missed (another
+ * edit came in between) are update pipelines instead: the first stage changes the topics, the next
+ * recounts the counters from the result and the last keeps the completed flag, all in the same
+ * write. User-supplied values enter the pipeline as $literal, so a title that looks like an
+ * expression is stored as written.
+ *
+ * Topics are ordered by a fractional key (OrderKeys) rather than by their array position, so a
+ * move sets the moved topics' keys through array filters and leaves the rest of the array alone;
+ * the reads below project just the topics a caller needs.
+ */
+public class LearningPlanRepositoryCustomImpl implements LearningPlanRepositoryCustom {
+
+    private enum Flag { REOPEN, CLOSE, KEEP }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public LearningPlan pushTopic(String planId, String ownerId, LearningPlan.Topic topic) {
+        if (!topic.isCompleted()) {
+            return modify(byPlan(planId, ownerId), reopen(new Update().push("topics", topic).inc("totalTopics", 1)));
+        }
+        Object stored = mongoTemplate.getConverter().convertToMongoType(topic);
+        Document topics = new Document("$concatArrays",
+                List.of(new Document("$ifNull", List.of("$topics", List.of())), List.of(literal(stored))));
+        return modify(byPlan(planId, ownerId), pipeline(topics, Flag.KEEP));
+    }
+
+    @Override
+    public LearningPlan updateTopic(String planId, String ownerId, String topicId, LearningPlan.Topic content,
+                                    boolean completed) {
+        Supplier<LearningPlan> recount = () -> recountTopic(planId, ownerId, topicId, content, completed);
+        if (completed) {
+            Date now = new Date();
+            LearningPlan plan = modify(withTopic(planId, ownerId, open(topicId))
+                            .addCriteria(Criteria.where("progressWeek").is(LearningPlan.weekOf(now))),
+                    closeTopic(topicId, content, now).inc("completedThisWeek", 1));
+            if (plan == null) {
+                plan = changeFromState(planId, ownerId, topicId, (current, topic) -> topic.isCompleted()
+                        ? (content != null ? editTopic(topicId, content) : null)
+                        : countWeek(current, closeTopic(topicId, content, now), now), recount);
+            }
+            return plan != null ? completeIfDone(plan) : null;
+        }
+        if (content != null) {
+            LearningPlan plan = modify(withTopic(planId, ownerId, open(topicId)), reopen(reopenTopic(topicId, content)));
+            if (plan != null) {
+                return plan;
+            }
+        }
+        return changeFromState(planId, ownerId, topicId, (current, topic) -> topic.isCompleted()
+                ? uncount(current, topic, reopen(reopenTopic(topicId, content)))
+                : reopen(reopenTopic(topicId, content)), recount);
+    }
+
+    private LearningPlan recountTopic(String planId, String ownerId, String topicId, LearningPlan.Topic content,
+                                      boolean completed) {
+        List<String> topicIds = List.of(topicId);
+        Document changes = completed ? closed() : reopened();
+        if (content != null) {
+            changes.append("title", literal(content.getTitle()))
+                    .append("description", literal(content.getDescription()))
+                    .append("resources", literal(content.getResources()));
+        }
+        return modify(byTopics(planId, ownerId, topicIds),
+                pipeline(mapTopics(topicIds, changes), completed ? Flag.CLOSE : Flag.REOPEN));
+    }
+
+    @Override
+    public LearningPlan pullTopic(String planId, String ownerId, String topicId) {
+        LearningPlan plan = modify(withTopic(planId, ownerId, open(topicId)), pull(topicId));
+        if (plan == null) {
+            plan = changeFromState(planId, ownerId, topicId, (current, topic) -> topic.isCompleted()
+                    ? uncount(current, topic, pull(topicId))
+                    : pull(topicId), () -> pullTopics(planId, ownerId, List.of(topicId)));
+        }
+        return plan != null ? completeIfDone(plan) : null;
+    }
+
+    @Override
+    public LearningPlan setTopicsCompleted(String planId, String ownerId, Collection<String> topicIds, boolean completed) {
+        return modify(byTopics(planId, ownerId, topicIds),
+                pipeline(mapTopics(topicIds, completed ? closed() : reopened()), completed ? Flag.CLOSE : Flag.REOPEN));
+    }
+
+    @Override
+    public LearningPlan pullTopics(String planId, String ownerId, Collection<String> topicIds) {
+        Document topics = new Document("$filter", new Document("input", "$topics")
+                .append("cond", new Document("$not", List.of(in("$$this._id", topicIds)))));
+        return modify(byTopics(planId, ownerId, topicIds), pipeline(topics, Flag.CLOSE));
+    }
+
+    @Override
+    public LearningPlan setTopicOrders(String planId, String ownerId, Map<String, String> orders) {
+        // One array filter per topic; identifiers must start with a lowercase letter
+        Update update = new Update();
+        int i = 0;
+        for (Map.Entry<String, String> order : orders.entrySet()) {
+            String identifier = "m" + i++;
+            update.set("topics.$[" + identifier + "].order", order.getValue())
+                    .filterArray(Criteria.where(identifier + "._id").is(order.getKey()));
+        }
+        return modify(byTopics(planId, ownerId, orders.keySet()), update);
+    }
+
+    @Override
+    public LearningPlan findTopics(String planId, String ownerId, Collection<String> topicIds) {
+        return findWithTopics(planId, ownerId, in("$$this._id", topicIds));
+    }
+
+    // The plan with only its last topic by order key (none when no topic has a key yet)
+    @Override
+    public LearningPlan findLastTopic(String planId, String ownerId) {
+        return findWithTopics(planId, ownerId, new Document("$eq", List.of("$$this.order", new Document("$max", "$topics.order"))));
+    }
+
+    @Override
+    public List<LearningPlan.Topic> findTopicPage(String planId, String ownerId, String afterOrder, String afterId, int limit) {
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(Aggregation.match(Criteria.where("id").is(planId).and("user.id").is(ownerId)));
+        stages.add(Aggregation.unwind("topics"));
+        stages.add(Aggregation.replaceRoot("topics"));
+        if (afterId != null) {
+            stages.add(Aggregation.match(afterOrder != null
+                    ? new Criteria().orOperator(Criteria.where("order").gt(afterOrder),
+                            Criteria.where("order").is(afterOrder).and("_id").gt(afterId))
+                    // Topics without a key (not yet migrated) come first
+                    : new Criteria().orOperator(Criteria.where("order").ne(null),
+                            Criteria.where("order").is(null).and("_id").gt(afterId))));
+        }
+        stages.add(Aggregation.sort(Sort.by("order", "_id")));
+        stages.add(Aggregation.limit(limit));
+        return mongoTemplate.aggregate(Aggregation.newAggregation(stages), LearningPlan.class, LearningPlan.Topic.class)
+                .getMappedResults();
+    }
+
+    /**
+     * Sets the progress counters from the topics as they are after the preceding stages; also
+     * what the backfill of plans stored before the counters runs.
+     */
+    static Document countProgress(Date now) {
+        Date week = LearningPlan.weekOf(now);
+        Document completed = new Document("$eq", List.of("$$this.completed", true));
+        return new Document("$set", new Document()
+                .append("totalTopics", new Document("$size", new Document("$ifNull", List.of("$topics", List.of()))))
+                .append("completedTopics", new Document("$size", filterTopics(completed)))
+                .append("lastCompletionDate", new Document("$max", "$topics.completionDate"))
+                .append("progressWeek", week)
+                .append("completedThisWeek", new Document("$size", filterTopics(new Document("$and",
+                        List.of(completed, new Document("$gte", List.of("$$this.completionDate", week))))))));
+    }
+
+    /**
+     * Reads the plan and writes the update its state calls for (null: nothing to change), guarded by
+     * the topic's state and the plan's counters as read. Null when the plan has no such topic; the
+     * recount when the guard missed because another edit came in between.
+     */
+    private LearningPlan changeFromState(String planId, String ownerId, String topicId,
+                                         BiFunction<LearningPlan, LearningPlan.Topic, Update> change,
+                                         Supplier<LearningPlan> recount) {
+        LearningPlan plan = mongoTemplate.findOne(withTopic(planId, ownerId, topic(topicId)), LearningPlan.class);
+        LearningPlan.Topic topic = plan != null && plan.getTopics() != null ? plan.getTopics().stream()
+                .filter(candidate -> topicId.equals(candidate.getId())).findFirst().orElse(null) : null;
+        if (topic == null) {
+            return null;
+        }
+        Update update = change.apply(plan, topic);
+        if (update == null) {
+            return plan;
+        }
+        Criteria state = topic.isCompleted()
+                ? topic(topicId).and("completed").is(true).and("completionDate").is(topic.getCompletionDate())
+                : open(topicId);
+        Query guarded = withTopic(planId, ownerId, state)
+                .addCriteria(Criteria.where("completedTopics").is(plan.getCompletedTopics()))
+                .addCriteria(Criteria.where("progressWeek").is(plan.getProgressWeek()))
+                .addCriteria(Criteria.where("lastCompletionDate").is(plan.getLastCompletionDate()));
+        LearningPlan saved = modify(guarded, update);
+        return saved != null ? saved : recount.get();
+    }
+
+    // Counts a completion into this week, starting the week over when the plan last counted in an earlier one
+    private static Update countWeek(LearningPlan plan, Update update, Date now) {
+        Date week = LearningPlan.weekOf(now);
+        return week.equals(plan.getProgressWeek())
+                ? update.inc("completedThisWeek", 1)
+                : update.set("progressWeek", week).set("completedThisWeek", 1);
+    }
+
+    // Takes a completed topic out of the counters; the latest completion falls back to the next one
+    private static Update uncount(LearningPlan plan, LearningPlan.Topic topic, Update update) {
+        update.inc("completedTopics", -1);
+        Date week = LearningPlan.weekOf(new Date());
+        Date date = topic.getCompletionDate();
+        if (date != null && week.equals(plan.getProgressWeek()) && !date.before(week)) {
+            update.inc("completedThisWeek", -1);
+        }
+        if (date != null && date.equals(plan.getLastCompletionDate())) {
+            Date latest = null;
+            for (LearningPlan.Topic other : plan.getTopics()) {
+                Date otherDate = other.getCompletionDate();
+                if (other != topic && other.isCompleted() && otherDate != null && (latest == null || otherDate.after(latest))) {
+                    latest = otherDate;
+                }
+            }
+            if (latest != null) {
+                update.set("lastCompletionDate", latest);
+            } else {
+                update.unset("lastCompletionDate");
+            }
+        }
+        return update;
+    }
+
+    // Completes the plan once no topic is open, unless its counters changed since they were read
+    private LearningPlan completeIfDone(LearningPlan plan) {
+        if (plan.isCompleted() || plan.getCompletedTopics() < plan.getTotalTopics()) {
+            return plan;
+        }
+        Query done = new Query(Criteria.where("id").is(plan.getId()).and("completed").ne(true)
+                .and("totalTopics").is(plan.getTotalTopics()).and("completedTopics").is(plan.getTotalTopics()));
+        LearningPlan completed = modify(done, new Update().set("completed", true).set("completionDate", new Date()));
+        return completed != null ? completed : plan;
+    }
+
+    private static Update closeTopic(String topicId, LearningPlan.Topic content, Date now) {
+        return editTopic(topicId, content)
+                .set("topics.$[t].completed", true)
+                .set("topics.$[t].completionDate", now)
+                .inc("completedTopics", 1)
+                .max("lastCompletionDate", now);
+    }
+
+    private static Update reopenTopic(String topicId, LearningPlan.Topic content) {
+        return editTopic(topicId, content)
+                .set("topics.$[t].completed", false)
+                .unset("topics.$[t].completionDate");
+    }
+
+    // The topic's content, when given; a new update on the topic otherwise
+    private static Update editTopic(String topicId, LearningPlan.Topic content) {
+        Update update = new Update().filterArray(Criteria.where("t._id").is(topicId));
+        if (content != null) {
+            update.set("topics.$[t].title", content.getTitle())
+                    .set("topics.$[t].description", content.getDescription())
+                    .set("topics.$[t].resources", content.getResources());
+        }
+        return update;
+    }
+
+    private static Update pull(String topicId) {
+        return new Update().pull("topics", new Document("_id", topicId)).inc("totalTopics", -1);
+    }
+
+    private static Update reopen(Update update) {
+        return update.set("completed", false).unset("completionDate");
+    }
+
+    private LearningPlan findWithTopics(String planId, String ownerId, Document condition) {
+        Query query = byPlan(planId, ownerId);
+        AggregationExpression topics = context -> new Document("$filter", new Document("input", "$topics")
+                .append("cond", condition));
+        query.fields().project(topics).as("topics");
+        return mongoTemplate.findOne(query, LearningPlan.class);
+    }
+
+    private static AggregationUpdate pipeline(Document topics, Flag flag) {
+        Date now = new Date();
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(Aggregation.stage(new Document("$set", new Document("topics", topics))));
+        stages.add(Aggregation.stage(countProgress(now)));
+        if (flag == Flag.REOPEN) {
+            stages.add(Aggregation.stage(new Document("$set", new Document("completed", false)
+                    .append("completionDate", "$$REMOVE"))));
+        } else if (flag == Flag.CLOSE) {
+            Document done = new Document("$or", List.of(new Document("$eq", List.of("$completed", true)),
+                    new Document("$eq", List.of("$completedTopics", "$totalTopics"))));
+            // Keeps the date of a plan that was completed already
+            stages.add(Aggregation.stage(new Document("$set", new Document("completed", done)
+                    .append("completionDate", new Document("$cond", List.of(done,
+                            new Document("$ifNull", List.of("$completionDate", now)), "$completionDate"))))));
+        }
+        return AggregationUpdate.from(stages);
+    }
+
+    // Merges the changes into each of the given topics
+    private static Document mapTopics(Collection<String> topicIds, Document changes) {
+        return new Document("$map", new Document("input", new Document("$ifNull", List.of("$topics", List.of())))
+                .append("as", "t")
+                .append("in", new Document("$cond", List.of(in("$$t._id", topicIds),
+                        new Document("$mergeObjects", List.of("$$t", changes)), "$$t"))));
+    }
+
+    // Completed, keeping the completion date of a topic that already was
+    private static Document closed() {
+        return new Document("completed", true)
+                .append("completionDate", new Document("$cond", List.of(new Document("$eq", List.of("$$t.completed", true)),
+                        "$$t.completionDate", new Date())));
+    }
+
+    private static Document reopened() {
+        return new Document("completed", false).append("completionDate", null);
+    }
+
+    private static Document filterTopics(Document condition) {
+        return new Document("$filter", new Document("input", new Document("$ifNull", List.of("$topics", List.of())))
+                .append("cond", condition));
+    }
+
+    private static Document in(String field, Collection<String> topicIds) {
+        return new Document("$in", List.of(field, new ArrayList<>(topicIds)));
+    }
+
+    private static Document literal(Object value) {
+        return new Document("$literal", value);
+    }
+
+    private LearningPlan modify(Query query, UpdateDefinition update) {
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), LearningPlan.class);
+    }
+
+    private static Query byPlan(String planId, String ownerId) {
+        return new Query(Criteria.where("id").is(planId).and("user.id").is(ownerId));
+    }
+
+    // The plan, only if it has a topic matching the criteria
+    private static Query withTopic(String planId, String ownerId, Criteria topic) {
+        return byPlan(planId, ownerId).addCriteria(Criteria.where("topics").elemMatch(topic));
+    }
+
+    private static Criteria topic(String topicId) {
+        return Criteria.where("_id").is(topicId);
+    }
+
+    private static Criteria open(String topicId) {
+        return topic(topicId).and("completed").ne(true);
+    }
+
+    // The plan, only if it has every one of the topics
+    private static Query byTopics(String planId, String ownerId, Collection<String> topicIds) {
+        return new Query(Criteria.where("id").is(planId).and("user.id").is(ownerId).and("topics._id").all(topicIds));
+    }
+}
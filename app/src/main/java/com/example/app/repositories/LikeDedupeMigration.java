@@ -0,0 +1,57 @@
+package com.example.app.repositories;
+
+import com.example.app.models.Like;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.stereotype.Component;
+
+/**
+ * Removes duplicate (user, post) likes left by the old check-then-insert race and builds the
+ * unique userId_postId index right after, since the idempotent like upsert relies on it and a like
+ * in between could add another duplicate. A build that still trips over one dedupes again. A no-op
+ * once the index exists.
+ */
+@Component
+public class LikeDedupeMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(LikeDedupeMigration.class);
+
+    private static final String UNIQUE_INDEX = "userId_postId";
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private LikeRepository likeRepository;
+
+    public void migrate() {
+        IndexOperations indexOps = mongoTemplate.indexOps(Like.class);
+        if (indexOps.getIndexInfo().stream().anyMatch(index -> UNIQUE_INDEX.equals(index.getName()))) {
+            return;
+        }
+        IndexResolver resolver = IndexResolver.create(mongoTemplate.getConverter().getMappingContext());
+        for (int attempt = 1; ; attempt++) {
+            long removed = likeRepository.removeDuplicates();
+            if (removed > 0) {
+                logger.info("Removed {} duplicate likes", removed);
+            }
+            try {
+                for (IndexDefinition index : resolver.resolveIndexFor(Like.class)) {
+                    indexOps.ensureIndex(index);
+                }
+                return;
+            } catch (DuplicateKeyException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+}
@@ -1,8 +1,6 @@
 package com.example.app.repositories;
 
 import com.example.app.models.Like;
-import com.example.app.models.Post;
-import com.example.app.models.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
@@ -10,8 +8,8 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface LikeRepository extends MongoRepository<Like, String> {
-    List<Like> findByPost(Post post);
-    Optional<Like> findByUserAndPost(User user, Post post);
-    void deleteByPost(Post post);
+public interface LikeRepository extends MongoRepository<Like, String>, LikeRepositoryCustom {
+    List<Like> findByPostId(String postId);
+    Optional<Like> findByUserIdAndPostId(String userId, String postId);
+    void deleteByPostId(String postId);
 }
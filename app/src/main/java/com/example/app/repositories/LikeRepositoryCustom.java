@@ -0,0 +1,17 @@
+package com.example.app.repositories;
+
+import com.example.app.models.Like;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+public interface LikeRepositoryCustom {
+    String insertIfAbsent(String userId, String postId, Date createdAt);
+    boolean removeLike(String userId, String postId);
+    Map<String, Long> applyToggles(Map<String, List<Like>> likesByPost, Map<String, Set<String>> unlikesByPost,
+                                   Consumer<Like> onInserted);
+    long removeDuplicates();
+}
@@ -0,0 +1,115 @@
+package com.example.app.repositories;
+
+import com.example.app.models.Like;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Like writes keyed on the unique (userId, postId) index, so every write is a single index lookup
+ * and concurrent writers for the same pair collide on the index instead of creating duplicates.
+ */
+public class LikeRepositoryCustomImpl implements LikeRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Returns the id of the new like, or null when the user had already liked the post
+    @Override
+    public String insertIfAbsent(String userId, String postId, Date createdAt) {
+        try {
+            BsonValue upsertedId = mongoTemplate.upsert(byUserAndPost(userId, postId),
+                    new Update().setOnInsert("createdAt", createdAt), Like.class).getUpsertedId();
+            return upsertedId != null ? upsertedId.asObjectId().getValue().toHexString() : null;
+        } catch (DuplicateKeyException e) {
+            return null; // A concurrent upsert for the same pair won the race
+        }
+    }
+
+    @Override
+    public boolean removeLike(String userId, String postId) {
+        return mongoTemplate.remove(byUserAndPost(userId, postId), Like.class).getDeletedCount() > 0;
+    }
+
+    // Applies a batch of coalesced toggles and returns the resulting likeCount delta per post.
+    // New likes keep the id and date they were given when recorded; likes already stored are left alone
+    @Override
+    public Map<String, Long> applyToggles(Map<String, List<Like>> likesByPost, Map<String, Set<String>> unlikesByPost,
+                                          Consumer<Like> onInserted) {
+        Map<String, Long> deltas = new HashMap<>();
+        if (!likesByPost.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Like.class);
+            List<Like> likeByIndex = new ArrayList<>();
+            for (Map.Entry<String, List<Like>> entry : likesByPost.entrySet()) {
+                for (Like like : entry.getValue()) {
+                    bulk.upsert(byUserAndPost(like.getUserId(), entry.getKey()), new Update()
+                            .setOnInsert("_id", new ObjectId(like.getId()))
+                            .setOnInsert("createdAt", like.getCreatedAt()));
+                    likeByIndex.add(like);
+                }
+            }
+            BulkWriteResult result;
+            try {
+                result = bulk.execute();
+            } catch (BulkOperationException e) {
+                // Duplicate-key races mean "already liked"; every other upsert still went through
+                result = e.getResult();
+            }
+            for (BulkWriteUpsert upsert : result.getUpserts()) {
+                Like inserted = likeByIndex.get(upsert.getIndex());
+                deltas.merge(inserted.getPostId(), 1L, Long::sum);
+                onInserted.accept(inserted);
+            }
+        }
+        // Removals are grouped per post so each deletedCount maps to exactly one counter
+        for (Map.Entry<String, Set<String>> entry : unlikesByPost.entrySet()) {
+            long removed = mongoTemplate.remove(
+                    new Query(Criteria.where("postId").is(entry.getKey()).and("userId").in(entry.getValue())),
+                    Like.class).getDeletedCount();
+            if (removed > 0) {
+                deltas.merge(entry.getKey(), -removed, Long::sum);
+            }
+        }
+        return deltas;
+    }
+
+    // Drops duplicate (user, post) likes left by the old check-then-insert race, keeping the first one
+    @Override
+    public long removeDuplicates() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.group("userId", "postId").count().as("count").push("_id").as("ids"),
+                Aggregation.match(Criteria.where("count").gt(1)));
+        List<Object> toDelete = new ArrayList<>();
+        for (Document group : mongoTemplate.aggregate(aggregation, Like.class, Document.class)) {
+            List<?> ids = group.getList("ids", Object.class);
+            toDelete.addAll(ids.subList(1, ids.size()));
+        }
+        if (toDelete.isEmpty()) {
+            return 0;
+        }
+        return mongoTemplate.remove(new Query(Criteria.where("_id").in(toDelete)), Like.class).getDeletedCount();
+    }
+
+    private static Query byUserAndPost(String userId, String postId) {
+        return new Query(Criteria.where("userId").is(userId).and("postId").is(postId));
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.app.repositories;
+
+import org.springframework.data.mongodb.MongoExpression;
+import org.springframework.data.mongodb.core.query.Field;
+
+/**
+ * Field projections for list queries. Each one reads exactly the properties the matching
+ * {@link com.example.app.models.Views.Summary} view serializes, so a page neither loads nor sends
+ * data the list UI does not show.
+ */
+public final class ListProjections {
+
+    public static final int EXCERPT_LENGTH = 150;
+
+    // Computed server-side, so a page of posts never reads full bodies off disk into the app
+    private static final String EXCERPT = "{ $cond: {"
+            + " if: { $gt: [ { $strLenCP: { $ifNull: [ '$content', '' ] } }, " + EXCERPT_LENGTH + " ] },"
+            + " then: { $concat: [ { $substrCP: [ '$content', 0, " + EXCERPT_LENGTH + " ] }, '...' ] },"
+            + " else: { $ifNull: [ '$content', '' ] } } }";
+
+    private ListProjections() {}
+
+    // What a post card shows: the body is replaced by an excerpt
+    public static void postSummary(Field fields) {
+        fields.include("id", "title", "mediaUrls", "fileTypes", "tags", "user", "createdAt",
+                "likeCount", "commentCount");
+        fields.project(MongoExpression.create(EXCERPT)).as("excerpt");
+    }
+}
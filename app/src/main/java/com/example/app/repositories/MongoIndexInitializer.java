@@ -0,0 +1,137 @@
+package com.example.app.repositories;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Runs pending data migrations, then creates the indexes declared on the models (@Indexed,
+ * @CompoundIndex). It runs once every singleton is created, while the context is still refreshing:
+ * the web server only binds its port, scheduled jobs only start and ready listeners only load their
+ * in-memory indexes after it, so no request or job sees documents in the shape from before a
+ * migration. It runs instead of spring.data.mongodb.auto-index-creation, so an unreachable
+ * database skips it until the next startup rather than failing the application context.
+ */
+@Component
+public class MongoIndexInitializer implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoIndexInitializer.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ReferenceMigration referenceMigration;
+
+    @Autowired
+    private LikeDedupeMigration likeDedupeMigration;
+
+    @Autowired
+    private FollowMigration followMigration;
+
+    @Autowired
+    private PostCounterMigration postCounterMigration;
+
+    @Autowired
+    private TagMigration tagMigration;
+
+    @Autowired
+    private TopicOrderMigration topicOrderMigration;
+
+    @Autowired
+    private PlanProgressMigration planProgressMigration;
+
+    @Autowired
+    private ActivityMigration activityMigration;
+
+    @Value("${app.mongodb.ensure-indexes:true}")
+    private boolean ensureIndexes;
+
+    @Value("${app.mongodb.migrate-references:true}")
+    private boolean migrateReferences;
+
+    @Value("${app.mongodb.dedupe-likes:true}")
+    private boolean dedupeLikes;
+
+    @Value("${app.mongodb.migrate-follows:true}")
+    private boolean migrateFollows;
+
+    @Value("${app.mongodb.migrate-post-counters:true}")
+    private boolean migratePostCounters;
+
+    @Value("${app.mongodb.migrate-tags:true}")
+    private boolean migrateTags;
+
+    @Value("${app.mongodb.migrate-topic-order:true}")
+    private boolean migrateTopicOrder;
+
+    @Value("${app.mongodb.migrate-plan-progress:true}")
+    private boolean migratePlanProgress;
+
+    @Value("${app.mongodb.migrate-activity:true}")
+    private boolean migrateActivity;
+
+    private record Migration(String name, boolean enabled, Runnable run) {}
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!ensureIndexes) {
+            return;
+        }
+        try {
+            mongoTemplate.executeCommand("{ ping: 1 }");
+        } catch (RuntimeException e) {
+            logger.warn("MongoDB is unreachable, migrations and indexes will be retried on next startup", e);
+            return;
+        }
+        ensureIndexes();
+    }
+
+    void ensureIndexes() {
+        List<Migration> migrations = List.of(
+                new Migration("DBRef migration", migrateReferences, referenceMigration::migrate),
+                // Before the like indexes below, and before the post counters are counted from the likes
+                new Migration("Like dedupe", dedupeLikes, likeDedupeMigration::migrate),
+                new Migration("Follow list migration", migrateFollows, followMigration::migrate),
+                new Migration("Post counter backfill", migratePostCounters, postCounterMigration::migrate),
+                new Migration("Tag normalization", migrateTags, tagMigration::migrate),
+                new Migration("Topic order migration", migrateTopicOrder, topicOrderMigration::migrate),
+                new Migration("Plan progress migration", migratePlanProgress, planProgressMigration::migrate),
+                new Migration("Activity backfill", migrateActivity, activityMigration::migrate));
+        for (Migration migration : migrations) {
+            if (!migration.enabled()) {
+                continue;
+            }
+            try {
+                migration.run().run();
+            } catch (RuntimeException e) {
+                logger.warn("{} failed, will retry on next startup", migration.name(), e);
+            }
+        }
+        IndexResolver resolver = IndexResolver.create(mongoTemplate.getConverter().getMappingContext());
+        for (MongoPersistentEntity<?> entity : mongoTemplate.getConverter().getMappingContext().getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(Document.class)) {
+                continue;
+            }
+            try {
+                IndexOperations indexOps = mongoTemplate.indexOps(entity.getType());
+                for (IndexDefinition index : resolver.resolveIndexFor(entity.getTypeInformation())) {
+                    indexOps.ensureIndex(index);
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Could not ensure indexes for {}", entity.getCollection(), e);
+            }
+        }
+    }
+}
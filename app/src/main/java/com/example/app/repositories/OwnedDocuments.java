@@ -0,0 +1,81 @@
+package com.example.app.repositories;
+
+import com.example.app.exceptions.ForbiddenException;
+import com.example.app.exceptions.NotFoundException;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Field;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+/**
+ * Reads and writes of documents that belong to a user (through the embedded user.id), scoped to
+ * the owner in the query itself, so authorizing and acting take one round trip. When the scoped
+ * query matches nothing, one more read by id tells a missing document (NotFoundException, 404)
+ * from someone else's (ForbiddenException, 403); that read only happens on the failure path.
+ */
+@Component
+public class OwnedDocuments {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    public <T> T find(Class<T> type, String id, String ownerId, String name) {
+        return find(type, id, ownerId, name, null);
+    }
+
+    // Reads only the fields the projection selects, when one is given
+    public <T> T find(Class<T> type, String id, String ownerId, String name, Consumer<Field> projection) {
+        Query query = owned(id, ownerId);
+        if (projection != null) {
+            projection.accept(query.fields());
+        }
+        T document = mongoTemplate.findOne(query, type);
+        return document != null ? document : missing(type, id, ownerId, name);
+    }
+
+    // The document before or after the update, as returnNew says
+    public <T> T modify(Class<T> type, String id, String ownerId, Update update, boolean returnNew, String name) {
+        T document = mongoTemplate.findAndModify(owned(id, ownerId), update,
+                FindAndModifyOptions.options().returnNew(returnNew), type);
+        return document != null ? document : missing(type, id, ownerId, name);
+    }
+
+    // The removed document; of concurrent removals only one gets it
+    public <T> T remove(Class<T> type, String id, String ownerId, String name) {
+        T document = mongoTemplate.findAndRemove(owned(id, ownerId), type);
+        return document != null ? document : missing(type, id, ownerId, name);
+    }
+
+    /** Throws NotFoundException or ForbiddenException unless the document exists and is the owner's. */
+    public void checkOwner(Class<?> type, String id, String ownerId, String name) {
+        // Read as a raw document, so the id is converted the way the mapping layer stores String ids
+        Query query = new Query(Criteria.where("_id").is(ObjectId.isValid(id) ? new ObjectId(id) : id));
+        query.fields().include("user._id");
+        Document document = mongoTemplate.findOne(query, Document.class, mongoTemplate.getCollectionName(type));
+        if (document == null) {
+            throw new NotFoundException(name + " not found");
+        }
+        Object user = document.get("user");
+        Object owner = user instanceof Document snapshot ? snapshot.get("_id") : null;
+        if (owner == null || !owner.toString().equals(ownerId)) {
+            throw new ForbiddenException("Unauthorized to access this " + name.toLowerCase());
+        }
+    }
+
+    private <T> T missing(Class<T> type, String id, String ownerId, String name) {
+        checkOwner(type, id, ownerId, name);
+        throw new NotFoundException(name + " not found"); // Owned, but removed in between
+    }
+
+    private static Query owned(String id, String ownerId) {
+        return new Query(Criteria.where("id").is(id).and("user.id").is(ownerId));
+    }
+}
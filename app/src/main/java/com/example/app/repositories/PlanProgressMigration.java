@@ -0,0 +1,39 @@
+package com.example.app.repositories;
+
+import com.example.app.models.LearningPlan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * One-off backfill of the learning-plan progress counters (totalTopics, completedTopics and the
+ * rest) on plans stored before them, counted from each plan's topics inside MongoDB with the same
+ * pipeline stage the topic edits use. A no-op once every plan has counters.
+ */
+@Component
+public class PlanProgressMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlanProgressMigration.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    public void migrate() {
+        AggregationUpdate count = AggregationUpdate.from(
+                List.of(Aggregation.stage(LearningPlanRepositoryCustomImpl.countProgress(new Date()))));
+        long migrated = mongoTemplate.updateMulti(new Query(Criteria.where("totalTopics").exists(false)), count,
+                LearningPlan.class).getModifiedCount();
+        if (migrated > 0) {
+            logger.info("Set progress counters on {} learning plans", migrated);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.app.repositories;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+
+/**
+ * One-off count of Post.likeCount and commentCount for posts stored before the counters, so they
+ * do not read 0 (or 1 after the first $inc) until the nightly reconciliation. Posts without either
+ * field cannot be told apart from posts with no likes or comments, so the run is recorded by a
+ * marker in the migrations collection rather than detected from the data.
+ */
+@Component
+public class PostCounterMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostCounterMigration.class);
+
+    private static final String MIGRATIONS = "migrations";
+    private static final String MARKER = "post-counters";
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    public void migrate() {
+        if (mongoTemplate.exists(new Query(Criteria.where("_id").is(MARKER)), MIGRATIONS)) {
+            return;
+        }
+        long repaired = postRepository.reconcileCounters(BATCH_SIZE, postId -> {});
+        mongoTemplate.insert(new Document("_id", MARKER).append("completedAt", new Date()), MIGRATIONS);
+        if (repaired > 0) {
+            logger.info("Counted likes and comments into the counters of {} posts", repaired);
+        }
+    }
+}
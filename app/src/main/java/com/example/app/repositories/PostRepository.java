@@ -7,7 +7,6 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
-public interface PostRepository extends MongoRepository<Post, String> {
-    List<Post> findByUser(com.example.app.models.User user);
-    List<Post> findByTagsContaining(String tag);
+public interface PostRepository extends MongoRepository<Post, String>, PostRepositoryCustom {
+    List<Post> findByUserId(String userId);
 }
\ No newline at end of file
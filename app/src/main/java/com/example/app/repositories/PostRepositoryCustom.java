@@ -0,0 +1,17 @@
+package com.example.app.repositories;
+
+import com.example.app.models.Post;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+public interface PostRepositoryCustom {
+    boolean incrementLikeCount(String postId, long delta);
+    void incrementLikeCounts(Map<String, Long> deltas);
+    void incrementCommentCount(String postId, long delta);
+    Post updateContent(String postId, String ownerId, Post content);
+    Set<String> findExistingIds(Collection<String> postIds);
+    long reconcileCounters(int batchSize, Consumer<String> onRepaired);
+}
@@ -0,0 +1,103 @@
+package com.example.app.repositories;
+
+import com.example.app.models.Comment;
+import com.example.app.models.Like;
+import com.example.app.models.Post;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+public class PostRepositoryCustomImpl implements PostRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private OwnedDocuments ownedDocuments;
+
+    // Returns false when the post does not exist
+    @Override
+    public boolean incrementLikeCount(String postId, long delta) {
+        return mongoTemplate.updateFirst(byId(postId), new Update().inc("likeCount", delta), Post.class)
+                .getMatchedCount() > 0;
+    }
+
+    @Override
+    public void incrementLikeCounts(Map<String, Long> deltas) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class);
+        boolean empty = true;
+        for (Map.Entry<String, Long> delta : deltas.entrySet()) {
+            if (delta.getValue() != 0) {
+                bulk.updateOne(byId(delta.getKey()), new Update().inc("likeCount", delta.getValue()));
+                empty = false;
+            }
+        }
+        if (!empty) {
+            bulk.execute();
+        }
+    }
+
+    @Override
+    public void incrementCommentCount(String postId, long delta) {
+        mongoTemplate.updateFirst(byId(postId), new Update().inc("commentCount", delta), Post.class);
+    }
+
+    // Only the editable fields are $set, so concurrent counter increments are never overwritten by a stale save().
+    // Scoped to the author; returns the post as it was, so callers can tell which tags changed
+    @Override
+    public Post updateContent(String postId, String ownerId, Post content) {
+        Update update = new Update()
+                .set("title", content.getTitle())
+                .set("content", content.getContent())
+                .set("mediaUrls", content.getMediaUrls())
+                .set("fileTypes", content.getFileTypes())
+                .set("tags", content.getTags());
+        return ownedDocuments.modify(Post.class, postId, ownerId, update, false, "Post");
+    }
+
+    @Override
+    public Set<String> findExistingIds(Collection<String> postIds) {
+        Query query = new Query(Criteria.where("id").in(postIds));
+        query.fields().include("id");
+        Set<String> existing = new HashSet<>();
+        for (Post post : mongoTemplate.find(query, Post.class)) {
+            existing.add(post.getId());
+        }
+        return existing;
+    }
+
+    // Recounts likes and comments, each with one grouped count per batch of posts; see CounterReconciler
+    @Override
+    public long reconcileCounters(int batchSize, Consumer<String> onRepaired) {
+        return CounterReconciler.reconcile(mongoTemplate, Post.class, batchSize, Map.of(
+                "likeCount", postIds -> countByPost(Like.class, postIds),
+                "commentCount", postIds -> countByPost(Comment.class, postIds)), onRepaired);
+    }
+
+    private Map<String, Long> countByPost(Class<?> type, Collection<String> postIds) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("postId").in(postIds)),
+                Aggregation.group("postId").count().as("count"));
+        Map<String, Long> counts = new HashMap<>();
+        for (Document result : mongoTemplate.aggregate(aggregation, type, Document.class)) {
+            counts.put(result.getString("_id"), ((Number) result.get("count")).longValue());
+        }
+        return counts;
+    }
+
+    private static Query byId(String postId) {
+        return new Query(Criteria.where("id").is(postId));
+    }
+}
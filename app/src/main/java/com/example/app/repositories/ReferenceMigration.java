@@ -0,0 +1,141 @@
+package com.example.app.repositories;
+
+import com.mongodb.DBRef;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One-off rewrite of documents stored while the models still used @DBRef: user references become
+ * embedded author snapshots (or a plain userId on likes), post and learning plan references become
+ * id strings. Runs before index creation, batch by batch, and is a no-op once no DBRef is left.
+ */
+@Component
+public class ReferenceMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceMigration.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    // Indexes on the old reference paths; the unique one would reject every migrated like (null, null)
+    private static final Map<String, List<String>> OBSOLETE_INDEXES = Map.of(
+            "posts", List.of("user_createdAt_id"),
+            "comments", List.of("post_createdAt_id"),
+            "likes", List.of("post_createdAt_id", "user_post"),
+            "progress_updates", List.of("user_createdAt_id"),
+            "learning_plans", List.of("user_createdAt_id"));
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    public void migrate() {
+        for (Map.Entry<String, List<String>> entry : OBSOLETE_INDEXES.entrySet()) {
+            dropIndexes(entry.getKey(), entry.getValue());
+        }
+        long migrated = migrateCollection("posts") + migrateCollection("comments") + migrateCollection("likes")
+                + migrateCollection("progress_updates") + migrateCollection("learning_plans");
+        if (migrated > 0) {
+            logger.info("Migrated {} documents from DBRef to embedded references", migrated);
+        }
+    }
+
+    private void dropIndexes(String collection, List<String> names) {
+        IndexOperations indexOps = mongoTemplate.indexOps(collection);
+        for (IndexInfo index : indexOps.getIndexInfo()) {
+            if (names.contains(index.getName())) {
+                indexOps.dropIndex(index.getName());
+            }
+        }
+    }
+
+    private long migrateCollection(String collection) {
+        long migrated = 0;
+        while (true) {
+            // Every pre-migration document carries a user DBRef, and a migrated one never does
+            Query pending = new Query(Criteria.where("user.$ref").exists(true)).limit(BATCH_SIZE);
+            List<Document> batch = mongoTemplate.find(pending, Document.class, collection);
+            if (batch.isEmpty()) {
+                return migrated;
+            }
+
+            Set<Object> userIds = new HashSet<>();
+            Set<Object> planIds = new HashSet<>();
+            for (Document document : batch) {
+                userIds.add(referencedId(document.get("user")));
+                if (document.get("learningPlan") != null) {
+                    planIds.add(referencedId(document.get("learningPlan")));
+                }
+            }
+            Map<Object, Document> users = loadById("users", userIds, "name", "pictureUrl");
+            Map<Object, Document> plans = loadById("learning_plans", planIds, "title");
+
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+            for (Document document : batch) {
+                Object userId = referencedId(document.get("user"));
+                Update update = new Update();
+                if (collection.equals("likes")) {
+                    update.set("userId", String.valueOf(userId)).unset("user");
+                } else {
+                    Document user = users.getOrDefault(userId, new Document());
+                    update.set("user", new Document("_id", userId)
+                            .append("name", user.get("name"))
+                            .append("pictureUrl", user.get("pictureUrl")));
+                }
+                if (document.get("post") != null) {
+                    update.set("postId", String.valueOf(referencedId(document.get("post")))).unset("post");
+                }
+                if (document.containsKey("learningPlan")) {
+                    Object planId = referencedId(document.get("learningPlan"));
+                    if (planId != null && plans.containsKey(planId)) {
+                        update.set("learningPlanId", String.valueOf(planId))
+                                .set("learningPlanTitle", plans.get(planId).get("title"));
+                    }
+                    update.unset("learningPlan");
+                }
+                bulk.updateOne(new Query(Criteria.where("_id").is(document.get("_id"))), update);
+            }
+            bulk.execute();
+            migrated += batch.size();
+        }
+    }
+
+    private Map<Object, Document> loadById(String collection, Set<Object> ids, String... fields) {
+        Map<Object, Document> byId = new HashMap<>();
+        if (ids.isEmpty()) {
+            return byId;
+        }
+        Query query = new Query(Criteria.where("_id").in(ids));
+        query.fields().include(fields);
+        for (Document document : mongoTemplate.find(query, Document.class, collection)) {
+            byId.put(document.get("_id"), document);
+        }
+        return byId;
+    }
+
+    // A stored DBRef can come back as a DBRef or as its {$ref, $id} document depending on the codec
+    private static Object referencedId(Object reference) {
+        if (reference instanceof DBRef dbRef) {
+            return dbRef.getId();
+        }
+        if (reference instanceof Document document) {
+            return document.get("$id");
+        }
+        return null;
+    }
+}
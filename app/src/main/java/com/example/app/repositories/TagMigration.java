@@ -0,0 +1,72 @@
+package com.example.app.repositories;
+
+import com.example.app.search.TagIndex;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * One-off normalization of post tags stored before tags were normalized on write (trimmed, without
+ * leading '#', lowercase, no duplicates), so the tag queries and suggestions, which look up and
+ * group normalized values, find them. Only posts with a tag that is not normalized are read, and
+ * each is rewritten only if its tags are still the ones read, so an edit made meanwhile wins. A
+ * marker in the migrations collection makes later startups a no-op.
+ */
+@Component
+public class TagMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(TagMigration.class);
+
+    private static final String MIGRATIONS = "migrations";
+    private static final String MARKER = "post-tags";
+    private static final String COLLECTION = "posts";
+    private static final int BATCH_SIZE = 500;
+    // Empty, padded, '#'-prefixed or with an uppercase letter
+    private static final String NOT_NORMALIZED = "^$|^[\\s#]|\\s$|\\p{Lu}";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    public void migrate() {
+        if (mongoTemplate.exists(new Query(Criteria.where("_id").is(MARKER)), MIGRATIONS)) {
+            return;
+        }
+        long migrated = 0;
+        Object lastId = null;
+        while (true) {
+            Criteria pending = Criteria.where("tags").regex(NOT_NORMALIZED);
+            if (lastId != null) {
+                pending = pending.and("_id").gt(lastId);
+            }
+            Query query = new Query(pending).with(Sort.by("_id")).limit(BATCH_SIZE);
+            query.fields().include("tags");
+            List<Document> batch = mongoTemplate.find(query, Document.class, COLLECTION);
+            if (batch.isEmpty()) {
+                break;
+            }
+            BulkOperations updates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, COLLECTION);
+            for (Document post : batch) {
+                List<String> tags = post.getList("tags", String.class);
+                updates.updateOne(new Query(Criteria.where("_id").is(post.get("_id")).and("tags").is(tags)),
+                        new Update().set("tags", TagIndex.normalize(tags)));
+            }
+            migrated += updates.execute().getModifiedCount();
+            lastId = batch.get(batch.size() - 1).get("_id");
+        }
+        mongoTemplate.insert(new Document("_id", MARKER).append("completedAt", new Date()), MIGRATIONS);
+        if (migrated > 0) {
+            logger.info("Normalized the tags of {} posts", migrated);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.app.repositories;
+
+import com.example.app.models.TimelineEntry;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TimelineEntryRepository extends MongoRepository<TimelineEntry, String> {
+    void deleteByPostId(String postId);
+    void deleteByOwnerIdAndAuthorId(String ownerId, String authorId);
+    void deleteByOwnerId(String ownerId);
+}
@@ -0,0 +1,83 @@
+package com.example.app.repositories;
+
+import com.example.app.models.OrderKeys;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One-off backfill of learning-plan topic order keys. Topics stored before order keys were shown
+ * in array order, so each plan's topics without a key get keys in that order, ahead of any topic
+ * that already has one. Keys are set by topic id, so topics added or removed meanwhile are left
+ * alone. A no-op once every topic has a key.
+ */
+@Component
+public class TopicOrderMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(TopicOrderMigration.class);
+
+    private static final int BATCH_SIZE = 500;
+    private static final String COLLECTION = "learning_plans";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    public void migrate() {
+        long migrated = 0;
+        Object lastId = null;
+        while (true) {
+            Criteria pending = Criteria.where("topics").elemMatch(Criteria.where("order").exists(false));
+            if (lastId != null) {
+                pending = pending.and("_id").gt(lastId);
+            }
+            Query query = new Query(pending).with(Sort.by("_id")).limit(BATCH_SIZE);
+            query.fields().include("topics._id", "topics.order");
+            List<Document> batch = mongoTemplate.find(query, Document.class, COLLECTION);
+            if (batch.isEmpty()) {
+                break;
+            }
+            BulkOperations updates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, COLLECTION);
+            for (Document plan : batch) {
+                updates.updateOne(new Query(Criteria.where("_id").is(plan.get("_id"))), keys(plan));
+            }
+            updates.execute();
+            migrated += batch.size();
+            lastId = batch.get(batch.size() - 1).get("_id");
+        }
+        if (migrated > 0) {
+            logger.info("Set topic order keys on {} learning plans", migrated);
+        }
+    }
+
+    private static Update keys(Document plan) {
+        List<Object> unkeyed = new ArrayList<>();
+        String first = null;
+        for (Document topic : plan.getList("topics", Document.class, List.of())) {
+            String order = topic.getString("order");
+            if (order == null) {
+                unkeyed.add(topic.get("_id"));
+            } else if (first == null || order.compareTo(first) < 0) {
+                first = order;
+            }
+        }
+        List<String> keys = OrderKeys.between(null, first, unkeyed.size());
+        Update update = new Update();
+        for (int i = 0; i < unkeyed.size(); i++) {
+            String identifier = "k" + i;
+            update.set("topics.$[" + identifier + "].order", keys.get(i))
+                    .filterArray(Criteria.where(identifier + "._id").is(unkeyed.get(i)).and(identifier + ".order").exists(false));
+        }
+        return update;
+    }
+}
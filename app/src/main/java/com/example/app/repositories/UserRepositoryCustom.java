@@ -0,0 +1,12 @@
+package com.example.app.repositories;
+
+import com.example.app.models.User;
+
+import java.util.Collection;
+
+public interface UserRepositoryCustom {
+    User updateProfile(String userId, String name, String pictureUrl, String provider, String providerId);
+    void adjustFollowCounts(String followerId, String followeeId, long delta);
+    void adjustCounter(Collection<String> userIds, String counter, long delta);
+    long reconcileFollowCounts(int batchSize);
+}
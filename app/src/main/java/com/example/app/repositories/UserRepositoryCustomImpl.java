@@ -0,0 +1,73 @@
+package com.example.app.repositories;
+
+import com.example.app.models.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Field-level user writes. Saving a whole user document would overwrite follower and following
+ * counts incremented by a concurrent follow, so profile changes and counters are $set and $inc.
+ */
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    // Null arguments are left unchanged; returns the updated user, or null if there is none
+    @Override
+    public User updateProfile(String userId, String name, String pictureUrl, String provider, String providerId) {
+        Update update = new Update();
+        if (name != null) {
+            update.set("name", name);
+        }
+        if (pictureUrl != null) {
+            update.set("pictureUrl", pictureUrl);
+        }
+        if (provider != null) {
+            update.set("provider", provider);
+        }
+        if (providerId != null) {
+            update.set("providerId", providerId);
+        }
+        Query byId = Query.query(Criteria.where("id").is(userId));
+        if (update.getUpdateObject().isEmpty()) {
+            return mongoTemplate.findOne(byId, User.class);
+        }
+        return mongoTemplate.findAndModify(byId, update, FindAndModifyOptions.options().returnNew(true), User.class);
+    }
+
+    @Override
+    public void adjustFollowCounts(String followerId, String followeeId, long delta) {
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class)
+                .updateOne(Query.query(Criteria.where("id").is(followerId)), new Update().inc("followingCount", delta))
+                .updateOne(Query.query(Criteria.where("id").is(followeeId)), new Update().inc("followerCount", delta))
+                .execute();
+    }
+
+    @Override
+    public void adjustCounter(Collection<String> userIds, String counter, long delta) {
+        if (!userIds.isEmpty()) {
+            mongoTemplate.updateMulti(Query.query(Criteria.where("id").in(userIds)), new Update().inc(counter, delta),
+                    User.class);
+        }
+    }
+
+    // Recounts follow edges, each direction with one grouped count per batch of users; see CounterReconciler
+    @Override
+    public long reconcileFollowCounts(int batchSize) {
+        return CounterReconciler.reconcile(mongoTemplate, User.class, batchSize, Map.of(
+                "followerCount", followRepository::countFollowers,
+                "followingCount", followRepository::countFollowing), userId -> {});
+    }
+}
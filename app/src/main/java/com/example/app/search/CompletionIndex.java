@@ -0,0 +1,326 @@
+package com.example.app.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Weighted prefix completion over lower-case keys. The base is the flattened leaf level of a trie:
+ * keys sorted in one char pool, so every prefix is a contiguous range found by two binary searches,
+ * and a max tree over the weights that plays the part of each trie node's "best completion below".
+ * The top K of a range come off a heap of max-tree nodes, so a lookup costs O(log n + K log K)
+ * however many keys share the prefix. Writes go to a small overlay that shadows the base, and
+ * merge() folds it into a new base.
+ *
+ * An entry may carry an id (for example the user behind a name); results with the same id are
+ * returned once, which lets one item be found under several keys.
+ */
+public class CompletionIndex {
+
+    // Base, immutable once built
+    private final char[] pool;
+    private final int[] offsets;
+    private final String[] labels;
+    private final String[] ids;
+    private final long[] weights;
+    private final int size;
+    // Index of the heaviest leaf below each node; leaves are size..2*size-1
+    private final int[] best;
+
+    // Entries written since the base was built; weight 0 marks a removal. Guarded by this
+    private final TreeMap<String, Entry> overlay = new TreeMap<>();
+
+    private CompletionIndex(List<Entry> sorted) {
+        size = sorted.size();
+        offsets = new int[size + 1];
+        labels = new String[size];
+        ids = new String[size];
+        weights = new long[size];
+        int length = 0;
+        for (Entry entry : sorted) {
+            length += entry.key().length();
+        }
+        pool = new char[length];
+        int position = 0;
+        for (int i = 0; i < size; i++) {
+            Entry entry = sorted.get(i);
+            entry.key().getChars(0, entry.key().length(), pool, position);
+            position += entry.key().length();
+            offsets[i + 1] = position;
+            // Tags are their own label; keep one string rather than two
+            labels[i] = entry.label().equals(entry.key()) ? null : entry.label();
+            ids[i] = entry.id();
+            weights[i] = entry.weight();
+        }
+        best = new int[2 * size];
+        for (int i = 0; i < size; i++) {
+            best[size + i] = i;
+        }
+        for (int node = size - 1; node > 0; node--) {
+            best[node] = heavier(best[2 * node], best[2 * node + 1]);
+        }
+    }
+
+    public static CompletionIndex empty() {
+        return new CompletionIndex(List.of());
+    }
+
+    public synchronized void put(String key, String label, String id, long weight) {
+        overlay.put(key, new Entry(key, label, id, Math.max(weight, 0)));
+    }
+
+    public synchronized void remove(String key) {
+        overlay.put(key, new Entry(key, key, null, 0));
+    }
+
+    // Adds delta to the weight of key, creating it at delta; an entry that drops to zero is removed
+    public synchronized void adjust(String key, long delta) {
+        Entry current = overlay.get(key);
+        if (current == null) {
+            int index = find(key);
+            current = index >= 0 ? baseEntry(index) : new Entry(key, key, null, 0);
+        }
+        overlay.put(key, new Entry(key, current.label(), current.id(), Math.max(current.weight() + delta, 0)));
+    }
+
+    public synchronized long weight(String key) {
+        Entry entry = overlay.get(key);
+        if (entry != null) {
+            return entry.weight();
+        }
+        int index = find(key);
+        return index >= 0 ? weights[index] : 0;
+    }
+
+    /**
+     * Up to limit entries whose key starts with prefix, heaviest first, ties in key order. Entries
+     * sharing an id count once, under their heaviest key.
+     */
+    public synchronized List<Entry> complete(String prefix, int limit) {
+        List<Entry> results = new ArrayList<>();
+        if (limit <= 0) {
+            return results;
+        }
+        Set<String> seenIds = new HashSet<>();
+
+        // The overlay is bounded (it is merged into the base regularly); a heap avoids sorting all its matches
+        PriorityQueue<Entry> changed = new PriorityQueue<>(BY_WEIGHT);
+        for (Entry entry : overlay.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            if (entry.weight() > 0) {
+                changed.add(entry);
+            }
+        }
+
+        PriorityQueue<Integer> nodes = new PriorityQueue<>((a, b) -> compare(best[a], best[b]));
+        int from = lowerBound(prefix);
+        int to = upperBound(prefix, from);
+        // Bottom-up decomposition of [from, to) into whole subtrees
+        for (int lo = from + size, hi = to + size; lo < hi; lo >>= 1, hi >>= 1) {
+            if ((lo & 1) == 1) {
+                nodes.add(lo++);
+            }
+            if ((hi & 1) == 1) {
+                nodes.add(--hi);
+            }
+        }
+
+        while (results.size() < limit) {
+            Entry candidate = null;
+            while (!nodes.isEmpty() && candidate == null) {
+                int node = nodes.peek();
+                if (node < size) {
+                    nodes.poll();
+                    nodes.add(2 * node);
+                    nodes.add(2 * node + 1);
+                    continue;
+                }
+                int index = node - size;
+                if (!changed.isEmpty() && compare(changed.peek(), index) < 0) {
+                    break; // The overlay's next entry outranks everything left in the base
+                }
+                nodes.poll();
+                if (!overlay.containsKey(key(index))) {
+                    candidate = baseEntry(index);
+                }
+            }
+            if (candidate == null) {
+                if (changed.isEmpty()) {
+                    break;
+                }
+                candidate = changed.poll();
+            }
+            if (candidate.id() == null || seenIds.add(candidate.id())) {
+                results.add(candidate);
+            }
+        }
+        return results;
+    }
+
+    // Copy of the overlay in key order, for merge()
+    public synchronized List<Entry> changes() {
+        return new ArrayList<>(overlay.values());
+    }
+
+    /**
+     * A new index whose base is this base with the changes applied (as returned by changes()). The
+     * base is immutable, so this runs without holding up writes or lookups.
+     */
+    public CompletionIndex merge(List<Entry> changes) {
+        List<Entry> merged = new ArrayList<>(size + changes.size());
+        int index = 0;
+        for (Entry change : changes) {
+            while (index < size && compareKey(index, change.key()) < 0) {
+                merged.add(baseEntry(index++));
+            }
+            if (index < size && compareKey(index, change.key()) == 0) {
+                index++;
+            }
+            if (change.weight() > 0) {
+                merged.add(change);
+            }
+        }
+        while (index < size) {
+            merged.add(baseEntry(index++));
+        }
+        return new CompletionIndex(merged);
+    }
+
+    public synchronized int overlaySize() {
+        return overlay.size();
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", size);
+        stats.put("overlayEntries", overlay.size());
+        stats.put("keyChars", pool.length);
+        // The arrays only; label and id strings are not counted
+        stats.put("arrayBytes", 2L * pool.length + 4L * offsets.length + 8L * weights.length
+                + 4L * best.length + 4L * (labels.length + ids.length));
+        return stats;
+    }
+
+    private Entry baseEntry(int index) {
+        String key = key(index);
+        return new Entry(key, labels[index] != null ? labels[index] : key, ids[index], weights[index]);
+    }
+
+    private String key(int index) {
+        return new String(pool, offsets[index], offsets[index + 1] - offsets[index]);
+    }
+
+    private int find(String key) {
+        int index = lowerBound(key);
+        return index < size && compareKey(index, key) == 0 ? index : -1;
+    }
+
+    // First key not less than prefix
+    private int lowerBound(String prefix) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compareKey(mid, prefix) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // First key at or after from that does not start with prefix
+    private int upperBound(String prefix, int from) {
+        int lo = from;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (startsWith(mid, prefix)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int compareKey(int index, String other) {
+        int start = offsets[index];
+        int length = offsets[index + 1] - start;
+        int common = Math.min(length, other.length());
+        for (int i = 0; i < common; i++) {
+            int difference = pool[start + i] - other.charAt(i);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length - other.length();
+    }
+
+    private boolean startsWith(int index, String prefix) {
+        int start = offsets[index];
+        if (offsets[index + 1] - start < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (pool[start + i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int heavier(int a, int b) {
+        return compare(a, b) <= 0 ? a : b;
+    }
+
+    // Heavier first, then key order (the lower base index)
+    private int compare(int a, int b) {
+        int byWeight = Long.compare(weights[b], weights[a]);
+        return byWeight != 0 ? byWeight : Integer.compare(a, b);
+    }
+
+    private int compare(Entry entry, int index) {
+        int byWeight = Long.compare(weights[index], entry.weight());
+        return byWeight != 0 ? byWeight : -compareKey(index, entry.key());
+    }
+
+    private static final Comparator<Entry> BY_WEIGHT =
+            Comparator.comparingLong(Entry::weight).reversed().thenComparing(Entry::key);
+
+    public record Entry(String key, String label, String id, long weight) {}
+
+    /** Collects entries in any order; a key added twice keeps its last entry. */
+    public static class Builder {
+
+        private final List<Entry> entries = new ArrayList<>();
+
+        public Builder add(String key, String label, String id, long weight) {
+            if (key != null && !key.isEmpty() && weight > 0) {
+                entries.add(new Entry(key, label != null ? label : key, id, weight));
+            }
+            return this;
+        }
+
+        public CompletionIndex build() {
+            Entry[] sorted = entries.toArray(new Entry[0]);
+            // Stable, so the last of equal keys stays last
+            Arrays.sort(sorted, Comparator.comparing(Entry::key));
+            List<Entry> unique = new ArrayList<>(sorted.length);
+            for (int i = 0; i < sorted.length; i++) {
+                if (i + 1 < sorted.length && sorted[i + 1].key().equals(sorted[i].key())) {
+                    continue;
+                }
+                unique.add(sorted[i]);
+            }
+            return new CompletionIndex(unique);
+        }
+    }
+}
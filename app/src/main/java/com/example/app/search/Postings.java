@@ -0,0 +1,362 @@
+package com.example.app.search;
+
+import java.util.Arrays;
+
+/**
+ * Compressed bitmap of non-negative ints (post ordinals), split into chunks of 65536 by the high
+ * 16 bits as in Roaring bitmaps. A chunk with at most 4096 members is a sorted char array, two bytes
+ * per member; a denser chunk is a fixed 8 KB bitmap. Rare tags therefore cost two bytes per post and
+ * common ones at most one bit per post, and AND/OR/AND-NOT work chunk by chunk.
+ */
+public final class Postings {
+
+    private char[] keys = new char[0];
+    private Container[] containers = new Container[0];
+    private int size;
+
+    public void add(int value) {
+        char key = (char) (value >>> 16);
+        int index = find(key);
+        if (index < 0) {
+            index = -index - 1;
+            insert(index, key, new Container());
+        }
+        containers[index].add((char) value);
+    }
+
+    public void remove(int value) {
+        int index = find((char) (value >>> 16));
+        if (index < 0) {
+            return;
+        }
+        Container container = containers[index];
+        container.remove((char) value);
+        if (container.cardinality == 0) {
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+            containers[--size] = null;
+        }
+    }
+
+    public boolean contains(int value) {
+        int index = find((char) (value >>> 16));
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    public int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality;
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Largest member not above value, or -1; walking a result newest-first is repeated calls with the last hit - 1
+    public int previous(int value) {
+        if (value < 0) {
+            return -1;
+        }
+        char key = (char) (value >>> 16);
+        int index = find(key);
+        if (index >= 0) {
+            int low = containers[index].previous((char) value);
+            if (low >= 0) {
+                return key << 16 | low;
+            }
+            index--;
+        } else {
+            index = -index - 2;
+        }
+        return index >= 0 ? keys[index] << 16 | containers[index].last() : -1;
+    }
+
+    public Postings copy() {
+        Postings copy = new Postings();
+        copy.keys = Arrays.copyOf(keys, size);
+        copy.containers = new Container[size];
+        for (int i = 0; i < size; i++) {
+            copy.containers[i] = containers[i].copy();
+        }
+        copy.size = size;
+        return copy;
+    }
+
+    public static Postings and(Postings a, Postings b) {
+        Postings result = new Postings();
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                Container container = a.containers[i].and(b.containers[j]);
+                if (container.cardinality > 0) {
+                    result.append(a.keys[i], container);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    public static Postings or(Postings a, Postings b) {
+        Postings result = new Postings();
+        int i = 0;
+        int j = 0;
+        while (i < a.size || j < b.size) {
+            if (j == b.size || (i < a.size && a.keys[i] < b.keys[j])) {
+                result.append(a.keys[i], a.containers[i++].copy());
+            } else if (i == a.size || a.keys[i] > b.keys[j]) {
+                result.append(b.keys[j], b.containers[j++].copy());
+            } else {
+                result.append(a.keys[i], a.containers[i++].or(b.containers[j++]));
+            }
+        }
+        return result;
+    }
+
+    public static Postings andNot(Postings a, Postings b) {
+        Postings result = new Postings();
+        int j = 0;
+        for (int i = 0; i < a.size; i++) {
+            while (j < b.size && b.keys[j] < a.keys[i]) {
+                j++;
+            }
+            Container container = j < b.size && b.keys[j] == a.keys[i]
+                    ? a.containers[i].andNot(b.containers[j]) : a.containers[i].copy();
+            if (container.cardinality > 0) {
+                result.append(a.keys[i], container);
+            }
+        }
+        return result;
+    }
+
+    public long memoryBytes() {
+        long bytes = 2L * keys.length + 4L * containers.length;
+        for (int i = 0; i < size; i++) {
+            bytes += containers[i].memoryBytes();
+        }
+        return bytes;
+    }
+
+    private int find(char key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insert(int index, char key, Container container) {
+        if (size == keys.length) {
+            int capacity = Math.max(4, size * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private void append(char key, Container container) {
+        insert(size, key, container);
+    }
+
+    // One 65536-value chunk: a sorted array while sparse, a bitmap once dense
+    private static final class Container {
+
+        private static final int ARRAY_MAX = 4096;
+
+        private char[] array = new char[4];
+        private long[] bitmap;
+        private int cardinality;
+
+        void add(char value) {
+            if (bitmap != null) {
+                long bit = 1L << value;
+                if ((bitmap[value >>> 6] & bit) == 0) {
+                    bitmap[value >>> 6] |= bit;
+                    cardinality++;
+                }
+                return;
+            }
+            int index = Arrays.binarySearch(array, 0, cardinality, value);
+            if (index >= 0) {
+                return;
+            }
+            if (cardinality == ARRAY_MAX) {
+                toBitmap();
+                add(value);
+                return;
+            }
+            index = -index - 1;
+            if (cardinality == array.length) {
+                array = Arrays.copyOf(array, Math.min(ARRAY_MAX, cardinality * 2));
+            }
+            System.arraycopy(array, index, array, index + 1, cardinality - index);
+            array[index] = value;
+            cardinality++;
+        }
+
+        void remove(char value) {
+            if (bitmap != null) {
+                long bit = 1L << value;
+                if ((bitmap[value >>> 6] & bit) != 0) {
+                    bitmap[value >>> 6] &= ~bit;
+                    if (--cardinality <= ARRAY_MAX) {
+                        toArray();
+                    }
+                }
+                return;
+            }
+            int index = Arrays.binarySearch(array, 0, cardinality, value);
+            if (index >= 0) {
+                System.arraycopy(array, index + 1, array, index, cardinality - index - 1);
+                cardinality--;
+            }
+        }
+
+        boolean contains(char value) {
+            if (bitmap != null) {
+                return (bitmap[value >>> 6] & (1L << value)) != 0;
+            }
+            return Arrays.binarySearch(array, 0, cardinality, value) >= 0;
+        }
+
+        int previous(char value) {
+            if (bitmap != null) {
+                int word = value >>> 6;
+                long bits = bitmap[word] & (-1L >>> (63 - (value & 63)));
+                while (true) {
+                    if (bits != 0) {
+                        return word * 64 + 63 - Long.numberOfLeadingZeros(bits);
+                    }
+                    if (--word < 0) {
+                        return -1;
+                    }
+                    bits = bitmap[word];
+                }
+            }
+            int index = Arrays.binarySearch(array, 0, cardinality, value);
+            index = index >= 0 ? index : -index - 2;
+            return index >= 0 ? array[index] : -1;
+        }
+
+        int last() {
+            return previous((char) 0xFFFF);
+        }
+
+        Container and(Container other) {
+            if (bitmap != null && other.bitmap != null) {
+                long[] words = new long[1024];
+                for (int i = 0; i < words.length; i++) {
+                    words[i] = bitmap[i] & other.bitmap[i];
+                }
+                return fromBitmap(words);
+            }
+            Container small = bitmap == null ? this : other;
+            Container large = small == this ? other : this;
+            Container result = new Container();
+            result.array = new char[Math.max(1, small.cardinality)];
+            for (int i = 0; i < small.cardinality; i++) {
+                if (large.contains(small.array[i])) {
+                    result.array[result.cardinality++] = small.array[i];
+                }
+            }
+            return result;
+        }
+
+        Container or(Container other) {
+            Container result = copy();
+            if (other.bitmap != null) {
+                if (result.bitmap == null) {
+                    result.toBitmap();
+                }
+                for (int i = 0; i < 1024; i++) {
+                    result.bitmap[i] |= other.bitmap[i];
+                }
+                return fromBitmap(result.bitmap);
+            }
+            for (int i = 0; i < other.cardinality; i++) {
+                result.add(other.array[i]);
+            }
+            return result;
+        }
+
+        Container andNot(Container other) {
+            if (bitmap != null) {
+                long[] words = bitmap.clone();
+                if (other.bitmap != null) {
+                    for (int i = 0; i < 1024; i++) {
+                        words[i] &= ~other.bitmap[i];
+                    }
+                } else {
+                    for (int i = 0; i < other.cardinality; i++) {
+                        words[other.array[i] >>> 6] &= ~(1L << other.array[i]);
+                    }
+                }
+                return fromBitmap(words);
+            }
+            Container result = new Container();
+            result.array = new char[Math.max(1, cardinality)];
+            for (int i = 0; i < cardinality; i++) {
+                if (!other.contains(array[i])) {
+                    result.array[result.cardinality++] = array[i];
+                }
+            }
+            return result;
+        }
+
+        Container copy() {
+            Container copy = new Container();
+            copy.array = array != null ? Arrays.copyOf(array, Math.max(1, cardinality)) : null;
+            copy.bitmap = bitmap != null ? bitmap.clone() : null;
+            copy.cardinality = cardinality;
+            return copy;
+        }
+
+        long memoryBytes() {
+            return bitmap != null ? 8L * bitmap.length : 2L * array.length;
+        }
+
+        private void toBitmap() {
+            bitmap = new long[1024];
+            for (int i = 0; i < cardinality; i++) {
+                bitmap[array[i] >>> 6] |= 1L << array[i];
+            }
+            array = null;
+        }
+
+        private void toArray() {
+            char[] values = new char[Math.max(4, cardinality)];
+            int count = 0;
+            for (int word = 0; word < bitmap.length; word++) {
+                long bits = bitmap[word];
+                while (bits != 0) {
+                    values[count++] = (char) (word * 64 + Long.numberOfTrailingZeros(bits));
+                    bits &= bits - 1;
+                }
+            }
+            array = values;
+            bitmap = null;
+        }
+
+        private static Container fromBitmap(long[] words) {
+            Container container = new Container();
+            container.array = null;
+            container.bitmap = words;
+            for (long word : words) {
+                container.cardinality += Long.bitCount(word);
+            }
+            if (container.cardinality <= ARRAY_MAX) {
+                container.toArray();
+            }
+            return container;
+        }
+    }
+}
@@ -0,0 +1,532 @@
+package com.example.app.search;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Segment-based full-text index on local disk, ranked with BM25. New and changed documents go to an
+ * in-memory buffer and to a write-ahead log; a flush writes the buffer out as a new memory-mapped
+ * segment and records it in the manifest, and when there are too many segments the smallest are
+ * merged. Reopening the directory maps the segments and replays the log, so a restart never needs
+ * a reindex. Documents are identified by a string key; deleting or replacing one marks its old
+ * copy deleted in whichever segment holds it.
+ */
+public class SearchIndex implements Closeable {
+
+    private static final String MANIFEST = "manifest.properties";
+    private static final String LOG = "buffer.log";
+    private static final byte OP_INDEX = 1;
+    private static final byte OP_DELETE = 2;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final Path dir;
+    private final int maxBufferDocs;
+    private final int maxSegments;
+    private final int mergeFactor;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private List<TextSegment> segments = new ArrayList<>();
+    private final Map<String, Map<String, Integer>> buffer = new LinkedHashMap<>(); // key -> term frequencies
+    private final Map<String, Integer> bufferLengths = new HashMap<>();
+    private final Map<String, Set<String>> bufferTerms = new HashMap<>(); // term -> keys
+    private long bufferLength;
+    private int nextSegment;
+    private boolean complete;
+    private DataOutputStream log;
+
+    private SearchIndex(Path dir, int maxBufferDocs, int maxSegments, int mergeFactor) {
+        this.dir = dir;
+        this.maxBufferDocs = maxBufferDocs;
+        this.maxSegments = maxSegments;
+        this.mergeFactor = mergeFactor;
+    }
+
+    public static SearchIndex open(Path dir, int maxBufferDocs, int maxSegments, int mergeFactor) throws IOException {
+        Files.createDirectories(dir);
+        SearchIndex index = new SearchIndex(dir, maxBufferDocs, maxSegments, Math.max(2, mergeFactor));
+        Properties manifest = new Properties();
+        Path manifestFile = dir.resolve(MANIFEST);
+        if (Files.exists(manifestFile)) {
+            try (InputStream in = Files.newInputStream(manifestFile)) {
+                manifest.load(in);
+            }
+        }
+        index.nextSegment = Integer.parseInt(manifest.getProperty("next", "1"));
+        index.complete = Boolean.parseBoolean(manifest.getProperty("complete", "false"));
+        Set<String> live = new LinkedHashSet<>();
+        for (String name : manifest.getProperty("segments", "").split(",")) {
+            if (!name.isBlank()) {
+                live.add(name.trim());
+                index.segments.add(TextSegment.open(dir, name.trim()));
+            }
+        }
+        // Leftovers of a flush or merge that crashed before its manifest was written
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                String fileName = file.getFileName().toString();
+                int dot = fileName.lastIndexOf('.');
+                if ((fileName.endsWith(".idx") || fileName.endsWith(".del")) && !live.contains(fileName.substring(0, dot))) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        index.replayLog();
+        return index;
+    }
+
+    // Adds or replaces a document; title terms count twice, a simple field boost
+    public void index(String key, String title, String... bodies) {
+        List<String> terms = new ArrayList<>(Tokenizer.tokenize(title));
+        terms.addAll(Tokenizer.tokenize(title));
+        for (String body : bodies) {
+            terms.addAll(Tokenizer.tokenize(body));
+        }
+        lock.writeLock().lock();
+        try {
+            appendLog(OP_INDEX, key, terms);
+            deleteEverywhere(key);
+            addToBuffer(key, terms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void delete(String key) {
+        lock.writeLock().lock();
+        try {
+            appendLog(OP_DELETE, key, List.of());
+            deleteEverywhere(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean needsFlush() {
+        lock.readLock().lock();
+        try {
+            return buffer.size() >= maxBufferDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Writes the buffer as a new segment, then merges if there are too many
+    public void flush() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (!buffer.isEmpty()) {
+                TextSegment.Writer writer = new TextSegment.Writer();
+                Map<String, Integer> docs = new HashMap<>();
+                for (String key : buffer.keySet()) {
+                    docs.put(key, writer.addDoc(key, bufferLengths.get(key)));
+                }
+                // Keys were numbered in buffer order, so sorting each term's keys by doc keeps postings ascending
+                for (Map.Entry<String, Set<String>> entry : bufferTerms.entrySet()) {
+                    List<String> keys = new ArrayList<>(entry.getValue());
+                    keys.sort(Comparator.comparingInt(docs::get));
+                    for (String key : keys) {
+                        writer.addPosting(entry.getKey(), docs.get(key), buffer.get(key).get(entry.getKey()));
+                    }
+                }
+                List<TextSegment> next = new ArrayList<>(segments);
+                next.add(writer.write(dir, newSegmentName()));
+                segments = next;
+                writeManifest();
+                buffer.clear();
+                bufferLengths.clear();
+                bufferTerms.clear();
+                bufferLength = 0;
+                resetLog();
+            }
+            if (segments.size() > maxSegments) {
+                mergeSmallest();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Set once a full reindex has been flushed, so a restart knows the index is trustworthy
+    public void markComplete() throws IOException {
+        lock.writeLock().lock();
+        try {
+            complete = true;
+            writeManifest();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isComplete() {
+        lock.readLock().lock();
+        try {
+            return complete;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Best-scoring documents for the query, highest first with ties broken by key, restricted to
+     * keys starting with one of the prefixes (all keys if there are none) and ranked after the given
+     * hit (null for the first page). Returns at most limit hits plus whether there are more.
+     */
+    public Page search(String query, List<String> keyPrefixes, int limit, Hit after) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(Tokenizer.tokenize(query)));
+        if (terms.isEmpty() || limit < 1) {
+            return new Page(List.of(), false);
+        }
+        List<byte[]> prefixes = new ArrayList<>();
+        for (String prefix : keyPrefixes) {
+            prefixes.add(prefix.getBytes(StandardCharsets.UTF_8));
+        }
+        // Lowest ranked at the head, so the heap keeps the best limit + 1 hits
+        Comparator<Hit> rank = Comparator.comparingDouble(Hit::score).reversed().thenComparing(Hit::key);
+        PriorityQueue<Hit> top = new PriorityQueue<>(rank.reversed());
+
+        lock.readLock().lock();
+        try {
+            long docs = buffer.size();
+            long length = bufferLength;
+            for (TextSegment segment : segments) {
+                docs += segment.docCount();
+                length += segment.totalLength();
+            }
+            if (docs == 0) {
+                return new Page(List.of(), false);
+            }
+            double averageLength = (double) length / docs;
+            int[][] termIndexes = new int[segments.size()][terms.size()];
+            double[] idf = new double[terms.size()];
+            for (int t = 0; t < terms.size(); t++) {
+                long docFreq = bufferTerms.getOrDefault(terms.get(t), Set.of()).size();
+                for (int s = 0; s < segments.size(); s++) {
+                    termIndexes[s][t] = segments.get(s).findTerm(terms.get(t));
+                    if (termIndexes[s][t] >= 0) {
+                        docFreq += segments.get(s).docFreq(termIndexes[s][t]);
+                    }
+                }
+                idf[t] = Math.log(1 + (docs - docFreq + 0.5) / (docFreq + 0.5));
+            }
+
+            for (int s = 0; s < segments.size(); s++) {
+                searchSegment(segments.get(s), termIndexes[s], idf, averageLength, prefixes, limit, after, rank, top);
+            }
+            Set<String> candidates = new HashSet<>();
+            for (String term : terms) {
+                candidates.addAll(bufferTerms.getOrDefault(term, Set.of()));
+            }
+            for (String key : candidates) {
+                if (!keyPrefixes.isEmpty() && !startsWithAny(key, keyPrefixes)) {
+                    continue;
+                }
+                Map<String, Integer> frequencies = buffer.get(key);
+                double score = 0;
+                for (int t = 0; t < terms.size(); t++) {
+                    Integer freq = frequencies.get(terms.get(t));
+                    if (freq != null) {
+                        score += bm25(idf[t], freq, bufferLengths.get(key), averageLength);
+                    }
+                }
+                offer(new Hit(key, score), limit, after, rank, top);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(rank);
+        boolean more = hits.size() > limit;
+        return new Page(more ? hits.subList(0, limit) : hits, more);
+    }
+
+    public Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            long docs = 0;
+            long deleted = 0;
+            long bytes = 0;
+            List<Map<String, Object>> segmentStats = new ArrayList<>();
+            for (TextSegment segment : segments) {
+                docs += segment.liveDocCount();
+                deleted += segment.docCount() - segment.liveDocCount();
+                bytes += segment.sizeBytes();
+                segmentStats.add(segment.stats());
+            }
+            stats.put("complete", complete);
+            stats.put("docs", docs + buffer.size());
+            stats.put("deletedDocs", deleted);
+            stats.put("bufferedDocs", buffer.size());
+            stats.put("diskBytes", bytes);
+            stats.put("segments", segmentStats);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (log != null) {
+                log.close();
+                log = null;
+            }
+            for (TextSegment segment : segments) {
+                segment.close();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Document-at-a-time over the query terms' postings, so no per-doc score array is allocated
+    private void searchSegment(TextSegment segment, int[] termIndexes, double[] idf, double averageLength,
+                               List<byte[]> prefixes, int limit, Hit after, Comparator<Hit> rank, PriorityQueue<Hit> top) {
+        List<TextSegment.PostingCursor> cursors = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+        for (int t = 0; t < termIndexes.length; t++) {
+            if (termIndexes[t] >= 0) {
+                TextSegment.PostingCursor cursor = segment.postings(termIndexes[t]);
+                if (cursor.next()) {
+                    cursors.add(cursor);
+                    weights.add(idf[t]);
+                }
+            }
+        }
+        while (true) {
+            int doc = Integer.MAX_VALUE;
+            for (TextSegment.PostingCursor cursor : cursors) {
+                doc = Math.min(doc, cursor.doc());
+            }
+            if (doc == Integer.MAX_VALUE) {
+                return;
+            }
+            double score = 0;
+            int docLength = segment.docLength(doc);
+            for (int c = 0; c < cursors.size(); c++) {
+                TextSegment.PostingCursor cursor = cursors.get(c);
+                if (cursor.doc() == doc) {
+                    score += bm25(weights.get(c), cursor.freq(), docLength, averageLength);
+                    cursor.next();
+                }
+            }
+            if (segment.isDeleted(doc) || (!prefixes.isEmpty() && !segment.keyStartsWithAny(doc, prefixes))) {
+                continue;
+            }
+            if (top.size() > limit && score < top.peek().score()) {
+                continue; // Cannot make the page; skips decoding the key
+            }
+            offer(new Hit(segment.key(doc), score), limit, after, rank, top);
+        }
+    }
+
+    private static void offer(Hit hit, int limit, Hit after, Comparator<Hit> rank, PriorityQueue<Hit> top) {
+        if (after != null && rank.compare(hit, after) <= 0) {
+            return; // On an earlier page
+        }
+        top.add(hit);
+        if (top.size() > limit + 1) {
+            top.poll();
+        }
+    }
+
+    private static double bm25(double idf, int freq, int docLength, double averageLength) {
+        return idf * freq * (K1 + 1) / (freq + K1 * (1 - B + B * docLength / averageLength));
+    }
+
+    private static boolean startsWithAny(String key, List<String> prefixes) {
+        for (String prefix : prefixes) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void deleteEverywhere(String key) {
+        removeFromBuffer(key);
+        for (TextSegment segment : segments) {
+            int doc = segment.findDoc(key);
+            if (doc >= 0) {
+                try {
+                    segment.markDeleted(doc);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    private void addToBuffer(String key, List<String> terms) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : terms) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        buffer.put(key, frequencies);
+        bufferLengths.put(key, terms.size());
+        bufferLength += terms.size();
+        for (String term : frequencies.keySet()) {
+            bufferTerms.computeIfAbsent(term, k -> new HashSet<>()).add(key);
+        }
+    }
+
+    private void removeFromBuffer(String key) {
+        Map<String, Integer> frequencies = buffer.remove(key);
+        if (frequencies == null) {
+            return;
+        }
+        bufferLength -= bufferLengths.remove(key);
+        for (String term : frequencies.keySet()) {
+            Set<String> keys = bufferTerms.get(term);
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                bufferTerms.remove(term);
+            }
+        }
+    }
+
+    // Merges the smallest segments into one, dropping deleted docs
+    private void mergeSmallest() throws IOException {
+        List<TextSegment> bySize = new ArrayList<>(segments);
+        bySize.sort(Comparator.comparingInt(TextSegment::liveDocCount));
+        Set<TextSegment> merging = new HashSet<>(bySize.subList(0, Math.min(mergeFactor, bySize.size())));
+        List<TextSegment> sources = new ArrayList<>();
+        List<TextSegment> next = new ArrayList<>();
+        for (TextSegment segment : segments) {
+            (merging.contains(segment) ? sources : next).add(segment);
+        }
+        TextSegment.Writer writer = TextSegment.merge(sources);
+        if (writer.docCount() > 0) {
+            next.add(writer.write(dir, newSegmentName()));
+        }
+        segments = next;
+        writeManifest();
+        for (TextSegment source : sources) {
+            source.deleteFiles();
+        }
+    }
+
+    private String newSegmentName() {
+        return String.format("seg-%06d", nextSegment++);
+    }
+
+    private void writeManifest() throws IOException {
+        Properties manifest = new Properties();
+        manifest.setProperty("next", String.valueOf(nextSegment));
+        manifest.setProperty("complete", String.valueOf(complete));
+        List<String> names = new ArrayList<>();
+        for (TextSegment segment : segments) {
+            names.add(segment.name());
+        }
+        manifest.setProperty("segments", String.join(",", names));
+        Path temp = dir.resolve(MANIFEST + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            manifest.store(out, "Search index segments, oldest first");
+        }
+        Files.move(temp, dir.resolve(MANIFEST), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void appendLog(byte op, String key, List<String> terms) {
+        try {
+            if (log == null) {
+                log = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(dir.resolve(LOG),
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+            }
+            log.writeByte(op);
+            log.writeUTF(key);
+            log.writeInt(terms.size());
+            for (String term : terms) {
+                log.writeUTF(term);
+            }
+            log.flush(); // To the OS on every write; a crash of the JVM alone loses nothing
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void resetLog() throws IOException {
+        if (log != null) {
+            log.close();
+            log = null;
+        }
+        Files.deleteIfExists(dir.resolve(LOG));
+    }
+
+    // Replaying is idempotent: an entry already flushed just replaces its segment copy with a buffered one
+    private void replayLog() throws IOException {
+        Path file = dir.resolve(LOG);
+        if (!Files.exists(file)) {
+            return;
+        }
+        List<Object[]> entries = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            while (true) {
+                byte op = in.readByte();
+                String key = in.readUTF();
+                int count = in.readInt();
+                List<String> terms = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    terms.add(in.readUTF());
+                }
+                entries.add(new Object[]{op, key, terms});
+            }
+        } catch (EOFException e) {
+            // End of the log, or a record cut short by a crash
+        }
+        for (Object[] entry : entries) {
+            deleteEverywhere((String) entry[1]);
+            if ((byte) entry[0] == OP_INDEX) {
+                @SuppressWarnings("unchecked")
+                List<String> terms = (List<String>) entry[2];
+                addToBuffer((String) entry[1], terms);
+            }
+        }
+        // Rewrite the log without a truncated tail, so later appends stay readable
+        resetLog();
+        for (Map.Entry<String, Map<String, Integer>> doc : buffer.entrySet()) {
+            List<String> terms = new ArrayList<>();
+            doc.getValue().forEach((term, freq) -> {
+                for (int i = 0; i < freq; i++) {
+                    terms.add(term);
+                }
+            });
+            appendLog(OP_INDEX, doc.getKey(), terms);
+        }
+    }
+
+    public record Hit(String key, double score) {}
+
+    public record Page(List<Hit> hits, boolean hasMore) {}
+}
@@ -0,0 +1,331 @@
+package com.example.app.search;
+
+import org.bson.types.ObjectId;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted index from normalized tags to the posts carrying them. Posts are numbered by ordinal in
+ * (createdAt, id) order, so walking a posting list downwards lists posts newest first and a keyset
+ * cursor turns into an ordinal by binary search. Tag strings live once in a dictionary; each post
+ * keeps the dictionary ids of its tags so an edit or delete knows which postings to update.
+ */
+public class TagIndex {
+
+    private static final int[] NO_TAGS = new int[0];
+
+    // All guarded by this
+    private final Map<String, Integer> tagIds = new HashMap<>();
+    private final List<String> tagNames = new ArrayList<>();
+    private final List<Postings> postings = new ArrayList<>();
+    private long[] createdAt = new long[1024];
+    private long[] idHigh = new long[1024];
+    private int[] idLow = new int[1024];
+    private int[][] tagsByOrdinal = new int[1024][];
+    private int size;
+    // Posts appended although older than the newest ordinal (clock skew); binary search cannot find them
+    private final Map<String, Integer> outOfOrder = new HashMap<>();
+    private final boolean complete;
+
+    private TagIndex(boolean complete) {
+        this.complete = complete;
+    }
+
+    public static TagIndex empty() {
+        return new TagIndex(true);
+    }
+
+    // Trimmed, lower-case, without a leading '#', blanks and duplicates dropped, order kept
+    public static List<String> normalize(Collection<String> tags) {
+        if (tags == null) {
+            return new ArrayList<>();
+        }
+        Set<String> normalized = new LinkedHashSet<>();
+        for (String tag : tags) {
+            if (tag == null) {
+                continue;
+            }
+            String value = tag.trim();
+            while (value.startsWith("#")) {
+                value = value.substring(1).trim();
+            }
+            if (!value.isEmpty()) {
+                normalized.add(value.toLowerCase(Locale.ROOT));
+            }
+        }
+        return new ArrayList<>(normalized);
+    }
+
+    // False when the build stopped at its time or size budget; older posts are then only in MongoDB
+    public boolean isComplete() {
+        return complete;
+    }
+
+    // Adds a post or replaces its tags
+    public synchronized void put(String postId, long postCreatedAt, Collection<String> tags) {
+        ObjectId id = parse(postId);
+        if (id == null) {
+            return;
+        }
+        int ordinal = find(postId, postCreatedAt, id);
+        if (ordinal < 0) {
+            ordinal = append(postId, postCreatedAt, id);
+        }
+        setTags(ordinal, tags);
+    }
+
+    public synchronized void remove(String postId, long postCreatedAt) {
+        ObjectId id = parse(postId);
+        int ordinal = id != null ? find(postId, postCreatedAt, id) : -1;
+        if (ordinal >= 0) {
+            setTags(ordinal, List.of());
+        }
+    }
+
+    /**
+     * Posts carrying every tag in all, at least one tag in any (if given) and none of the tags in
+     * none, newest first, starting after the cursor position (null for the first page). Tags must be
+     * normalized; all and any must not both be empty.
+     */
+    public synchronized Result query(List<String> all, List<String> any, List<String> none,
+                                     Long beforeCreatedAt, String beforeId, int limit) {
+        Postings matches = null;
+        List<Postings> required = new ArrayList<>();
+        for (String tag : all) {
+            Postings list = postingsOf(tag);
+            if (list == null) {
+                return new Result(List.of(), false);
+            }
+            required.add(list);
+        }
+        // Smallest first keeps every intermediate result no larger than the rarest tag
+        required.sort((a, b) -> Integer.compare(a.cardinality(), b.cardinality()));
+        for (Postings list : required) {
+            matches = matches == null ? list : Postings.and(matches, list);
+        }
+        if (!any.isEmpty()) {
+            Postings union = new Postings();
+            for (String tag : any) {
+                Postings list = postingsOf(tag);
+                if (list != null) {
+                    union = Postings.or(union, list);
+                }
+            }
+            matches = matches == null ? union : Postings.and(matches, union);
+        }
+        if (matches == null) {
+            return new Result(List.of(), false);
+        }
+        for (String tag : none) {
+            Postings list = postingsOf(tag);
+            if (list != null) {
+                matches = Postings.andNot(matches, list);
+            }
+        }
+
+        int start = size - 1;
+        if (beforeCreatedAt != null) {
+            ObjectId id = parse(beforeId);
+            start = lowerBound(beforeCreatedAt, id != null ? id : new ObjectId(new byte[12])) - 1;
+        }
+        List<Hit> hits = new ArrayList<>();
+        for (int ordinal = matches.previous(start); ordinal >= 0; ordinal = matches.previous(ordinal - 1)) {
+            if (hits.size() == limit) {
+                return new Result(hits, true);
+            }
+            hits.add(new Hit(idAt(ordinal), createdAt[ordinal]));
+        }
+        return new Result(hits, false);
+    }
+
+    // The oldest post in the index, where a listing continues in MongoDB when the index is incomplete
+    public synchronized Hit oldest() {
+        return size == 0 ? null : new Hit(idAt(0), createdAt[0]);
+    }
+
+    public synchronized Map<String, Object> stats() {
+        long postingBytes = 0;
+        for (Postings list : postings) {
+            postingBytes += list.memoryBytes();
+        }
+        long tagBytes = 0;
+        for (int[] tags : tagsByOrdinal) {
+            tagBytes += tags != null ? 16 + 4L * tags.length : 0;
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("posts", size);
+        stats.put("tags", tagNames.size());
+        stats.put("complete", complete);
+        stats.put("postingBytes", postingBytes);
+        stats.put("postBytes", 20L * createdAt.length + 8L * tagsByOrdinal.length + tagBytes);
+        return stats;
+    }
+
+    private Postings postingsOf(String tag) {
+        Integer tagId = tagIds.get(tag);
+        return tagId != null ? postings.get(tagId) : null;
+    }
+
+    private void setTags(int ordinal, Collection<String> tags) {
+        for (int tagId : tagsByOrdinal[ordinal]) {
+            postings.get(tagId).remove(ordinal);
+        }
+        List<String> normalized = normalize(tags);
+        int[] ids = normalized.isEmpty() ? NO_TAGS : new int[normalized.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = intern(normalized.get(i));
+            postings.get(ids[i]).add(ordinal);
+        }
+        tagsByOrdinal[ordinal] = ids;
+    }
+
+    private int intern(String tag) {
+        Integer tagId = tagIds.get(tag);
+        if (tagId == null) {
+            tagId = tagNames.size();
+            tagIds.put(tag, tagId);
+            tagNames.add(tag);
+            postings.add(new Postings());
+        }
+        return tagId;
+    }
+
+    private int append(String postId, long postCreatedAt, ObjectId id) {
+        int ordinal = grow(postCreatedAt, id);
+        if (ordinal > 0 && compare(ordinal - 1, postCreatedAt, idHigh[ordinal], idLow[ordinal]) > 0) {
+            outOfOrder.put(postId, ordinal);
+        }
+        return ordinal;
+    }
+
+    private int grow(long postCreatedAt, ObjectId id) {
+        if (size == createdAt.length) {
+            int capacity = size * 2;
+            createdAt = Arrays.copyOf(createdAt, capacity);
+            idHigh = Arrays.copyOf(idHigh, capacity);
+            idLow = Arrays.copyOf(idLow, capacity);
+            tagsByOrdinal = Arrays.copyOf(tagsByOrdinal, capacity);
+        }
+        int ordinal = size++;
+        ByteBuffer bytes = ByteBuffer.wrap(id.toByteArray());
+        createdAt[ordinal] = postCreatedAt;
+        idHigh[ordinal] = bytes.getLong();
+        idLow[ordinal] = bytes.getInt();
+        tagsByOrdinal[ordinal] = NO_TAGS;
+        return ordinal;
+    }
+
+    private int find(String postId, long postCreatedAt, ObjectId id) {
+        Integer skewed = outOfOrder.get(postId);
+        if (skewed != null) {
+            return skewed;
+        }
+        int ordinal = lowerBound(postCreatedAt, id);
+        ByteBuffer bytes = ByteBuffer.wrap(id.toByteArray());
+        if (ordinal < size && compare(ordinal, postCreatedAt, bytes.getLong(), bytes.getInt()) == 0) {
+            return ordinal;
+        }
+        return -1;
+    }
+
+    // Number of ordinals ordered before (createdAt, id)
+    private int lowerBound(long postCreatedAt, ObjectId id) {
+        ByteBuffer bytes = ByteBuffer.wrap(id.toByteArray());
+        long high = bytes.getLong();
+        int low = bytes.getInt();
+        int from = 0;
+        int to = size;
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (compare(mid, postCreatedAt, high, low) < 0) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+    private int compare(int ordinal, long postCreatedAt, long high, int low) {
+        int cmp = Long.compare(createdAt[ordinal], postCreatedAt);
+        if (cmp == 0) {
+            cmp = Long.compareUnsigned(idHigh[ordinal], high);
+        }
+        return cmp != 0 ? cmp : Integer.compareUnsigned(idLow[ordinal], low);
+    }
+
+    private String idAt(int ordinal) {
+        ByteBuffer bytes = ByteBuffer.allocate(12).putLong(idHigh[ordinal]).putInt(idLow[ordinal]);
+        return new ObjectId(bytes.array()).toHexString();
+    }
+
+    private static ObjectId parse(String id) {
+        return id != null && ObjectId.isValid(id) ? new ObjectId(id) : null;
+    }
+
+    public record Hit(String postId, long createdAt) {}
+
+    public record Result(List<Hit> hits, boolean hasMore) {}
+
+    /**
+     * Builds an index from posts read newest first, the order a time-bounded scan wants: if it stops
+     * early, the posts it skipped are the oldest ones.
+     */
+    public static final class Builder {
+
+        private final TagIndex scanned = new TagIndex(true);
+
+        public void add(String postId, long postCreatedAt, Collection<String> tags) {
+            ObjectId id = parse(postId);
+            if (id == null) {
+                return;
+            }
+            int ordinal = scanned.grow(postCreatedAt, id);
+            List<String> normalized = normalize(tags);
+            int[] ids = new int[normalized.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = scanned.intern(normalized.get(i));
+            }
+            scanned.tagsByOrdinal[ordinal] = ids;
+        }
+
+        // Reverses the scan into ordinal order and fills the postings in ascending order
+        public TagIndex build(boolean complete) {
+            TagIndex index = new TagIndex(complete);
+            int n = scanned.size;
+            index.createdAt = new long[Math.max(n, 1024)];
+            index.idHigh = new long[index.createdAt.length];
+            index.idLow = new int[index.createdAt.length];
+            index.tagsByOrdinal = new int[index.createdAt.length][];
+            for (int i = 0; i < n; i++) {
+                int from = n - 1 - i;
+                index.createdAt[i] = scanned.createdAt[from];
+                index.idHigh[i] = scanned.idHigh[from];
+                index.idLow[i] = scanned.idLow[from];
+                index.tagsByOrdinal[i] = scanned.tagsByOrdinal[from];
+            }
+            index.size = n;
+            index.tagIds.putAll(scanned.tagIds);
+            index.tagNames.addAll(scanned.tagNames);
+            for (int t = 0; t < scanned.tagNames.size(); t++) {
+                index.postings.add(new Postings());
+            }
+            for (int ordinal = 0; ordinal < n; ordinal++) {
+                for (int tagId : index.tagsByOrdinal[ordinal]) {
+                    index.postings.get(tagId).add(ordinal);
+                }
+            }
+            return index;
+        }
+    }
+}
@@ -0,0 +1,456 @@
+package com.example.app.search;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * One immutable, memory-mapped segment of the full-text index. Nothing but the deleted-docs bitset
+ * is copied onto the heap: term lookups binary-search the mapped term table and postings are decoded
+ * straight from the mapping, so the OS page cache decides what stays in memory.
+ *
+ * File layout (big-endian): a header of counts and section offsets, then the postings (per term,
+ * docFreq pairs of varint doc delta and varint term frequency), the doc table (key offset and length
+ * per doc), the key bytes, the key index (doc numbers sorted by key), the term table (term offset,
+ * docFreq and postings offset per term, sorted by term) and the term bytes. Deleted docs are appended
+ * to a sidecar .del file as ints.
+ */
+public final class TextSegment {
+
+    private static final int MAGIC = 0x54534731; // "TSG1"
+    private static final int HEADER_BYTES = 4 + 4 + 4 + 8 + 4 * 3;
+
+    private final String name;
+    private final Path file;
+    private final Path deletesFile;
+    private final ByteBuffer data; // Absolute reads only, so one mapping serves every thread
+    private final int docCount;
+    private final int termCount;
+    private final long totalLength;
+    private final int docTablePos;
+    private final int keyIndexPos;
+    private final int termTablePos;
+
+    private final BitSet deleted = new BitSet();
+    private int deletedCount;
+    private FileChannel deletes;
+
+    private TextSegment(String name, Path file, Path deletesFile, ByteBuffer data) {
+        this.name = name;
+        this.file = file;
+        this.deletesFile = deletesFile;
+        this.data = data;
+        if (data.getInt(0) != MAGIC) {
+            throw new IllegalStateException("Not a search segment: " + file);
+        }
+        this.docCount = data.getInt(4);
+        this.termCount = data.getInt(8);
+        this.totalLength = data.getLong(12);
+        this.docTablePos = data.getInt(20);
+        this.keyIndexPos = data.getInt(24);
+        this.termTablePos = data.getInt(28);
+    }
+
+    public static TextSegment open(Path dir, String name) throws IOException {
+        Path file = dir.resolve(name + ".idx");
+        Path deletesFile = dir.resolve(name + ".del");
+        MappedByteBuffer data;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        TextSegment segment = new TextSegment(name, file, deletesFile, data);
+        if (Files.exists(deletesFile)) {
+            ByteBuffer ints = ByteBuffer.wrap(Files.readAllBytes(deletesFile));
+            while (ints.remaining() >= 4) {
+                int doc = ints.getInt();
+                if (doc >= 0 && doc < segment.docCount && !segment.deleted.get(doc)) {
+                    segment.deleted.set(doc);
+                    segment.deletedCount++;
+                }
+            }
+        }
+        return segment;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int docCount() {
+        return docCount;
+    }
+
+    public int liveDocCount() {
+        return docCount - deletedCount;
+    }
+
+    public long totalLength() {
+        return totalLength;
+    }
+
+    public long sizeBytes() {
+        return data.capacity();
+    }
+
+    public boolean isDeleted(int doc) {
+        return deleted.get(doc);
+    }
+
+    public void markDeleted(int doc) throws IOException {
+        if (deleted.get(doc)) {
+            return;
+        }
+        deleted.set(doc);
+        deletedCount++;
+        if (deletes == null) {
+            deletes = FileChannel.open(deletesFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        deletes.write(ByteBuffer.allocate(4).putInt(0, doc));
+    }
+
+    public int docLength(int doc) {
+        return data.getInt(docTablePos + 8 * doc + 4);
+    }
+
+    public String key(int doc) {
+        return readString(data.getInt(docTablePos + 8 * doc));
+    }
+
+    // Compares the raw key bytes, so filtering by type or owner decodes no strings
+    public boolean keyStartsWithAny(int doc, List<byte[]> prefixes) {
+        int pos = data.getInt(docTablePos + 8 * doc);
+        int length = data.getShort(pos) & 0xFFFF;
+        for (byte[] prefix : prefixes) {
+            if (prefix.length <= length && startsWith(pos + 2, prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Doc number of the key, or -1
+    public int findDoc(String key) {
+        int low = 0;
+        int high = docCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int doc = data.getInt(keyIndexPos + 4 * mid);
+            int cmp = key(doc).compareTo(key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return doc;
+            }
+        }
+        return -1;
+    }
+
+    // Index of the term in the term table, or -1
+    public int findTerm(String term) {
+        int low = 0;
+        int high = termCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = term(mid).compareTo(term);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    public int termCount() {
+        return termCount;
+    }
+
+    public String term(int termIndex) {
+        return readString(data.getInt(termTablePos + 12 * termIndex));
+    }
+
+    public int docFreq(int termIndex) {
+        return data.getInt(termTablePos + 12 * termIndex + 4);
+    }
+
+    public PostingCursor postings(int termIndex) {
+        return new PostingCursor(data, data.getInt(termTablePos + 12 * termIndex + 8), docFreq(termIndex));
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", name);
+        stats.put("docs", docCount);
+        stats.put("deleted", deletedCount);
+        stats.put("terms", termCount);
+        stats.put("bytes", sizeBytes());
+        return stats;
+    }
+
+    public void close() throws IOException {
+        if (deletes != null) {
+            deletes.close();
+            deletes = null;
+        }
+    }
+
+    // Only called once the segment is out of the manifest; the mapping stays valid until collected
+    public void deleteFiles() throws IOException {
+        close();
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(deletesFile);
+    }
+
+    private boolean startsWith(int pos, byte[] prefix) {
+        for (int i = 0; i < prefix.length; i++) {
+            if (data.get(pos + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String readString(int pos) {
+        byte[] bytes = new byte[data.getShort(pos) & 0xFFFF];
+        data.get(pos + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Copies the live docs of the given segments, oldest first, into one writer for a merged segment
+    public static Writer merge(List<TextSegment> segments) {
+        Writer writer = new Writer();
+        List<int[]> remaps = new ArrayList<>();
+        for (TextSegment segment : segments) {
+            int[] remap = new int[segment.docCount];
+            for (int doc = 0; doc < segment.docCount; doc++) {
+                remap[doc] = segment.isDeleted(doc) ? -1 : writer.addDoc(segment.key(doc), segment.docLength(doc));
+            }
+            remaps.add(remap);
+        }
+        for (int s = 0; s < segments.size(); s++) {
+            TextSegment segment = segments.get(s);
+            int[] remap = remaps.get(s);
+            for (int t = 0; t < segment.termCount; t++) {
+                String term = segment.term(t);
+                PostingCursor postings = segment.postings(t);
+                while (postings.next()) {
+                    if (remap[postings.doc()] >= 0) {
+                        writer.addPosting(term, remap[postings.doc()], postings.freq());
+                    }
+                }
+            }
+        }
+        return writer;
+    }
+
+    /** Cursor over one term's postings in doc order. */
+    public static final class PostingCursor {
+
+        private final ByteBuffer data;
+        private int pos;
+        private int remaining;
+        private int doc = -1;
+        private int freq;
+
+        PostingCursor(ByteBuffer data, int pos, int count) {
+            this.data = data;
+            this.pos = pos;
+            this.remaining = count;
+        }
+
+        public boolean next() {
+            if (remaining == 0) {
+                doc = Integer.MAX_VALUE;
+                return false;
+            }
+            remaining--;
+            doc = (doc < 0 ? 0 : doc) + readVarint();
+            freq = readVarint();
+            return true;
+        }
+
+        public int doc() {
+            return doc;
+        }
+
+        public int freq() {
+            return freq;
+        }
+
+        private int readVarint() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data.get(pos++);
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+
+    /**
+     * Collects docs and postings, then writes a segment file. Docs are numbered in the order they are
+     * added, and each term's postings must be added in ascending doc order.
+     */
+    public static final class Writer {
+
+        private final List<String> keys = new ArrayList<>();
+        private int[] lengths = new int[256];
+        private long totalLength;
+        private final TreeMap<String, int[]> postings = new TreeMap<>(); // term -> [size, doc, freq, doc, freq, ...]
+
+        public int addDoc(String key, int length) {
+            int doc = keys.size();
+            if (doc == lengths.length) {
+                lengths = Arrays.copyOf(lengths, doc * 2);
+            }
+            keys.add(key);
+            lengths[doc] = length;
+            totalLength += length;
+            return doc;
+        }
+
+        public void addPosting(String term, int doc, int freq) {
+            int[] list = postings.get(term);
+            if (list == null) {
+                list = new int[5];
+            } else if (list[0] + 3 > list.length) {
+                list = Arrays.copyOf(list, list.length * 2);
+            }
+            list[list[0] + 1] = doc;
+            list[list[0] + 2] = freq;
+            list[0] += 2;
+            postings.put(term, list);
+        }
+
+        public int docCount() {
+            return keys.size();
+        }
+
+        public TextSegment write(Path dir, String name) throws IOException {
+            Path file = dir.resolve(name + ".idx");
+            int docCount = keys.size();
+            int[] termPostings = new int[postings.size()];
+            int[] docFreqs = new int[postings.size()];
+            int[] keyPositions = new int[docCount];
+            int[] termPositions = new int[postings.size()];
+            int docTablePos;
+            int keyIndexPos;
+            int termTablePos;
+            try (CountingOutput out = new CountingOutput(Files.newOutputStream(file))) {
+                out.write(new byte[HEADER_BYTES]);
+                int t = 0;
+                for (int[] list : postings.values()) {
+                    termPostings[t] = out.position();
+                    docFreqs[t] = list[0] / 2;
+                    int previous = 0;
+                    for (int i = 1; i < list[0]; i += 2) {
+                        out.writeVarint(list[i] - previous);
+                        out.writeVarint(list[i + 1]);
+                        previous = list[i];
+                    }
+                    t++;
+                }
+                // Doc table is written before the key bytes, so key offsets are known in advance
+                docTablePos = out.position();
+                int keyPos = docTablePos + 8 * docCount;
+                byte[][] keyBytes = new byte[docCount][];
+                for (int doc = 0; doc < docCount; doc++) {
+                    keyBytes[doc] = keys.get(doc).getBytes(StandardCharsets.UTF_8);
+                    keyPositions[doc] = keyPos;
+                    keyPos += 2 + keyBytes[doc].length;
+                    out.writeInt(keyPositions[doc]);
+                    out.writeInt(lengths[doc]);
+                }
+                for (byte[] bytes : keyBytes) {
+                    out.writeShort(bytes.length);
+                    out.write(bytes);
+                }
+                keyIndexPos = out.position();
+                Integer[] byKey = new Integer[docCount];
+                for (int doc = 0; doc < docCount; doc++) {
+                    byKey[doc] = doc;
+                }
+                Arrays.sort(byKey, (a, b) -> keys.get(a).compareTo(keys.get(b)));
+                for (int doc : byKey) {
+                    out.writeInt(doc);
+                }
+                termTablePos = out.position();
+                int termPos = termTablePos + 12 * postings.size();
+                List<byte[]> termBytes = new ArrayList<>(postings.size());
+                t = 0;
+                for (String term : postings.keySet()) {
+                    byte[] bytes = term.getBytes(StandardCharsets.UTF_8);
+                    termBytes.add(bytes);
+                    termPositions[t] = termPos;
+                    termPos += 2 + bytes.length;
+                    out.writeInt(termPositions[t]);
+                    out.writeInt(docFreqs[t]);
+                    out.writeInt(termPostings[t]);
+                    t++;
+                }
+                for (byte[] bytes : termBytes) {
+                    out.writeShort(bytes.length);
+                    out.write(bytes);
+                }
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                    .putInt(MAGIC)
+                    .putInt(docCount)
+                    .putInt(postings.size())
+                    .putLong(totalLength)
+                    .putInt(docTablePos)
+                    .putInt(keyIndexPos)
+                    .putInt(termTablePos)
+                    .flip();
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.write(header, 0);
+                channel.force(true);
+            }
+            return open(dir, name);
+        }
+    }
+
+    private static final class CountingOutput extends DataOutputStream {
+
+        CountingOutput(OutputStream out) {
+            super(new BufferedOutputStream(out, 1 << 16));
+        }
+
+        int position() {
+            if (written < 0) {
+                throw new IllegalStateException("Segment larger than 2 GB");
+            }
+            return written;
+        }
+
+        void writeVarint(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            write(value);
+        }
+    }
+}
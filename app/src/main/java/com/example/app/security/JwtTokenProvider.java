@@ -2,17 +2,33 @@ package com.example.app.security;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Issues and verifies the app's JWTs. The signing key and parser are built once; a token is
+ * verified once into an immutable {@link VerifiedToken}, which is then cached under the SHA-256
+ * digest of the token until it expires, so a client reusing its token skips signature checking
+ * and claims parsing on every later request. Raw tokens are never kept in memory.
+ * Tokens of an account deleted through this instance are refused at once; JwtAuthenticationFilter
+ * refuses those of any account that no longer exists.
+ */
 @Component
 public class JwtTokenProvider {
 
@@ -22,6 +38,23 @@ public class JwtTokenProvider {
     @Value("${jwt.expiration}")
     private long jwtExpirationInMs;
 
+    @Value("${app.jwt.cache-size:10000}")
+    private int cacheSize;
+
+    private SecretKey key;
+    private JwtParser parser;
+
+    private final ConcurrentHashMap<String, VerifiedToken> verified = new ConcurrentHashMap<>();
+
+    // User id -> time until which that user's tokens are refused
+    private final ConcurrentHashMap<String, Long> revokedUsers = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(key).build(); // Immutable and thread-safe
+    }
+
     // Generate a JWT token
     public String generateToken(String email, String userId, String name, String pictureUrl) {
         Date now = new Date();
@@ -35,37 +68,83 @@ public class JwtTokenProvider {
             claims.put("picture", pictureUrl);
         }
 
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-
         return Jwts.builder()
-                .setClaims(claims)
-                .setIssuedAt(new Date())
-                .setExpiration(expiryDate)
+                .claims(claims)
+                .issuedAt(now)
+                .expiration(expiryDate)
                 .signWith(key)
                 .compact();
     }
 
-    // Extract user email from JWT token
-    public String getEmailFromJWT(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8)))
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-
-        return claims.get("email", String.class);
-    }
+    // Verify a JWT token; empty when the signature, format or expiry is invalid
+    public Optional<VerifiedToken> verify(String token) {
+        long now = System.currentTimeMillis();
+        String digest = cacheSize > 0 ? digest(token) : null;
+        if (digest != null) {
+            VerifiedToken cached = verified.get(digest);
+            if (cached != null) {
+                if (!cached.isExpired(now) && !isRevoked(cached.getUserId(), now)) {
+                    return Optional.of(cached);
+                }
+                verified.remove(digest, cached);
+                return Optional.empty();
+            }
+        }
 
-    // Validate the JWT token
-    public boolean validateToken(String authToken) {
+        VerifiedToken verifiedToken;
         try {
-            Jwts.parser()
-                    .verifyWith(Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8)))
-                    .build()
-                    .parseSignedClaims(authToken);
-            return true;
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            verifiedToken = new VerifiedToken(claims.get("userId", String.class), claims.get("email", String.class),
+                    claims.get("name", String.class), claims.get("picture", String.class), claims.getExpiration());
         } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (isRevoked(verifiedToken.getUserId(), now)) {
+            return Optional.empty();
+        }
+        if (digest != null) {
+            if (verified.size() >= cacheSize) {
+                evict(now);
+            }
+            verified.put(digest, verifiedToken);
+        }
+        return Optional.of(verifiedToken);
+    }
+
+    public void revokeUser(String userId) {
+        long now = System.currentTimeMillis();
+        revokedUsers.values().removeIf(until -> until <= now);
+        // No token issued before now outlives its expiration window
+        revokedUsers.put(userId, now + jwtExpirationInMs);
+        verified.values().removeIf(token -> userId.equals(token.getUserId()));
+    }
+
+    private boolean isRevoked(String userId, long now) {
+        if (revokedUsers.isEmpty() || userId == null) {
             return false;
         }
+        Long until = revokedUsers.get(userId);
+        return until != null && until > now;
+    }
+
+    // Drop expired entries first; if the cache is still full, drop arbitrary ones down to 90%. A dropped
+    // token is simply verified again on its next use, so approximate eviction is good enough.
+    private void evict(long now) {
+        verified.values().removeIf(token -> token.isExpired(now));
+        int target = cacheSize * 9 / 10;
+        Iterator<String> keys = verified.keySet().iterator();
+        while (verified.size() > target && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e); // Mandatory in every JRE
+        }
     }
-}
\ No newline at end of file
+}
@@ -2,6 +2,8 @@ package com.example.app.security;
 
 import com.example.app.models.User;
 import com.example.app.repositories.UserRepository;
+import com.example.app.services.SuggestService;
+import com.example.app.services.UserCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
@@ -28,6 +30,12 @@ public class OAuth2AuthenticationSuccessHandler extends SimpleUrlAuthenticationS
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private SuggestService suggestService;
+
     @Override
     public void onAuthenticationSuccess(HttpServletRequest request, HttpServletResponse response, Authentication authentication)
             throws IOException {
@@ -51,26 +59,38 @@ public class OAuth2AuthenticationSuccessHandler extends SimpleUrlAuthenticationS
         if (userOptional.isPresent()) {
             // User exists, update only if necessary
             user = userOptional.get();
+            String newProvider = null;
+            String newProviderId = null;
+            String newName = null;
+            String newPictureUrl = null;
             // Update provider and providerId if they differ (e.g., in case of provider changes)
             if (!provider.equals(user.getProvider()) || !providerId.equals(user.getProviderId())) {
-                user.setProvider(provider);
-                user.setProviderId(providerId);
+                newProvider = provider;
+                newProviderId = providerId;
             }
             // Only update name and pictureUrl if they are null or empty (i.e., not customized)
             if (user.getName() == null || user.getName().trim().isEmpty()) {
-                user.setName(name);
+                newName = name;
             }
             if (user.getPictureUrl() == null || user.getPictureUrl().trim().isEmpty()) {
-                user.setPictureUrl(pictureUrl);
+                newPictureUrl = pictureUrl;
+            }
+            // Field updates, so a login never overwrites follow counters changed since the read
+            if (newProvider != null || newName != null || newPictureUrl != null) {
+                User updated = userRepository.updateProfile(user.getId(), newName, newPictureUrl, newProvider, newProviderId);
+                if (updated != null) {
+                    suggestService.onUserSaved(user, updated);
+                    user = updated;
+                }
+                userCache.invalidate(user);
             }
         } else {
             // New user, create with all details
-            user = new User(email, name, pictureUrl, provider, providerId);
+            user = userRepository.insert(new User(email, name, pictureUrl, provider, providerId));
+            userCache.invalidate(user);
+            suggestService.onUserSaved(null, user);
         }
 
-        // Save the user (new or updated)
-        userRepository.save(user);
-
         // Generate JWT token
         String token = tokenProvider.generateToken(user.getEmail(), user.getId(), user.getName(), user.getPictureUrl());
 
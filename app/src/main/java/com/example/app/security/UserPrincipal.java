@@ -0,0 +1,59 @@
+package com.example.app.security;
+
+import com.example.app.models.AuthorSnapshot;
+
+import java.security.Principal;
+
+/**
+ * The authenticated user, built from the claims of a verified JWT so request handling knows who is
+ * calling without loading the user document. getName() returns the email, as the plain email
+ * principal used to.
+ */
+public final class UserPrincipal implements Principal {
+
+    private final String id;
+    private final String email;
+    private final String name;
+    private final String pictureUrl;
+
+    public UserPrincipal(String id, String email, String name, String pictureUrl) {
+        this.id = id;
+        this.email = email;
+        this.name = name;
+        this.pictureUrl = pictureUrl;
+    }
+
+    public static UserPrincipal from(VerifiedToken token) {
+        return new UserPrincipal(token.getUserId(), token.getEmail(), token.getName(), token.getPictureUrl());
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    public String getDisplayName() {
+        return name;
+    }
+
+    public String getPictureUrl() {
+        return pictureUrl;
+    }
+
+    public AuthorSnapshot toAuthorSnapshot() {
+        return new AuthorSnapshot(id, name, pictureUrl);
+    }
+
+    @Override
+    public String toString() {
+        return "UserPrincipal[" + id + "]";
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.app.security;
+
+import java.util.Date;
+
+// Claims of a JWT whose signature and expiry have been checked; immutable so it can be cached and shared
+public final class VerifiedToken {
+
+    private final String userId;
+    private final String email;
+    private final String name;
+    private final String pictureUrl;
+    private final Date expiresAt;
+
+    public VerifiedToken(String userId, String email, String name, String pictureUrl, Date expiresAt) {
+        this.userId = userId;
+        this.email = email;
+        this.name = name;
+        this.pictureUrl = pictureUrl;
+        this.expiresAt = expiresAt != null ? new Date(expiresAt.getTime()) : null;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPictureUrl() {
+        return pictureUrl;
+    }
+
+    public Date getExpiresAt() {
+        return expiresAt != null ? new Date(expiresAt.getTime()) : null;
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return expiresAt != null && expiresAt.getTime() <= nowMillis;
+    }
+}
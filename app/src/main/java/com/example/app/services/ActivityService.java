@@ -0,0 +1,110 @@
+package com.example.app.services;
+
+import com.example.app.exceptions.BadRequestException;
+import com.example.app.exceptions.NotFoundException;
+import com.example.app.models.ActivityHeatmap;
+import com.example.app.models.UserActivity;
+import com.example.app.repositories.UserRepository;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Activity heatmaps and streaks. Each progress update posted and each topic completed adds to the
+ * user's count for that day (UTC) in their user_activity document, which also carries the streak,
+ * so recording is one upsert and a year of heatmap is one read of one small document. Activity is
+ * a log: deleting an update or reopening a topic does not take back the day it was counted on.
+ */
+@Service
+public class ActivityService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    public void record(String userId, int events) {
+        if (events > 0) {
+            mongoTemplate.upsert(new Query(Criteria.where("id").is(userId)), recordUpdate(today(), events), UserActivity.class);
+        }
+    }
+
+    /**
+     * Adds events on a day, extending the streak when the day follows the last active one and
+     * starting over after a gap. Days are expected in order: recording an earlier day counts it
+     * but leaves the streak alone.
+     */
+    static AggregationUpdate recordUpdate(LocalDate day, int events) {
+        String path = dayPath(day);
+        long epochDay = day.toEpochDay();
+        Document streak = new Document("$switch", new Document("branches", List.of(
+                new Document("case", new Document("$gte", List.of("$lastActiveDay", epochDay))).append("then", "$currentStreak"),
+                new Document("case", new Document("$eq", List.of("$lastActiveDay", epochDay - 1)))
+                        .append("then", new Document("$add", List.of("$currentStreak", 1)))))
+                .append("default", 1));
+        return AggregationUpdate.from(List.of(
+                Aggregation.stage(new Document("$set", new Document()
+                        .append(path, new Document("$add", List.of(new Document("$ifNull", List.of("$" + path, 0)), events)))
+                        .append("total", new Document("$add", List.of(new Document("$ifNull", List.of("$total", 0)), events)))
+                        .append("currentStreak", streak)
+                        .append("lastActiveDay", new Document("$max", List.of("$lastActiveDay", epochDay))))),
+                Aggregation.stage(new Document("$set", new Document("longestStreak",
+                        new Document("$max", List.of(new Document("$ifNull", List.of("$longestStreak", 0)), "$currentStreak")))))));
+    }
+
+    // The given calendar year, or the 365 days up to today
+    public ActivityHeatmap getHeatmap(String userId, Integer year) {
+        if (year != null && (year < 1970 || year > 9999)) {
+            throw new BadRequestException("Invalid year");
+        }
+        LocalDate today = today();
+        LocalDate from = year != null ? LocalDate.of(year, 1, 1) : today.minusDays(364);
+        LocalDate to = year != null ? LocalDate.of(year, 12, 31) : today;
+        Query query = new Query(Criteria.where("id").is(userId));
+        query.fields().include("currentStreak", "longestStreak", "lastActiveDay");
+        for (int y = from.getYear(); y <= to.getYear(); y++) {
+            query.fields().include("years." + y);
+        }
+        UserActivity activity = mongoTemplate.findOne(query, UserActivity.class);
+        if (activity == null) {
+            if (!userRepository.existsById(userId)) {
+                throw new NotFoundException("User not found");
+            }
+            return new ActivityHeatmap(from, to, new TreeMap<>(), 0, 0, null);
+        }
+
+        Map<LocalDate, Integer> days = new TreeMap<>();
+        Map<String, Map<String, Integer>> years = activity.getYears() != null ? activity.getYears() : Map.of();
+        years.forEach((y, counts) -> counts.forEach((monthDay, count) -> {
+            LocalDate day = LocalDate.parse(y + "-" + monthDay);
+            if (!day.isBefore(from) && !day.isAfter(to)) {
+                days.put(day, count);
+            }
+        }));
+        LocalDate lastActive = activity.getLastActiveDay() != null ? LocalDate.ofEpochDay(activity.getLastActiveDay()) : null;
+        // A streak is still current through the day after its last active day
+        int currentStreak = lastActive != null && !lastActive.isBefore(today.minusDays(1)) ? activity.getCurrentStreak() : 0;
+        return new ActivityHeatmap(from, to, days, currentStreak, activity.getLongestStreak(), lastActive);
+    }
+
+    // years.<yyyy>.<MM-dd>
+    static String dayPath(LocalDate day) {
+        return "years." + day.getYear() + "." + day.toString().substring(5);
+    }
+
+    private static LocalDate today() {
+        return LocalDate.now(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.app.services;
+
+import com.example.app.models.Comment;
+import com.example.app.models.LearningPlan;
+import com.example.app.models.Post;
+import com.example.app.models.ProgressUpdate;
+import com.example.app.models.User;
+import com.example.app.repositories.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Keeps the author snapshots embedded in posts, comments, progress updates and learning plans in
+ * line with the user document. A profile change is rare next to the reads it saves, so it pays for
+ * one indexed multi-update per collection, run in the background.
+ */
+@Service
+public class AuthorSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthorSnapshotService.class);
+
+    private static final List<Class<?>> AUTHORED_TYPES =
+            List.of(Post.class, Comment.class, ProgressUpdate.class, LearningPlan.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Async
+    public void refresh(String userId) {
+        // Re-read rather than trusting the caller's copy, so out-of-order refreshes still converge on the latest profile
+        User user = userRepository.findById(userId).orElse(null);
+        if (user == null) {
+            return;
+        }
+        Query byAuthor = new Query(Criteria.where("user.id").is(userId));
+        Update update = new Update().set("user.name", user.getName()).set("user.pictureUrl", user.getPictureUrl());
+        for (Class<?> type : AUTHORED_TYPES) {
+            try {
+                mongoTemplate.updateMulti(byAuthor, update, type);
+            } catch (RuntimeException e) {
+                logger.warn("Could not refresh author snapshots of {} in {}", userId, type.getSimpleName(), e);
+            }
+        }
+    }
+}
@@ -1,21 +1,24 @@
 package com.example.app.services;
 
+import com.example.app.exceptions.NotFoundException;
 import com.example.app.models.Comment;
-import com.example.app.models.Post;
-import com.example.app.models.User;
+import com.example.app.pagination.CursorPage;
+import com.example.app.pagination.KeysetPager;
 import com.example.app.repositories.CommentRepository;
+import com.example.app.repositories.OwnedDocuments;
 import com.example.app.repositories.PostRepository;
-import com.example.app.repositories.UserRepository;
+import com.example.app.security.UserPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-import java.util.Optional;
-
 @Service
 public class CommentService {
 
+    private static final String COMMENT = "Comment";
+
     @Autowired
     private CommentRepository commentRepository;
 
@@ -23,53 +26,62 @@ public class CommentService {
     private PostRepository postRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private OwnedDocuments ownedDocuments;
+
+    @Autowired
+    private PostCache postCache;
+
+    @Autowired
+    private KeysetPager keysetPager;
+
+    @Autowired
+    private SearchService searchService;
 
-    public Comment createComment(String postId, Comment comment) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        Optional<User> userOptional = userRepository.findByEmail(email);
-        User user = userOptional.orElseThrow(() -> new RuntimeException("User not found"));
+    @Autowired
+    private TrendingService trendingService;
 
-        Optional<Post> postOptional = postRepository.findById(postId);
-        Post post = postOptional.orElseThrow(() -> new RuntimeException("Post not found"));
+    @Autowired
+    private FeedRankingService feedRankingService;
 
-        comment.setUser(user);
-        comment.setPost(post);
+    public Comment createComment(String postId, Comment comment, UserPrincipal currentUser) {
+        if (!postCache.exists(postId)) {
+            throw new NotFoundException("Post not found");
+        }
+
+        comment.setUser(currentUser.toAuthorSnapshot());
+        comment.setPostId(postId);
         comment.setCreatedAt(new java.util.Date());
-        return commentRepository.save(comment);
+        Comment savedComment = commentRepository.save(comment);
+        postRepository.incrementCommentCount(postId, 1);
+        postCache.onCommentCountChanged(postId, 1);
+        searchService.onCommentSaved(savedComment);
+        trendingService.onCommentCreated(postId);
+        feedRankingService.onCommented(currentUser.getId(), postId);
+        return savedComment;
     }
 
-    public List<Comment> getCommentsByPostId(String postId) {
-        Optional<Post> postOptional = postRepository.findById(postId);
-        Post post = postOptional.orElseThrow(() -> new RuntimeException("Post not found"));
-        return commentRepository.findByPost(post);
+    public CursorPage<Comment> getCommentsByPostId(String postId, String cursor, Integer limit) {
+        if (!postCache.exists(postId)) {
+            throw new NotFoundException("Post not found");
+        }
+        // Comments read as a conversation, oldest first
+        return keysetPager.page(Comment.class, Criteria.where("postId").is(postId), cursor, limit, Sort.Direction.ASC);
     }
 
-    public Comment updateComment(String commentId, Comment updatedComment) {
-        Optional<Comment> existingCommentOptional = commentRepository.findById(commentId);
-        if (existingCommentOptional.isPresent()) {
-            Comment comment = existingCommentOptional.get();
-            String email = SecurityContextHolder.getContext().getAuthentication().getName();
-            if (!comment.getUser().getEmail().equals(email)) {
-                throw new SecurityException("Unauthorized to update this comment");
-            }
-            comment.setContent(updatedComment.getContent());
-            return commentRepository.save(comment);
-        }
-        throw new RuntimeException("Comment not found");
+    public Comment updateComment(String commentId, Comment updatedComment, UserPrincipal currentUser) {
+        Comment savedComment = ownedDocuments.modify(Comment.class, commentId, currentUser.getId(),
+                new Update().set("content", updatedComment.getContent()), true, COMMENT);
+        searchService.onCommentSaved(savedComment);
+        return savedComment;
     }
 
-    public void deleteComment(String commentId) {
-        Optional<Comment> commentOptional = commentRepository.findById(commentId);
-        if (commentOptional.isPresent()) {
-            Comment comment = commentOptional.get();
-            String email = SecurityContextHolder.getContext().getAuthentication().getName();
-            if (!comment.getUser().getEmail().equals(email)) {
-                throw new SecurityException("Unauthorized to delete this comment");
-            }
-            commentRepository.deleteById(commentId);
-        } else {
-            throw new RuntimeException("Comment not found");
+    public void deleteComment(String commentId, UserPrincipal currentUser) {
+        // Only the request that actually removed the comment decrements, so concurrent deletes cannot double count
+        Comment comment = ownedDocuments.remove(Comment.class, commentId, currentUser.getId(), COMMENT);
+        if (comment.getPostId() != null) {
+            postRepository.incrementCommentCount(comment.getPostId(), -1);
+            postCache.onCommentCountChanged(comment.getPostId(), -1);
         }
+        searchService.onCommentDeleted(commentId);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,103 @@
+package com.example.app.services;
+
+import com.example.app.exceptions.BadRequestException;
+import com.example.app.models.Comment;
+import com.example.app.models.Like;
+import com.example.app.models.Post;
+import com.example.app.models.PostEngagement;
+import com.example.app.security.UserPrincipal;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Engagement for a whole page of posts in three round trips, instead of one likes and one comments
+ * request per post: counters come from the denormalized post fields, "liked by me" from one
+ * indexed likes query, and the latest comments per post from one $group/$topN aggregation.
+ */
+@Service
+public class EngagementService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.pagination.max-size:100}")
+    private int maxPosts;
+
+    @Value("${app.engagement.max-latest-comments:10}")
+    private int maxLatestComments;
+
+    public List<PostEngagement> getEngagementSummary(List<String> postIds, int latestComments,
+                                                     UserPrincipal currentUser) {
+        if (postIds.size() > maxPosts) {
+            throw new BadRequestException("At most " + maxPosts + " posts per request");
+        }
+        if (latestComments < 0 || latestComments > maxLatestComments) {
+            throw new BadRequestException("latestComments must be between 0 and " + maxLatestComments);
+        }
+
+        List<ObjectId> objectIds = new ArrayList<>();
+        for (String postId : new LinkedHashSet<>(postIds)) {
+            if (ObjectId.isValid(postId)) {
+                objectIds.add(new ObjectId(postId));
+            }
+        }
+        if (objectIds.isEmpty()) {
+            return List.of();
+        }
+
+        // 1. Counters
+        Query postsQuery = new Query(Criteria.where("id").in(objectIds));
+        postsQuery.fields().include("id", "likeCount", "commentCount");
+        Map<String, PostEngagement> summaries = new LinkedHashMap<>();
+        for (Post post : mongoTemplate.find(postsQuery, Post.class)) {
+            summaries.put(post.getId(), new PostEngagement(post.getId(), post.getLikeCount(), post.getCommentCount()));
+        }
+        if (summaries.isEmpty()) {
+            return List.of();
+        }
+
+        // 2. Which of these the caller liked, answered from the unique (userId, postId) index
+        Query likedQuery = new Query(Criteria.where("userId").is(currentUser.getId()).and("postId").in(summaries.keySet()));
+        likedQuery.fields().include("postId");
+        for (Like like : mongoTemplate.find(likedQuery, Like.class)) {
+            PostEngagement summary = summaries.get(like.getPostId());
+            if (summary != null) {
+                summary.setLikedByMe(true);
+            }
+        }
+
+        // 3. Latest comments per post
+        if (latestComments > 0) {
+            Aggregation aggregation = Aggregation.newAggregation(
+                    Aggregation.match(Criteria.where("postId").in(summaries.keySet())),
+                    Aggregation.stage(new Document("$group", new Document("_id", "$postId")
+                            .append("comments", new Document("$topN", new Document("n", latestComments)
+                                    .append("sortBy", new Document("createdAt", -1).append("_id", -1))
+                                    .append("output", "$$ROOT"))))));
+            for (Document group : mongoTemplate.aggregate(aggregation, Comment.class, Document.class)) {
+                PostEngagement summary = summaries.get(group.getString("_id"));
+                if (summary == null) {
+                    continue;
+                }
+                for (Document raw : group.getList("comments", Document.class)) {
+                    summary.getLatestComments().add(mongoTemplate.getConverter().read(Comment.class, raw));
+                }
+            }
+        }
+
+        return new ArrayList<>(summaries.values());
+    }
+}
@@ -0,0 +1,291 @@
+package com.example.app.services;
+
+import com.example.app.cache.BoundedCache;
+import com.example.app.cache.CacheMetrics;
+import com.example.app.models.Comment;
+import com.example.app.models.LearningPlan;
+import com.example.app.models.Like;
+import com.example.app.models.Post;
+import com.example.app.ranking.AffinityVector;
+import com.example.app.ranking.FeedCandidate;
+import com.example.app.ranking.FeedRanker;
+import com.example.app.repositories.ListProjections;
+import com.example.app.search.Tokenizer;
+import com.example.app.security.UserPrincipal;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ranked home feed. Candidates come from three sources: the viewer's timeline (followed authors,
+ * newest first), recent posts carrying the tags of the viewer's learning plans, and the day's
+ * trending posts. FeedRanker scores them on recency, engagement and the viewer's affinity vector and
+ * keeps the top K within a time budget. Affinity vectors are cached per user; a miss builds one from
+ * the user's recent likes, comments and plans, and like and comment events on this instance update a
+ * cached vector in place, so the author weights move as soon as the viewer engages.
+ */
+@Service
+public class FeedRankingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedRankingService.class);
+
+    private static final double LIKE_AFFINITY = 1;
+    private static final double COMMENT_AFFINITY = 2;
+    // Recent engagement read when a vector is built, and plans read for tags
+    private static final int AFFINITY_LIKES = 500;
+    private static final int AFFINITY_COMMENTS = 500;
+    private static final int AFFINITY_PLANS = 20;
+    private static final int CANDIDATE_TAGS = 10;
+    private static final int MAX_LIMIT = 100;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private ReferenceResolver referenceResolver;
+
+    @Autowired
+    private CacheMetrics cacheMetrics;
+
+    @Value("${app.feed.ranked.max-followed:500}")
+    private int maxFollowed;
+
+    @Value("${app.feed.ranked.max-tagged:300}")
+    private int maxTagged;
+
+    @Value("${app.feed.ranked.max-trending:50}")
+    private int maxTrending;
+
+    @Value("${app.feed.ranked.budget-ms:20}")
+    private long budgetMillis;
+
+    @Value("${app.feed.ranked.half-life-ms:86400000}")
+    private long halfLifeMillis;
+
+    @Value("${app.feed.ranked.weight.engagement:0.3}")
+    private double engagementWeight;
+
+    @Value("${app.feed.ranked.weight.author:1.0}")
+    private double authorWeight;
+
+    @Value("${app.feed.ranked.weight.tag:0.8}")
+    private double tagWeight;
+
+    @Value("${app.feed.affinity.cache.max-size:10000}")
+    private int cacheSize;
+
+    @Value("${app.feed.affinity.cache.ttl-ms:3600000}")
+    private long ttlMillis;
+
+    private FeedRanker ranker;
+    private BoundedCache<String, AffinityVector> affinities;
+
+    @PostConstruct
+    void init() {
+        ranker = new FeedRanker(new FeedRanker.Weights(halfLifeMillis, engagementWeight, authorWeight, tagWeight));
+        affinities = new BoundedCache<>("affinity", cacheSize, ttlMillis);
+        cacheMetrics.register(affinities);
+    }
+
+    public List<Post> getRankedFeed(Integer limit, UserPrincipal currentUser) {
+        String viewerId = currentUser.getId();
+        int pageSize = limit == null || limit <= 0 ? 20 : Math.min(limit, MAX_LIMIT);
+        AffinityVector affinity = affinities.get(viewerId, this::loadAffinity);
+
+        List<String> followedIds = timelineService.recentPostIds(viewerId, maxFollowed);
+        List<String> trendingIds = trendingService.trendingPostIds("day", maxTrending);
+        Set<String> toLoad = new LinkedHashSet<>(followedIds);
+        toLoad.addAll(trendingIds);
+        Map<String, FeedCandidate> loaded = loadCandidates(toLoad);
+
+        List<List<FeedCandidate>> sources = new ArrayList<>();
+        sources.add(inOrder(followedIds, loaded));
+        sources.add(taggedCandidates(viewerId, affinity));
+        sources.add(inOrder(trendingIds, loaded));
+
+        FeedRanker.Result result = ranker.rank(sources, affinity, pageSize, System.currentTimeMillis(),
+                budgetMillis * 1_000_000);
+        if (result.truncated()) {
+            logger.debug("Ranking budget spent after {} candidates for {}", result.scored(), viewerId);
+        }
+
+        List<String> ids = new ArrayList<>();
+        for (FeedRanker.Scored scored : result.ranked()) {
+            ids.add(scored.candidate().postId());
+        }
+        Map<String, Post> postsById = referenceResolver.resolve(Post.class, ids, ListProjections::postSummary);
+        List<Post> posts = new ArrayList<>();
+        for (String id : ids) {
+            Post post = postsById.get(id);
+            if (post != null) {
+                posts.add(post);
+            }
+        }
+        return posts;
+    }
+
+    @Async
+    public void onPostLiked(String viewerId, String postId) {
+        addAuthorAffinity(viewerId, postId, LIKE_AFFINITY);
+    }
+
+    @Async
+    public void onCommented(String viewerId, String postId) {
+        addAuthorAffinity(viewerId, postId, COMMENT_AFFINITY);
+    }
+
+    // Plan tags are only read when a vector is built
+    public void onPlansChanged(String ownerId) {
+        affinities.invalidate(ownerId);
+    }
+
+    // Only a cached vector is updated; one built later reads the event from MongoDB anyway
+    private void addAuthorAffinity(String viewerId, String postId, double weight) {
+        if (affinities.getIfPresent(viewerId) == null) {
+            return;
+        }
+        try {
+            Query query = new Query(Criteria.where("id").is(postId));
+            query.fields().include("user.id");
+            Post post = mongoTemplate.findOne(query, Post.class);
+            if (post == null || post.getUser() == null || viewerId.equals(post.getUser().getId())) {
+                return;
+            }
+            // Two events for one viewer at the same moment may drop one; the vector is rebuilt once it expires
+            AffinityVector current = affinities.getIfPresent(viewerId);
+            if (current != null) {
+                affinities.put(viewerId, current.withAuthor(post.getUser().getId(), weight));
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not update the affinity of {}", viewerId, e);
+        }
+    }
+
+    AffinityVector loadAffinity(String userId) {
+        Map<String, Double> byPost = new HashMap<>();
+        Query likes = new Query(Criteria.where("userId").is(userId))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt"))
+                .limit(AFFINITY_LIKES);
+        likes.fields().include("postId");
+        for (Like like : mongoTemplate.find(likes, Like.class)) {
+            byPost.merge(like.getPostId(), LIKE_AFFINITY, Double::sum);
+        }
+        Query comments = new Query(Criteria.where("user.id").is(userId))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt"))
+                .limit(AFFINITY_COMMENTS);
+        comments.fields().include("postId");
+        for (Comment comment : mongoTemplate.find(comments, Comment.class)) {
+            byPost.merge(comment.getPostId(), COMMENT_AFFINITY, Double::sum);
+        }
+
+        Map<String, Double> authors = new HashMap<>();
+        Map<String, Post> posts = referenceResolver.resolve(Post.class, byPost.keySet(),
+                fields -> fields.include("user.id"));
+        byPost.forEach((postId, weight) -> {
+            Post post = posts.get(postId);
+            if (post != null && post.getUser() != null && !userId.equals(post.getUser().getId())) {
+                authors.merge(post.getUser().getId(), weight, Double::sum);
+            }
+        });
+
+        // Each plan and topic title counts whole ("spring boot") and by word ("spring", "boot"), to meet tags either way
+        Map<String, Double> tags = new HashMap<>();
+        Query plans = new Query(Criteria.where("user.id").is(userId))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "id"))
+                .limit(AFFINITY_PLANS);
+        plans.fields().include("title", "topics.title");
+        for (LearningPlan plan : mongoTemplate.find(plans, LearningPlan.class)) {
+            addTitle(tags, plan.getTitle());
+            if (plan.getTopics() != null) {
+                for (LearningPlan.Topic topic : plan.getTopics()) {
+                    addTitle(tags, topic.getTitle());
+                }
+            }
+        }
+        return new AffinityVector(authors, tags);
+    }
+
+    private static void addTitle(Map<String, Double> tags, String title) {
+        if (title == null || title.isBlank()) {
+            return;
+        }
+        tags.merge(title.trim().toLowerCase(Locale.ROOT), 1.0, Double::sum);
+        for (String term : new LinkedHashSet<>(Tokenizer.tokenize(title))) {
+            tags.merge(term, 1.0, Double::sum);
+        }
+    }
+
+    private List<FeedCandidate> taggedCandidates(String viewerId, AffinityVector affinity) {
+        List<String> tags = affinity.topTags(CANDIDATE_TAGS);
+        if (tags.isEmpty()) {
+            return List.of();
+        }
+        Query query = new Query(Criteria.where("tags").in(tags).and("user.id").ne(viewerId))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "id"))
+                .limit(maxTagged);
+        candidateFields(query);
+        List<FeedCandidate> candidates = new ArrayList<>();
+        for (Post post : mongoTemplate.find(query, Post.class)) {
+            candidates.add(toCandidate(post));
+        }
+        return candidates;
+    }
+
+    private Map<String, FeedCandidate> loadCandidates(Collection<String> ids) {
+        Map<String, FeedCandidate> candidates = new HashMap<>();
+        if (ids.isEmpty()) {
+            return candidates;
+        }
+        Query query = new Query(Criteria.where("id").in(ids));
+        candidateFields(query);
+        for (Post post : mongoTemplate.find(query, Post.class)) {
+            candidates.put(post.getId(), toCandidate(post));
+        }
+        return candidates;
+    }
+
+    private static List<FeedCandidate> inOrder(List<String> ids, Map<String, FeedCandidate> loaded) {
+        List<FeedCandidate> candidates = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            FeedCandidate candidate = loaded.get(id);
+            if (candidate != null) {
+                candidates.add(candidate);
+            }
+        }
+        return candidates;
+    }
+
+    private static void candidateFields(Query query) {
+        query.fields().include("id", "user.id", "createdAt", "likeCount", "commentCount", "tags");
+    }
+
+    private static FeedCandidate toCandidate(Post post) {
+        return new FeedCandidate(post.getId(),
+                post.getUser() != null ? post.getUser().getId() : null,
+                post.getCreatedAt() != null ? post.getCreatedAt().getTime() : 0,
+                post.getLikeCount(), post.getCommentCount(), post.getTags());
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.app.services;
+
+import com.example.app.models.Follow;
+import com.example.app.models.User;
+import com.example.app.pagination.CursorPage;
+import com.example.app.pagination.KeysetPager;
+import com.example.app.repositories.FollowRepository;
+import com.example.app.repositories.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * The follow graph, stored one edge per document in the follows collection. Following and
+ * unfollowing are a single indexed insert or delete plus an $inc of both users' counters, so their
+ * cost does not grow with the size of either account's network.
+ */
+@Service
+public class FollowService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FollowService.class);
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private KeysetPager keysetPager;
+
+    @Autowired
+    private ReferenceResolver referenceResolver;
+
+    @Autowired
+    private SocialGraphService socialGraphService;
+
+    @Value("${app.follows.batch-size:1000}")
+    private int batchSize;
+
+    // Returns false if the edge already existed
+    public boolean follow(String followerId, String followeeId) {
+        if (!followRepository.insertIfAbsent(followerId, followeeId, new Date())) {
+            return false;
+        }
+        userRepository.adjustFollowCounts(followerId, followeeId, 1);
+        userCache.invalidate(followerId);
+        userCache.invalidate(followeeId);
+        socialGraphService.onFollow(followerId, followeeId);
+        return true;
+    }
+
+    // Returns false if there was no edge to remove
+    public boolean unfollow(String followerId, String followeeId) {
+        if (!followRepository.removeFollow(followerId, followeeId)) {
+            return false;
+        }
+        userRepository.adjustFollowCounts(followerId, followeeId, -1);
+        userCache.invalidate(followerId);
+        userCache.invalidate(followeeId);
+        socialGraphService.onUnfollow(followerId, followeeId);
+        return true;
+    }
+
+    public boolean isFollowing(String followerId, String followeeId) {
+        return followRepository.existsByFollowerIdAndFolloweeId(followerId, followeeId);
+    }
+
+    public Set<String> followedAmong(String followerId, Collection<String> candidates) {
+        return followRepository.findFolloweeIdsAmong(followerId, candidates);
+    }
+
+    public Set<String> followersAmong(String followeeId, Collection<String> candidates) {
+        return followRepository.findFollowerIdsAmong(followeeId, candidates);
+    }
+
+    // Newest follower first
+    public CursorPage<User> getFollowers(String userId, String cursor, Integer limit) {
+        CursorPage<Follow> edges = keysetPager.page(Follow.class, Criteria.where("followeeId").is(userId), cursor, limit);
+        List<String> ids = new ArrayList<>();
+        for (Follow edge : edges.getItems()) {
+            ids.add(edge.getFollowerId());
+        }
+        return new CursorPage<>(findUsers(ids), edges.getNextCursor());
+    }
+
+    // Most recently followed first
+    public CursorPage<User> getFollowing(String userId, String cursor, Integer limit) {
+        CursorPage<Follow> edges = keysetPager.page(Follow.class, Criteria.where("followerId").is(userId), cursor, limit);
+        List<String> ids = new ArrayList<>();
+        for (Follow edge : edges.getItems()) {
+            ids.add(edge.getFolloweeId());
+        }
+        return new CursorPage<>(findUsers(ids), edges.getNextCursor());
+    }
+
+    // Hands the followers of a user to the consumer a batch at a time, without holding them all in memory
+    public void forEachFollowerBatch(String followeeId, Consumer<List<String>> consumer) {
+        String after = null;
+        while (true) {
+            List<String> batch = followRepository.findFollowerIdsAfter(followeeId, after, batchSize);
+            if (batch.isEmpty()) {
+                return;
+            }
+            consumer.accept(batch);
+            if (batch.size() < batchSize) {
+                return;
+            }
+            after = batch.get(batch.size() - 1);
+        }
+    }
+
+    // Removes every edge touching a deleted account and corrects the counters on the other end
+    public void removeAll(String userId) {
+        List<String> followees;
+        while (!(followees = followRepository.removeFollowing(userId, batchSize)).isEmpty()) {
+            userRepository.adjustCounter(followees, "followerCount", -1);
+            followees.forEach(userCache::invalidate);
+            followees.forEach(followeeId -> socialGraphService.onUnfollow(userId, followeeId));
+        }
+        List<String> followers;
+        while (!(followers = followRepository.removeFollowers(userId, batchSize)).isEmpty()) {
+            userRepository.adjustCounter(followers, "followingCount", -1);
+            followers.forEach(userCache::invalidate);
+            followers.forEach(followerId -> socialGraphService.onUnfollow(followerId, userId));
+        }
+    }
+
+    @Scheduled(cron = "${app.counters.reconcile-cron:0 30 3 * * *}")
+    public void reconcileCounts() {
+        try {
+            long repaired = userRepository.reconcileFollowCounts(batchSize);
+            logger.info("Follow counter reconciliation repaired {} users", repaired);
+        } catch (RuntimeException e) {
+            logger.warn("Follow counter reconciliation failed", e);
+        }
+    }
+
+    // Users in the order of the ids, skipping deleted ones
+    public List<User> findUsers(List<String> ids) {
+        Map<String, User> usersById = referenceResolver.resolve(User.class, ids,
+                fields -> fields.include("id", "email", "name", "pictureUrl", "followerCount", "followingCount"));
+        List<User> users = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            User user = usersById.get(id);
+            if (user != null) {
+                users.add(user);
+            }
+        }
+        return users;
+    }
+}
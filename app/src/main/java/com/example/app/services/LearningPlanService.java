@@ -1,39 +1,79 @@
 package com.example.app.services;
 
+import com.example.app.exceptions.BadRequestException;
+import com.example.app.exceptions.NotFoundException;
 import com.example.app.models.LearningPlan;
-import com.example.app.models.User;
+import com.example.app.models.LearningProgressSummary;
+import com.example.app.models.OrderKeys;
+import com.example.app.models.ProgressUpdate;
+import com.example.app.models.TopicBulkOperation;
+import com.example.app.pagination.CursorPage;
+import com.example.app.pagination.KeysetPager;
 import com.example.app.repositories.LearningPlanRepository;
+import com.example.app.repositories.OwnedDocuments;
 import com.example.app.repositories.UserRepository;
+import com.example.app.security.UserPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
 public class LearningPlanService {
 
+    private static final String PLAN = "Learning plan";
+    private static final int MAX_BULK_TOPICS = 500;
+
     @Autowired
     private LearningPlanRepository learningPlanRepository;
 
     @Autowired
     private UserRepository userRepository;
 
-    public LearningPlan createLearningPlan(LearningPlan learningPlan) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        Optional<User> userOptional = userRepository.findByEmail(email);
-        User user = userOptional.orElseThrow(() -> new RuntimeException("User not found"));
-        learningPlan.setUser(user);
+    @Autowired
+    private OwnedDocuments ownedDocuments;
+
+    @Autowired
+    private KeysetPager keysetPager;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private FeedRankingService feedRankingService;
+
+    @Autowired
+    private ActivityService activityService;
+
+    public LearningPlan createLearningPlan(LearningPlan learningPlan, UserPrincipal currentUser) {
+        learningPlan.setUser(currentUser.toAuthorSnapshot());
         learningPlan.setCreatedAt(new Date());
         if (learningPlan.getTopics() == null) {
             learningPlan.setTopics(new java.util.ArrayList<>());
         } else {
             for (LearningPlan.Topic topic : learningPlan.getTopics()) {
                 if (topic.getTitle() == null || topic.getTitle().trim().isEmpty()) {
-                    throw new IllegalArgumentException("Topic title is required");
+                    throw new BadRequestException("Topic title is required");
                 }
                 if (topic.getId() == null) {
                     topic.setId(UUID.randomUUID().toString());
@@ -42,93 +82,315 @@ public class LearningPlanService {
                     topic.setResources(new java.util.ArrayList<>());
                 }
             }
+            assignOrder(learningPlan.getTopics());
+        }
+        learningPlan.countProgress(new Date());
+        LearningPlan savedPlan = learningPlanRepository.save(learningPlan);
+        searchService.onPlanSaved(savedPlan);
+        feedRankingService.onPlansChanged(currentUser.getId());
+        return savedPlan;
+    }
+
+    public CursorPage<LearningPlan> getLearningPlansByUser(String userId, String cursor, Integer limit,
+                                                           UserPrincipal currentUser) {
+        if (userId == null || userId.trim().isEmpty()) {
+            userId = currentUser.getId();
+        } else if (!userRepository.existsById(userId)) {
+            throw new NotFoundException("User not found");
         }
-        return learningPlanRepository.save(learningPlan);
+        CursorPage<LearningPlan> page = keysetPager.page(LearningPlan.class, Criteria.where("user.id").is(userId), cursor, limit);
+        page.getItems().forEach(LearningPlanService::inOrder);
+        return page;
     }
 
-    public List<LearningPlan> getLearningPlansByUser(String userId) {
+    /**
+     * Sums the progress counters of the user's plans (the caller's when no user is given). Reads
+     * only the counters, which the author_progress index covers, never the topics. A plan counts
+     * toward this week's completions only if its last topic change was this week; one changed in
+     * an earlier week has had no completion since.
+     */
+    public LearningProgressSummary getProgressSummary(String userId, UserPrincipal currentUser) {
         if (userId == null || userId.trim().isEmpty()) {
-            String email = SecurityContextHolder.getContext().getAuthentication().getName();
-            Optional<User> userOptional = userRepository.findByEmail(email);
-            User user = userOptional.orElseThrow(() -> new RuntimeException("User not found"));
-            return learningPlanRepository.findByUserId(user.getId());
+            userId = currentUser.getId();
+        } else if (!userRepository.existsById(userId)) {
+            throw new NotFoundException("User not found");
+        }
+        Date week = LearningPlan.weekOf(new Date());
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("user.id").is(userId)),
+                Aggregation.project("completed", "totalTopics", "completedTopics", "progressWeek",
+                        "completedThisWeek", "lastCompletionDate").andExclude("_id"),
+                Aggregation.group().count().as("plans")
+                        .sum(ConditionalOperators.when(Criteria.where("completed").is(true)).then(1).otherwise(0))
+                        .as("completedPlans")
+                        .sum("totalTopics").as("totalTopics")
+                        .sum("completedTopics").as("completedTopics")
+                        .sum(ConditionalOperators.when(Criteria.where("progressWeek").is(week))
+                                .thenValueOf("completedThisWeek").otherwise(0)).as("topicsCompletedThisWeek")
+                        .max("lastCompletionDate").as("lastCompletionDate"));
+        LearningProgressSummary summary = mongoTemplate.aggregate(aggregation, LearningPlan.class,
+                LearningProgressSummary.class).getUniqueMappedResult();
+        return summary != null ? summary : new LearningProgressSummary();
+    }
+
+    public LearningPlan getLearningPlanById(String planId, UserPrincipal currentUser) {
+        return getLearningPlanById(planId, true, currentUser);
+    }
+
+    // Without its topics, for plans large enough that the client pages through them instead
+    public LearningPlan getLearningPlanById(String planId, boolean includeTopics, UserPrincipal currentUser) {
+        return inOrder(ownedDocuments.find(LearningPlan.class, planId, currentUser.getId(), PLAN,
+                includeTopics ? null : fields -> fields.exclude("topics")));
+    }
+
+    // Topics in order, keyset-paged on (order, id)
+    public CursorPage<LearningPlan.Topic> getTopics(String planId, String cursor, Integer limit, UserPrincipal currentUser) {
+        int pageSize = keysetPager.resolvePageSize(limit);
+        String[] position = cursor != null && !cursor.isEmpty() ? decodeTopicCursor(cursor) : new String[2];
+        List<LearningPlan.Topic> results = learningPlanRepository.findTopicPage(planId, currentUser.getId(),
+                position[0], position[1], pageSize + 1);
+        if (results.isEmpty()) {
+            // Nothing left, or no such plan of the user's
+            ownedDocuments.checkOwner(LearningPlan.class, planId, currentUser.getId(), PLAN);
+        }
+        if (results.size() <= pageSize) {
+            return new CursorPage<>(results, null);
+        }
+        List<LearningPlan.Topic> items = results.subList(0, pageSize);
+        return new CursorPage<>(items, encodeTopicCursor(items.get(pageSize - 1)));
+    }
+
+    public LearningPlan updateLearningPlan(String planId, LearningPlan learningPlan, UserPrincipal currentUser) {
+        if (learningPlan.getTopics() != null) {
+            assignOrder(learningPlan.getTopics()); // A full replace sends the topics in their new order
+        }
+        Date now = new Date();
+        learningPlan.countProgress(now);
+        Update update = new Update()
+                .set("title", learningPlan.getTitle())
+                .set("description", learningPlan.getDescription())
+                .set("topics", learningPlan.getTopics())
+                .set("completed", learningPlan.isCompleted())
+                .set("totalTopics", learningPlan.getTotalTopics())
+                .set("completedTopics", learningPlan.getCompletedTopics())
+                .set("lastCompletionDate", learningPlan.getLastCompletionDate())
+                .set("progressWeek", learningPlan.getProgressWeek())
+                .set("completedThisWeek", learningPlan.getCompletedThisWeek());
+        if (learningPlan.isCompleted()) {
+            update.min("completionDate", now); // Keeps the date of a plan that was completed already
         } else {
-            Optional<User> userOptional = userRepository.findById(userId);
-            User user = userOptional.orElseThrow(() -> new RuntimeException("User not found"));
-            return learningPlanRepository.findByUserId(userId);
+            update.unset("completionDate");
+        }
+        // The plan as it was, so a rename can be detected; the saved plan is that plus the update
+        LearningPlan savedPlan = ownedDocuments.modify(LearningPlan.class, planId, currentUser.getId(), update, false, PLAN);
+        boolean renamed = !Objects.equals(savedPlan.getTitle(), learningPlan.getTitle());
+        if (learningPlan.isCompleted() && savedPlan.getCompletionDate() == null) {
+            savedPlan.setCompletionDate(now);
+        }
+        savedPlan.setTitle(learningPlan.getTitle());
+        savedPlan.setDescription(learningPlan.getDescription());
+        savedPlan.setTopics(learningPlan.getTopics());
+        savedPlan.setCompleted(learningPlan.isCompleted());
+        savedPlan.setTotalTopics(learningPlan.getTotalTopics());
+        savedPlan.setCompletedTopics(learningPlan.getCompletedTopics());
+        savedPlan.setLastCompletionDate(learningPlan.getLastCompletionDate());
+        savedPlan.setProgressWeek(learningPlan.getProgressWeek());
+        savedPlan.setCompletedThisWeek(learningPlan.getCompletedThisWeek());
+        if (renamed) {
+            // Progress updates carry the plan title so their list needs no lookup
+            mongoTemplate.updateMulti(new Query(Criteria.where("learningPlanId").is(planId)),
+                    new Update().set("learningPlanTitle", savedPlan.getTitle()), ProgressUpdate.class);
+        }
+        searchService.onPlanSaved(savedPlan);
+        feedRankingService.onPlansChanged(currentUser.getId());
+        return savedPlan;
+    }
+
+    public void deleteLearningPlan(String planId, UserPrincipal currentUser) {
+        LearningPlan existingPlan = ownedDocuments.remove(LearningPlan.class, planId, currentUser.getId(), PLAN);
+        searchService.onPlanDeleted(existingPlan);
+        feedRankingService.onPlansChanged(currentUser.getId());
+        mongoTemplate.updateMulti(new Query(Criteria.where("learningPlanId").is(planId)),
+                new Update().unset("learningPlanId").unset("learningPlanTitle"), ProgressUpdate.class);
+    }
+
+    public LearningPlan addTopic(String planId, LearningPlan.Topic topic, UserPrincipal currentUser) {
+        LearningPlan last = learningPlanRepository.findLastTopic(planId, currentUser.getId());
+        if (last == null) {
+            ownedDocuments.checkOwner(LearningPlan.class, planId, currentUser.getId(), PLAN);
+            throw new NotFoundException("Learning plan not found"); // Deleted in between
+        }
+        topic.setId(UUID.randomUUID().toString());
+        topic.setOrder(OrderKeys.between(lastOrder(last), null));
+        LearningPlan savedPlan = learningPlanRepository.pushTopic(planId, currentUser.getId(), topic);
+        if (savedPlan == null) {
+            ownedDocuments.checkOwner(LearningPlan.class, planId, currentUser.getId(), PLAN);
+            throw new NotFoundException("Learning plan not found"); // Deleted in between
+        }
+        searchService.onPlanSaved(savedPlan);
+        feedRankingService.onPlansChanged(currentUser.getId());
+        return inOrder(savedPlan);
+    }
+
+    public LearningPlan updateTopic(String planId, String topicId, LearningPlan.Topic updatedTopic, UserPrincipal currentUser) {
+        Date start = new Date();
+        LearningPlan savedPlan = learningPlanRepository.updateTopic(planId, currentUser.getId(), topicId,
+                updatedTopic, updatedTopic.isCompleted());
+        if (savedPlan == null) {
+            throw notMatched(planId, currentUser);
+        }
+        recordCompletions(savedPlan, List.of(topicId), start, currentUser);
+        searchService.onPlanSaved(savedPlan);
+        feedRankingService.onPlansChanged(currentUser.getId());
+        return inOrder(savedPlan);
+    }
+
+    public LearningPlan deleteTopic(String planId, String topicId, UserPrincipal currentUser) {
+        LearningPlan savedPlan = learningPlanRepository.pullTopic(planId, currentUser.getId(), topicId);
+        if (savedPlan == null) {
+            throw notMatched(planId, currentUser);
+        }
+        searchService.onPlanSaved(savedPlan);
+        feedRankingService.onPlansChanged(currentUser.getId());
+        return inOrder(savedPlan);
+    }
+
+    public LearningPlan markTopicCompleted(String planId, String topicId, boolean completed, UserPrincipal currentUser) {
+        Date start = new Date();
+        LearningPlan savedPlan = learningPlanRepository.updateTopic(planId, currentUser.getId(), topicId, null, completed);
+        if (savedPlan == null) {
+            throw notMatched(planId, currentUser);
+        }
+        recordCompletions(savedPlan, List.of(topicId), start, currentUser);
+        return inOrder(savedPlan);
+    }
+
+    // One action on many topics as a single atomic update; nothing changes unless every topic is in the plan
+    public LearningPlan bulkUpdateTopics(String planId, TopicBulkOperation operation, UserPrincipal currentUser) {
+        if (operation.getTopicIds() == null || operation.getTopicIds().isEmpty()) {
+            throw new BadRequestException("Topic ids are required");
+        }
+        Set<String> topicIds = new LinkedHashSet<>(operation.getTopicIds());
+        if (topicIds.size() > MAX_BULK_TOPICS) {
+            throw new BadRequestException("At most " + MAX_BULK_TOPICS + " topics per request");
+        }
+        if (topicIds.contains(null)) {
+            throw new BadRequestException("Topic ids must not be null");
+        }
+        String ownerId = currentUser.getId();
+        Date start = new Date();
+        LearningPlan savedPlan = switch (String.valueOf(operation.getAction())) {
+            case "complete" -> learningPlanRepository.setTopicsCompleted(planId, ownerId, topicIds, true);
+            case "uncomplete" -> learningPlanRepository.setTopicsCompleted(planId, ownerId, topicIds, false);
+            case "delete" -> learningPlanRepository.pullTopics(planId, ownerId, topicIds);
+            case "move" -> moveTopics(planId, topicIds, operation.getAfter(), operation.getBefore(), currentUser);
+            default -> throw new BadRequestException("Unknown action: " + operation.getAction());
+        };
+        if (savedPlan == null) {
+            throw notMatched(planId, currentUser);
+        }
+        if ("complete".equals(operation.getAction())) {
+            recordCompletions(savedPlan, topicIds, start, currentUser);
         }
+        if ("delete".equals(operation.getAction())) {
+            searchService.onPlanSaved(savedPlan);
+            feedRankingService.onPlansChanged(ownerId);
+        }
+        return inOrder(savedPlan);
     }
 
-    public LearningPlan getLearningPlanById(String planId) {
-        LearningPlan plan = learningPlanRepository.findById(planId)
-                .orElseThrow(() -> new RuntimeException("Learning plan not found"));
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        Optional<User> userOptional = userRepository.findByEmail(email);
-        User user = userOptional.orElseThrow(() -> new RuntimeException("User not found"));
-        if (!plan.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("Unauthorized to access this learning plan");
+    // New keys between the two neighbours, in the given order; only the moved topics are written
+    private LearningPlan moveTopics(String planId, Set<String> topicIds, String after, String before,
+                                    UserPrincipal currentUser) {
+        if (topicIds.contains(after) || topicIds.contains(before)) {
+            throw new BadRequestException("A topic cannot be moved next to itself");
+        }
+        List<String> neighbours = new ArrayList<>();
+        if (after != null) {
+            neighbours.add(after);
+        }
+        if (before != null) {
+            neighbours.add(before);
+        }
+        Map<String, String> orders = new LinkedHashMap<>();
+        if (!neighbours.isEmpty()) {
+            LearningPlan plan = learningPlanRepository.findTopics(planId, currentUser.getId(), neighbours);
+            if (plan == null) {
+                throw notMatched(planId, currentUser);
+            }
+            plan.getTopics().forEach(topic -> orders.put(topic.getId(), topic.getOrder()));
+            if (!orders.keySet().containsAll(neighbours)) {
+                throw new NotFoundException("Topic not found");
+            }
+        }
+        String afterOrder = after != null ? orders.get(after) : null;
+        String beforeOrder = before != null ? orders.get(before) : null;
+        if (afterOrder != null && beforeOrder != null && afterOrder.compareTo(beforeOrder) >= 0) {
+            throw new BadRequestException("Topic " + after + " does not come before " + before);
+        }
+        Map<String, String> moved = new LinkedHashMap<>();
+        List<String> keys = OrderKeys.between(afterOrder, beforeOrder, topicIds.size());
+        int i = 0;
+        for (String topicId : topicIds) {
+            moved.put(topicId, keys.get(i++));
+        }
+        return learningPlanRepository.setTopicOrders(planId, currentUser.getId(), moved);
+    }
+
+    // Topics the update completed, as opposed to ones that already were, count toward today's activity
+    private void recordCompletions(LearningPlan savedPlan, Collection<String> topicIds, Date start, UserPrincipal currentUser) {
+        int completed = 0;
+        for (LearningPlan.Topic topic : savedPlan.getTopics()) {
+            if (topic.isCompleted() && topicIds.contains(topic.getId()) && topic.getCompletionDate() != null
+                    && !topic.getCompletionDate().before(start)) {
+                completed++;
+            }
+        }
+        activityService.record(currentUser.getId(), completed);
+    }
+
+    private static void assignOrder(List<LearningPlan.Topic> topics) {
+        List<String> keys = OrderKeys.between(null, null, topics.size());
+        for (int i = 0; i < topics.size(); i++) {
+            topics.get(i).setOrder(keys.get(i));
+        }
+    }
+
+    private static String lastOrder(LearningPlan last) {
+        return last.getTopics() == null || last.getTopics().isEmpty() ? null : last.getTopics().get(0).getOrder();
+    }
+
+    // The topics array is kept in insertion order; clients get it sorted by order key
+    private static LearningPlan inOrder(LearningPlan plan) {
+        if (plan.getTopics() != null) {
+            plan.getTopics().sort(LearningPlan.Topic.IN_ORDER);
         }
         return plan;
     }
 
-    public LearningPlan updateLearningPlan(String planId, LearningPlan learningPlan) {
-        LearningPlan existingPlan = getLearningPlanById(planId); // Includes authorization check
-        existingPlan.setTitle(learningPlan.getTitle());
-        existingPlan.setDescription(learningPlan.getDescription());
-        existingPlan.setTopics(learningPlan.getTopics());
-        existingPlan.setCompleted(learningPlan.isCompleted());
-        return learningPlanRepository.save(existingPlan);
+    // Same encoding as KeysetPager's cursors; an empty order stands for a topic without a key yet
+    private static String encodeTopicCursor(LearningPlan.Topic topic) {
+        String raw = (topic.getOrder() != null ? topic.getOrder() : "") + ":" + topic.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
     }
 
-    public void deleteLearningPlan(String planId) {
-        LearningPlan existingPlan = getLearningPlanById(planId); // Includes authorization check
-        learningPlanRepository.deleteById(planId);
+    private static String[] decodeTopicCursor(String cursor) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor", e);
+        }
+        int separator = raw.indexOf(':');
+        if (separator < 0 || separator == raw.length() - 1) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        return new String[] {separator > 0 ? raw.substring(0, separator) : null, raw.substring(separator + 1)};
     }
 
-    public LearningPlan addTopic(String planId, LearningPlan.Topic topic) {
-        LearningPlan plan = getLearningPlanById(planId); // Includes authorization check
-        topic.setId(UUID.randomUUID().toString());
-        plan.getTopics().add(topic);
-        return learningPlanRepository.save(plan);
-    }
-
-    public LearningPlan updateTopic(String planId, String topicId, LearningPlan.Topic updatedTopic) {
-        LearningPlan plan = getLearningPlanById(planId); // Includes authorization check
-        LearningPlan.Topic topic = plan.getTopics().stream()
-                .filter(t -> t.getId() != null && t.getId().equals(topicId))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("Topic not found"));
-        topic.setTitle(updatedTopic.getTitle());
-        topic.setDescription(updatedTopic.getDescription());
-        topic.setResources(updatedTopic.getResources());
-        topic.setCompleted(updatedTopic.isCompleted());
-        return learningPlanRepository.save(plan);
-    }
-
-    public LearningPlan deleteTopic(String planId, String topicId) {
-        LearningPlan plan = getLearningPlanById(planId); // Includes authorization check
-        boolean removed = plan.getTopics().removeIf(t -> t.getId() != null && t.getId().equals(topicId));
-        if (!removed) {
-            throw new RuntimeException("Topic not found");
-        }
-        // Update plan's completed status
-        boolean allTopicsCompleted = plan.getTopics().isEmpty() ||
-                plan.getTopics().stream().allMatch(LearningPlan.Topic::isCompleted);
-        plan.setCompleted(allTopicsCompleted);
-        return learningPlanRepository.save(plan);
-    }
-
-    public LearningPlan markTopicCompleted(String planId, String topicId, boolean completed) {
-        LearningPlan plan = getLearningPlanById(planId); // Includes authorization check
-        LearningPlan.Topic topic = plan.getTopics().stream()
-                .filter(t -> t.getId() != null && t.getId().equals(topicId))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("Topic not found"));
-        topic.setCompleted(completed);
-        // Update plan's completed status
-        boolean allTopicsCompleted = plan.getTopics().isEmpty() ||
-                plan.getTopics().stream().allMatch(LearningPlan.Topic::isCompleted);
-        plan.setCompleted(allTopicsCompleted);
-        return learningPlanRepository.save(plan);
-    }
-}
\ No newline at end of file
+    // Topic updates match plan, owner and topic in one query; only a miss reads the plan, to report which was wrong
+    private RuntimeException notMatched(String planId, UserPrincipal currentUser) {
+        ownedDocuments.checkOwner(LearningPlan.class, planId, currentUser.getId(), PLAN);
+        return new NotFoundException("Topic not found");
+    }
+}
@@ -1,18 +1,17 @@
 package com.example.app.services;
 
+import com.example.app.exceptions.NotFoundException;
 import com.example.app.models.Like;
-import com.example.app.models.Post;
-import com.example.app.models.User;
+import com.example.app.pagination.CursorPage;
+import com.example.app.pagination.KeysetPager;
 import com.example.app.repositories.LikeRepository;
 import com.example.app.repositories.PostRepository;
-import com.example.app.repositories.UserRepository;
+import com.example.app.security.UserPrincipal;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-import java.util.Optional;
-
 @Service
 public class LikeService {
 
@@ -23,44 +22,63 @@ public class LikeService {
     private PostRepository postRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private PostCache postCache;
+
+    @Autowired
+    private KeysetPager keysetPager;
 
-    public Like likePost(String postId) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        Optional<User> userOptional = userRepository.findByEmail(email);
-        User user = userOptional.orElseThrow(() -> new RuntimeException("User not found"));
+    @Autowired
+    private LikeWriteBehindBuffer likeWriteBehindBuffer;
+
+    @Autowired
+    private TrendingService trendingService;
 
-        Optional<Post> postOptional = postRepository.findById(postId);
-        Post post = postOptional.orElseThrow(() -> new RuntimeException("Post not found"));
+    @Autowired
+    private FeedRankingService feedRankingService;
 
-        Optional<Like> existingLike = likeRepository.findByUserAndPost(user, post);
-        if (existingLike.isPresent()) {
-            throw new RuntimeException("User has already liked this post");
+    public Like likePost(String postId, UserPrincipal currentUser) {
+        Like like = new Like(currentUser.getId(), postId);
+        if (likeWriteBehindBuffer.isEnabled()) {
+            if (!postCache.exists(postId)) {
+                throw new NotFoundException("Post not found");
+            }
+            like.setId(new ObjectId().toHexString()); // Stored under this id when the buffer flushes
+            return likeWriteBehindBuffer.like(like); // Trending and feed ranking hear of it once stored
         }
 
-        Like like = new Like(user, post);
-        return likeRepository.save(like);
+        // One upsert on the unique (user, post) index: concurrent double-taps cannot create duplicates
+        String likeId = likeRepository.insertIfAbsent(currentUser.getId(), postId, like.getCreatedAt());
+        if (likeId == null) {
+            return likeRepository.findByUserIdAndPostId(currentUser.getId(), postId).orElse(like); // Already liked, nothing to do
+        }
+        if (!postRepository.incrementLikeCount(postId, 1)) {
+            likeRepository.removeLike(currentUser.getId(), postId);
+            throw new NotFoundException("Post not found");
+        }
+        postCache.onLikeCountChanged(postId, 1);
+        like.setId(likeId);
+        trendingService.onPostLiked(postId);
+        feedRankingService.onPostLiked(currentUser.getId(), postId);
+        return like;
     }
 
-    public void unlikePost(String postId) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        Optional<User> userOptional = userRepository.findByEmail(email);
-        User user = userOptional.orElseThrow(() -> new RuntimeException("User not found"));
-
-        Optional<Post> postOptional = postRepository.findById(postId);
-        Post post = postOptional.orElseThrow(() -> new RuntimeException("Post not found"));
+    public void unlikePost(String postId, UserPrincipal currentUser) {
+        if (likeWriteBehindBuffer.isEnabled()) {
+            likeWriteBehindBuffer.unlike(currentUser.getId(), postId);
+            return;
+        }
 
-        Optional<Like> likeOptional = likeRepository.findByUserAndPost(user, post);
-        if (likeOptional.isPresent()) {
-            likeRepository.delete(likeOptional.get());
-        } else {
-            throw new RuntimeException("Like not found");
+        // Only the request that actually removed the like decrements, so concurrent unlikes cannot double count
+        if (likeRepository.removeLike(currentUser.getId(), postId)) {
+            postRepository.incrementLikeCount(postId, -1);
+            postCache.onLikeCountChanged(postId, -1);
         }
     }
 
-    public List<Like> getLikesByPostId(String postId) {
-        Optional<Post> postOptional = postRepository.findById(postId);
-        Post post = postOptional.orElseThrow(() -> new RuntimeException("Post not found"));
-        return likeRepository.findByPost(post);
+    public CursorPage<Like> getLikesByPostId(String postId, String cursor, Integer limit) {
+        if (!postCache.exists(postId)) {
+            throw new NotFoundException("Post not found");
+        }
+        return keysetPager.page(Like.class, Criteria.where("postId").is(postId), cursor, limit);
     }
 }
\ No newline at end of file
@@ -0,0 +1,149 @@
+package com.example.app.services;
+
+import com.example.app.models.Like;
+import com.example.app.repositories.LikeRepository;
+import com.example.app.repositories.PostRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Optional write-behind mode for likes (app.likes.write-behind.enabled). Like/unlike toggles are
+ * coalesced in memory per (user, post), keeping only the latest state, and flushed every few
+ * milliseconds as one bulk upsert plus one grouped delete per post, followed by one bulk $inc of the
+ * affected counters. Meant for viral posts where thousands of toggles per second hit one document;
+ * a like becomes visible to readers after at most one flush interval.
+ *
+ * Recording a toggle never reads MongoDB: whether the user had liked the post is only known from
+ * the toggle pending or being flushed, and otherwise settled by the flush itself, whose upserts
+ * only insert likes that were not stored yet. Trending and feed ranking hear of exactly those, so
+ * repeating a like counts once, as it does without the buffer.
+ */
+@Component
+public class LikeWriteBehindBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(LikeWriteBehindBuffer.class);
+
+    @Autowired
+    private LikeRepository likeRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private PostCache postCache;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private FeedRankingService feedRankingService;
+
+    @Value("${app.likes.write-behind.enabled:false}")
+    private boolean enabled;
+
+    private static final Toggle UNLIKE = new Toggle(null);
+
+    private final ConcurrentHashMap<LikeKey, Toggle> pending = new ConcurrentHashMap<>();
+
+    // The batch being written, still consulted for the state until the write is done
+    private volatile Map<LikeKey, Toggle> flushing = Map.of();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Returns the like pending or being written for the (user, post), if any, or else the given like, now pending
+    public Like like(Like like) {
+        Like[] recorded = new Like[1];
+        pending.compute(new LikeKey(like.getUserId(), like.getPostId()), (key, previous) -> {
+            Toggle current = previous != null ? previous : flushing.get(key);
+            recorded[0] = current != null && current.like() != null ? current.like() : like;
+            return recorded[0] == like ? new Toggle(like) : previous;
+        });
+        return recorded[0];
+    }
+
+    public void unlike(String userId, String postId) {
+        pending.put(new LikeKey(userId, postId), UNLIKE);
+    }
+
+    @Scheduled(fixedDelayString = "${app.likes.write-behind.flush-interval-ms:5}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        // Move entry by entry so a toggle recorded mid-drain is either in this batch or the next, never lost,
+        // and is visible in one of the two maps throughout
+        Map<LikeKey, Toggle> batch = new ConcurrentHashMap<>();
+        flushing = batch;
+        for (LikeKey key : pending.keySet()) {
+            pending.computeIfPresent(key, (k, toggle) -> {
+                batch.put(k, toggle);
+                return null;
+            });
+        }
+        if (batch.isEmpty()) {
+            flushing = Map.of();
+            return;
+        }
+
+        try {
+            Set<String> postIds = new HashSet<>();
+            for (LikeKey key : batch.keySet()) {
+                postIds.add(key.postId());
+            }
+            Set<String> existingPosts = postRepository.findExistingIds(postIds);
+
+            Map<String, List<Like>> likesByPost = new HashMap<>();
+            Map<String, Set<String>> unlikesByPost = new HashMap<>();
+            for (Map.Entry<LikeKey, Toggle> entry : batch.entrySet()) {
+                String postId = entry.getKey().postId();
+                if (!existingPosts.contains(postId)) {
+                    continue; // Post was deleted (or never existed); drop the toggle
+                }
+                Like like = entry.getValue().like();
+                if (like != null) {
+                    likesByPost.computeIfAbsent(postId, id -> new ArrayList<>()).add(like);
+                } else {
+                    unlikesByPost.computeIfAbsent(postId, id -> new HashSet<>()).add(entry.getKey().userId());
+                }
+            }
+
+            Map<String, Long> deltas = likeRepository.applyToggles(likesByPost, unlikesByPost, inserted -> {
+                trendingService.onPostLiked(inserted.getPostId());
+                feedRankingService.onPostLiked(inserted.getUserId(), inserted.getPostId());
+            });
+            postRepository.incrementLikeCounts(deltas);
+            postCache.onLikeCountsChanged(deltas);
+        } catch (RuntimeException e) {
+            logger.warn("Like write-behind flush failed, requeueing {} toggles", batch.size(), e);
+            // Newer toggles recorded since the drain take precedence over the failed ones
+            batch.forEach(pending::putIfAbsent);
+        } finally {
+            flushing = Map.of();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private record LikeKey(String userId, String postId) {}
+
+    // The latest state of one (user, post): the like to store, or null to remove it
+    private record Toggle(Like like) {}
+}
@@ -0,0 +1,102 @@
+package com.example.app.services;
+
+import com.example.app.cache.BoundedCache;
+import com.example.app.cache.CacheMetrics;
+import com.example.app.models.AuthorSnapshot;
+import com.example.app.models.Post;
+import com.example.app.repositories.PostRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Read-through cache of post documents by id, in front of PostRepository, for the post detail view
+ * and the existence checks of the comment and like endpoints. Edits and deletes invalidate the
+ * entry; like and comment counts are adjusted in the cached copy instead, so a popular post stays
+ * cached while it is being liked. Changes made on other instances, and author snapshot refreshes,
+ * show once the entry expires (app.posts.cache.ttl-ms). Callers get their own copy.
+ */
+@Service
+public class PostCache {
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CacheMetrics cacheMetrics;
+
+    @Value("${app.posts.cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${app.posts.cache.ttl-ms:60000}")
+    private long ttlMillis;
+
+    private BoundedCache<String, Post> cache;
+
+    @PostConstruct
+    void init() {
+        cache = new BoundedCache<>("posts", maxSize, ttlMillis);
+        cacheMetrics.register(cache);
+    }
+
+    public Optional<Post> findById(String id) {
+        return Optional.ofNullable(load(id)).map(PostCache::copy);
+    }
+
+    public boolean exists(String id) {
+        return load(id) != null;
+    }
+
+    public void invalidate(String id) {
+        cache.invalidate(id);
+    }
+
+    public void onLikeCountChanged(String id, long delta) {
+        cache.update(id, post -> {
+            Post copy = copy(post);
+            copy.setLikeCount(Math.max(0, post.getLikeCount() + delta));
+            return copy;
+        });
+    }
+
+    public void onLikeCountsChanged(Map<String, Long> deltas) {
+        deltas.forEach(this::onLikeCountChanged);
+    }
+
+    public void onCommentCountChanged(String id, long delta) {
+        cache.update(id, post -> {
+            Post copy = copy(post);
+            copy.setCommentCount(Math.max(0, post.getCommentCount() + delta));
+            return copy;
+        });
+    }
+
+    private Post load(String id) {
+        if (id == null) {
+            return null;
+        }
+        return cache.get(id, key -> postRepository.findById(key).orElse(null));
+    }
+
+    private static Post copy(Post post) {
+        Post copy = new Post();
+        copy.setId(post.getId());
+        copy.setTitle(post.getTitle());
+        copy.setContent(post.getContent());
+        copy.setMediaUrls(post.getMediaUrls() != null ? new ArrayList<>(post.getMediaUrls()) : null);
+        copy.setFileTypes(post.getFileTypes() != null ? new ArrayList<>(post.getFileTypes()) : null);
+        copy.setTags(post.getTags() != null ? new ArrayList<>(post.getTags()) : null);
+        AuthorSnapshot user = post.getUser();
+        copy.setUser(user != null ? new AuthorSnapshot(user.getId(), user.getName(), user.getPictureUrl()) : null);
+        copy.setCreatedAt(post.getCreatedAt() != null ? new Date(post.getCreatedAt().getTime()) : null);
+        copy.setLikeCount(post.getLikeCount());
+        copy.setCommentCount(post.getCommentCount());
+        return copy;
+    }
+}
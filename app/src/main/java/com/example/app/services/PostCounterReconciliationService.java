@@ -0,0 +1,44 @@
+package com.example.app.services;
+
+import com.example.app.repositories.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Repairs drift between the denormalized Post.likeCount/commentCount and the likes and comments
+ * collections (e.g. after a crash between the insert and the $inc) nightly; see
+ * PostRepositoryCustomImpl.reconcileCounters. Posts stored before the counters are counted once at
+ * startup by PostCounterMigration.
+ */
+@Service
+public class PostCounterReconciliationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostCounterReconciliationService.class);
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private PostCache postCache;
+
+    @Value("${app.counters.reconcile-batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(cron = "${app.counters.reconcile-cron:0 30 3 * * *}")
+    public void scheduledReconcile() {
+        try {
+            long repaired = reconcile();
+            logger.info("Post counter reconciliation repaired {} posts", repaired);
+        } catch (RuntimeException e) {
+            logger.warn("Post counter reconciliation failed", e);
+        }
+    }
+
+    public long reconcile() {
+        return postRepository.reconcileCounters(batchSize, postCache::invalidate);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.app.services;
+
+import com.example.app.cache.BoundedCache;
+import com.example.app.cache.CacheMetrics;
+import com.example.app.cache.JsonArray;
+import com.example.app.cache.JsonFragmentCache;
+import com.example.app.models.AuthorSnapshot;
+import com.example.app.models.Post;
+import com.example.app.models.Views;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Post cards (the Summary view) encoded once and reused by every list endpoint: home and ranked
+ * timelines, all posts, by author and by tag. Edits and deletes on this instance invalidate the
+ * card. Like and comment counts, the author's name and picture, and a hash of the card's content are
+ * compared with the post just read on every use instead: counts change by $inc, authors by a bulk
+ * snapshot refresh and content by edits on other instances, none of which reach this cache. A post
+ * deleted elsewhere is no longer in the lists, and its card expires (app.posts.json-cache.ttl-ms).
+ */
+@Service
+public class PostJsonCache {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CacheMetrics cacheMetrics;
+
+    @Value("${app.posts.json-cache.max-size:20000}")
+    private int maxSize;
+
+    @Value("${app.posts.json-cache.ttl-ms:300000}")
+    private long ttlMillis;
+
+    private JsonFragmentCache<Post> summaries;
+
+    @PostConstruct
+    void init() {
+        BoundedCache<String, JsonFragmentCache.Fragment> cache = new BoundedCache<>("post-json", maxSize, ttlMillis);
+        cacheMetrics.register(cache);
+        summaries = new JsonFragmentCache<>(cache, objectMapper.writerWithView(Views.Summary.class),
+                Post::getId, PostJsonCache::version);
+    }
+
+    public JsonArray summaries(List<Post> posts) {
+        return summaries.array(posts);
+    }
+
+    public void invalidate(String id) {
+        summaries.invalidate(id);
+    }
+
+    private static Version version(Post post) {
+        AuthorSnapshot user = post.getUser();
+        int content = Objects.hash(post.getTitle(), post.getExcerpt(), post.getTags(), post.getMediaUrls(),
+                post.getFileTypes());
+        return new Version(post.getLikeCount(), post.getCommentCount(),
+                user != null ? user.getName() : null, user != null ? user.getPictureUrl() : null, content);
+    }
+
+    private record Version(long likeCount, long commentCount, String authorName, String authorPictureUrl,
+                           int contentHash) {}
+}
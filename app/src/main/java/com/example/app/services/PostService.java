@@ -1,11 +1,17 @@
 package com.example.app.services;
 
+import com.example.app.exceptions.NotFoundException;
 import com.example.app.models.Post;
-import com.example.app.models.User;
+import com.example.app.pagination.CursorPage;
+import com.example.app.pagination.KeysetPager;
+import com.example.app.repositories.ListProjections;
+import com.example.app.repositories.OwnedDocuments;
 import com.example.app.repositories.PostRepository;
 import com.example.app.repositories.UserRepository;
+import com.example.app.search.TagIndex;
+import com.example.app.security.UserPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 
 import java.util.Date;
@@ -21,63 +27,109 @@ public class PostService {
     @Autowired
     private UserRepository userRepository;
 
-    public Post createPost(Post post) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        Optional<User> userOptional = userRepository.findByEmail(email);
-        User user = userOptional.orElseThrow(() -> new RuntimeException("User not found"));
-        post.setUser(user);
+    @Autowired
+    private OwnedDocuments ownedDocuments;
+
+    @Autowired
+    private PostCache postCache;
+
+    @Autowired
+    private PostJsonCache postJsonCache;
+
+    @Autowired
+    private KeysetPager keysetPager;
+
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private TagIndexService tagIndexService;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private SuggestService suggestService;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    public Post createPost(Post post, UserPrincipal currentUser) {
+        post.setUser(currentUser.toAuthorSnapshot());
         post.setCreatedAt(new Date());
-        return postRepository.save(post);
+        post.setLikeCount(0);
+        post.setCommentCount(0);
+        post.setTags(TagIndex.normalize(post.getTags()));
+        Post savedPost = postRepository.save(post);
+        tagIndexService.onPostSaved(savedPost);
+        searchService.onPostSaved(savedPost);
+        suggestService.onTagsChanged(List.of(), savedPost.getTags());
+        trendingService.onPostCreated(savedPost);
+        timelineService.fanOutPost(savedPost, currentUser.getId());
+        return savedPost;
     }
 
-    public List<Post> getAllPosts() {
-        return postRepository.findAll();
+    public CursorPage<Post> getAllPosts(String cursor, Integer limit) {
+        return keysetPager.page(Post.class, null, cursor, limit, ListProjections::postSummary);
     }
 
     public Optional<Post> getPostById(String id) {
-        return postRepository.findById(id);
+        return postCache.findById(id);
     }
 
-    public List<Post> getPostsByUserId(String userId) {
-        Optional<User> user = userRepository.findById(userId);
-        if (user.isPresent()) {
-            return postRepository.findByUser(user.get());
+    public CursorPage<Post> getPostsByUserId(String userId, String cursor, Integer limit) {
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException("User not found");
         }
-        throw new RuntimeException("User not found");
+        return keysetPager.page(Post.class, Criteria.where("user.id").is(userId), cursor, limit,
+                ListProjections::postSummary);
     }
 
-    public List<Post> getPostsByTag(String tag) {
-        return postRepository.findByTagsContaining(tag);
+    public CursorPage<Post> getPostsByTag(String tag, String cursor, Integer limit) {
+        return tagIndexService.findByTags(List.of(tag), List.of(), List.of(), cursor, limit);
     }
 
-    public Post updatePost(String id, Post updatedPost) {
-        Optional<Post> existingPost = postRepository.findById(id);
-        if (existingPost.isPresent()) {
-            Post post = existingPost.get();
-            String email = SecurityContextHolder.getContext().getAuthentication().getName();
-            if (!post.getUser().getEmail().equals(email)) {
-                throw new SecurityException("Unauthorized to update this post");
-            }
-            post.setTitle(updatedPost.getTitle());
-            post.setContent(updatedPost.getContent());
-            post.setMediaUrls(updatedPost.getMediaUrls());
-            post.setFileTypes(updatedPost.getFileTypes());
-            post.setTags(updatedPost.getTags());
-            return postRepository.save(post);
-        }
-        throw new RuntimeException("Post not found");
+    public CursorPage<Post> getPostsByTags(List<String> all, List<String> any, List<String> none,
+                                           String cursor, Integer limit) {
+        return tagIndexService.findByTags(all, any, none, cursor, limit);
     }
 
-    public void deletePost(String id) {
-        Optional<Post> post = postRepository.findById(id);
-        if (post.isPresent()) {
-            String email = SecurityContextHolder.getContext().getAuthentication().getName();
-            if (!post.get().getUser().getEmail().equals(email)) {
-                throw new SecurityException("Unauthorized to delete this post");
-            }
-            postRepository.deleteById(id);
-        } else {
-            throw new RuntimeException("Post not found");
-        }
+    public Post updatePost(String id, Post updatedPost, UserPrincipal currentUser) {
+        updatedPost.setTags(TagIndex.normalize(updatedPost.getTags()));
+        // The post as it was, for the tag counts; the saved post is that plus the new content
+        Post before = postRepository.updateContent(id, currentUser.getId(), updatedPost);
+        postCache.invalidate(id);
+        postJsonCache.invalidate(id);
+        Post saved = withContent(before, updatedPost);
+        tagIndexService.onPostSaved(saved);
+        searchService.onPostSaved(saved);
+        suggestService.onTagsChanged(before.getTags(), saved.getTags());
+        return saved;
+    }
+
+    public void deletePost(String id, UserPrincipal currentUser) {
+        Post post = ownedDocuments.remove(Post.class, id, currentUser.getId(), "Post");
+        postCache.invalidate(id);
+        postJsonCache.invalidate(id);
+        tagIndexService.onPostDeleted(post);
+        searchService.onPostDeleted(id);
+        suggestService.onTagsChanged(post.getTags(), List.of());
+        trendingService.onPostDeleted(id);
+        timelineService.removePost(id);
+    }
+
+    private static Post withContent(Post before, Post content) {
+        Post saved = new Post();
+        saved.setId(before.getId());
+        saved.setUser(before.getUser());
+        saved.setCreatedAt(before.getCreatedAt());
+        saved.setLikeCount(before.getLikeCount());
+        saved.setCommentCount(before.getCommentCount());
+        saved.setTitle(content.getTitle());
+        saved.setContent(content.getContent());
+        saved.setMediaUrls(content.getMediaUrls());
+        saved.setFileTypes(content.getFileTypes());
+        saved.setTags(content.getTags());
+        return saved;
     }
-}
\ No newline at end of file
+}
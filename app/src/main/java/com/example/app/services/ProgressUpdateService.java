@@ -0,0 +1,84 @@
+package com.example.app.services;
+
+import com.example.app.models.LearningPlan;
+import com.example.app.models.ProgressUpdate;
+import com.example.app.pagination.CursorPage;
+import com.example.app.pagination.KeysetPager;
+import com.example.app.repositories.OwnedDocuments;
+import com.example.app.repositories.ProgressUpdateRepository;
+import com.example.app.security.UserPrincipal;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.List;
+
+@Service
+public class ProgressUpdateService {
+
+    private static final String PROGRESS_UPDATE = "Progress update";
+
+    @Autowired
+    private ProgressUpdateRepository progressUpdateRepository;
+
+    @Autowired
+    private LearningPlanService learningPlanService;
+
+    @Autowired
+    private OwnedDocuments ownedDocuments;
+
+    @Autowired
+    private KeysetPager keysetPager;
+
+    @Autowired
+    private ActivityService activityService;
+
+    public ProgressUpdate createProgressUpdate(ProgressUpdate progressUpdate, String learningPlanId,
+                                               UserPrincipal currentUser) {
+        progressUpdate.setUser(currentUser.toAuthorSnapshot());
+        if (learningPlanId != null) {
+            progressUpdate.setLearningPlan(learningPlanService.getLearningPlanById(learningPlanId, currentUser));
+        }
+        progressUpdate.setCreatedAt(new Date());
+        ProgressUpdate savedUpdate = progressUpdateRepository.save(progressUpdate);
+        activityService.record(currentUser.getId(), 1);
+        return savedUpdate;
+    }
+
+    public CursorPage<ProgressUpdate> getProgressUpdatesByUser(String cursor, Integer limit, UserPrincipal currentUser) {
+        return getProgressUpdatesByUserId(currentUser.getId(), cursor, limit);
+    }
+
+    public CursorPage<ProgressUpdate> getProgressUpdatesByUserId(String userId, String cursor, Integer limit) {
+        return keysetPager.page(ProgressUpdate.class, Criteria.where("user.id").is(userId), cursor, limit);
+    }
+
+    public List<ProgressUpdate> getProgressUpdatesByLearningPlanId(String learningPlanId, UserPrincipal currentUser) {
+        ownedDocuments.checkOwner(LearningPlan.class, learningPlanId, currentUser.getId(), "Learning plan");
+        return progressUpdateRepository.findByLearningPlanId(learningPlanId);
+    }
+
+    public ProgressUpdate getProgressUpdateById(String updateId, UserPrincipal currentUser) {
+        return ownedDocuments.find(ProgressUpdate.class, updateId, currentUser.getId(), PROGRESS_UPDATE);
+    }
+
+    public ProgressUpdate updateProgressUpdate(String updateId, ProgressUpdate progressUpdate, String learningPlanId,
+                                               UserPrincipal currentUser) {
+        Update update = new Update()
+                .set("content", progressUpdate.getContent())
+                .set("templateType", progressUpdate.getTemplateType());
+        if (learningPlanId != null) {
+            LearningPlan learningPlan = learningPlanService.getLearningPlanById(learningPlanId, currentUser);
+            update.set("learningPlanId", learningPlan.getId()).set("learningPlanTitle", learningPlan.getTitle());
+        } else {
+            update.unset("learningPlanId").unset("learningPlanTitle");
+        }
+        return ownedDocuments.modify(ProgressUpdate.class, updateId, currentUser.getId(), update, true, PROGRESS_UPDATE);
+    }
+
+    public void deleteProgressUpdate(String updateId, UserPrincipal currentUser) {
+        ownedDocuments.remove(ProgressUpdate.class, updateId, currentUser.getId(), PROGRESS_UPDATE);
+    }
+}
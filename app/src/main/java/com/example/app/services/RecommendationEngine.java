@@ -0,0 +1,253 @@
+package com.example.app.services;
+
+import com.example.app.models.Follow;
+import com.example.app.models.LearningPlan;
+import com.example.app.models.Post;
+import com.example.app.models.Recommendation;
+import com.example.app.models.User;
+import com.example.app.repositories.FollowRepository;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Ranks "people you may know" for one user. Candidates come from three bounded scans: who the
+ * accounts the user follows follow (friends of friends, read from the in-memory social graph, or
+ * from the recent followees' edges in MongoDB until it has loaded), authors of recent posts with the
+ * user's most used tags, and owners of learning plans sharing a topic title with the user's plans.
+ * Every scan is capped, so the cost depends on the caps rather than on the number of users. Users
+ * with no signal at all get the most followed accounts. Accounts the user follows or is followed by
+ * are never suggested.
+ */
+@Component
+public class RecommendationEngine {
+
+    // Most recent followees used as seeds; older ones are still excluded at read time
+    private static final int MAX_SEEDS = 500;
+    private static final int MAX_FRIENDS_OF_FRIENDS = 500;
+    // Second-hop edges read from the in-memory graph
+    private static final int MAX_VISITED = 200_000;
+    private static final int RECENT_POSTS = 50;
+    private static final int TOP_TAGS = 10;
+    private static final int TAGGED_POST_SCAN = 2000;
+    private static final int RECENT_PLANS = 20;
+    private static final int PLAN_SCAN = 1000;
+
+    private static final double MUTUAL_WEIGHT = 3.0;
+    private static final double TAG_WEIGHT = 1.0;
+    private static final double TOPIC_WEIGHT = 2.0;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Autowired
+    private SocialGraphService socialGraphService;
+
+    @Value("${app.recommendations.max-results:50}")
+    private int maxResults;
+
+    @Async
+    public CompletableFuture<List<Recommendation>> computeAsync(String userId) {
+        return CompletableFuture.completedFuture(compute(userId));
+    }
+
+    public List<Recommendation> compute(String userId) {
+        Map<String, Recommendation> candidates = new HashMap<>();
+        Set<String> excluded = new HashSet<>();
+        excluded.add(userId);
+
+        // The in-memory graph is preferred; MongoDB serves until it has loaded
+        Map<String, Long> friendsOfFriends = socialGraphService.friendsOfFriends(userId, MAX_SEEDS, MAX_VISITED,
+                MAX_FRIENDS_OF_FRIENDS);
+        if (friendsOfFriends != null) {
+            friendsOfFriends.forEach((id, mutualCount) -> candidate(candidates, id).setMutualCount(mutualCount));
+        } else {
+            List<String> seeds = recentFollowees(userId);
+            excluded.addAll(seeds);
+            addFriendsOfFriends(seeds, excluded, candidates);
+        }
+        addSharedTags(userId, candidates);
+        addSharedTopics(userId, candidates);
+        candidates.keySet().removeAll(excluded);
+        removeConnected(userId, candidates);
+
+        List<Recommendation> ranked = new ArrayList<>(candidates.values());
+        for (Recommendation candidate : ranked) {
+            candidate.setScore(MUTUAL_WEIGHT * candidate.getMutualCount()
+                    + TAG_WEIGHT * candidate.getSharedTags().size()
+                    + TOPIC_WEIGHT * candidate.getSharedTopics().size());
+        }
+        ranked.sort(Comparator.comparingDouble(Recommendation::getScore).reversed()
+                .thenComparing(Comparator.comparingLong(Recommendation::getMutualCount).reversed())
+                .thenComparing(Recommendation::getUserId));
+        if (ranked.size() > maxResults) {
+            return new ArrayList<>(ranked.subList(0, maxResults));
+        }
+        addPopular(userId, excluded, ranked);
+        return ranked;
+    }
+
+    private List<String> recentFollowees(String userId) {
+        Query query = Query.query(Criteria.where("followerId").is(userId))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "id"))
+                .limit(MAX_SEEDS);
+        query.fields().include("followeeId").exclude("id");
+        List<String> followees = new ArrayList<>();
+        for (Follow follow : mongoTemplate.find(query, Follow.class)) {
+            followees.add(follow.getFolloweeId());
+        }
+        return followees;
+    }
+
+    // Accounts followed by the most of the seeds, counted in one aggregation over the follower index
+    private void addFriendsOfFriends(List<String> seeds, Set<String> excluded, Map<String, Recommendation> candidates) {
+        if (seeds.isEmpty()) {
+            return;
+        }
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("followerId").in(seeds).and("followeeId").nin(excluded)),
+                Aggregation.group("followeeId").count().as("mutualCount"),
+                Aggregation.sort(Sort.Direction.DESC, "mutualCount"),
+                Aggregation.limit(MAX_FRIENDS_OF_FRIENDS));
+        for (Document result : mongoTemplate.aggregate(aggregation, Follow.class, Document.class)) {
+            candidate(candidates, result.getString("_id"))
+                    .setMutualCount(((Number) result.get("mutualCount")).longValue());
+        }
+    }
+
+    private void addSharedTags(String userId, Map<String, Recommendation> candidates) {
+        Query own = Query.query(Criteria.where("user.id").is(userId))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "id"))
+                .limit(RECENT_POSTS);
+        own.fields().include("tags");
+        Map<String, Integer> tagUse = new HashMap<>();
+        for (Post post : mongoTemplate.find(own, Post.class)) {
+            if (post.getTags() != null) {
+                for (String tag : post.getTags()) {
+                    tagUse.merge(tag, 1, Integer::sum);
+                }
+            }
+        }
+        if (tagUse.isEmpty()) {
+            return;
+        }
+        List<String> topTags = tagUse.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .limit(TOP_TAGS)
+                .map(Map.Entry::getKey)
+                .toList();
+
+        Query tagged = Query.query(Criteria.where("tags").in(topTags))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "id"))
+                .limit(TAGGED_POST_SCAN);
+        tagged.fields().include("user.id", "tags");
+        for (Post post : mongoTemplate.find(tagged, Post.class)) {
+            if (post.getUser() == null || post.getUser().getId() == null) {
+                continue;
+            }
+            Recommendation candidate = candidate(candidates, post.getUser().getId());
+            for (String tag : post.getTags()) {
+                if (topTags.contains(tag) && !candidate.getSharedTags().contains(tag)) {
+                    candidate.getSharedTags().add(tag);
+                }
+            }
+        }
+    }
+
+    // Topic titles are matched exactly by the index, then compared case-insensitively
+    private void addSharedTopics(String userId, Map<String, Recommendation> candidates) {
+        Query own = Query.query(Criteria.where("user.id").is(userId))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "id"))
+                .limit(RECENT_PLANS);
+        own.fields().include("topics.title");
+        Set<String> titles = new HashSet<>();
+        Set<String> normalized = new HashSet<>();
+        for (LearningPlan plan : mongoTemplate.find(own, LearningPlan.class)) {
+            if (plan.getTopics() != null) {
+                for (LearningPlan.Topic topic : plan.getTopics()) {
+                    if (topic.getTitle() != null && !topic.getTitle().isBlank()) {
+                        titles.add(topic.getTitle());
+                        normalized.add(topic.getTitle().trim().toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+        }
+        if (titles.isEmpty()) {
+            return;
+        }
+
+        Query sharing = Query.query(Criteria.where("topics.title").in(titles)).limit(PLAN_SCAN);
+        sharing.fields().include("user.id", "topics.title");
+        for (LearningPlan plan : mongoTemplate.find(sharing, LearningPlan.class)) {
+            if (plan.getUser() == null || plan.getUser().getId() == null) {
+                continue;
+            }
+            Recommendation candidate = candidate(candidates, plan.getUser().getId());
+            for (LearningPlan.Topic topic : plan.getTopics()) {
+                String title = topic.getTitle() != null ? topic.getTitle().trim().toLowerCase(Locale.ROOT) : null;
+                if (title != null && normalized.contains(title) && !candidate.getSharedTopics().contains(title)) {
+                    candidate.getSharedTopics().add(title);
+                }
+            }
+        }
+    }
+
+    // Accounts the user follows or is followed by are already connected to them
+    private void removeConnected(String userId, Map<String, Recommendation> candidates) {
+        if (candidates.isEmpty()) {
+            return;
+        }
+        candidates.keySet().removeAll(followRepository.findFolloweeIdsAmong(userId, candidates.keySet()));
+        candidates.keySet().removeAll(followRepository.findFollowerIdsAmong(userId, candidates.keySet()));
+    }
+
+    // Cold start: pad with the most followed accounts the user is not connected to yet
+    private void addPopular(String userId, Set<String> excluded, List<Recommendation> ranked) {
+        Query popular = new Query()
+                .with(Sort.by(Sort.Direction.DESC, "followerCount"))
+                .limit(maxResults + excluded.size());
+        popular.fields().include("id");
+        Set<String> present = new HashSet<>();
+        for (Recommendation recommendation : ranked) {
+            present.add(recommendation.getUserId());
+        }
+        Map<String, Recommendation> padding = new LinkedHashMap<>();
+        for (User user : mongoTemplate.find(popular, User.class)) {
+            if (!excluded.contains(user.getId()) && !present.contains(user.getId())) {
+                padding.put(user.getId(), new Recommendation(user.getId()));
+            }
+        }
+        removeConnected(userId, padding);
+        for (Recommendation recommendation : padding.values()) {
+            if (ranked.size() == maxResults) {
+                break;
+            }
+            ranked.add(recommendation);
+        }
+    }
+
+    private static Recommendation candidate(Map<String, Recommendation> candidates, String userId) {
+        return candidates.computeIfAbsent(userId, Recommendation::new);
+    }
+}
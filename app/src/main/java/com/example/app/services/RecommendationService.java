@@ -0,0 +1,127 @@
+package com.example.app.services;
+
+import com.example.app.cache.BoundedCache;
+import com.example.app.cache.CacheMetrics;
+import com.example.app.models.Recommendation;
+import com.example.app.models.User;
+import com.example.app.repositories.FollowRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves "people you may know" from a per-user cache of ranked candidates. A miss computes the
+ * ranking once (concurrent requests share it); an entry older than the refresh interval is still
+ * served while a fresh ranking is computed in the background, so steady-state requests never wait
+ * on the ranking queries. Each page is re-checked against the follow index, so someone the user
+ * has just followed disappears immediately.
+ */
+@Service
+public class RecommendationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecommendationService.class);
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    @Autowired
+    private RecommendationEngine engine;
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Autowired
+    private ReferenceResolver referenceResolver;
+
+    @Autowired
+    private CacheMetrics cacheMetrics;
+
+    @Value("${app.recommendations.max-results:50}")
+    private int maxResults;
+
+    @Value("${app.recommendations.cache.max-size:10000}")
+    private int cacheSize;
+
+    @Value("${app.recommendations.cache.ttl-ms:3600000}")
+    private long ttlMillis;
+
+    @Value("${app.recommendations.refresh-after-ms:600000}")
+    private long refreshAfterMillis;
+
+    private BoundedCache<String, Ranking> rankings;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void init() {
+        rankings = new BoundedCache<>("recommendations", cacheSize, ttlMillis);
+        cacheMetrics.register(rankings);
+    }
+
+    // Candidates paired with the user each one stands for, best first
+    public Map<Recommendation, User> getRecommendations(String userId, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, maxResults));
+        Ranking ranking = rankings.get(userId, id -> new Ranking(engine.compute(id), System.currentTimeMillis()));
+        if (System.currentTimeMillis() - ranking.computedAt() > refreshAfterMillis) {
+            refreshInBackground(userId);
+        }
+
+        List<Recommendation> page = new ArrayList<>();
+        List<String> ids = new ArrayList<>();
+        for (Recommendation recommendation : ranking.items()) {
+            if (page.size() == pageSize * 2) {
+                break; // Slack for candidates followed or deleted since the ranking was computed
+            }
+            page.add(recommendation);
+            ids.add(recommendation.getUserId());
+        }
+        Set<String> followed = followRepository.findFolloweeIdsAmong(userId, ids);
+        Map<String, User> users = referenceResolver.resolve(User.class, ids,
+                fields -> fields.include("id", "email", "name", "pictureUrl", "followerCount", "followingCount"));
+
+        Map<Recommendation, User> result = new LinkedHashMap<>();
+        for (Recommendation recommendation : page) {
+            User user = users.get(recommendation.getUserId());
+            if (user != null && !followed.contains(recommendation.getUserId())) {
+                result.put(recommendation, user);
+                if (result.size() == pageSize) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    public void invalidate(String userId) {
+        rankings.invalidate(userId);
+    }
+
+    private void refreshInBackground(String userId) {
+        if (!refreshing.add(userId)) {
+            return;
+        }
+        try {
+            engine.computeAsync(userId).whenComplete((items, error) -> {
+                refreshing.remove(userId);
+                if (error != null) {
+                    logger.warn("Could not refresh recommendations for {}", userId, error);
+                } else {
+                    rankings.put(userId, new Ranking(items, System.currentTimeMillis()));
+                }
+            });
+        } catch (RuntimeException e) {
+            refreshing.remove(userId); // Executor rejected the task; the next request retries
+            logger.warn("Could not schedule a recommendation refresh for {}", userId, e);
+        }
+    }
+
+    private record Ranking(List<Recommendation> items, long computedAt) {}
+}
@@ -0,0 +1,47 @@
+package com.example.app.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Field;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Loads the documents behind a set of id references with a single $in query, for the few callers
+ * that need more than the embedded snapshot. Ids that no longer exist are simply absent from the map.
+ */
+@Component
+public class ReferenceResolver {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    public <T> Map<String, T> resolve(Class<T> type, Collection<String> ids) {
+        return resolve(type, ids, null);
+    }
+
+    public <T> Map<String, T> resolve(Class<T> type, Collection<String> ids, Consumer<Field> projection) {
+        Map<String, T> byId = new HashMap<>();
+        if (ids.isEmpty()) {
+            return byId;
+        }
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(type);
+        Query query = new Query(Criteria.where("id").in(new LinkedHashSet<>(ids)));
+        if (projection != null) {
+            projection.accept(query.fields());
+        }
+        for (T item : mongoTemplate.find(query, type)) {
+            byId.put(String.valueOf(entity.getIdentifierAccessor(item).getIdentifier()), item);
+        }
+        return byId;
+    }
+}
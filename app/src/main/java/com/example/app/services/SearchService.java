@@ -0,0 +1,422 @@
+package com.example.app.services;
+
+import com.example.app.exceptions.BadRequestException;
+import com.example.app.models.Comment;
+import com.example.app.models.LearningPlan;
+import com.example.app.models.Post;
+import com.example.app.pagination.CursorPage;
+import com.example.app.pagination.KeysetPager;
+import com.example.app.repositories.ListProjections;
+import com.example.app.search.SearchIndex;
+import com.example.app.security.UserPrincipal;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Full-text search over posts, comments and learning plans. The index lives in a generation
+ * directory under app.search.dir (named by its "current" file) and survives restarts. Writes on this
+ * instance update it immediately; a periodic rebuild from MongoDB into a new generation picks up
+ * writes and deletes made on other instances, and replaces the index once complete. Writes made
+ * while it runs go to both. Search is served from the previous generation meanwhile. Learning plans
+ * are private, so their keys carry the owner and a search only matches the viewer's own plans.
+ */
+@Service
+public class SearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchService.class);
+
+    private static final String POST = "post:";
+    private static final String COMMENT = "comment:";
+    private static final String PLAN = "plan:";
+    private static final String CURRENT = "current";
+    private static final String GENERATION = "gen-";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ReferenceResolver referenceResolver;
+
+    @Autowired
+    private KeysetPager keysetPager;
+
+    @Value("${app.search.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.search.dir:data/search}")
+    private String directory;
+
+    @Value("${app.search.max-buffer-docs:5000}")
+    private int maxBufferDocs;
+
+    @Value("${app.search.max-segments:10}")
+    private int maxSegments;
+
+    @Value("${app.search.merge-factor:4}")
+    private int mergeFactor;
+
+    // Searches and writes hold the read lock; replacing the index (and closing the old one) the write lock
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final Object rebuildLock = new Object();
+
+    private volatile SearchIndex index;
+    private Path indexDir;
+    // The generation a rebuild is filling, which writes also go to; guarded by swapLock
+    private SearchIndex next;
+
+    @PostConstruct
+    void open() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Path root = Path.of(directory);
+            Path current = root.resolve(CURRENT);
+            // An index from before generations sits in the directory itself; the first rebuild moves it
+            indexDir = Files.exists(current) ? root.resolve(Files.readString(current).trim()) : root;
+            removeGenerations(root, indexDir); // Left by a rebuild that did not finish
+            index = SearchIndex.open(indexDir, maxBufferDocs, maxSegments, mergeFactor);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not open the search index in {}, search is disabled", directory, e);
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        swapLock.writeLock().lock();
+        try {
+            if (index != null) {
+                index.close(); // Buffered documents are in the log and replayed on the next start
+            }
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    // An index that was never built completely is rebuilt right away rather than on the schedule
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (index == null || index.isComplete()) {
+            return;
+        }
+        Thread thread = new Thread(this::scheduledRebuild, "search-reindex");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.rebuild-interval-ms:3600000}",
+            initialDelayString = "${app.search.rebuild-interval-ms:3600000}")
+    public void scheduledRebuild() {
+        if (index == null) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Search reindex failed, keeping the previous index", e);
+        }
+    }
+
+    void rebuild() throws IOException {
+        synchronized (rebuildLock) {
+            long start = System.currentTimeMillis();
+            Path root = Path.of(directory);
+            Path builtDir = root.resolve(GENERATION + start);
+            SearchIndex built = SearchIndex.open(builtDir, maxBufferDocs, maxSegments, mergeFactor);
+            try {
+                setNext(built);
+                Query posts = new Query();
+                posts.fields().include("title", "content");
+                stream(posts, Post.class, built, post -> indexPost(built, post));
+                Query comments = new Query();
+                comments.fields().include("content");
+                stream(comments, Comment.class, built, comment -> indexComment(built, comment));
+                Query plans = new Query();
+                plans.fields().include("title", "description", "topics.title", "user.id");
+                stream(plans, LearningPlan.class, built, plan -> indexPlan(built, plan));
+                built.flush();
+                built.markComplete();
+                Path pointer = root.resolve(CURRENT + ".tmp");
+                Files.writeString(pointer, builtDir.getFileName().toString());
+                Files.move(pointer, root.resolve(CURRENT), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException | RuntimeException e) {
+                setNext(null);
+                built.close();
+                removeGenerations(root, indexDir);
+                throw e;
+            }
+
+            SearchIndex previous;
+            Path previousDir;
+            swapLock.writeLock().lock();
+            try {
+                previous = index;
+                previousDir = indexDir;
+                index = built;
+                indexDir = builtDir;
+                next = null;
+                previous.close();
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            removeIndexFiles(root, previousDir);
+            logger.info("Search index built in {} ms: {}", System.currentTimeMillis() - start, built.stats());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.flush-interval-ms:30000}")
+    public void flush() {
+        if (index == null) {
+            return;
+        }
+        swapLock.readLock().lock();
+        try {
+            index.flush();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Search index flush failed, buffered documents stay in the log", e);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    public void onPostSaved(Post post) {
+        update(target -> indexPost(target, post));
+    }
+
+    public void onPostDeleted(String postId) {
+        update(target -> target.delete(POST + postId));
+    }
+
+    public void onCommentSaved(Comment comment) {
+        update(target -> indexComment(target, comment));
+    }
+
+    public void onCommentDeleted(String commentId) {
+        update(target -> target.delete(COMMENT + commentId));
+    }
+
+    public void onPlanSaved(LearningPlan plan) {
+        if (plan.getUser() != null) {
+            update(target -> indexPlan(target, plan));
+        }
+    }
+
+    public void onPlanDeleted(LearningPlan plan) {
+        if (plan.getUser() != null) {
+            update(target -> target.delete(planKey(plan)));
+        }
+    }
+
+    private static void indexPost(SearchIndex target, Post post) {
+        target.index(POST + post.getId(), post.getTitle(), post.getContent());
+    }
+
+    private static void indexComment(SearchIndex target, Comment comment) {
+        target.index(COMMENT + comment.getId(), null, comment.getContent());
+    }
+
+    private static void indexPlan(SearchIndex target, LearningPlan plan) {
+        if (plan.getUser() == null) {
+            return;
+        }
+        List<String> bodies = new ArrayList<>();
+        bodies.add(plan.getDescription());
+        if (plan.getTopics() != null) {
+            for (LearningPlan.Topic topic : plan.getTopics()) {
+                bodies.add(topic.getTitle());
+            }
+        }
+        target.index(planKey(plan), plan.getTitle(), bodies.toArray(new String[0]));
+    }
+
+    /**
+     * BM25-ranked matches, best first, as {type, id, score, item} where item is the post summary,
+     * comment or learning plan. type narrows the search to "post", "comment" or "plan".
+     */
+    public CursorPage<Map<String, Object>> search(String query, String type, String cursor, Integer limit,
+                                                  UserPrincipal currentUser) {
+        if (index == null) {
+            throw new IllegalStateException("Search is not available");
+        }
+        int pageSize = keysetPager.resolvePageSize(limit);
+        List<String> prefixes = new ArrayList<>();
+        String ownPlans = PLAN + currentUser.getId() + ":";
+        if (type == null || type.isEmpty()) {
+            prefixes.addAll(List.of(POST, COMMENT, ownPlans));
+        } else if (type.equals("post")) {
+            prefixes.add(POST);
+        } else if (type.equals("comment")) {
+            prefixes.add(COMMENT);
+        } else if (type.equals("plan")) {
+            prefixes.add(ownPlans);
+        } else {
+            throw new BadRequestException("Unknown type: " + type);
+        }
+
+        SearchIndex.Page page;
+        swapLock.readLock().lock();
+        try {
+            page = index.search(query, prefixes, pageSize, decodeCursor(cursor));
+        } finally {
+            swapLock.readLock().unlock();
+        }
+        Map<String, String> ids = new LinkedHashMap<>(); // key -> document id
+        List<String> postIds = new ArrayList<>();
+        List<String> commentIds = new ArrayList<>();
+        List<String> planIds = new ArrayList<>();
+        for (SearchIndex.Hit hit : page.hits()) {
+            String id = hit.key().substring(hit.key().lastIndexOf(':') + 1);
+            ids.put(hit.key(), id);
+            (hit.key().startsWith(POST) ? postIds : hit.key().startsWith(COMMENT) ? commentIds : planIds).add(id);
+        }
+        Map<String, Object> items = new HashMap<>();
+        items.putAll(referenceResolver.resolve(Post.class, postIds, ListProjections::postSummary));
+        items.putAll(referenceResolver.resolve(Comment.class, commentIds));
+        items.putAll(referenceResolver.resolve(LearningPlan.class, planIds));
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (SearchIndex.Hit hit : page.hits()) {
+            Object item = items.get(ids.get(hit.key()));
+            if (item == null) {
+                continue; // Deleted without going through the write paths, e.g. with its account
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("type", hit.key().substring(0, hit.key().indexOf(':')));
+            result.put("id", ids.get(hit.key()));
+            result.put("score", hit.score());
+            result.put("item", item);
+            results.add(result);
+        }
+        String nextCursor = page.hasMore() ? encodeCursor(page.hits().get(page.hits().size() - 1)) : null;
+        return new CursorPage<>(results, nextCursor);
+    }
+
+    public Map<String, Object> stats() {
+        if (index == null) {
+            return Map.of("enabled", false);
+        }
+        swapLock.readLock().lock();
+        try {
+            return index.stats();
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    // Search must never fail a write; a missed update is repaired by the next rebuild
+    private void update(Consumer<SearchIndex> change) {
+        if (index == null) {
+            return;
+        }
+        swapLock.readLock().lock();
+        try {
+            change.accept(index);
+            if (next != null) {
+                change.accept(next);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Search index update failed", e);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private void setNext(SearchIndex built) {
+        swapLock.writeLock().lock();
+        try {
+            next = built;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    private <T> void stream(Query query, Class<T> type, SearchIndex target, Consumer<T> consumer) throws IOException {
+        try (Stream<T> documents = mongoTemplate.stream(query, type)) {
+            for (T document : (Iterable<T>) documents::iterator) {
+                consumer.accept(document);
+                if (target.needsFlush()) {
+                    target.flush();
+                }
+            }
+        }
+    }
+
+    // Generation directories other than the one in use
+    private static void removeGenerations(Path root, Path keep) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        try (Stream<Path> entries = Files.list(root)) {
+            for (Path entry : entries.toList()) {
+                if (Files.isDirectory(entry) && entry.getFileName().toString().startsWith(GENERATION) && !entry.equals(keep)) {
+                    removeIndexFiles(root, entry);
+                }
+            }
+        }
+    }
+
+    // A generation directory, or the files of an index kept in the root before generations
+    private static void removeIndexFiles(Path root, Path dir) throws IOException {
+        boolean legacy = dir.equals(root);
+        List<Path> paths;
+        try (Stream<Path> walk = legacy ? Files.list(dir) : Files.walk(dir)) {
+            paths = walk.sorted(Comparator.reverseOrder()).toList();
+        }
+        for (Path path : paths) {
+            if (legacy && (Files.isDirectory(path) || path.getFileName().toString().startsWith(CURRENT))) {
+                continue;
+            }
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private static String planKey(LearningPlan plan) {
+        return PLAN + plan.getUser().getId() + ":" + plan.getId();
+    }
+
+    // The exact score and key of the last hit, so the next page resumes right after it
+    private static String encodeCursor(SearchIndex.Hit hit) {
+        String raw = Long.toHexString(Double.doubleToLongBits(hit.score())) + ":" + hit.key();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static SearchIndex.Hit decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            double score = Double.longBitsToDouble(Long.parseUnsignedLong(raw.substring(0, separator), 16));
+            return new SearchIndex.Hit(raw.substring(separator + 1), score);
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor", e);
+        }
+    }
+}
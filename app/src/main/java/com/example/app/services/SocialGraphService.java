@@ -0,0 +1,267 @@
+package com.example.app.services;
+
+import com.example.app.graph.CsrGraph;
+import com.example.app.graph.IntRow;
+import com.example.app.graph.SocialGraph;
+import com.example.app.graph.UserIdIndex;
+import com.example.app.models.Follow;
+import com.example.app.models.User;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * In-memory copy of the follow graph for intersection queries ("mutual followers", "followed by
+ * people you follow") and friends-of-friends candidates. The follows collection stays the source of
+ * truth: the graph is loaded from it in the background after startup and rebuilt on a schedule,
+ * which folds in the overlay of local changes and picks up changes made by other instances. Until
+ * the first load finishes, queries return null and callers fall back to MongoDB.
+ */
+@Service
+public class SocialGraphService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SocialGraphService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.graph.enabled:true}")
+    private boolean enabled;
+
+    private volatile SocialGraph graph;
+
+    // Changes made while a rebuild is reading the collection, replayed onto the new snapshot; guarded by this
+    private List<EdgeChange> pending;
+
+    private final Object rebuildLock = new Object();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::scheduledRebuild, "social-graph-loader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Scheduled(fixedDelayString = "${app.graph.rebuild-interval-ms:900000}",
+            initialDelayString = "${app.graph.rebuild-interval-ms:900000}")
+    public void scheduledRebuild() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            logger.warn("Social graph rebuild failed, keeping the previous snapshot", e);
+        }
+    }
+
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                pending = new ArrayList<>();
+            }
+            long start = System.currentTimeMillis();
+            CsrGraph base;
+            try {
+                base = load();
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    pending = null;
+                }
+                throw e;
+            }
+            SocialGraph next = new SocialGraph(base, start, System.currentTimeMillis() - start);
+            synchronized (this) {
+                for (EdgeChange change : pending) {
+                    next.setEdge(change.followerId(), change.followeeId(), change.present());
+                }
+                pending = null;
+                graph = next;
+            }
+            logger.info("Social graph loaded: {} users, {} follows in {} ms",
+                    base.nodeCount(), base.edgeCount(), System.currentTimeMillis() - start);
+        }
+    }
+
+    public void onFollow(String followerId, String followeeId) {
+        record(new EdgeChange(followerId, followeeId, true));
+    }
+
+    public void onUnfollow(String followerId, String followeeId) {
+        record(new EdgeChange(followerId, followeeId, false));
+    }
+
+    public boolean isReady() {
+        return graph != null;
+    }
+
+    // Accounts following both users; null until the graph is loaded
+    public Intersection mutualFollowers(String userId, String otherId, int limit) {
+        SocialGraph current = graph;
+        if (current == null) {
+            return null;
+        }
+        int user = current.indexOf(userId);
+        int other = current.indexOf(otherId);
+        if (user < 0 || other < 0) {
+            return new Intersection(0, List.of());
+        }
+        return intersect(current, current.followers(user), current.followers(other), limit);
+    }
+
+    // Accounts the viewer follows that follow the user; null until the graph is loaded
+    public Intersection followedByFollowing(String viewerId, String userId, int limit) {
+        SocialGraph current = graph;
+        if (current == null) {
+            return null;
+        }
+        int viewer = current.indexOf(viewerId);
+        int user = current.indexOf(userId);
+        if (viewer < 0 || user < 0) {
+            return new Intersection(0, List.of());
+        }
+        return intersect(current, current.following(viewer), current.followers(user), limit);
+    }
+
+    /**
+     * Accounts followed by the most of the user's followees, with how many of them follow each one,
+     * best first. At most maxSeeds followees and maxVisited second-hop edges are read, so a user who
+     * follows celebrities costs no more than one who does not. Null until the graph is loaded.
+     */
+    public Map<String, Long> friendsOfFriends(String userId, int maxSeeds, int maxVisited, int limit) {
+        SocialGraph current = graph;
+        if (current == null) {
+            return null;
+        }
+        int user = current.indexOf(userId);
+        if (user < 0) {
+            return Map.of();
+        }
+        IntRow following = current.following(user);
+        int[] visited = new int[Math.min(maxVisited, 1024)];
+        int size = 0;
+        for (int s = 0; s < following.size() && s < maxSeeds && size < maxVisited; s++) {
+            IntRow second = current.following(following.get(s));
+            for (int i = 0; i < second.size() && size < maxVisited; i++) {
+                int candidate = second.get(i);
+                if (candidate == user || following.contains(candidate)) {
+                    continue;
+                }
+                if (size == visited.length) {
+                    visited = Arrays.copyOf(visited, Math.min(maxVisited, visited.length * 2));
+                }
+                visited[size++] = candidate;
+            }
+        }
+        // Sorting turns counting into run lengths, with no boxed map per visited edge
+        Arrays.sort(visited, 0, size);
+        List<long[]> counts = new ArrayList<>();
+        for (int i = 0; i < size; ) {
+            int j = i;
+            while (j < size && visited[j] == visited[i]) {
+                j++;
+            }
+            counts.add(new long[]{visited[i], j - i});
+            i = j;
+        }
+        counts.sort((a, b) -> a[1] != b[1] ? Long.compare(b[1], a[1]) : Long.compare(a[0], b[0]));
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < counts.size() && i < limit; i++) {
+            result.put(current.idAt((int) counts.get(i)[0]), counts.get(i)[1]);
+        }
+        return result;
+    }
+
+    // Sizes of the snapshot and overlay, and the memory it saves over per-user id lists
+    public Map<String, Object> stats() {
+        SocialGraph current = graph;
+        if (current == null) {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("ready", false);
+            return stats;
+        }
+        Map<String, Object> stats = current.stats();
+        stats.put("ready", true);
+        return stats;
+    }
+
+    private synchronized void record(EdgeChange change) {
+        if (graph != null) {
+            graph.setEdge(change.followerId(), change.followeeId(), change.present());
+        }
+        if (pending != null) {
+            pending.add(change);
+        }
+    }
+
+    private static Intersection intersect(SocialGraph graph, IntRow a, IntRow b, int limit) {
+        List<Integer> nodes = new ArrayList<>();
+        int count = IntRow.intersect(a, b, limit, nodes::add);
+        List<String> userIds = new ArrayList<>(nodes.size());
+        for (int node : nodes) {
+            userIds.add(graph.idAt(node));
+        }
+        return new Intersection(count, userIds);
+    }
+
+    // Streams both collections once; the only per-edge garbage is the streamed documents
+    private CsrGraph load() {
+        List<ObjectId> userIds = new ArrayList<>();
+        Query users = new Query();
+        users.fields().include("_id");
+        try (Stream<Document> stream = mongoTemplate.stream(users, Document.class, mongoTemplate.getCollectionName(User.class))) {
+            stream.forEach(document -> {
+                if (document.get("_id") instanceof ObjectId id) {
+                    userIds.add(id);
+                }
+            });
+        }
+        UserIdIndex ids = UserIdIndex.of(userIds);
+        userIds.clear();
+
+        Query follows = new Query();
+        follows.fields().include("followerId", "followeeId").exclude("_id");
+        int[][] edges = {new int[1024], new int[1024]};
+        int[] edgeCount = {0};
+        try (Stream<Document> stream = mongoTemplate.stream(follows, Document.class, mongoTemplate.getCollectionName(Follow.class))) {
+            stream.forEach(document -> {
+                int follower = ids.indexOf(document.getString("followerId"));
+                int followee = ids.indexOf(document.getString("followeeId"));
+                if (follower < 0 || followee < 0) {
+                    return; // Edge to an account deleted mid-scan
+                }
+                if (edgeCount[0] == edges[0].length) {
+                    edges[0] = Arrays.copyOf(edges[0], edges[0].length * 2);
+                    edges[1] = Arrays.copyOf(edges[1], edges[1].length * 2);
+                }
+                edges[0][edgeCount[0]] = follower;
+                edges[1][edgeCount[0]] = followee;
+                edgeCount[0]++;
+            });
+        }
+        return CsrGraph.build(ids, edges[0], edges[1], edgeCount[0]);
+    }
+
+    public record Intersection(int count, List<String> userIds) {}
+
+    private record EdgeChange(String followerId, String followeeId, boolean present) {}
+}
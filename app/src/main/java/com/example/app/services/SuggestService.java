@@ -0,0 +1,315 @@
+package com.example.app.services;
+
+import com.example.app.exceptions.BadRequestException;
+import com.example.app.models.Post;
+import com.example.app.models.User;
+import com.example.app.search.CompletionIndex;
+import com.example.app.search.TagIndex;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Type-ahead suggestions for tags (weighted by how many posts carry them) and user names (weighted
+ * by follower count). Both live in in-memory CompletionIndexes, loaded from MongoDB in the
+ * background after startup and rebuilt on a schedule. Tag and name writes on this instance update
+ * them immediately; follower counts and other instances' writes arrive with the next rebuild.
+ * A name is indexed from the start of each of its first words, so "love" finds "Ada Lovelace".
+ */
+@Service
+public class SuggestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SuggestService.class);
+
+    private static final int MAX_LIMIT = 50;
+    private static final int NAME_WORDS = 3;
+    // Sorts before any other character, so "ada lovelace" is a prefix of "ada lovelace\0<id>"
+    private static final char ID_SEPARATOR = '\u0000';
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.suggest.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.suggest.max-overlay:10000}")
+    private int maxOverlay;
+
+    private volatile CompletionIndex tags;
+    private volatile CompletionIndex users;
+
+    // Writes made while a rebuild or merge is running, replayed onto the new indexes; guarded by this
+    private List<BiConsumer<CompletionIndex, CompletionIndex>> pending;
+
+    private final Object rebuildLock = new Object();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::scheduledRebuild, "suggest-loader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Scheduled(fixedDelayString = "${app.suggest.rebuild-interval-ms:900000}",
+            initialDelayString = "${app.suggest.rebuild-interval-ms:900000}")
+    public void scheduledRebuild() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            logger.warn("Suggestion index rebuild failed, keeping the previous one", e);
+        }
+    }
+
+    // Folds a grown overlay into the base between rebuilds, which keeps lookups on the fast path
+    @Scheduled(fixedDelayString = "${app.suggest.merge-interval-ms:60000}")
+    public void mergeOverlays() {
+        CompletionIndex currentTags = tags;
+        CompletionIndex currentUsers = users;
+        if (currentTags == null || currentUsers == null
+                || currentTags.overlaySize() + currentUsers.overlaySize() < maxOverlay) {
+            return;
+        }
+        synchronized (rebuildLock) {
+            List<CompletionIndex.Entry> tagChanges;
+            List<CompletionIndex.Entry> userChanges;
+            synchronized (this) {
+                pending = new ArrayList<>();
+                tagChanges = tags.changes();
+                userChanges = users.changes();
+            }
+            CompletionIndex nextTags = tags.merge(tagChanges);
+            CompletionIndex nextUsers = users.merge(userChanges);
+            install(nextTags, nextUsers);
+        }
+    }
+
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                pending = new ArrayList<>();
+            }
+            long start = System.currentTimeMillis();
+            CompletionIndex nextTags;
+            CompletionIndex nextUsers;
+            try {
+                nextTags = loadTags();
+                nextUsers = loadUsers();
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    pending = null;
+                }
+                throw e;
+            }
+            install(nextTags, nextUsers);
+            logger.info("Suggestion index built: tags {}, users {} in {} ms",
+                    nextTags.stats(), nextUsers.stats(), System.currentTimeMillis() - start);
+        }
+    }
+
+    // Post tags before and after a write; either side may be empty
+    public void onTagsChanged(Collection<String> before, Collection<String> after) {
+        Set<String> removed = new HashSet<>(TagIndex.normalize(before));
+        Set<String> added = new HashSet<>(TagIndex.normalize(after));
+        Set<String> unchanged = new HashSet<>(removed);
+        unchanged.retainAll(added);
+        removed.removeAll(unchanged);
+        added.removeAll(unchanged);
+        if (removed.isEmpty() && added.isEmpty()) {
+            return;
+        }
+        record((tagIndex, userIndex) -> {
+            removed.forEach(tag -> tagIndex.adjust(tag, -1));
+            added.forEach(tag -> tagIndex.adjust(tag, 1));
+        });
+    }
+
+    // The user as stored before and after a write; before is null for a new account
+    public void onUserSaved(User before, User after) {
+        if (after.getId() == null || before != null && Objects.equals(before.getName(), after.getName())) {
+            return;
+        }
+        List<String> oldKeys = before != null ? nameKeys(before.getName(), before.getId()) : List.of();
+        List<String> newKeys = nameKeys(after.getName(), after.getId());
+        String label = after.getName();
+        String id = after.getId();
+        long weight = after.getFollowerCount() + 1;
+        record((tagIndex, userIndex) -> {
+            oldKeys.forEach(userIndex::remove);
+            newKeys.forEach(key -> userIndex.put(key, label, id, weight));
+        });
+    }
+
+    public void onUserDeleted(User user) {
+        List<String> keys = nameKeys(user.getName(), user.getId());
+        record((tagIndex, userIndex) -> keys.forEach(userIndex::remove));
+    }
+
+    // Tags starting with prefix (a leading # is ignored), most used first
+    public List<Map<String, Object>> suggestTags(String prefix, Integer limit) {
+        CompletionIndex current = ready(tags);
+        List<String> normalized = TagIndex.normalize(List.of(prefix != null ? prefix : ""));
+        List<Map<String, Object>> suggestions = new ArrayList<>();
+        for (CompletionIndex.Entry entry : current.complete(normalized.isEmpty() ? "" : normalized.get(0), resolveLimit(limit))) {
+            Map<String, Object> suggestion = new LinkedHashMap<>();
+            suggestion.put("tag", entry.label());
+            suggestion.put("posts", entry.weight());
+            suggestions.add(suggestion);
+        }
+        return suggestions;
+    }
+
+    // Users with a name word starting with prefix, most followed first
+    public List<Map<String, Object>> suggestUsers(String prefix, Integer limit) {
+        CompletionIndex current = ready(users);
+        String normalized = normalizeName(prefix);
+        if (normalized.isEmpty()) {
+            throw new BadRequestException("A name prefix is required");
+        }
+        List<Map<String, Object>> suggestions = new ArrayList<>();
+        for (CompletionIndex.Entry entry : current.complete(normalized, resolveLimit(limit))) {
+            Map<String, Object> suggestion = new LinkedHashMap<>();
+            suggestion.put("id", entry.id());
+            suggestion.put("name", entry.label());
+            suggestion.put("followers", entry.weight() - 1);
+            suggestions.add(suggestion);
+        }
+        return suggestions;
+    }
+
+    public Map<String, Object> stats() {
+        CompletionIndex currentTags = tags;
+        CompletionIndex currentUsers = users;
+        if (currentTags == null || currentUsers == null) {
+            return Map.of("ready", false);
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", true);
+        stats.put("tags", currentTags.stats());
+        stats.put("users", currentUsers.stats());
+        return stats;
+    }
+
+    private void install(CompletionIndex nextTags, CompletionIndex nextUsers) {
+        synchronized (this) {
+            for (BiConsumer<CompletionIndex, CompletionIndex> change : pending) {
+                change.accept(nextTags, nextUsers);
+            }
+            pending = null;
+            tags = nextTags;
+            users = nextUsers;
+        }
+    }
+
+    private synchronized void record(BiConsumer<CompletionIndex, CompletionIndex> change) {
+        if (tags != null && users != null) {
+            change.accept(tags, users);
+        }
+        if (pending != null) {
+            pending.add(change);
+        }
+    }
+
+    private static CompletionIndex ready(CompletionIndex index) {
+        if (index == null) {
+            throw new IllegalStateException("Suggestions are still loading");
+        }
+        return index;
+    }
+
+    private static int resolveLimit(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return 10;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    private CompletionIndex loadTags() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.project("tags"),
+                Aggregation.unwind("tags"),
+                Aggregation.group("tags").count().as("posts"))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        CompletionIndex.Builder builder = new CompletionIndex.Builder();
+        try (Stream<Document> results = mongoTemplate.aggregateStream(aggregation, Post.class, Document.class)) {
+            results.forEach(result -> {
+                if (result.get("_id") instanceof String tag) {
+                    builder.add(tag, tag, null, ((Number) result.get("posts")).longValue());
+                }
+            });
+        }
+        return builder.build();
+    }
+
+    private CompletionIndex loadUsers() {
+        Query query = new Query();
+        query.fields().include("_id", "name", "followerCount");
+        CompletionIndex.Builder builder = new CompletionIndex.Builder();
+        try (Stream<Document> documents = mongoTemplate.stream(query, Document.class, mongoTemplate.getCollectionName(User.class))) {
+            documents.forEach(document -> {
+                if (document.get("_id") instanceof ObjectId id) {
+                    String userId = id.toHexString();
+                    String name = document.getString("name");
+                    Number followers = (Number) document.get("followerCount");
+                    long weight = (followers != null ? followers.longValue() : 0) + 1;
+                    for (String key : nameKeys(name, userId)) {
+                        builder.add(key, name, userId, weight);
+                    }
+                }
+            });
+        }
+        return builder.build();
+    }
+
+    // "Ada King Lovelace" -> "ada king lovelace\0id", "king lovelace\0id", "lovelace\0id"
+    static List<String> nameKeys(String name, String userId) {
+        String normalized = normalizeName(name).trim();
+        List<String> keys = new ArrayList<>();
+        if (normalized.isEmpty() || userId == null) {
+            return keys;
+        }
+        int start = 0;
+        for (int word = 0; word < NAME_WORDS && start >= 0; word++) {
+            keys.add(normalized.substring(start) + ID_SEPARATOR + userId);
+            int space = normalized.indexOf(' ', start);
+            start = space >= 0 ? space + 1 : -1;
+        }
+        return keys;
+    }
+
+    // Lower case with runs of whitespace collapsed; a trailing space is kept, so "ada " means the next word
+    static String normalizeName(String name) {
+        if (name == null) {
+            return "";
+        }
+        return name.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ").replaceFirst("^ ", "");
+    }
+}
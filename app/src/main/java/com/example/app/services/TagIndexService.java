@@ -0,0 +1,253 @@
+package com.example.app.services;
+
+import com.example.app.exceptions.BadRequestException;
+import com.example.app.models.Post;
+import com.example.app.pagination.CursorPage;
+import com.example.app.pagination.KeysetPager;
+import com.example.app.repositories.ListProjections;
+import com.example.app.search.TagIndex;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Multi-tag post queries (all / any / none) answered from the in-memory TagIndex. The index is
+ * built in the background after startup, newest posts first, within a time and size budget; posts
+ * older than where the build stopped are served from MongoDB, as is everything until the first build
+ * finishes. Post writes on this instance update the index immediately, and a periodic rebuild picks
+ * up writes made by other instances.
+ */
+@Service
+public class TagIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TagIndexService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private KeysetPager keysetPager;
+
+    @Autowired
+    private ReferenceResolver referenceResolver;
+
+    @Value("${app.tags.index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.tags.index.build-budget-ms:30000}")
+    private long buildBudgetMillis;
+
+    @Value("${app.tags.index.max-posts:5000000}")
+    private int maxPosts;
+
+    private volatile TagIndex index;
+
+    // Writes made while a rebuild is scanning, replayed onto the new index; guarded by this
+    private List<PostChange> pending;
+
+    private final Object rebuildLock = new Object();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::scheduledRebuild, "tag-index-loader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Scheduled(fixedDelayString = "${app.tags.index.rebuild-interval-ms:3600000}",
+            initialDelayString = "${app.tags.index.rebuild-interval-ms:3600000}")
+    public void scheduledRebuild() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            logger.warn("Tag index rebuild failed, keeping the previous index", e);
+        }
+    }
+
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                pending = new ArrayList<>();
+            }
+            long start = System.currentTimeMillis();
+            TagIndex next;
+            try {
+                next = scan(start + buildBudgetMillis);
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    pending = null;
+                }
+                throw e;
+            }
+            synchronized (this) {
+                for (PostChange change : pending) {
+                    apply(next, change);
+                }
+                pending = null;
+                index = next;
+            }
+            logger.info("Tag index built: {} in {} ms", next.stats(), System.currentTimeMillis() - start);
+        }
+    }
+
+    public void onPostSaved(Post post) {
+        if (post.getId() != null && post.getCreatedAt() != null) {
+            record(new PostChange(post.getId(), post.getCreatedAt().getTime(), post.getTags()));
+        }
+    }
+
+    public void onPostDeleted(Post post) {
+        if (post.getId() != null && post.getCreatedAt() != null) {
+            record(new PostChange(post.getId(), post.getCreatedAt().getTime(), null));
+        }
+    }
+
+    /**
+     * Newest first page of posts with every tag in all, at least one in any and none of none. The
+     * cursor is the usual keyset cursor, so a listing can move between the index and MongoDB.
+     */
+    public CursorPage<Post> findByTags(List<String> all, List<String> any, List<String> none, String cursor, Integer limit) {
+        List<String> allTags = TagIndex.normalize(all);
+        List<String> anyTags = TagIndex.normalize(any);
+        List<String> noneTags = TagIndex.normalize(none);
+        if (allTags.isEmpty() && anyTags.isEmpty()) {
+            throw new BadRequestException("At least one tag is required in all or any");
+        }
+        int pageSize = keysetPager.resolvePageSize(limit);
+        KeysetPager.Position position = cursor != null && !cursor.isEmpty() ? keysetPager.parseCursor(cursor) : null;
+
+        TagIndex current = index;
+        if (current == null) {
+            return mongoPage(allTags, anyTags, noneTags, cursor, pageSize);
+        }
+        TagIndex.Result result = current.query(allTags, anyTags, noneTags,
+                position != null ? position.getCreatedAt().getTime() : null,
+                position != null ? position.getId() : null, pageSize);
+
+        List<String> ids = new ArrayList<>();
+        for (TagIndex.Hit hit : result.hits()) {
+            ids.add(hit.postId());
+        }
+        Map<String, Post> postsById = referenceResolver.resolve(Post.class, ids, ListProjections::postSummary);
+        List<Post> posts = new ArrayList<>();
+        for (String id : ids) {
+            Post post = postsById.get(id);
+            if (post != null) { // Deleted on another instance since the last rebuild
+                posts.add(post);
+            }
+        }
+        if (result.hasMore()) {
+            TagIndex.Hit last = result.hits().get(result.hits().size() - 1);
+            return new CursorPage<>(posts, keysetPager.cursorAt(new Date(last.createdAt()), last.postId()));
+        }
+        TagIndex.Hit oldest = current.oldest();
+        if (current.isComplete() || oldest == null) {
+            return new CursorPage<>(posts, null);
+        }
+
+        // The index ran out before the page filled up; continue below the oldest indexed post
+        String olderCursor = keysetPager.cursorAt(new Date(oldest.createdAt()), oldest.postId());
+        if (position != null && position.getCreatedAt().getTime() < oldest.createdAt()) {
+            olderCursor = cursor;
+        }
+        if (posts.size() == pageSize) {
+            TagIndex.Hit last = result.hits().get(result.hits().size() - 1);
+            return new CursorPage<>(posts, keysetPager.cursorAt(new Date(last.createdAt()), last.postId()));
+        }
+        CursorPage<Post> older = mongoPage(allTags, anyTags, noneTags, olderCursor, pageSize - posts.size());
+        posts.addAll(older.getItems());
+        return new CursorPage<>(posts, older.getNextCursor());
+    }
+
+    public Map<String, Object> stats() {
+        TagIndex current = index;
+        if (current == null) {
+            return Map.of("ready", false);
+        }
+        Map<String, Object> stats = current.stats();
+        stats.put("ready", true);
+        return stats;
+    }
+
+    private CursorPage<Post> mongoPage(List<String> all, List<String> any, List<String> none, String cursor, int pageSize) {
+        Criteria criteria = Criteria.where("tags");
+        if (!all.isEmpty()) {
+            criteria.all(all);
+        }
+        if (!any.isEmpty()) {
+            criteria.in(any);
+        }
+        if (!none.isEmpty()) {
+            criteria.nin(none);
+        }
+        return keysetPager.page(Post.class, criteria, cursor, pageSize, ListProjections::postSummary);
+    }
+
+    private synchronized void record(PostChange change) {
+        if (index != null) {
+            apply(index, change);
+        }
+        if (pending != null) {
+            pending.add(change);
+        }
+    }
+
+    private static void apply(TagIndex target, PostChange change) {
+        if (change.tags() == null) {
+            target.remove(change.postId(), change.createdAt());
+        } else {
+            target.put(change.postId(), change.createdAt(), change.tags());
+        }
+    }
+
+    // Newest first over the createdAt_id index, stopping at the deadline or the size cap
+    private TagIndex scan(long deadline) {
+        Query query = new Query().with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"));
+        query.fields().include("_id", "createdAt", "tags");
+        TagIndex.Builder builder = new TagIndex.Builder();
+        int scanned = 0;
+        boolean complete = true;
+        try (Stream<Document> stream = mongoTemplate.stream(query, Document.class, mongoTemplate.getCollectionName(Post.class))) {
+            Iterator<Document> documents = stream.iterator();
+            while (documents.hasNext()) {
+                if (scanned >= maxPosts || (scanned % 1024 == 0 && System.currentTimeMillis() > deadline)) {
+                    complete = false;
+                    break;
+                }
+                Document document = documents.next();
+                Date createdAt = document.getDate("createdAt");
+                if (document.get("_id") instanceof ObjectId id && createdAt != null) {
+                    builder.add(id.toHexString(), createdAt.getTime(), document.getList("tags", String.class));
+                }
+                scanned++;
+            }
+        }
+        return builder.build(complete);
+    }
+
+    private record PostChange(String postId, long createdAt, List<String> tags) {}
+}
@@ -0,0 +1,284 @@
+package com.example.app.services;
+
+import com.example.app.models.Post;
+import com.example.app.models.TimelineEntry;
+import com.example.app.models.User;
+import com.example.app.pagination.CursorPage;
+import com.example.app.pagination.KeysetPager;
+import com.example.app.repositories.ListProjections;
+import com.example.app.repositories.TimelineEntryRepository;
+import com.example.app.security.UserPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Home timeline ("posts from people I follow"). Posts are fanned out on write into a capped,
+ * per-user list of timeline entries, so reading a page is one indexed range scan no matter how
+ * many accounts the viewer follows. Authors with more followers than the fan-out limit are
+ * skipped on write and merged in on read instead (fan-out-on-read).
+ */
+@Service
+public class TimelineService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimelineService.class);
+
+    private static final String TIE_BREAKER = "postId";
+
+    @Autowired
+    private TimelineEntryRepository timelineEntryRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private FollowService followService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private KeysetPager keysetPager;
+
+    @Autowired
+    private ReferenceResolver referenceResolver;
+
+    @Value("${app.timeline.max-length:800}")
+    private int maxLength;
+
+    @Value("${app.timeline.fanout-follower-limit:10000}")
+    private int fanOutFollowerLimit;
+
+    @Value("${app.timeline.fanout-batch-size:1000}")
+    private int fanOutBatchSize;
+
+    @Value("${app.timeline.trim-every:50}")
+    private int trimEvery;
+
+    // Authors whose posts are pulled at read time rather than pushed to every follower
+    private final Set<String> fanOutOnReadAuthors = ConcurrentHashMap.newKeySet();
+
+    public CursorPage<Post> getHomeTimeline(String cursor, Integer limit, UserPrincipal currentUser) {
+        String viewerId = currentUser.getId();
+        int pageSize = keysetPager.resolvePageSize(limit);
+
+        CursorPage<TimelineEntry> materialized = keysetPager.page(TimelineEntry.class,
+                Criteria.where("ownerId").is(viewerId), cursor, pageSize, Sort.Direction.DESC, TIE_BREAKER);
+
+        // The fan-out-on-read set is small, so ask which of those authors the viewer follows
+        Set<String> pulledAuthors = fanOutOnReadAuthors.isEmpty()
+                ? Set.of() : followService.followedAmong(viewerId, List.copyOf(fanOutOnReadAuthors));
+        CursorPage<Post> pulled = pulledAuthors.isEmpty()
+                ? new CursorPage<>(List.of(), null)
+                : keysetPager.page(Post.class, Criteria.where("user.id").in(pulledAuthors), cursor, pageSize,
+                        ListProjections::postSummary);
+
+        // Both sources are ordered by (createdAt, post id) descending, so a merge keeps the shared cursor valid
+        List<TimelineEntry> merged = new ArrayList<>(materialized.getItems());
+        Map<String, Post> pulledById = new HashMap<>();
+        for (Post post : pulled.getItems()) {
+            pulledById.put(post.getId(), post);
+            merged.add(new TimelineEntry(viewerId, post.getId(), null, post.getCreatedAt()));
+        }
+        merged.sort(Comparator.comparing(TimelineEntry::getCreatedAt)
+                .thenComparing(TimelineEntry::getPostId).reversed());
+
+        Set<String> pagePostIds = new LinkedHashSet<>();
+        TimelineEntry last = null;
+        boolean hasMore = materialized.hasNext() || pulled.hasNext();
+        for (TimelineEntry entry : merged) {
+            if (pagePostIds.contains(entry.getPostId())) {
+                continue; // Already fanned out before the author switched to fan-out-on-read
+            }
+            if (pagePostIds.size() == pageSize) {
+                hasMore = true;
+                break;
+            }
+            pagePostIds.add(entry.getPostId());
+            last = entry;
+        }
+
+        List<String> toLoad = new ArrayList<>();
+        for (String postId : pagePostIds) {
+            if (!pulledById.containsKey(postId)) {
+                toLoad.add(postId);
+            }
+        }
+        Map<String, Post> postsById = referenceResolver.resolve(Post.class, toLoad, ListProjections::postSummary);
+        postsById.putAll(pulledById);
+        List<Post> posts = new ArrayList<>();
+        for (String postId : pagePostIds) {
+            Post post = postsById.get(postId);
+            if (post != null) { // Deleted after the page was read
+                posts.add(post);
+            }
+        }
+
+        String nextCursor = hasMore && last != null ? keysetPager.cursorAt(last.getCreatedAt(), last.getPostId()) : null;
+        return new CursorPage<>(posts, nextCursor);
+    }
+
+    // Ids of the viewer's newest timeline posts, materialized and fan-out-on-read, as ranking candidates
+    public List<String> recentPostIds(String viewerId, int max) {
+        Query entries = new Query(Criteria.where("ownerId").is(viewerId))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", TIE_BREAKER))
+                .limit(max);
+        entries.fields().include("postId");
+        Set<String> ids = new LinkedHashSet<>();
+        for (TimelineEntry entry : mongoTemplate.find(entries, TimelineEntry.class)) {
+            ids.add(entry.getPostId());
+        }
+        Set<String> pulledAuthors = fanOutOnReadAuthors.isEmpty()
+                ? Set.of() : followService.followedAmong(viewerId, List.copyOf(fanOutOnReadAuthors));
+        if (!pulledAuthors.isEmpty()) {
+            Query pulled = new Query(Criteria.where("user.id").in(pulledAuthors))
+                    .with(Sort.by(Sort.Direction.DESC, "createdAt", "id"))
+                    .limit(max);
+            pulled.fields().include("id");
+            for (Post post : mongoTemplate.find(pulled, Post.class)) {
+                ids.add(post.getId());
+            }
+        }
+        return new ArrayList<>(ids);
+    }
+
+    // Walks the author's followers here, off the request path
+    @Async
+    public void fanOutPost(Post post, String authorId) {
+        User author = userCache.findById(authorId).orElse(null);
+        if (author == null) {
+            return;
+        }
+        insertEntries(List.of(authorId), post, authorId); // Authors see their own posts
+        if (author.getFollowerCount() > fanOutFollowerLimit) {
+            fanOutOnReadAuthors.add(authorId);
+            return;
+        }
+        fanOutOnReadAuthors.remove(authorId);
+        followService.forEachFollowerBatch(authorId, followers -> insertEntries(followers, post, authorId));
+    }
+
+    public void removePost(String postId) {
+        timelineEntryRepository.deleteByPostId(postId);
+    }
+
+    // Backfill the followee's recent posts so a new follow shows up immediately
+    @Async
+    public void onFollow(String followerId, User followee) {
+        if (followee.getFollowerCount() > fanOutFollowerLimit) {
+            fanOutOnReadAuthors.add(followee.getId());
+            return;
+        }
+        Query recent = new Query(Criteria.where("user.id").is(followee.getId()))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "id"))
+                .limit(maxLength);
+        recent.fields().include("id", "createdAt");
+        List<Post> posts = mongoTemplate.find(recent, Post.class);
+        if (posts.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TimelineEntry.class);
+        for (Post post : posts) {
+            upsertEntry(bulk, followerId, post, followee.getId());
+        }
+        bulk.execute();
+        trim(followerId);
+    }
+
+    @Async
+    public void onUnfollow(String followerId, String followeeId) {
+        timelineEntryRepository.deleteByOwnerIdAndAuthorId(followerId, followeeId);
+    }
+
+    public void removeOwner(String ownerId) {
+        timelineEntryRepository.deleteByOwnerId(ownerId);
+    }
+
+    // Reload the fan-out-on-read set; an author crosses the limit without posting when they gain followers
+    @Scheduled(fixedDelayString = "${app.timeline.celebrity-refresh-ms:300000}")
+    public void refreshFanOutOnReadAuthors() {
+        try {
+            Query query = new Query(Criteria.where("followerCount").gt(fanOutFollowerLimit));
+            query.fields().include("id");
+            Set<String> authors = new LinkedHashSet<>();
+            for (User user : mongoTemplate.find(query, User.class)) {
+                authors.add(user.getId());
+            }
+            fanOutOnReadAuthors.retainAll(authors);
+            fanOutOnReadAuthors.addAll(authors);
+        } catch (RuntimeException e) {
+            logger.warn("Could not refresh fan-out-on-read authors", e);
+        }
+    }
+
+    /**
+     * Upserts rather than inserts, unordered: an entry the follow backfill or an earlier attempt
+     * already wrote is left alone instead of failing the rest of the batch on the unique
+     * (owner, post) index. Unordered, an error (say two upserts of one entry racing) does not stop
+     * the rest of the batch; it is logged and the fan-out carries on with the next batch, rather
+     * than escaping this @Async method unseen and leaving the remaining followers without the post.
+     */
+    private void insertEntries(List<String> recipients, Post post, String authorId) {
+        for (int start = 0; start < recipients.size(); start += fanOutBatchSize) {
+            List<String> batch = recipients.subList(start, Math.min(start + fanOutBatchSize, recipients.size()));
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TimelineEntry.class);
+            for (String recipient : batch) {
+                upsertEntry(bulk, recipient, post, authorId);
+            }
+            try {
+                bulk.execute();
+            } catch (RuntimeException e) {
+                logger.warn("Could not fan out post {} to {} followers", post.getId(), batch.size(), e);
+                continue;
+            }
+            for (String recipient : batch) {
+                // Trimming every timeline on every post would double the write cost; sampling keeps it amortised
+                if (ThreadLocalRandom.current().nextInt(trimEvery) == 0) {
+                    trim(recipient);
+                }
+            }
+        }
+    }
+
+    private static void upsertEntry(BulkOperations bulk, String ownerId, Post post, String authorId) {
+        bulk.upsert(Query.query(Criteria.where("ownerId").is(ownerId).and("postId").is(post.getId())),
+                new Update().setOnInsert("authorId", authorId).setOnInsert("createdAt", post.getCreatedAt()));
+    }
+
+    // Cap a timeline at maxLength entries by dropping everything older than the oldest entry kept
+    void trim(String ownerId) {
+        Query boundary = new Query(Criteria.where("ownerId").is(ownerId))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", TIE_BREAKER))
+                .skip(maxLength - 1)
+                .limit(1);
+        boundary.fields().include("createdAt");
+        TimelineEntry oldestKept = mongoTemplate.findOne(boundary, TimelineEntry.class);
+        if (oldestKept == null) {
+            return;
+        }
+        Date cutoff = oldestKept.getCreatedAt();
+        mongoTemplate.remove(new Query(Criteria.where("ownerId").is(ownerId).and("createdAt").lt(cutoff)),
+                TimelineEntry.class);
+    }
+}
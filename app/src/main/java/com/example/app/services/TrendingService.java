@@ -0,0 +1,153 @@
+package com.example.app.services;
+
+import com.example.app.exceptions.BadRequestException;
+import com.example.app.models.Post;
+import com.example.app.repositories.ListProjections;
+import com.example.app.trending.TrendingWindow;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trending tags and posts over the last hour and day for the Explore view. Writes feed sketches in
+ * memory (TrendingWindow) instead of the reads aggregating posts, likes and comments: a new post
+ * counts for each of its tags and for itself, a like and a comment count for the post they are on.
+ * Each instance ranks the writes it served, which with a load balancer in front is a fair sample;
+ * nothing is persisted, so the ranking starts empty after a restart.
+ */
+@Service
+public class TrendingService {
+
+    private static final double POST_WEIGHT = 1;
+    private static final double LIKE_WEIGHT = 1;
+    private static final double COMMENT_WEIGHT = 2;
+    private static final int MAX_LIMIT = 50;
+
+    private static final String HOUR = "hour";
+    private static final String DAY = "day";
+
+    @Autowired
+    private ReferenceResolver referenceResolver;
+
+    @Value("${app.trending.epsilon:0.001}")
+    private double epsilon;
+
+    @Value("${app.trending.delta:0.01}")
+    private double delta;
+
+    @Value("${app.trending.candidates:200}")
+    private int candidates;
+
+    @Value("${app.trending.hour.half-life-ms:1200000}")
+    private long hourHalfLifeMillis;
+
+    @Value("${app.trending.day.half-life-ms:21600000}")
+    private long dayHalfLifeMillis;
+
+    private final Map<String, TrendingWindow> tagWindows = new LinkedHashMap<>();
+    private final Map<String, TrendingWindow> postWindows = new LinkedHashMap<>();
+
+    @PostConstruct
+    void init() {
+        long now = System.currentTimeMillis();
+        // Twelve 5-minute buckets and twenty-four 1-hour buckets
+        tagWindows.put(HOUR, new TrendingWindow("tags-hour", 12, 300_000, hourHalfLifeMillis, epsilon, delta, candidates, now));
+        tagWindows.put(DAY, new TrendingWindow("tags-day", 24, 3_600_000, dayHalfLifeMillis, epsilon, delta, candidates, now));
+        postWindows.put(HOUR, new TrendingWindow("posts-hour", 12, 300_000, hourHalfLifeMillis, epsilon, delta, candidates, now));
+        postWindows.put(DAY, new TrendingWindow("posts-day", 24, 3_600_000, dayHalfLifeMillis, epsilon, delta, candidates, now));
+    }
+
+    public void onPostCreated(Post post) {
+        long now = System.currentTimeMillis();
+        if (post.getTags() != null) {
+            for (String tag : post.getTags()) {
+                tagWindows.values().forEach(window -> window.add(tag, POST_WEIGHT, now));
+            }
+        }
+        postWindows.values().forEach(window -> window.add(post.getId(), POST_WEIGHT, now));
+    }
+
+    public void onPostLiked(String postId) {
+        long now = System.currentTimeMillis();
+        postWindows.values().forEach(window -> window.add(postId, LIKE_WEIGHT, now));
+    }
+
+    public void onCommentCreated(String postId) {
+        long now = System.currentTimeMillis();
+        postWindows.values().forEach(window -> window.add(postId, COMMENT_WEIGHT, now));
+    }
+
+    public void onPostDeleted(String postId) {
+        postWindows.values().forEach(window -> window.remove(postId));
+    }
+
+    public List<Map<String, Object>> trendingTags(String window, Integer limit) {
+        List<Map<String, Object>> tags = new ArrayList<>();
+        for (TrendingWindow.Item item : window(tagWindows, window).top(resolveLimit(limit), System.currentTimeMillis())) {
+            Map<String, Object> tag = new LinkedHashMap<>();
+            tag.put("tag", item.key());
+            tag.put("score", item.score());
+            tags.add(tag);
+        }
+        return tags;
+    }
+
+    public List<Map<String, Object>> trendingPosts(String window, Integer limit) {
+        List<TrendingWindow.Item> items = window(postWindows, window).top(resolveLimit(limit), System.currentTimeMillis());
+        List<String> ids = new ArrayList<>();
+        for (TrendingWindow.Item item : items) {
+            ids.add(item.key());
+        }
+        Map<String, Post> postsById = referenceResolver.resolve(Post.class, ids, ListProjections::postSummary);
+        List<Map<String, Object>> posts = new ArrayList<>();
+        for (TrendingWindow.Item item : items) {
+            Post post = postsById.get(item.key());
+            if (post != null) { // Deleted on another instance
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("post", post);
+                entry.put("score", item.score());
+                posts.add(entry);
+            }
+        }
+        return posts;
+    }
+
+    // Best first, without loading the posts
+    public List<String> trendingPostIds(String window, int limit) {
+        List<String> ids = new ArrayList<>();
+        for (TrendingWindow.Item item : window(postWindows, window).top(limit, System.currentTimeMillis())) {
+            ids.add(item.key());
+        }
+        return ids;
+    }
+
+    // Sketch sizes, error bounds and candidate counts of every window
+    public List<Map<String, Object>> stats() {
+        long now = System.currentTimeMillis();
+        List<Map<String, Object>> stats = new ArrayList<>();
+        tagWindows.values().forEach(window -> stats.add(window.stats(now)));
+        postWindows.values().forEach(window -> stats.add(window.stats(now)));
+        return stats;
+    }
+
+    private static TrendingWindow window(Map<String, TrendingWindow> windows, String name) {
+        TrendingWindow window = windows.get(name != null ? name : HOUR);
+        if (window == null) {
+            throw new BadRequestException("Window must be hour or day");
+        }
+        return window;
+    }
+
+    private static int resolveLimit(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return 10;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+}
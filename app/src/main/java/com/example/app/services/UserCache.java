@@ -0,0 +1,94 @@
+package com.example.app.services;
+
+import com.example.app.cache.BoundedCache;
+import com.example.app.cache.CacheMetrics;
+import com.example.app.models.User;
+import com.example.app.repositories.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * Read-through cache of user documents by id and by email, in front of UserRepository. Every write
+ * to a user must call invalidate; other instances of the app only see the change once their entry
+ * expires (app.users.cache.ttl-ms). Callers get their own copy and may modify it freely, but
+ * read-modify-write paths should load from the repository so they never save a stale copy. A
+ * missing user is cached too, so a deleted account's tokens, which are checked on every request,
+ * cost no query until the entry expires; creating a user must therefore invalidate its entries.
+ */
+@Service
+public class UserCache {
+
+    private static final String BY_ID = "id:";
+    private static final String BY_EMAIL = "email:";
+    // Cached in place of a user that does not exist, since the cache never stores null
+    private static final User MISSING = new User();
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheMetrics cacheMetrics;
+
+    @Value("${app.users.cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${app.users.cache.ttl-ms:300000}")
+    private long ttlMillis;
+
+    private BoundedCache<String, User> cache;
+
+    @PostConstruct
+    void init() {
+        cache = new BoundedCache<>("users", maxSize, ttlMillis);
+        cacheMetrics.register(cache);
+    }
+
+    public Optional<User> findById(String id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return found(cache.get(BY_ID + id, key -> userRepository.findById(id).orElse(MISSING)));
+    }
+
+    public Optional<User> findByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        return found(cache.get(BY_EMAIL + email, key -> userRepository.findByEmail(email).orElse(MISSING)));
+    }
+
+    public void invalidate(User user) {
+        invalidate(user.getId(), user.getEmail());
+    }
+
+    // For callers that only know the id; the email entry is found through the cached user, if any
+    public void invalidate(String id) {
+        User cached = cache.getIfPresent(BY_ID + id);
+        invalidate(id, cached != null && cached != MISSING ? cached.getEmail() : null);
+    }
+
+    public void invalidate(String id, String email) {
+        if (id != null) {
+            cache.invalidate(BY_ID + id);
+        }
+        if (email != null) {
+            cache.invalidate(BY_EMAIL + email);
+        }
+    }
+
+    private static Optional<User> found(User user) {
+        return user != MISSING ? Optional.of(copy(user)) : Optional.empty();
+    }
+
+    private static User copy(User user) {
+        User copy = new User(user.getEmail(), user.getName(), user.getPictureUrl(), user.getProvider(), user.getProviderId());
+        copy.setId(user.getId());
+        copy.setFollowerCount(user.getFollowerCount());
+        copy.setFollowingCount(user.getFollowingCount());
+        return copy;
+    }
+}
@@ -1,12 +1,15 @@
 package com.example.app.services;
 
+import com.example.app.exceptions.BadRequestException;
 import com.example.app.models.User;
 import com.example.app.repositories.UserRepository;
+import com.example.app.security.JwtTokenProvider;
+import com.example.app.security.UserPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
-import java.util.Optional;
+import java.util.Objects;
 
 @Service
 public class UserService {
@@ -14,56 +17,83 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
-    public User getCurrentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(email)
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private AuthorSnapshotService authorSnapshotService;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private FollowService followService;
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private SuggestService suggestService;
+
+    // Reads from the repository so account changes start from the stored document, not a cached copy
+    public User getCurrentUser(UserPrincipal principal) {
+        return userRepository.findById(principal.getId())
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
-    public User updateUserProfile(String name, String pictureUrl) {
-        User currentUser = getCurrentUser();
-        if (name != null && !name.trim().isEmpty()) {
-            currentUser.setName(name);
+    public User updateUserProfile(String name, String pictureUrl, UserPrincipal principal) {
+        User currentUser = getCurrentUser(principal);
+        String newName = name != null && !name.trim().isEmpty() ? name : null;
+        String newPictureUrl = pictureUrl != null && !pictureUrl.trim().isEmpty() ? pictureUrl : null;
+        // $set rather than save, which would overwrite follow counters changed since the read
+        User savedUser = userRepository.updateProfile(currentUser.getId(), newName, newPictureUrl, null, null);
+        if (savedUser == null) {
+            throw new RuntimeException("User not found");
         }
-        if (pictureUrl != null && !pictureUrl.trim().isEmpty()) {
-            currentUser.setPictureUrl(pictureUrl);
+        userCache.invalidate(savedUser);
+        suggestService.onUserSaved(currentUser, savedUser);
+        if (!Objects.equals(currentUser.getName(), savedUser.getName())
+                || !Objects.equals(currentUser.getPictureUrl(), savedUser.getPictureUrl())) {
+            authorSnapshotService.refresh(savedUser.getId());
         }
-        return userRepository.save(currentUser);
+        return savedUser;
     }
 
-    public void deleteUserAccount() {
-        User currentUser = getCurrentUser();
+    public void deleteUserAccount(UserPrincipal principal) {
+        User currentUser = getCurrentUser(principal);
         userRepository.deleteById(currentUser.getId());
+        userCache.invalidate(currentUser);
+        suggestService.onUserDeleted(currentUser);
+        tokenProvider.revokeUser(currentUser.getId()); // Tokens still in circulation would otherwise keep working
+        followService.removeAll(currentUser.getId());
+        recommendationService.invalidate(currentUser.getId());
+        timelineService.removeOwner(currentUser.getId());
         SecurityContextHolder.clearContext(); // Clear authentication context
     }
 
-    public void followUser(String userIdToFollow) {
-        User currentUser = getCurrentUser();
-        User userToFollow = userRepository.findById(userIdToFollow)
+    public void followUser(String userIdToFollow, UserPrincipal principal) {
+        User userToFollow = userCache.findById(userIdToFollow)
                 .orElseThrow(() -> new RuntimeException("User to follow not found"));
 
-        if (currentUser.getId().equals(userIdToFollow)) {
-            throw new IllegalArgumentException("Cannot follow yourself");
+        if (principal.getId().equals(userIdToFollow)) {
+            throw new BadRequestException("Cannot follow yourself");
         }
 
-        if (!currentUser.getFollowing().contains(userIdToFollow)) {
-            currentUser.getFollowing().add(userIdToFollow);
-            userToFollow.getFollowers().add(currentUser.getId());
-            userRepository.save(currentUser);
-            userRepository.save(userToFollow);
+        if (followService.follow(principal.getId(), userIdToFollow)) {
+            timelineService.onFollow(principal.getId(), userToFollow);
         }
     }
 
-    public void unfollowUser(String userIdToUnfollow) {
-        User currentUser = getCurrentUser();
-        User userToUnfollow = userRepository.findById(userIdToUnfollow)
-                .orElseThrow(() -> new RuntimeException("User to unfollow not found"));
+    public void unfollowUser(String userIdToUnfollow, UserPrincipal principal) {
+        if (!userRepository.existsById(userIdToUnfollow)) {
+            throw new RuntimeException("User to unfollow not found");
+        }
 
-        if (currentUser.getFollowing().contains(userIdToUnfollow)) {
-            currentUser.getFollowing().remove(userIdToUnfollow);
-            userToUnfollow.getFollowers().remove(currentUser.getId());
-            userRepository.save(currentUser);
-            userRepository.save(userToUnfollow);
+        if (followService.unfollow(principal.getId(), userIdToUnfollow)) {
+            timelineService.onUnfollow(principal.getId(), userIdToUnfollow);
         }
     }
-}
\ No newline at end of file
+}
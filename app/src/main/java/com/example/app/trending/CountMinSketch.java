@@ -0,0 +1,94 @@
+package com.example.app.trending;
+
+import java.util.Arrays;
+
+/**
+ * Count-min sketch over string keys with conservative update. With width ceil(e / epsilon) and
+ * depth ceil(ln(1 / delta)), an estimate never undercounts and overcounts by more than epsilon
+ * times the total weight added with probability at most delta. Weights are floats, so decayed
+ * (fractional) counts can be added. Not thread-safe.
+ */
+public class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final float[] counters;
+    private double total;
+
+    public CountMinSketch(double epsilon, double delta) {
+        if (epsilon <= 0 || epsilon >= 1 || delta <= 0 || delta >= 1) {
+            throw new IllegalArgumentException("epsilon and delta must be between 0 and 1");
+        }
+        this.width = (int) Math.ceil(Math.E / epsilon);
+        this.depth = (int) Math.ceil(Math.log(1 / delta));
+        this.counters = new float[width * depth];
+    }
+
+    public void add(String key, double weight) {
+        long hash = hash(key);
+        float estimate = estimate(hash);
+        float target = (float) (estimate + weight);
+        // Conservative update: raise each row only as far as the new estimate needs
+        for (int row = 0; row < depth; row++) {
+            int index = index(hash, row);
+            if (counters[index] < target) {
+                counters[index] = target;
+            }
+        }
+        total += weight;
+    }
+
+    public double estimate(String key) {
+        return estimate(hash(key));
+    }
+
+    public double total() {
+        return total;
+    }
+
+    public void clear() {
+        Arrays.fill(counters, 0f);
+        total = 0;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    public long bytes() {
+        return 4L * counters.length;
+    }
+
+    private float estimate(long hash) {
+        float min = Float.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters[index(hash, row)]);
+        }
+        return min;
+    }
+
+    // Row hashes derived from two halves of one 64-bit hash (Kirsch-Mitzenmacher)
+    private int index(long hash, int row) {
+        int combined = (int) hash + row * (int) (hash >>> 32);
+        return row * width + Math.floorMod(combined, width);
+    }
+
+    // FNV-1a over the chars, then a 64-bit finalizer so both halves are well mixed
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.app.trending;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Heavy hitters over a sliding window with exponential time decay. The window is a ring of
+ * count-min sketches, one per bucket, so a bucket leaving the window takes its counts with it. Hits
+ * are weighted by forward decay: a hit at time t adds e^(lambda (t - L)) where L is the start of the
+ * newest bucket. Scores of different keys therefore stay comparable without touching them as time
+ * passes, and the candidate set (the keys with the best estimates, kept sorted) only has to be
+ * re-scored when a bucket rotates out. Reading the top K walks the first K candidates.
+ */
+public class TrendingWindow {
+
+    private static final Comparator<Candidate> BY_SCORE =
+            Comparator.comparingDouble(Candidate::score).thenComparing(Candidate::key);
+
+    private final String name;
+    private final double epsilon;
+    private final double delta;
+    private final long bucketMillis;
+    private final long halfLifeMillis;
+    private final double lambda;
+    private final int capacity;
+
+    // All guarded by this
+    private final CountMinSketch[] buckets;
+    // e^(lambda (bucket start - landmark)), the weight of each bucket relative to the newest
+    private final double[] factors;
+    private int newest;
+    private long landmark;
+    private final Map<String, Double> scores = new HashMap<>();
+    private final TreeSet<Candidate> ranked = new TreeSet<>(BY_SCORE);
+
+    public TrendingWindow(String name, int bucketCount, long bucketMillis, long halfLifeMillis,
+                          double epsilon, double delta, int capacity, long now) {
+        this.name = name;
+        this.epsilon = epsilon;
+        this.delta = delta;
+        this.bucketMillis = bucketMillis;
+        this.halfLifeMillis = halfLifeMillis;
+        this.lambda = Math.log(2) / halfLifeMillis;
+        this.capacity = capacity;
+        this.buckets = new CountMinSketch[bucketCount];
+        this.factors = new double[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new CountMinSketch(epsilon, delta);
+        }
+        this.landmark = now - Math.floorMod(now, bucketMillis);
+        this.newest = 0;
+        for (int age = 0; age < bucketCount; age++) {
+            int slot = Math.floorMod(newest - age, bucketCount);
+            factors[slot] = Math.exp(-lambda * age * bucketMillis);
+        }
+    }
+
+    public synchronized void add(String key, double weight, long now) {
+        advance(now);
+        buckets[newest].add(key, weight * Math.exp(lambda * (Math.max(now, landmark) - landmark)));
+        offer(key, score(key));
+    }
+
+    // Drops a key from the ranking, e.g. a deleted post; its counts age out with the buckets
+    public synchronized void remove(String key) {
+        Double score = scores.remove(key);
+        if (score != null) {
+            ranked.remove(new Candidate(key, score));
+        }
+    }
+
+    /** Up to limit keys, best first, with their decayed score as of now (roughly "hits in the last half-life"). */
+    public synchronized List<Item> top(int limit, long now) {
+        advance(now);
+        double toNow = Math.exp(-lambda * (Math.max(now, landmark) - landmark));
+        List<Item> items = new ArrayList<>(Math.min(limit, ranked.size()));
+        Iterator<Candidate> best = ranked.descendingIterator();
+        while (items.size() < limit && best.hasNext()) {
+            Candidate candidate = best.next();
+            items.add(new Item(candidate.key(), candidate.score() * toNow));
+        }
+        return items;
+    }
+
+    public synchronized Map<String, Object> stats(long now) {
+        advance(now);
+        double toNow = Math.exp(-lambda * (Math.max(now, landmark) - landmark));
+        double decayedTotal = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            decayedTotal += factors[i] * buckets[i].total();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", name);
+        stats.put("buckets", buckets.length);
+        stats.put("bucketMillis", bucketMillis);
+        stats.put("halfLifeMillis", halfLifeMillis);
+        stats.put("epsilon", epsilon);
+        stats.put("delta", delta);
+        stats.put("sketchWidth", buckets[0].width());
+        stats.put("sketchDepth", buckets[0].depth());
+        stats.put("sketchBytes", buckets.length * buckets[0].bytes());
+        stats.put("candidates", ranked.size());
+        stats.put("capacity", capacity);
+        stats.put("decayedWeight", decayedTotal * toNow);
+        // Each bucket overcounts by at most epsilon of its weight, except with probability delta
+        stats.put("maxOvercount", epsilon * decayedTotal * toNow);
+        return stats;
+    }
+
+    private double score(String key) {
+        double score = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            if (buckets[i].total() > 0) {
+                score += factors[i] * buckets[i].estimate(key);
+            }
+        }
+        return score;
+    }
+
+    private void offer(String key, double score) {
+        Double previous = scores.get(key);
+        if (previous != null) {
+            ranked.remove(new Candidate(key, previous));
+        } else if (scores.size() >= capacity) {
+            Candidate weakest = ranked.first();
+            if (BY_SCORE.compare(new Candidate(key, score), weakest) <= 0) {
+                return;
+            }
+            ranked.pollFirst();
+            scores.remove(weakest.key());
+        }
+        scores.put(key, score);
+        ranked.add(new Candidate(key, score));
+    }
+
+    // Starts the buckets that now is in, clearing the ones that fell out of the window
+    private void advance(long now) {
+        long steps = (now - landmark) / bucketMillis;
+        if (steps <= 0) {
+            return;
+        }
+        for (long step = 0; step < Math.min(steps, buckets.length); step++) {
+            newest = (newest + 1) % buckets.length;
+            buckets[newest].clear();
+        }
+        landmark += steps * bucketMillis;
+        for (int age = 0; age < buckets.length; age++) {
+            int slot = Math.floorMod(newest - age, buckets.length);
+            factors[slot] = Math.exp(-lambda * age * bucketMillis);
+        }
+
+        // New landmark, and some counts gone: re-score the candidates against what is left
+        List<String> keys = new ArrayList<>(scores.keySet());
+        scores.clear();
+        ranked.clear();
+        for (String key : keys) {
+            double score = score(key);
+            if (score > 0) {
+                scores.put(key, score);
+                ranked.add(new Candidate(key, score));
+            }
+        }
+    }
+
+    public record Item(String key, double score) {}
+
+    private record Candidate(String key, double score) {}
+}
@@ -3,7 +3,8 @@ package com.example.app;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// Migrations and index creation block startup; keep them off the configured database
+@SpringBootTest(properties = "app.mongodb.ensure-indexes=false")
 class AppApplicationTests {
 
 	@Test
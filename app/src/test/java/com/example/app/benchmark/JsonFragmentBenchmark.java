@@ -0,0 +1,110 @@
+package com.example.app.benchmark;
+
+import com.example.app.cache.BoundedCache;
+import com.example.app.cache.JsonFragmentCache;
+import com.example.app.models.AuthorSnapshot;
+import com.example.app.models.Post;
+import com.example.app.models.Views;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing one page (20 post cards) of a list endpoint to the response stream. "Jackson" is what a
+ * ResponseEntity<List<Post>> with the Summary view costs: the whole page through the ObjectWriter.
+ * "Fragments" goes through JsonFragmentCache the way the list endpoints now do, with changedPerPage
+ * posts liked since the last request, so their counters no longer match and they are re-encoded.
+ * Both produce the same bytes (checked at setup). No database needed.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.app.benchmark.JsonFragmentBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonFragmentBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"0", "2"})
+    public int changedPerPage;
+
+    private ObjectWriter summaryWriter;
+    private JsonFragmentCache<Post> fragments;
+    private List<Post> page;
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(16_384);
+    private int next;
+
+    @Setup(Level.Trial)
+    public void build() throws IOException {
+        // Spring Boot's ObjectMapper also disables default view inclusion
+        JsonMapper mapper = JsonMapper.builder().disable(MapperFeature.DEFAULT_VIEW_INCLUSION).build();
+        summaryWriter = mapper.writerWithView(Views.Summary.class);
+        fragments = new JsonFragmentCache<>(new BoundedCache<>("post-json", 10_000, 300_000), summaryWriter,
+                Post::getId, post -> List.of(post.getLikeCount(), post.getCommentCount()));
+
+        AuthorSnapshot author = new AuthorSnapshot(new ObjectId().toHexString(), "Ada Author", "https://example.com/a.png");
+        String excerpt = "Notes from this week's practice session. ".repeat(4).substring(0, 150) + "...";
+        page = new ArrayList<>();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            Post post = new Post();
+            post.setId(new ObjectId().toHexString());
+            post.setTitle("Practice log #" + i);
+            post.setExcerpt(excerpt);
+            post.setMediaUrls(List.of("https://example.com/media/" + i + "-1.jpg", "https://example.com/media/" + i + "-2.jpg"));
+            post.setFileTypes(List.of("image", "image"));
+            post.setTags(List.of("java", "spring", "practice"));
+            post.setUser(author);
+            post.setCreatedAt(new Date());
+            post.setLikeCount(42);
+            post.setCommentCount(7);
+            page.add(post);
+        }
+
+        byte[] expected = jackson();
+        out.reset();
+        fragments.array(page).writeTo(out);
+        byte[] actual = out.toByteArray();
+        if (!Arrays.equals(expected, actual)) {
+            throw new IllegalStateException("Fragments differ from Jackson's output");
+        }
+        System.out.printf("%nPage of %d cards, %,d bytes%n", PAGE_SIZE, expected.length);
+    }
+
+    @Benchmark
+    public byte[] jackson() throws IOException {
+        out.reset();
+        summaryWriter.writeValue(out, page);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] fragments() throws IOException {
+        for (int i = 0; i < changedPerPage; i++) {
+            Post liked = page.get(next++ % PAGE_SIZE);
+            liked.setLikeCount(liked.getLikeCount() + 1);
+        }
+        out.reset();
+        fragments.array(page).writeTo(out);
+        return out.toByteArray();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JsonFragmentBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.app.benchmark;
+
+import com.example.app.cache.CacheMetrics;
+import com.example.app.models.User;
+import com.example.app.repositories.UserRepository;
+import com.example.app.security.JwtAuthenticationFilter;
+import com.example.app.security.JwtTokenProvider;
+import com.example.app.security.VerifiedToken;
+import com.example.app.services.UserCache;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.ServletException;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating one request with a bearer token. "legacy" replays what the filter used to
+ * do (rebuild the key and parser, verify the token twice); "uncached" verifies once with the shared
+ * parser; "cached" is the steady state for a client reusing its token. The filter benchmarks run the
+ * real JwtAuthenticationFilter against a mock request, including its account check against the
+ * user cache. No database needed.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.app.benchmark.JwtFilterBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private static final String SECRET = "benchmarkSecretKeyThatIsLongEnoughForHmacSha256";
+
+    private JwtTokenProvider cachedProvider;
+    private JwtTokenProvider uncachedProvider;
+    private JwtAuthenticationFilter cachedFilter;
+    private JwtAuthenticationFilter uncachedFilter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cachedProvider = provider(10_000);
+        uncachedProvider = provider(0);
+        cachedFilter = filter(cachedProvider);
+        uncachedFilter = filter(uncachedProvider);
+        token = cachedProvider.generateToken("ada@example.com", "663a1f0c9b1e8a2d4c5b6a7f", "Ada Lovelace",
+                "https://example.com/ada.png");
+        request = new MockHttpServletRequest("GET", "/api/user/posts");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public String legacyValidateThenParse() {
+        // The old validateToken + getEmailFromJWT pair
+        Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8))).build()
+                .parseSignedClaims(token);
+        return Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8))).build()
+                .parseSignedClaims(token).getPayload().get("email", String.class);
+    }
+
+    @Benchmark
+    public Optional<VerifiedToken> verifyUncached() {
+        return uncachedProvider.verify(token);
+    }
+
+    @Benchmark
+    public Optional<VerifiedToken> verifyCached() {
+        return cachedProvider.verify(token);
+    }
+
+    @Benchmark
+    public Object filterUncached() throws ServletException, IOException {
+        return runFilter(uncachedFilter);
+    }
+
+    @Benchmark
+    public Object filterCached() throws ServletException, IOException {
+        return runFilter(cachedFilter);
+    }
+
+    private Object runFilter(JwtAuthenticationFilter filter) throws ServletException, IOException {
+        filter.doFilter(request, response, new MockFilterChain());
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        SecurityContextHolder.clearContext();
+        return principal;
+    }
+
+    private static JwtTokenProvider provider(int cacheSize) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(provider, "jwtExpirationInMs", 3_600_000L);
+        ReflectionTestUtils.setField(provider, "cacheSize", cacheSize);
+        ReflectionTestUtils.invokeMethod(provider, "init");
+        return provider;
+    }
+
+    private static JwtAuthenticationFilter filter(JwtTokenProvider provider) {
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "tokenProvider", provider);
+        ReflectionTestUtils.setField(filter, "userCache", userCache());
+        return filter;
+    }
+
+    // A real cache over a stub repository; after the first request the account check is a cache hit
+    private static UserCache userCache() {
+        User user = new User("ada@example.com", "Ada Lovelace", null, "google", "1");
+        user.setId("663a1f0c9b1e8a2d4c5b6a7f");
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        UserCache userCache = new UserCache();
+        ReflectionTestUtils.setField(userCache, "userRepository", userRepository);
+        ReflectionTestUtils.setField(userCache, "cacheMetrics", new CacheMetrics());
+        ReflectionTestUtils.setField(userCache, "maxSize", 10_000);
+        ReflectionTestUtils.setField(userCache, "ttlMillis", 300_000L);
+        ReflectionTestUtils.invokeMethod(userCache, "init");
+        return userCache;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtFilterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
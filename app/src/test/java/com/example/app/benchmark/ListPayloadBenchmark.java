@@ -0,0 +1,175 @@
+package com.example.app.benchmark;
+
+import com.example.app.models.AuthorSnapshot;
+import com.example.app.models.Like;
+import com.example.app.models.Post;
+import com.example.app.models.User;
+import com.example.app.models.Views;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Payload size and serialization time of one page (20 items) of the list endpoints, before and after
+ * the lean wire format. "Legacy" rebuilds what the @DBRef models used to emit: the full author (with
+ * follower and following arrays) inside every post, and the full user and post inside every like.
+ * "Full" is today's entity without a view, "summary" the Views.Summary list format with an excerpt.
+ * No database needed; sizes are printed once per trial.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.app.benchmark.ListPayloadBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListPayloadBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"100", "2000"})
+    public int followers;
+
+    private ObjectWriter writer;
+    private ObjectWriter summaryWriter;
+    private List<Map<String, Object>> legacyPosts;
+    private List<Post> posts;
+    private List<Post> summaries;
+    private List<Map<String, Object>> legacyLikes;
+    private List<Like> likes;
+
+    @Setup(Level.Trial)
+    public void build() throws JsonProcessingException {
+        // Spring Boot's ObjectMapper also disables default view inclusion
+        JsonMapper mapper = JsonMapper.builder().disable(MapperFeature.DEFAULT_VIEW_INCLUSION).build();
+        writer = mapper.writer();
+        summaryWriter = mapper.writerWithView(Views.Summary.class);
+
+        User author = new User("author@example.com", "Ada Author", "https://example.com/a.png", "google", "1234567890");
+        author.setId(new ObjectId().toHexString());
+        // The user document as it was stored before the follow graph moved to its own collection
+        List<String> followerIds = new ArrayList<>();
+        List<String> followingIds = new ArrayList<>();
+        for (int i = 0; i < followers; i++) {
+            followerIds.add(new ObjectId().toHexString());
+            if (i % 2 == 0) {
+                followingIds.add(new ObjectId().toHexString());
+            }
+        }
+        Map<String, Object> legacyAuthor = new LinkedHashMap<>();
+        legacyAuthor.put("id", author.getId());
+        legacyAuthor.put("email", author.getEmail());
+        legacyAuthor.put("name", author.getName());
+        legacyAuthor.put("pictureUrl", author.getPictureUrl());
+        legacyAuthor.put("provider", author.getProvider());
+        legacyAuthor.put("providerId", author.getProviderId());
+        legacyAuthor.put("followers", followerIds);
+        legacyAuthor.put("following", followingIds);
+        String content = "Notes from this week's practice session. ".repeat(40); // ~1.6 KB, a typical long post
+
+        legacyPosts = new ArrayList<>();
+        posts = new ArrayList<>();
+        summaries = new ArrayList<>();
+        legacyLikes = new ArrayList<>();
+        likes = new ArrayList<>();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            Post post = new Post();
+            post.setId(new ObjectId().toHexString());
+            post.setTitle("Practice log #" + i);
+            post.setContent(content);
+            post.setMediaUrls(List.of("https://example.com/media/" + i + "-1.jpg", "https://example.com/media/" + i + "-2.jpg"));
+            post.setFileTypes(List.of("image", "image"));
+            post.setTags(List.of("java", "spring", "practice"));
+            post.setUser(AuthorSnapshot.of(author));
+            post.setCreatedAt(new Date());
+            post.setLikeCount(42);
+            post.setCommentCount(7);
+            posts.add(post);
+
+            Post summary = new Post();
+            summary.setId(post.getId());
+            summary.setTitle(post.getTitle());
+            summary.setExcerpt(content.substring(0, 150) + "...");
+            summary.setMediaUrls(post.getMediaUrls());
+            summary.setFileTypes(post.getFileTypes());
+            summary.setTags(post.getTags());
+            summary.setUser(post.getUser());
+            summary.setCreatedAt(post.getCreatedAt());
+            summary.setLikeCount(post.getLikeCount());
+            summary.setCommentCount(post.getCommentCount());
+            summaries.add(summary);
+
+            Map<String, Object> legacyPost = new LinkedHashMap<>();
+            legacyPost.put("id", post.getId());
+            legacyPost.put("title", post.getTitle());
+            legacyPost.put("content", post.getContent());
+            legacyPost.put("mediaUrls", post.getMediaUrls());
+            legacyPost.put("fileTypes", post.getFileTypes());
+            legacyPost.put("tags", post.getTags());
+            legacyPost.put("user", legacyAuthor);
+            legacyPost.put("createdAt", post.getCreatedAt());
+            legacyPosts.add(legacyPost);
+
+            Map<String, Object> legacyLike = new LinkedHashMap<>();
+            legacyLike.put("id", new ObjectId().toHexString());
+            legacyLike.put("user", legacyAuthor);
+            legacyLike.put("post", legacyPost);
+            legacyLike.put("createdAt", new Date());
+            legacyLikes.add(legacyLike);
+
+            Like like = new Like(author.getId(), post.getId());
+            like.setId((String) legacyLike.get("id"));
+            likes.add(like);
+        }
+
+        System.out.printf("%nPage of %d, author with %d followers:%n", PAGE_SIZE, followers);
+        System.out.printf("  posts legacy  %,9d bytes%n", postsLegacy().length);
+        System.out.printf("  posts full    %,9d bytes%n", postsFull().length);
+        System.out.printf("  posts summary %,9d bytes%n", postsSummary().length);
+        System.out.printf("  likes legacy  %,9d bytes%n", likesLegacy().length);
+        System.out.printf("  likes current %,9d bytes%n", likesCurrent().length);
+    }
+
+    @Benchmark
+    public byte[] postsLegacy() throws JsonProcessingException {
+        return writer.writeValueAsBytes(legacyPosts);
+    }
+
+    @Benchmark
+    public byte[] postsFull() throws JsonProcessingException {
+        return writer.writeValueAsBytes(posts);
+    }
+
+    @Benchmark
+    public byte[] postsSummary() throws JsonProcessingException {
+        return summaryWriter.writeValueAsBytes(summaries);
+    }
+
+    @Benchmark
+    public byte[] likesLegacy() throws JsonProcessingException {
+        return writer.writeValueAsBytes(legacyLikes);
+    }
+
+    @Benchmark
+    public byte[] likesCurrent() throws JsonProcessingException {
+        return writer.writeValueAsBytes(likes);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ListPayloadBenchmark.class.getSimpleName()).build()).run();
+    }
+}
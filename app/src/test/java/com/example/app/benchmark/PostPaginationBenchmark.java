@@ -0,0 +1,114 @@
+package com.example.app.benchmark;
+
+import com.example.app.models.Post;
+import com.example.app.pagination.CursorPage;
+import com.example.app.pagination.KeysetPager;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Page latency of GET /api/user/posts as the collection grows: keyset pages stay flat while
+ * skip/offset pages grow linearly with depth. Needs a scratch MongoDB, by default
+ * mongodb://localhost:27017 (override with -Dbenchmark.mongodb.uri); the benchmark database is dropped afterwards.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.app.benchmark.PostPaginationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PostPaginationBenchmark {
+
+    private static final String DATABASE = "skillDB_benchmark";
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"10000", "100000", "500000"})
+    public int collectionSize;
+
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private KeysetPager keysetPager;
+    private String middleCursor;
+
+    @Setup(Level.Trial)
+    public void seed() {
+        client = MongoClients.create(System.getProperty("benchmark.mongodb.uri", "mongodb://localhost:27017"));
+        mongoTemplate = new MongoTemplate(client, DATABASE);
+        mongoTemplate.dropCollection(Post.class);
+        mongoTemplate.indexOps(Post.class).ensureIndex(
+                new Index().on("createdAt", Sort.Direction.DESC).on("_id", Sort.Direction.DESC));
+
+        long start = System.currentTimeMillis() - collectionSize * 1000L;
+        List<Document> batch = new ArrayList<>();
+        for (int i = 0; i < collectionSize; i++) {
+            batch.add(new Document("_id", new ObjectId())
+                    .append("title", "Post " + i)
+                    .append("content", "Benchmark content " + i)
+                    // A few identical timestamps so the _id tie-breaker is exercised
+                    .append("createdAt", new Date(start + (i / 3) * 3000L)));
+            if (batch.size() == 10_000) {
+                mongoTemplate.insert(batch, "posts");
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            mongoTemplate.insert(batch, "posts");
+        }
+
+        keysetPager = new KeysetPager();
+        ReflectionTestUtils.setField(keysetPager, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(keysetPager, "defaultPageSize", PAGE_SIZE);
+        ReflectionTestUtils.setField(keysetPager, "maxPageSize", 100);
+
+        // Walk to the middle once so the deep-page benchmark resumes from a realistic cursor
+        Query toMiddle = new Query().with(Sort.by(Sort.Direction.DESC, "createdAt", "id"))
+                .skip(collectionSize / 2 - 1).limit(1);
+        middleCursor = keysetPager.cursorAfter(Post.class, mongoTemplate.findOne(toMiddle, Post.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void drop() {
+        mongoTemplate.getDb().drop();
+        client.close();
+    }
+
+    @Benchmark
+    public CursorPage<Post> keysetFirstPage() {
+        return keysetPager.page(Post.class, null, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public CursorPage<Post> keysetMiddlePage() {
+        return keysetPager.page(Post.class, null, middleCursor, PAGE_SIZE);
+    }
+
+    // Baseline: what an offset-paged endpoint would pay for the same page
+    @Benchmark
+    public List<Post> offsetMiddlePage() {
+        Query query = new Query().with(Sort.by(Sort.Direction.DESC, "createdAt", "id"))
+                .skip(collectionSize / 2).limit(PAGE_SIZE);
+        return mongoTemplate.find(query, Post.class);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PostPaginationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
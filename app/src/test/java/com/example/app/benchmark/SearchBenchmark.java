@@ -0,0 +1,100 @@
+package com.example.app.benchmark;
+
+import com.example.app.search.SearchIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Query latency of the full-text index against corpus size. Documents are ~80 words drawn from a
+ * Zipf-like vocabulary of 20,000 words, so a few terms are in most documents and most are rare.
+ * The index is written to a temporary directory in flushes of 5,000 documents, as the app does, and
+ * searched for a first page of 20 hits. No database needed.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.app.benchmark.SearchBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    private static final int VOCABULARY = 20_000;
+    private static final int WORDS_PER_DOC = 80;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"10000", "100000", "500000"})
+    public int documents;
+
+    private Path dir;
+    private SearchIndex index;
+
+    @Setup(Level.Trial)
+    public void build() throws IOException {
+        dir = Files.createTempDirectory("search-benchmark");
+        index = SearchIndex.open(dir, 5000, 10, 4);
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder();
+        long start = System.nanoTime();
+        for (int doc = 0; doc < documents; doc++) {
+            text.setLength(0);
+            for (int i = 0; i < WORDS_PER_DOC; i++) {
+                text.append(word(random)).append(' ');
+            }
+            index.index("post:" + doc, word(random) + " " + word(random), text.toString());
+            if (index.needsFlush()) {
+                index.flush();
+            }
+        }
+        index.flush();
+        System.out.printf("%nIndexed %,d documents in %,d ms: %s%n", documents,
+                (System.nanoTime() - start) / 1_000_000, index.stats().get("diskBytes") + " bytes on disk");
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        index.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    // In nearly every document
+    @Benchmark
+    public SearchIndex.Page commonTerm() {
+        return index.search("w3", List.of(), PAGE_SIZE, null);
+    }
+
+    @Benchmark
+    public SearchIndex.Page twoTerms() {
+        return index.search("w10 w250", List.of(), PAGE_SIZE, null);
+    }
+
+    @Benchmark
+    public SearchIndex.Page rareTerm() {
+        return index.search("w15000", List.of(), PAGE_SIZE, null);
+    }
+
+    // Rank r is drawn with probability proportional to 1/r
+    private static String word(Random random) {
+        return "w" + (int) Math.pow(VOCABULARY, random.nextDouble());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SearchBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.app.benchmark;
+
+import com.example.app.graph.CsrGraph;
+import com.example.app.graph.IntRow;
+import com.example.app.graph.SocialGraph;
+import com.example.app.graph.UserIdIndex;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Memory and "mutual followers" cost of the follow graph as per-user List&lt;String&gt; id lists (the
+ * layout the user documents used to have) versus the CSR graph. Both are built from the same random
+ * graph; heap use is measured once per trial and printed next to the estimate /api/user/metrics/graph
+ * reports. No database needed.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.app.benchmark.SocialGraphBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx3g")
+public class SocialGraphBenchmark {
+
+    private static final int USERS = 50_000;
+
+    @Param({"20", "100"})
+    public int averageFollowing;
+
+    private List<List<String>> followersLists;
+    private List<List<String>> followingLists;
+    private String[] userIds;
+    private CsrGraph csr;
+    private int[] pairs;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void build() {
+        Random random = new Random(42);
+        List<ObjectId> ids = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            ids.add(new ObjectId());
+        }
+        UserIdIndex index = UserIdIndex.of(ids);
+        userIds = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            userIds[i] = index.idAt(i);
+        }
+
+        // Popular accounts are followed far more often, as in a real network
+        int edges = USERS * averageFollowing;
+        int[] sources = new int[edges];
+        int[] targets = new int[edges];
+        Set<Long> seen = new HashSet<>();
+        int count = 0;
+        while (count < edges) {
+            int source = random.nextInt(USERS);
+            int target = (int) (USERS * Math.pow(random.nextDouble(), 3));
+            if (source != target && seen.add((long) source << 32 | target)) {
+                sources[count] = source;
+                targets[count] = target;
+                count++;
+            }
+        }
+        seen = null;
+
+        long before = usedHeap();
+        List<List<String>> followers = new ArrayList<>(USERS);
+        List<List<String>> following = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            followers.add(new ArrayList<>());
+            following.add(new ArrayList<>());
+        }
+        for (int i = 0; i < edges; i++) {
+            // Separate String instances, as each user document was deserialized on its own
+            following.get(sources[i]).add(String.valueOf(userIds[targets[i]].toCharArray()));
+            followers.get(targets[i]).add(String.valueOf(userIds[sources[i]].toCharArray()));
+        }
+        followersLists = followers;
+        followingLists = following; // Keeps both directions reachable while measuring
+        long listBytes = usedHeap() - before;
+
+        before = usedHeap();
+        csr = CsrGraph.build(index, sources, targets, edges);
+        long csrBytes = usedHeap() - before;
+
+        pairs = new int[2048];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = (int) (USERS * Math.pow(random.nextDouble(), 3));
+        }
+
+        System.out.printf("%n%,d users, %,d follows:%n", USERS, edges);
+        System.out.printf("  List<String> measured %,13d bytes, estimate %,13d%n", listBytes,
+                SocialGraph.boxedListBytes(USERS, edges));
+        System.out.printf("  CSR          measured %,13d bytes, payload  %,13d%n", csrBytes, csr.memoryBytes());
+    }
+
+    // Followers of both users, by copying one list into a set and probing it with the other
+    @Benchmark
+    public int mutualFollowersLists() {
+        int a = pairs[next++ & (pairs.length - 1)];
+        int b = pairs[next++ & (pairs.length - 1)];
+        Set<String> set = new HashSet<>(followersLists.get(a));
+        int count = 0;
+        for (String id : followersLists.get(b)) {
+            if (set.contains(id)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int mutualFollowersCsr() {
+        int a = pairs[next++ & (pairs.length - 1)];
+        int b = pairs[next++ & (pairs.length - 1)];
+        return IntRow.intersect(csr.followers(a), csr.followers(b), 0, node -> {});
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SocialGraphBenchmark.class.getSimpleName()).build()).run();
+    }
+}
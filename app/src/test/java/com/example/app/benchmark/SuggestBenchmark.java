@@ -0,0 +1,104 @@
+package com.example.app.benchmark;
+
+import com.example.app.search.CompletionIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Top-10 prefix completion over a million weighted keys: the CompletionIndex (sorted pool plus max
+ * tree, with a 10,000 entry overlay of recent writes) against a TreeMap scanned over the prefix range
+ * and sorted, which is what a plain sorted map gives. Short prefixes match hundreds of thousands of
+ * keys, long ones a handful. Build time and footprint are printed once per trial. No database needed.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.app.benchmark.SuggestBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx3g")
+public class SuggestBenchmark {
+
+    private static final int ENTRIES = 1_000_000;
+    private static final int OVERLAY = 10_000;
+    private static final int LIMIT = 10;
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyz";
+    // By how often English words start with them
+    private static final String INITIALS = "scpadmbtrfhielgnwuovkjqyzx";
+
+    @Param({"s", "spr", "sprin"})
+    public String prefix;
+
+    private CompletionIndex index;
+    private TreeMap<String, Long> sortedMap;
+
+    @Setup(Level.Trial)
+    public void build() {
+        Random random = new Random(42);
+        // Skewed first letters and Zipf-like weights, like tags and names
+        Set<String> unique = new HashSet<>(List.of("spring", "springboot"));
+        List<String> keys = new ArrayList<>(List.of("spring", "springboot"));
+        List<Long> weights = new ArrayList<>(List.of(5_000L, 2_000L));
+        while (keys.size() < ENTRIES) {
+            StringBuilder key = new StringBuilder();
+            key.append(INITIALS.charAt((int) (INITIALS.length() * Math.pow(random.nextDouble(), 2))));
+            int length = 4 + random.nextInt(9);
+            for (int i = 1; i < length; i++) {
+                key.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+            }
+            if (unique.add(key.toString())) {
+                keys.add(key.toString());
+                weights.add((long) (1_000_000 / (1 + random.nextInt(ENTRIES))) + 1);
+            }
+        }
+
+        long start = System.nanoTime();
+        CompletionIndex.Builder builder = new CompletionIndex.Builder();
+        for (int i = 0; i < keys.size(); i++) {
+            builder.add(keys.get(i), keys.get(i), null, weights.get(i));
+        }
+        index = builder.build();
+        long built = System.nanoTime() - start;
+        for (int i = 0; i < OVERLAY; i++) {
+            index.adjust(keys.get(random.nextInt(keys.size())), 1 + random.nextInt(50));
+        }
+
+        sortedMap = new TreeMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            sortedMap.put(keys.get(i), weights.get(i));
+        }
+
+        System.out.printf("%nCompletionIndex over %,d keys built in %d ms: %s%n",
+                keys.size(), built / 1_000_000, index.stats());
+        System.out.printf("Keys starting with \"%s\": %,d%n", prefix, sortedMap.subMap(prefix, prefix + Character.MAX_VALUE).size());
+    }
+
+    @Benchmark
+    public List<CompletionIndex.Entry> completionIndex() {
+        return index.complete(prefix, LIMIT);
+    }
+
+    @Benchmark
+    public List<String> sortedMapScan() {
+        List<Map.Entry<String, Long>> matches = new ArrayList<>(sortedMap.subMap(prefix, prefix + Character.MAX_VALUE).entrySet());
+        matches.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()));
+        return matches.subList(0, Math.min(LIMIT, matches.size())).stream().map(Map.Entry::getKey).toList();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SuggestBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.app.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedCacheTests {
+
+	@Test
+	void evictsLeastRecentlyUsed() {
+		BoundedCache<String, String> cache = new BoundedCache<>("test", 2, 60_000);
+		cache.get("a", key -> "A");
+		cache.get("b", key -> "B");
+		cache.get("a", key -> "reloaded"); // a is now more recent than b
+		cache.get("c", key -> "C");
+
+		assertEquals(1L, cache.stats().get("evictions"));
+		assertEquals("A", cache.get("a", key -> "reloaded"));
+		assertEquals("B2", cache.get("b", key -> "B2"), "b should have been evicted");
+	}
+
+	@Test
+	void expiresEntriesAfterTtl() throws InterruptedException {
+		BoundedCache<String, String> cache = new BoundedCache<>("test", 10, 50);
+		cache.get("a", key -> "old");
+		Thread.sleep(80);
+
+		assertEquals("new", cache.get("a", key -> "new"));
+		assertEquals(1L, cache.stats().get("expirations"));
+	}
+
+	@Test
+	void collapsesConcurrentMissesIntoOneLoad() throws Exception {
+		BoundedCache<String, String> cache = new BoundedCache<>("test", 10, 60_000);
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<String>> results = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				results.add(pool.submit(() -> cache.get("a", key -> {
+					loads.incrementAndGet();
+					await(release);
+					return "A";
+				})));
+			}
+			Thread.sleep(100); // Let every caller reach the cache
+			release.countDown();
+			for (Future<String> result : results) {
+				assertEquals("A", result.get(5, TimeUnit.SECONDS));
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	void doesNotCacheResultOfLoadInvalidatedMidFlight() {
+		BoundedCache<String, String> cache = new BoundedCache<>("test", 10, 60_000);
+		String loaded = cache.get("a", key -> {
+			cache.invalidate("a"); // A write lands while the old value is being read
+			return "stale";
+		});
+
+		assertEquals("stale", loaded);
+		assertEquals("fresh", cache.get("a", key -> "fresh"));
+	}
+
+	@Test
+	void updatesCachedValueAndDisownsLoadInFlight() {
+		BoundedCache<String, Integer> cache = new BoundedCache<>("test", 10, 60_000);
+		cache.get("a", key -> 1);
+		cache.update("a", value -> value + 1);
+		assertEquals(2, cache.getIfPresent("a"));
+
+		Integer loaded = cache.get("b", key -> {
+			cache.update("b", value -> value + 1); // A counter moves while the old value is being read
+			return 10;
+		});
+		assertEquals(10, loaded);
+		assertNull(cache.getIfPresent("b"));
+	}
+
+	@Test
+	void doesNotCacheNulls() {
+		BoundedCache<String, String> cache = new BoundedCache<>("test", 10, 60_000);
+		assertNull(cache.get("a", key -> null));
+		assertEquals("A", cache.get("a", key -> "A"));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package com.example.app.cache;
+
+import com.example.app.models.AuthorSnapshot;
+import com.example.app.models.Post;
+import com.example.app.models.Views;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonFragmentCacheTests {
+
+	private final ObjectWriter writer = JsonMapper.builder()
+			.disable(MapperFeature.DEFAULT_VIEW_INCLUSION).build()
+			.writerWithView(Views.Summary.class);
+
+	@Test
+	void writesTheSameBytesAsJackson() throws Exception {
+		JsonFragmentCache<Post> cache = newCache();
+		List<Post> page = List.of(post("p1", 3), post("p2", 0));
+		cache.array(page); // Encode once, then serve from the cache
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		JsonArray array = cache.array(page);
+		array.writeTo(out);
+
+		assertArrayEquals(writer.writeValueAsBytes(page), out.toByteArray());
+		assertEquals(out.size(), array.contentLength());
+		assertArrayEquals("[]".getBytes(), writeTo(cache.array(List.of())));
+	}
+
+	@Test
+	void reEncodesWhenTheVersionMovesAndAfterInvalidation() throws Exception {
+		JsonFragmentCache<Post> cache = newCache();
+		Post post = post("p1", 3);
+		cache.bytes(post);
+
+		post.setLikeCount(4); // Liked since it was encoded
+		assertArrayEquals(writer.writeValueAsBytes(post), cache.bytes(post));
+
+		post.setTitle("Edited"); // An edit does not move the version, so it must invalidate
+		assertFalse(new String(cache.bytes(post)).contains("Edited"));
+		cache.invalidate("p1");
+		assertTrue(new String(cache.bytes(post)).contains("Edited"));
+	}
+
+	private JsonFragmentCache<Post> newCache() {
+		return new JsonFragmentCache<>(new BoundedCache<>("test", 10, 60_000), writer,
+				Post::getId, Post::getLikeCount);
+	}
+
+	private static byte[] writeTo(JsonArray array) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		array.writeTo(out);
+		return out.toByteArray();
+	}
+
+	private static Post post(String id, long likes) {
+		Post post = new Post();
+		post.setId(id);
+		post.setTitle("Title " + id);
+		post.setContent("Full body, not part of the summary");
+		post.setExcerpt("Full body...");
+		post.setTags(List.of("java"));
+		post.setUser(new AuthorSnapshot("u1", "Ada", null));
+		post.setCreatedAt(new Date(1_700_000_000_000L));
+		post.setLikeCount(likes);
+		return post;
+	}
+}
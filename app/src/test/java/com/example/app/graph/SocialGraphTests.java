@@ -0,0 +1,80 @@
+package com.example.app.graph;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SocialGraphTests {
+
+	@Test
+	void mapsIdsToDenseIntsAndBack() {
+		List<ObjectId> ids = List.of(new ObjectId(), new ObjectId(), new ObjectId());
+		UserIdIndex index = UserIdIndex.of(ids);
+
+		assertEquals(3, index.size());
+		for (ObjectId id : ids) {
+			assertEquals(id.toHexString(), index.idAt(index.indexOf(id.toHexString())));
+		}
+		assertEquals(-1, index.indexOf(new ObjectId().toHexString()));
+		assertEquals(-1, index.indexOf("not-an-object-id"));
+	}
+
+	@Test
+	void intersectsSortedRows() {
+		IntRow a = IntRow.of(new int[]{1, 3, 5, 7, 9});
+		IntRow b = IntRow.of(new int[]{2, 3, 4, 7, 10});
+		List<Integer> common = new ArrayList<>();
+
+		assertEquals(2, IntRow.intersect(a, b, 10, common::add));
+		assertEquals(List.of(3, 7), common);
+
+		// One much smaller side takes the binary search path
+		int[] large = new int[1000];
+		for (int i = 0; i < large.length; i++) {
+			large[i] = i * 2;
+		}
+		common.clear();
+		assertEquals(2, IntRow.intersect(IntRow.of(new int[]{4, 5, 1998}), IntRow.of(large), 1, common::add));
+		assertEquals(List.of(4), common, "only the first value is reported past the limit");
+	}
+
+	@Test
+	void overlayAppliesFollowsAndUnfollowsOnTopOfSnapshot() {
+		String[] users = new String[4];
+		List<ObjectId> ids = new ArrayList<>();
+		for (int i = 0; i < users.length; i++) {
+			ObjectId id = new ObjectId();
+			ids.add(id);
+			users[i] = id.toHexString();
+		}
+		UserIdIndex index = UserIdIndex.of(ids);
+		int u0 = index.indexOf(users[0]);
+		int u1 = index.indexOf(users[1]);
+		int u2 = index.indexOf(users[2]);
+		// u0 follows u1 and u2, u1 follows u2
+		CsrGraph base = CsrGraph.build(index, new int[]{u0, u0, u1}, new int[]{u1, u2, u2}, 3);
+		SocialGraph graph = new SocialGraph(base, 0, 0);
+
+		assertEquals(2, graph.followers(graph.indexOf(users[2])).size());
+
+		String newcomer = new ObjectId().toHexString();
+		graph.setEdge(users[0], users[2], false);
+		graph.setEdge(users[3], users[2], true);
+		graph.setEdge(newcomer, users[2], true);
+		graph.setEdge(users[3], users[2], true); // Replayed change
+
+		IntRow followers = graph.followers(graph.indexOf(users[2]));
+		List<String> followerIds = new ArrayList<>();
+		for (int i = 0; i < followers.size(); i++) {
+			followerIds.add(graph.idAt(followers.get(i)));
+		}
+		assertEquals(3, followerIds.size());
+		assertTrue(followerIds.containsAll(List.of(users[1], users[3], newcomer)));
+		assertEquals(1, graph.following(graph.indexOf(users[0])).size());
+		assertEquals(3, graph.stats().get("overlayEdges"));
+	}
+}
@@ -0,0 +1,44 @@
+package com.example.app.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LearningPlanTests {
+
+	@Test
+	void weeksStartOnMondayUtc() {
+		Date sunday = Date.from(Instant.parse("2026-10-18T23:30:00Z"));
+		Date monday = Date.from(Instant.parse("2026-10-19T00:00:00Z"));
+		assertEquals(Date.from(Instant.parse("2026-10-12T00:00:00Z")), LearningPlan.weekOf(sunday));
+		assertEquals(monday, LearningPlan.weekOf(monday));
+	}
+
+	@Test
+	void progressIsCountedFromTheTopics() {
+		Date now = Date.from(Instant.parse("2026-10-15T12:00:00Z"));
+		LearningPlan.Topic lastWeek = topic(Date.from(Instant.parse("2026-10-09T08:00:00Z")));
+		LearningPlan.Topic thisWeek = topic(Date.from(Instant.parse("2026-10-13T08:00:00Z")));
+		LearningPlan.Topic open = new LearningPlan.Topic("Open", null, null);
+		LearningPlan plan = new LearningPlan("Plan", null, List.of(lastWeek, thisWeek, open), null);
+
+		plan.countProgress(now);
+
+		assertEquals(3, plan.getTotalTopics());
+		assertEquals(2, plan.getCompletedTopics());
+		assertEquals(1, plan.getCompletedThisWeek());
+		assertEquals(thisWeek.getCompletionDate(), plan.getLastCompletionDate());
+		assertEquals(LearningPlan.weekOf(now), plan.getProgressWeek());
+	}
+
+	private static LearningPlan.Topic topic(Date completedAt) {
+		LearningPlan.Topic topic = new LearningPlan.Topic("Done", null, null);
+		topic.setCompleted(true);
+		topic.setCompletionDate(completedAt);
+		return topic;
+	}
+}
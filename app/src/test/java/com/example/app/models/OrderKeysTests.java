@@ -0,0 +1,57 @@
+package com.example.app.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderKeysTests {
+
+	@Test
+	void randomInsertsKeepTheListSortedByKey() {
+		List<String> keys = new ArrayList<>();
+		Random random = new Random(11);
+		for (int i = 0; i < 5_000; i++) {
+			int position = random.nextInt(keys.size() + 1);
+			String before = position > 0 ? keys.get(position - 1) : null;
+			String after = position < keys.size() ? keys.get(position) : null;
+			String key = OrderKeys.between(before, after);
+			assertTrue(before == null || before.compareTo(key) < 0, before + " < " + key);
+			assertTrue(after == null || key.compareTo(after) < 0, key + " < " + after);
+			keys.add(position, key);
+		}
+		List<String> sorted = new ArrayList<>(keys);
+		sorted.sort(null);
+		assertEquals(sorted, keys);
+	}
+
+	@Test
+	void appendsAndPrependsStayShort() {
+		List<String> appended = OrderKeys.between(null, null, 10_000);
+		assertEquals("a0", appended.get(0));
+		assertTrue(appended.get(appended.size() - 1).length() <= 4, appended.get(appended.size() - 1));
+
+		String first = appended.get(0);
+		for (int i = 0; i < 10_000; i++) {
+			String key = OrderKeys.between(null, first);
+			assertTrue(key.compareTo(first) < 0);
+			first = key;
+		}
+		assertTrue(first.length() <= 4, first);
+	}
+
+	@Test
+	void repeatedMovesBetweenTheSameNeighboursGrowSlowly() {
+		String low = "a0";
+		String high = "a1";
+		for (int i = 0; i < 100; i++) {
+			low = OrderKeys.between(low, high); // Always dropping just before the same topic
+		}
+		assertTrue(low.compareTo("a1") < 0);
+		assertTrue(low.length() < 110, low);
+		assertThrows(IllegalArgumentException.class, () -> OrderKeys.between("a1", "a1"));
+	}
+}
@@ -0,0 +1,48 @@
+package com.example.app.pagination;
+
+import com.example.app.exceptions.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetPagerTests {
+
+	@Test
+	void cursorRoundTrips() {
+		Date createdAt = new Date(1714567890123L);
+		String cursor = KeysetPager.encode(new KeysetPager.Position(createdAt, "663a1f0c9b1e8a2d4c5b6a7f"));
+
+		KeysetPager.Position position = KeysetPager.decode(cursor);
+
+		assertEquals(createdAt, position.createdAt);
+		assertEquals("663a1f0c9b1e8a2d4c5b6a7f", position.id);
+		assertFalse(cursor.contains("="), "cursor should be URL safe without padding");
+	}
+
+	@Test
+	void rejectsMalformedCursors() {
+		assertThrows(BadRequestException.class, () -> KeysetPager.decode("not base64!"));
+		assertThrows(BadRequestException.class, () -> KeysetPager.decode(encode("no-separator")));
+		assertThrows(BadRequestException.class, () -> KeysetPager.decode(encode("abc:663a1f0c")));
+		assertThrows(BadRequestException.class, () -> KeysetPager.decode(encode("123:")));
+	}
+
+	@Test
+	void clampsPageSize() {
+		KeysetPager pager = new KeysetPager();
+		ReflectionTestUtils.setField(pager, "defaultPageSize", 20);
+		ReflectionTestUtils.setField(pager, "maxPageSize", 100);
+
+		assertEquals(20, pager.resolvePageSize(null));
+		assertEquals(5, pager.resolvePageSize(5));
+		assertEquals(100, pager.resolvePageSize(5000));
+		assertThrows(BadRequestException.class, () -> pager.resolvePageSize(0));
+	}
+
+	private static String encode(String raw) {
+		return java.util.Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes());
+	}
+}
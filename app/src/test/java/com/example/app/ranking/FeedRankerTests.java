@@ -0,0 +1,52 @@
+package com.example.app.ranking;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeedRankerTests {
+
+	private static final long HOUR = 3_600_000;
+	private static final long NOW = 1_700_000_000_000L;
+
+	private final FeedRanker ranker = new FeedRanker(new FeedRanker.Weights(24 * HOUR, 0.3, 1.0, 0.8));
+
+	@Test
+	void affinityAndEngagementLiftOlderPostsAboveNewerOnes() {
+		FeedCandidate fresh = new FeedCandidate("fresh", "stranger", NOW, 0, 0, List.of());
+		FeedCandidate favourite = new FeedCandidate("favourite", "friend", NOW - 6 * HOUR, 0, 0, List.of());
+		FeedCandidate popular = new FeedCandidate("popular", "stranger", NOW - 6 * HOUR, 500, 100, List.of());
+		FeedCandidate onTopic = new FeedCandidate("onTopic", "stranger", NOW - 6 * HOUR, 0, 0, List.of("java"));
+		FeedCandidate stale = new FeedCandidate("stale", "friend", NOW - 30 * 24 * HOUR, 900, 300, List.of("java"));
+		AffinityVector affinity = new AffinityVector(Map.of("friend", 20.0), Map.of("java", 3.0));
+
+		// The same post from two sources is ranked once
+		FeedRanker.Result result = ranker.rank(List.of(List.of(fresh, favourite, stale), List.of(onTopic, popular, favourite)),
+				affinity, 4, NOW, 1_000_000_000L);
+
+		assertEquals(List.of("popular", "favourite", "onTopic", "fresh"),
+				result.ranked().stream().map(scored -> scored.candidate().postId()).toList());
+		assertEquals(5, result.scored());
+		assertFalse(result.truncated());
+	}
+
+	@Test
+	void stopsAtTheBudgetWithTheBestSoFar() {
+		List<FeedCandidate> candidates = new ArrayList<>();
+		for (int i = 0; i < 10_000; i++) {
+			candidates.add(new FeedCandidate("p" + i, "a" + i % 100, NOW - i * 60_000L, i % 50, i % 7, List.of("t" + i % 20)));
+		}
+		FeedRanker.Result unlimited = ranker.rank(List.of(candidates), AffinityVector.EMPTY, 20, NOW, Long.MAX_VALUE / 2);
+		assertEquals(10_000, unlimited.scored());
+		assertEquals(20, unlimited.ranked().size());
+
+		FeedRanker.Result cut = ranker.rank(List.of(candidates), AffinityVector.EMPTY, 20, NOW, 0);
+		assertTrue(cut.truncated());
+		assertEquals(256, cut.scored()); // The first deadline check
+		assertEquals(20, cut.ranked().size());
+	}
+}
@@ -0,0 +1,182 @@
+package com.example.app.repositories;
+
+import com.example.app.models.AuthorSnapshot;
+import com.example.app.models.LearningPlan;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * MongoDB round trips and counter updates of the single-topic edits: one field-level update when
+ * the topic is in the state the edit expects, a read of the plan and one guarded update otherwise.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class LearningPlanRepositoryCustomImplTests {
+
+	private static final String OWNER = "owner";
+	private static final long DAY = 24 * 60 * 60 * 1000L;
+
+	@Mock
+	private MongoTemplate mongoTemplate;
+
+	@InjectMocks
+	private LearningPlanRepositoryCustomImpl repository;
+
+	private final Date now = new Date();
+	private final Date week = LearningPlan.weekOf(now);
+
+	@BeforeEach
+	void noMatchByDefault() {
+		when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+				eq(LearningPlan.class))).thenReturn(null);
+	}
+
+	@Test
+	void closingAnOpenTopicIsOneUpdate() {
+		modifies(plan(topic("t1", now), topic("t2", null)));
+		assertNotNull(repository.updateTopic("p1", OWNER, "t1", null, true));
+		assertEquals(1, mongoCalls());
+		Document update = updates().get(0);
+		assertEquals(new Document("completedTopics", 1).append("completedThisWeek", 1), update.get("$inc"));
+		assertTrue(update.get("$set", Document.class).containsKey("topics.$[t].completed"));
+	}
+
+	@Test
+	void closingTheLastOpenTopicCompletesThePlan() {
+		modifies(plan(topic("t1", now)), plan(topic("t1", now)));
+		repository.updateTopic("p1", OWNER, "t1", null, true);
+		assertEquals(2, mongoCalls());
+		assertEquals(true, updates().get(1).get("$set", Document.class).get("completed"));
+	}
+
+	@Test
+	void firstCompletionOfTheWeekStartsTheWeekOver() {
+		LearningPlan stored = plan(topic("t1", null), topic("t2", new Date(week.getTime() - DAY)), topic("t3", null));
+		stored.setProgressWeek(new Date(week.getTime() - 7 * DAY));
+		stored.setCompletedThisWeek(3);
+		reads(stored);
+		modifies(null, plan(topic("t1", now), topic("t2", new Date(week.getTime() - DAY)), topic("t3", null)));
+		assertNotNull(repository.updateTopic("p1", OWNER, "t1", null, true));
+		assertEquals(3, mongoCalls()); // The usual update, the read, and the update for the state read
+		Document update = updates().get(1);
+		assertEquals(new Document("completedTopics", 1), update.get("$inc"));
+		assertEquals(week, update.get("$set", Document.class).get("progressWeek"));
+		assertEquals(1, update.get("$set", Document.class).get("completedThisWeek"));
+	}
+
+	@Test
+	void editingAnOpenTopicIsOneUpdate() {
+		modifies(plan(topic("t1", null)));
+		LearningPlan.Topic content = new LearningPlan.Topic("Renamed", null, null);
+		assertNotNull(repository.updateTopic("p1", OWNER, "t1", content, false));
+		assertEquals(1, mongoCalls());
+		Document update = updates().get(0);
+		assertEquals("Renamed", update.get("$set", Document.class).get("topics.$[t].title"));
+		assertNull(update.get("$inc"));
+	}
+
+	@Test
+	void reopeningTheLatestCompletionFallsBackToTheOneBefore() {
+		Date earlier = new Date(week.getTime() - DAY);
+		reads(plan(topic("t1", now), topic("t2", earlier)));
+		modifies(plan(topic("t1", null), topic("t2", earlier)));
+		assertNotNull(repository.updateTopic("p1", OWNER, "t1", null, false));
+		assertEquals(2, mongoCalls()); // The read, and one update guarded by what it read
+		Document update = updates().get(0);
+		assertEquals(new Document("completedTopics", -1).append("completedThisWeek", -1), update.get("$inc"));
+		assertEquals(earlier, update.get("$set", Document.class).get("lastCompletionDate"));
+		assertEquals(2, queries().get(0).get("completedTopics"));
+	}
+
+	@Test
+	void removingAnOpenTopicIsOneUpdate() {
+		modifies(plan(topic("t2", now), topic("t3", null)));
+		assertNotNull(repository.pullTopic("p1", OWNER, "t1"));
+		assertEquals(1, mongoCalls());
+		assertEquals(new Document("totalTopics", -1), updates().get(0).get("$inc"));
+	}
+
+	@Test
+	void anEditInBetweenFallsBackToARecount() {
+		reads(plan(topic("t1", now)));
+		modifies(null, plan(topic("t1", null)));
+		assertNotNull(repository.updateTopic("p1", OWNER, "t1", null, false));
+		assertEquals(3, mongoCalls());
+		ArgumentCaptor<UpdateDefinition> updates = ArgumentCaptor.forClass(UpdateDefinition.class);
+		verify(mongoTemplate, times(2)).findAndModify(any(Query.class), updates.capture(), any(FindAndModifyOptions.class),
+				eq(LearningPlan.class));
+		assertInstanceOf(AggregationUpdate.class, updates.getAllValues().get(1));
+	}
+
+	@Test
+	void missingTopicIsNull() {
+		assertNull(repository.updateTopic("p1", OWNER, "t1", null, false));
+		assertEquals(1, mongoCalls());
+	}
+
+	private long mongoCalls() {
+		return mockingDetails(mongoTemplate).getInvocations().size();
+	}
+
+	private void modifies(LearningPlan first, LearningPlan... then) {
+		when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+				eq(LearningPlan.class))).thenReturn(first, then);
+	}
+
+	private void reads(LearningPlan plan) {
+		when(mongoTemplate.findOne(any(Query.class), eq(LearningPlan.class))).thenReturn(plan);
+	}
+
+	private List<Document> updates() {
+		ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+		verify(mongoTemplate, atLeastOnce()).findAndModify(any(Query.class), updates.capture(),
+				any(FindAndModifyOptions.class), eq(LearningPlan.class));
+		return updates.getAllValues().stream().map(Update::getUpdateObject).toList();
+	}
+
+	private List<Document> queries() {
+		ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+		verify(mongoTemplate, atLeastOnce()).findAndModify(queries.capture(), any(UpdateDefinition.class),
+				any(FindAndModifyOptions.class), eq(LearningPlan.class));
+		return queries.getAllValues().stream().map(Query::getQueryObject).toList();
+	}
+
+	private LearningPlan plan(LearningPlan.Topic... topics) {
+		LearningPlan plan = new LearningPlan("Plan", "Description", List.of(topics), new AuthorSnapshot(OWNER, "Owner", null));
+		plan.setId("p1");
+		plan.countProgress(now);
+		return plan;
+	}
+
+	// Completed on the given date, open when none
+	private static LearningPlan.Topic topic(String id, Date completionDate) {
+		LearningPlan.Topic topic = new LearningPlan.Topic(id, null, null);
+		topic.setId(id);
+		if (completionDate != null) {
+			topic.setCompleted(true);
+			topic.setCompletionDate(completionDate);
+		}
+		return topic;
+	}
+}
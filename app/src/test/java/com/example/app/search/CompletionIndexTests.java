@@ -0,0 +1,55 @@
+package com.example.app.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompletionIndexTests {
+
+	@Test
+	void completesHeaviestFirstWithOverlayShadowingTheBase() {
+		CompletionIndex index = new CompletionIndex.Builder()
+				.add("java", "java", null, 50)
+				.add("javascript", "javascript", null, 80)
+				.add("jakarta", "jakarta", null, 5)
+				.add("julia", "julia", null, 20)
+				.add("kotlin", "kotlin", null, 70)
+				.build();
+
+		assertEquals(List.of("javascript", "java", "julia"), keys(index.complete("j", 3)));
+		assertEquals(List.of("javascript", "java", "jakarta"), keys(index.complete("ja", 10)));
+		assertEquals(List.of(), keys(index.complete("x", 10)));
+
+		index.adjust("jakarta", 100); // Now the heaviest
+		index.remove("javascript");
+		index.adjust("jax", 1); // New key, only in the overlay
+		assertEquals(List.of("jakarta", "java", "jax"), keys(index.complete("ja", 10)));
+		assertEquals(105, index.weight("jakarta"));
+
+		CompletionIndex merged = index.merge(index.changes());
+		assertEquals(0, merged.overlaySize());
+		assertEquals(keys(index.complete("", 10)), keys(merged.complete("", 10)));
+		assertEquals(List.of("jakarta", "kotlin", "java", "julia", "jax"), keys(merged.complete("", 10)));
+	}
+
+	@Test
+	void returnsAnIdOnceUnderItsBestKey() {
+		CompletionIndex index = new CompletionIndex.Builder()
+				.add("anna adams\u0000u1", "Anna Adams", "u1", 10)
+				.add("adams\u0000u1", "Anna Adams", "u1", 10)
+				.add("alan turing\u0000u2", "Alan Turing", "u2", 30)
+				.add("turing\u0000u2", "Alan Turing", "u2", 30)
+				.build();
+
+		List<CompletionIndex.Entry> suggestions = index.complete("a", 10);
+		assertEquals(List.of("u2", "u1"), suggestions.stream().map(CompletionIndex.Entry::id).toList());
+		assertEquals("Alan Turing", suggestions.get(0).label());
+		assertEquals(List.of("u1"), index.complete("ada", 10).stream().map(CompletionIndex.Entry::id).toList());
+	}
+
+	private static List<String> keys(List<CompletionIndex.Entry> entries) {
+		return entries.stream().map(CompletionIndex.Entry::key).toList();
+	}
+}
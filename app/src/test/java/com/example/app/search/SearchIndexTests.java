@@ -0,0 +1,76 @@
+package com.example.app.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchIndexTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void ranksByBm25AndPagesWithSearchAfter() throws IOException {
+		try (SearchIndex index = SearchIndex.open(dir, 100, 10, 4)) {
+			index.index("post:1", "Spring Boot tips", "Configuring spring beans");
+			index.index("post:2", "Cooking", "Spring vegetables and a mention of boot camp");
+			index.index("post:3", "Java streams", "Nothing about the season");
+			index.flush();
+			index.index("comment:4", null, "spring spring spring");
+
+			List<String> keys = keys(index.search("spring boot", List.of(), 10, null));
+			assertEquals("post:1", keys.get(0), "title matches count twice");
+			assertEquals(3, keys.size());
+			assertFalse(keys.contains("post:3"));
+
+			SearchIndex.Page first = index.search("spring", List.of(), 2, null);
+			assertTrue(first.hasMore());
+			SearchIndex.Page second = index.search("spring", List.of(), 2, first.hits().get(1));
+			assertEquals(1, second.hits().size());
+			assertFalse(keys(first).contains(second.hits().get(0).key()));
+
+			assertEquals(List.of("comment:4"), keys(index.search("spring", List.of("comment:"), 10, null)));
+		}
+	}
+
+	@Test
+	void updatesAndDeletesReplaceFlushedCopies() throws IOException {
+		try (SearchIndex index = SearchIndex.open(dir, 100, 10, 4)) {
+			index.index("post:1", "Kotlin coroutines", "");
+			index.index("post:2", "Kotlin flows", "");
+			index.flush();
+			index.index("post:1", "Rust ownership", "");
+			index.delete("post:2");
+
+			assertTrue(index.search("kotlin", List.of(), 10, null).hits().isEmpty());
+			assertEquals(List.of("post:1"), keys(index.search("rust", List.of(), 10, null)));
+		}
+	}
+
+	@Test
+	void survivesRestartFromSegmentsAndLog() throws IOException {
+		try (SearchIndex index = SearchIndex.open(dir, 100, 2, 2)) {
+			for (int i = 0; i < 5; i++) {
+				index.index("post:" + i, "Gradle build " + i, "");
+				index.flush(); // Five flushes with at most two segments forces merges
+			}
+			index.delete("post:0");
+			index.index("post:9", "Maven build", ""); // Only in the log
+		}
+		try (SearchIndex reopened = SearchIndex.open(dir, 100, 2, 2)) {
+			assertEquals(5, keys(reopened.search("build", List.of(), 10, null)).size());
+			assertEquals(List.of("post:9"), keys(reopened.search("maven", List.of(), 10, null)));
+			assertTrue(reopened.search("gradle", List.of(), 10, null).hits().stream().noneMatch(hit -> hit.key().equals("post:0")));
+			assertTrue(((List<?>) reopened.stats().get("segments")).size() <= 2);
+		}
+	}
+
+	private static List<String> keys(SearchIndex.Page page) {
+		return page.hits().stream().map(SearchIndex.Hit::key).toList();
+	}
+}
@@ -0,0 +1,68 @@
+package com.example.app.search;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TagIndexTests {
+
+	@Test
+	void postingsCombineSparseAndDenseChunks() {
+		Postings evens = new Postings();
+		Postings threes = new Postings();
+		for (int i = 0; i < 200_000; i += 2) {
+			evens.add(i); // Dense enough for bitmap chunks
+		}
+		for (int i = 0; i < 200_000; i += 3001) {
+			threes.add(i); // Sparse array chunks
+		}
+
+		Postings both = Postings.and(evens, threes);
+		assertEquals(34, both.cardinality());
+		assertTrue(both.contains(6002));
+		assertFalse(both.contains(3001));
+		assertEquals(100_000 + 67 - 34, Postings.or(evens, threes).cardinality());
+		assertEquals(100_000 - 34, Postings.andNot(evens, threes).cardinality());
+		assertEquals(198_066, both.previous(199_999));
+		assertEquals(-1, both.previous(-1));
+
+		evens.remove(4);
+		assertFalse(evens.contains(4));
+		assertEquals(2, evens.previous(5));
+	}
+
+	@Test
+	void answersAllAnyNoneNewestFirstWithCursor() {
+		TagIndex.Builder builder = new TagIndex.Builder();
+		List<String> ids = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			ids.add(new ObjectId().toHexString());
+		}
+		// Scanned newest first, as the startup build reads them
+		builder.add(ids.get(5), 5000, List.of("Java", "#spring"));
+		builder.add(ids.get(4), 4000, List.of("java", "beginner", "spring"));
+		builder.add(ids.get(3), 3000, List.of("java"));
+		builder.add(ids.get(2), 2000, List.of("java", "spring"));
+		builder.add(ids.get(1), 1000, List.of("python"));
+		TagIndex index = builder.build(true);
+		index.put(ids.get(0), 6000, List.of("JAVA", "spring")); // Written after the build
+
+		TagIndex.Result page = index.query(List.of("java", "spring"), List.of(), List.of("beginner"), null, null, 2);
+		assertEquals(List.of(ids.get(0), ids.get(5)), page.hits().stream().map(TagIndex.Hit::postId).toList());
+		assertTrue(page.hasMore());
+
+		TagIndex.Result next = index.query(List.of("java", "spring"), List.of(), List.of("beginner"), 5000L, ids.get(5), 2);
+		assertEquals(List.of(ids.get(2)), next.hits().stream().map(TagIndex.Hit::postId).toList());
+		assertFalse(next.hasMore());
+
+		index.remove(ids.get(2), 2000);
+		index.put(ids.get(3), 3000, List.of("python"));
+		TagIndex.Result any = index.query(List.of(), List.of("python", "beginner"), List.of(), null, null, 10);
+		assertEquals(List.of(ids.get(4), ids.get(3), ids.get(1)), any.hits().stream().map(TagIndex.Hit::postId).toList());
+		assertTrue(index.query(List.of("rust"), List.of(), List.of(), null, null, 10).hits().isEmpty());
+	}
+}
@@ -0,0 +1,87 @@
+package com.example.app.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtTokenProviderTests {
+
+	private static final String SECRET = "testSecretKeyThatIsLongEnoughForHmacSha256Signing";
+
+	@Test
+	void verifiesIssuedTokenIntoClaims() {
+		JwtTokenProvider provider = provider(60_000, 100);
+		String token = provider.generateToken("ada@example.com", "663a1f0c9b1e8a2d4c5b6a7f", "Ada", null);
+
+		VerifiedToken verified = provider.verify(token).orElseThrow();
+
+		assertEquals("ada@example.com", verified.getEmail());
+		assertEquals("663a1f0c9b1e8a2d4c5b6a7f", verified.getUserId());
+		assertEquals("Ada", verified.getName());
+		assertNull(verified.getPictureUrl());
+		assertSame(verified, provider.verify(token).orElseThrow(), "second use should be served from the cache");
+	}
+
+	@Test
+	void rejectsTamperedAndForeignTokens() {
+		JwtTokenProvider provider = provider(60_000, 100);
+		String token = provider.generateToken("ada@example.com", "1", "Ada", null);
+		String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+		assertEquals(Optional.empty(), provider.verify(tampered));
+		assertEquals(Optional.empty(), provider.verify("not.a.jwt"));
+
+		JwtTokenProvider other = provider(60_000, 100);
+		ReflectionTestUtils.setField(other, "jwtSecret", SECRET + "-other");
+		other.init();
+		assertEquals(Optional.empty(), other.verify(token));
+	}
+
+	@Test
+	void doesNotServeExpiredTokensFromCache() throws InterruptedException {
+		// exp has whole-second precision, so leave at least a second of validity
+		JwtTokenProvider provider = provider(2_000, 100);
+		String token = provider.generateToken("ada@example.com", "1", "Ada", null);
+		assertTrue(provider.verify(token).isPresent());
+
+		Thread.sleep(2_100);
+
+		assertEquals(Optional.empty(), provider.verify(token));
+	}
+
+	@Test
+	void refusesTokensOfRevokedUsers() {
+		JwtTokenProvider provider = provider(60_000, 100);
+		String token = provider.generateToken("ada@example.com", "1", "Ada", null);
+		String otherToken = provider.generateToken("bob@example.com", "2", "Bob", null);
+		assertTrue(provider.verify(token).isPresent());
+
+		provider.revokeUser("1");
+
+		assertEquals(Optional.empty(), provider.verify(token));
+		assertTrue(provider.verify(otherToken).isPresent());
+	}
+
+	@Test
+	void staysWithinCacheSize() {
+		JwtTokenProvider provider = provider(60_000, 10);
+		for (int i = 0; i < 50; i++) {
+			assertTrue(provider.verify(provider.generateToken("user" + i + "@example.com", "" + i, "U", null)).isPresent());
+		}
+		Map<?, ?> cache = (Map<?, ?>) ReflectionTestUtils.getField(provider, "verified");
+		assertTrue(cache.size() <= 10);
+	}
+
+	private static JwtTokenProvider provider(long expirationMs, int cacheSize) {
+		JwtTokenProvider provider = new JwtTokenProvider();
+		ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+		ReflectionTestUtils.setField(provider, "jwtExpirationInMs", expirationMs);
+		ReflectionTestUtils.setField(provider, "cacheSize", cacheSize);
+		provider.init();
+		return provider;
+	}
+}
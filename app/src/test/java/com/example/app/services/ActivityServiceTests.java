@@ -0,0 +1,93 @@
+package com.example.app.services;
+
+import com.example.app.exceptions.BadRequestException;
+import com.example.app.exceptions.NotFoundException;
+import com.example.app.models.ActivityHeatmap;
+import com.example.app.models.UserActivity;
+import com.example.app.repositories.UserRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ActivityServiceTests {
+
+	@Mock
+	private MongoTemplate mongoTemplate;
+	@Mock
+	private UserRepository userRepository;
+
+	@InjectMocks
+	private ActivityService activityService;
+
+	@Test
+	void aYearOfHeatmapIsOneProjectedRead() {
+		LocalDate today = LocalDate.now(ZoneOffset.UTC);
+		UserActivity activity = new UserActivity();
+		Map<String, Map<String, Integer>> years = new HashMap<>();
+		put(years, today, 3);
+		put(years, today.minusDays(1), 1);
+		put(years, today.minusDays(400), 5); // Outside the last 365 days
+		activity.setYears(years);
+		activity.setLastActiveDay(today.toEpochDay());
+		activity.setCurrentStreak(2);
+		activity.setLongestStreak(9);
+		ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+		when(mongoTemplate.findOne(query.capture(), eq(UserActivity.class))).thenReturn(activity);
+
+		ActivityHeatmap heatmap = activityService.getHeatmap("u1", null);
+
+		assertEquals(Map.of(today.minusDays(1), 1, today, 3), heatmap.getDays());
+		assertEquals(4, heatmap.getTotal());
+		assertEquals(2, heatmap.getCurrentStreak());
+		assertEquals(9, heatmap.getLongestStreak());
+		Document fields = query.getValue().getFieldsObject();
+		assertTrue(fields.containsKey("years." + today.getYear()));
+		assertFalse(fields.containsKey("years." + (today.getYear() - 2)));
+		verify(mongoTemplate, times(1)).findOne(any(Query.class), eq(UserActivity.class));
+		verifyNoInteractions(userRepository);
+	}
+
+	@Test
+	void aStreakEndsAfterAFullDayWithoutActivity() {
+		LocalDate today = LocalDate.now(ZoneOffset.UTC);
+		UserActivity activity = new UserActivity();
+		activity.setLastActiveDay(today.minusDays(2).toEpochDay());
+		activity.setCurrentStreak(5);
+		activity.setLongestStreak(5);
+		when(mongoTemplate.findOne(any(Query.class), eq(UserActivity.class))).thenReturn(activity);
+
+		ActivityHeatmap heatmap = activityService.getHeatmap("u1", today.getYear());
+
+		assertEquals(0, heatmap.getCurrentStreak());
+		assertEquals(5, heatmap.getLongestStreak());
+		assertEquals(LocalDate.of(today.getYear(), 1, 1), heatmap.getFrom());
+	}
+
+	@Test
+	void unknownUsersAreNotFound() {
+		when(userRepository.existsById("nobody")).thenReturn(false);
+
+		assertThrows(NotFoundException.class, () -> activityService.getHeatmap("nobody", null));
+		assertThrows(BadRequestException.class, () -> activityService.getHeatmap("u1", 12));
+	}
+
+	private static void put(Map<String, Map<String, Integer>> years, LocalDate day, int count) {
+		years.computeIfAbsent(String.valueOf(day.getYear()), y -> new HashMap<>()).put(day.toString().substring(5), count);
+	}
+}
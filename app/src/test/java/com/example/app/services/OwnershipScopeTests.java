@@ -0,0 +1,268 @@
+package com.example.app.services;
+
+import com.example.app.exceptions.ForbiddenException;
+import com.example.app.exceptions.NotFoundException;
+import com.example.app.models.AuthorSnapshot;
+import com.example.app.models.Comment;
+import com.example.app.models.LearningPlan;
+import com.example.app.models.Post;
+import com.example.app.models.ProgressUpdate;
+import com.example.app.pagination.KeysetPager;
+import com.example.app.repositories.CommentRepository;
+import com.example.app.repositories.LearningPlanRepository;
+import com.example.app.repositories.OwnedDocuments;
+import com.example.app.repositories.PostRepository;
+import com.example.app.repositories.ProgressUpdateRepository;
+import com.example.app.repositories.UserRepository;
+import com.example.app.security.UserPrincipal;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * MongoDB round trips per request for the endpoints that act on a document the caller must own:
+ * one scoped query on success, and a second read by id only to tell 404 from 403.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class OwnershipScopeTests {
+
+	private static final String OWNER = "owner";
+	private static final String OTHER = "other";
+
+	@Mock
+	private MongoTemplate mongoTemplate;
+	@Mock
+	private LearningPlanRepository learningPlanRepository;
+	@Mock
+	private ProgressUpdateRepository progressUpdateRepository;
+	@Mock
+	private PostRepository postRepository;
+	@Mock
+	private CommentRepository commentRepository;
+	@Mock
+	private UserRepository userRepository;
+	@Mock
+	private KeysetPager keysetPager;
+	@Mock
+	private SearchService searchService;
+	@Mock
+	private FeedRankingService feedRankingService;
+	@Mock
+	private TagIndexService tagIndexService;
+	@Mock
+	private SuggestService suggestService;
+	@Mock
+	private TrendingService trendingService;
+	@Mock
+	private TimelineService timelineService;
+	@Mock
+	private PostCache postCache;
+	@Mock
+	private PostJsonCache postJsonCache;
+	@Mock
+	private ActivityService activityService;
+
+	@InjectMocks
+	private LearningPlanService learningPlanService;
+	@InjectMocks
+	private ProgressUpdateService progressUpdateService;
+	@InjectMocks
+	private PostService postService;
+	@InjectMocks
+	private CommentService commentService;
+
+	private final UserPrincipal owner = new UserPrincipal(OWNER, "owner@example.com", "Owner", null);
+
+	@BeforeEach
+	void wire() {
+		OwnedDocuments ownedDocuments = new OwnedDocuments();
+		ReflectionTestUtils.setField(ownedDocuments, "mongoTemplate", mongoTemplate);
+		for (Object service : List.of(learningPlanService, progressUpdateService, postService, commentService)) {
+			ReflectionTestUtils.setField(service, "ownedDocuments", ownedDocuments);
+		}
+		ReflectionTestUtils.setField(progressUpdateService, "learningPlanService", learningPlanService);
+	}
+
+	@Test
+	void getLearningPlan() {
+		when(mongoTemplate.findOne(any(Query.class), eq(LearningPlan.class))).thenReturn(plan());
+		assertNotNull(learningPlanService.getLearningPlanById("p1", owner));
+		assertEquals(1, mongoCalls());
+	}
+
+	@Test
+	void getSomeoneElsesLearningPlanIsForbidden() {
+		storedOwner(OTHER);
+		assertThrows(ForbiddenException.class, () -> learningPlanService.getLearningPlanById("p1", owner));
+		assertEquals(2, mongoCalls());
+	}
+
+	@Test
+	void getMissingLearningPlanIsNotFound() {
+		assertThrows(NotFoundException.class, () -> learningPlanService.getLearningPlanById("p1", owner));
+		assertEquals(2, mongoCalls());
+	}
+
+	@Test
+	void updateLearningPlan() {
+		modifies(LearningPlan.class, plan());
+		LearningPlan changes = plan();
+		changes.setDescription("New description");
+		assertEquals("New description", learningPlanService.updateLearningPlan("p1", changes, owner).getDescription());
+		assertEquals(1, mongoCalls());
+	}
+
+	@Test
+	void deleteLearningPlan() {
+		when(mongoTemplate.findAndRemove(any(Query.class), eq(LearningPlan.class))).thenReturn(plan());
+		learningPlanService.deleteLearningPlan("p1", owner);
+		assertEquals(2, mongoCalls()); // The delete, and unlinking its progress updates
+	}
+
+	@Test
+	void markTopicCompleted() {
+		when(learningPlanRepository.updateTopic("p1", OWNER, "t1", null, true)).thenReturn(plan());
+		assertNotNull(learningPlanService.markTopicCompleted("p1", "t1", true, owner));
+		assertEquals(1, mongoCalls());
+	}
+
+	@Test
+	void markMissingTopicOfOwnPlanIsNotFound() {
+		storedOwner(OWNER);
+		NotFoundException e = assertThrows(NotFoundException.class,
+				() -> learningPlanService.markTopicCompleted("p1", "t1", true, owner));
+		assertEquals("Topic not found", e.getMessage());
+		assertEquals(2, mongoCalls());
+	}
+
+	@Test
+	void getProgressUpdate() {
+		when(mongoTemplate.findOne(any(Query.class), eq(ProgressUpdate.class))).thenReturn(progressUpdate());
+		assertNotNull(progressUpdateService.getProgressUpdateById("u1", owner));
+		assertEquals(1, mongoCalls());
+	}
+
+	@Test
+	void updateProgressUpdateLinkedToAPlan() {
+		when(mongoTemplate.findOne(any(Query.class), eq(LearningPlan.class))).thenReturn(plan());
+		modifies(ProgressUpdate.class, progressUpdate());
+		assertNotNull(progressUpdateService.updateProgressUpdate("u1", progressUpdate(), "p1", owner));
+		assertEquals(2, mongoCalls()); // The plan's title, and the update
+	}
+
+	@Test
+	void deleteSomeoneElsesProgressUpdateIsForbidden() {
+		storedOwner(OTHER);
+		assertThrows(ForbiddenException.class, () -> progressUpdateService.deleteProgressUpdate("u1", owner));
+		assertEquals(2, mongoCalls());
+	}
+
+	@Test
+	void listProgressUpdatesOfAPlan() {
+		storedOwner(OWNER);
+		progressUpdateService.getProgressUpdatesByLearningPlanId("p1", owner);
+		assertEquals(2, mongoCalls()); // The plan's owner, and the list
+	}
+
+	@Test
+	void updatePost() {
+		when(postRepository.updateContent(eq("post1"), eq(OWNER), any(Post.class))).thenReturn(post());
+		Post changes = new Post();
+		changes.setTitle("Edited");
+		assertEquals("Edited", postService.updatePost("post1", changes, owner).getTitle());
+		assertEquals(1, mongoCalls());
+	}
+
+	@Test
+	void deletePost() {
+		when(mongoTemplate.findAndRemove(any(Query.class), eq(Post.class))).thenReturn(post());
+		postService.deletePost("post1", owner);
+		assertEquals(1, mongoCalls());
+	}
+
+	@Test
+	void updateComment() {
+		modifies(Comment.class, comment());
+		assertNotNull(commentService.updateComment("c1", comment(), owner));
+		assertEquals(1, mongoCalls());
+	}
+
+	@Test
+	void deleteComment() {
+		when(mongoTemplate.findAndRemove(any(Query.class), eq(Comment.class))).thenReturn(comment());
+		commentService.deleteComment("c1", owner);
+		assertEquals(2, mongoCalls()); // The delete, and the post's comment count
+	}
+
+	// Round trips to MongoDB through the template or a repository; resolving a collection name is not one
+	private long mongoCalls() {
+		return Stream.of(mongoTemplate, learningPlanRepository, progressUpdateRepository, postRepository,
+						commentRepository, userRepository)
+				.flatMap(mock -> mockingDetails(mock).getInvocations().stream())
+				.filter(invocation -> !invocation.getMethod().getName().equals("getCollectionName"))
+				.count();
+	}
+
+	private <T> void modifies(Class<T> type, T result) {
+		when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+				eq(type))).thenReturn(result);
+	}
+
+	private void storedOwner(String ownerId) {
+		when(mongoTemplate.findOne(any(Query.class), eq(Document.class), any()))
+				.thenReturn(new Document("_id", "x").append("user", new Document("_id", ownerId)));
+	}
+
+	private static AuthorSnapshot author() {
+		return new AuthorSnapshot(OWNER, "Owner", null);
+	}
+
+	private static LearningPlan plan() {
+		LearningPlan plan = new LearningPlan("Plan", "Description", null, author());
+		plan.setId("p1");
+		return plan;
+	}
+
+	private static ProgressUpdate progressUpdate() {
+		ProgressUpdate update = new ProgressUpdate("Did things", "free", author(), null);
+		update.setId("u1");
+		return update;
+	}
+
+	private static Post post() {
+		Post post = new Post();
+		post.setId("post1");
+		post.setTitle("Title");
+		post.setUser(author());
+		post.setTags(List.of("java"));
+		return post;
+	}
+
+	private static Comment comment() {
+		Comment comment = new Comment();
+		comment.setId("c1");
+		comment.setPostId("post1");
+		comment.setContent("Nice");
+		comment.setUser(author());
+		return comment;
+	}
+}
@@ -0,0 +1,57 @@
+package com.example.app.services;
+
+import com.example.app.cache.CacheMetrics;
+import com.example.app.models.User;
+import com.example.app.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class UserCacheTests {
+
+	@Mock
+	private UserRepository userRepository;
+	@Mock
+	private CacheMetrics cacheMetrics;
+
+	@InjectMocks
+	private UserCache userCache;
+
+	@BeforeEach
+	void init() {
+		ReflectionTestUtils.setField(userCache, "maxSize", 100);
+		ReflectionTestUtils.setField(userCache, "ttlMillis", 300_000L);
+		userCache.init();
+	}
+
+	@Test
+	void aMissingUserIsLookedUpOnce() {
+		when(userRepository.findById("u1")).thenReturn(Optional.empty());
+		assertTrue(userCache.findById("u1").isEmpty());
+		assertTrue(userCache.findById("u1").isEmpty());
+		verify(userRepository, times(1)).findById("u1");
+	}
+
+	@Test
+	void creatingAUserReplacesTheMissingEntries() {
+		User user = new User("ada@example.com", "Ada", null, "google", "1");
+		user.setId("u1");
+		when(userRepository.findByEmail("ada@example.com")).thenReturn(Optional.empty()).thenReturn(Optional.of(user));
+		assertTrue(userCache.findByEmail("ada@example.com").isEmpty());
+		userCache.invalidate(user);
+		assertEquals("u1", userCache.findByEmail("ada@example.com").orElseThrow().getId());
+	}
+}
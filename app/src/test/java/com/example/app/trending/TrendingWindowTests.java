@@ -0,0 +1,60 @@
+package com.example.app.trending;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrendingWindowTests {
+
+	@Test
+	void sketchStaysWithinItsErrorBound() {
+		CountMinSketch sketch = new CountMinSketch(0.001, 0.01);
+		Map<String, Integer> counts = new HashMap<>();
+		Random random = new Random(7);
+		for (int i = 0; i < 200_000; i++) {
+			String key = "k" + (int) (50_000 * Math.pow(random.nextDouble(), 3)); // Skewed, a few heavy keys
+			sketch.add(key, 1);
+			counts.merge(key, 1, Integer::sum);
+		}
+
+		int outside = 0;
+		for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+			double estimate = sketch.estimate(entry.getKey());
+			assertTrue(estimate >= entry.getValue());
+			if (estimate > entry.getValue() + 0.001 * sketch.total()) {
+				outside++;
+			}
+		}
+		assertTrue(outside <= 0.01 * counts.size(), outside + " estimates beyond the bound");
+		assertEquals(2719, sketch.width());
+		assertEquals(5, sketch.depth());
+	}
+
+	@Test
+	void recentHitsOutrankOlderOnesAndExpiredBucketsDropOut() {
+		long start = 1_700_000_000_000L - 1_700_000_000_000L % 60_000;
+		// Four 1-minute buckets, 1-minute half-life
+		TrendingWindow window = new TrendingWindow("test", 4, 60_000, 60_000, 0.01, 0.01, 2, start);
+
+		window.add("old", 4, start);
+		window.add("new", 3, start + 120_000);
+		List<TrendingWindow.Item> top = window.top(10, start + 120_000);
+		assertEquals(List.of("new", "old"), top.stream().map(TrendingWindow.Item::key).toList());
+		assertEquals(3, top.get(0).score(), 1e-6);
+		assertEquals(1, top.get(1).score(), 1e-6); // 4 hits, two half-lives ago
+
+		window.add("third", 0.5, start + 120_000); // Below both candidates, so not tracked
+		assertEquals(2, window.top(10, start + 120_000).size());
+
+		// Four buckets later only the second batch's bucket is still in the window
+		top = window.top(10, start + 4 * 60_000);
+		assertEquals(List.of("new"), top.stream().map(TrendingWindow.Item::key).toList());
+		assertEquals(0.75, top.get(0).score(), 1e-6); // Two half-lives after its hits
+		assertTrue(window.top(10, start + 10 * 60_000).isEmpty());
+	}
+}
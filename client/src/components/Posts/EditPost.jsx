@@ -31,9 +31,9 @@ const EditPost = () => {
   const ALLOWED_IMAGE_TYPES = ["image/jpeg", "image/png", "image/gif"];
   const ALLOWED_VIDEO_TYPES = ["video/mp4", "video/webm"];
 
-  // Fetch post data if state is not available (e.g., page refresh)
+  // Fetch post data if state is not available (e.g., page refresh) or only holds a list summary
   useEffect(() => {
-    if (state && state.post) {
+    if (state && state.post && state.post.content !== undefined) {
       setTitle(state.post.title || "");
       setContent(state.post.content || "");
       setTags(state.post.tags ? state.post.tags.join(", ") : "");
@@ -14,11 +14,12 @@ const PostCard = ({ post }) => {
   // Check if the current user is the author of the post
   const isAuthor = currentUser && post.user.id === currentUser.id;
 
-  // Truncate content to 150 characters
+  // List endpoints send a server-side excerpt; fall back to truncating full content
   const truncatedContent =
-    post.content.length > 150
+    post.excerpt ??
+    (post.content && post.content.length > 150
       ? post.content.substring(0, 150) + "..."
-      : post.content;
+      : post.content);
 
   // Format date from createdAt timestamp
   const formattedDate = post.createdAt
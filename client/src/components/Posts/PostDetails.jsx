@@ -15,12 +15,30 @@ const PostDetails = () => {
   const [loading, setLoading] = useState(true);
   const [comment, setComment] = useState("");
   const [comments, setComments] = useState([]);
+  const [commentCount, setCommentCount] = useState(0);
+  const [commentsCursor, setCommentsCursor] = useState(null);
+  const [loadingComments, setLoadingComments] = useState(false);
   const [liked, setLiked] = useState(false);
   const [likeCount, setLikeCount] = useState(0);
   const [activeMediaIndex, setActiveMediaIndex] = useState(0);
   const [editingCommentId, setEditingCommentId] = useState(null);
   const [editCommentText, setEditCommentText] = useState("");
 
+  // Oldest first; the next page's cursor travels in the X-Next-Cursor header
+  const fetchComments = async (cursor) => {
+    const response = await axios.get(
+      `http://localhost:8081/api/user/comments/post/${postId}`,
+      {
+        params: cursor ? { cursor } : {},
+        headers: {
+          Authorization: `Bearer ${currentUser.token}`,
+        },
+      }
+    );
+    setCommentsCursor(response.headers["x-next-cursor"] || null);
+    return response.data;
+  };
+
   useEffect(() => {
     const fetchPostData = async () => {
       try {
@@ -36,31 +54,22 @@ const PostDetails = () => {
         setPost(postResponse.data);
 
         // Fetch comments
-        const commentsResponse = await axios.get(
-          `http://localhost:8081/api/user/comments/post/${postId}`,
-          {
-            headers: {
-              Authorization: `Bearer ${currentUser.token}`,
-            },
-          }
-        );
-        setComments(commentsResponse.data);
+        setComments(await fetchComments());
 
-        // Fetch likes
-        const likesResponse = await axios.get(
-          `http://localhost:8081/api/user/likes/post/${postId}`,
+        // Fetch like count and whether the current user liked the post
+        const engagementResponse = await axios.get(
+          `http://localhost:8081/api/user/posts/engagement`,
           {
+            params: { ids: postId, comments: 0 },
             headers: {
               Authorization: `Bearer ${currentUser.token}`,
             },
           }
         );
-        setLikeCount(likesResponse.data.length);
-        setLiked(
-          currentUser && currentUser.id
-            ? likesResponse.data.some((like) => like.user.id === currentUser.id)
-            : false
-        );
+        const engagement = engagementResponse.data[0];
+        setLikeCount(engagement ? engagement.likeCount : 0);
+        setLiked(engagement ? engagement.likedByMe : false);
+        setCommentCount(engagement ? engagement.commentCount : 0);
       } catch (error) {
         console.log(error);
       } finally {
@@ -71,6 +80,26 @@ const PostDetails = () => {
     fetchPostData();
   }, [postId, currentUser]);
 
+  const handleLoadMoreComments = async () => {
+    setLoadingComments(true);
+    try {
+      const moreComments = await fetchComments(commentsCursor);
+      // Comments posted from this page may already be shown
+      setComments((prev) => [
+        ...prev,
+        ...moreComments.filter((c) => !prev.some((p) => p.id === c.id)),
+      ]);
+    } catch (error) {
+      MySwal.fire({
+        icon: "error",
+        title: "Error",
+        text: "Failed to load comments. Please try again.",
+      });
+    } finally {
+      setLoadingComments(false);
+    }
+  };
+
   const handleLike = async () => {
     try {
       if (liked) {
@@ -127,6 +156,7 @@ const PostDetails = () => {
         }
       );
       setComments([...comments, response.data]);
+      setCommentCount(commentCount + 1);
       setComment("");
       MySwal.fire({
         icon: "success",
@@ -207,6 +237,7 @@ const PostDetails = () => {
           }
         );
         setComments(comments.filter((c) => c.id !== commentId));
+        setCommentCount(Math.max(commentCount - 1, 0));
         MySwal.fire({
           icon: "success",
           title: "Deleted!",
@@ -395,7 +426,7 @@ const PostDetails = () => {
           </div>
           <div className="flex items-center gap-1">
             <span className="text-sm text-gray-500">
-              {comments.length} comments
+              {commentCount} comments
             </span>
           </div>
         </div>
@@ -525,6 +556,18 @@ const PostDetails = () => {
             })
           )}
         </div>
+
+        {commentsCursor && (
+          <div className="flex justify-center p-4 border-t border-gray-100">
+            <button
+              onClick={handleLoadMoreComments}
+              disabled={loadingComments}
+              className="px-4 py-2 text-sm text-blue-500 border border-blue-500 rounded-md hover:bg-blue-50 disabled:opacity-50 transition-colors"
+            >
+              {loadingComments ? "Loading..." : "Load more comments"}
+            </button>
+          </div>
+        )}
       </div>
     </div>
   );
@@ -225,10 +225,8 @@ const LearningPlanDetails = () => {
       <div className="container mx-auto p-4 text-center">Plan not found</div>
     );
 
-  const progress = plan.topics.length
-    ? (plan.topics.filter((topic) => topic.completed).length /
-        plan.topics.length) *
-      100
+  const progress = plan.totalTopics
+    ? (plan.completedTopics / plan.totalTopics) * 100
     : 0;
 
   return (
@@ -266,8 +264,7 @@ const LearningPlanDetails = () => {
           <span className="text-sm font-medium">{Math.round(progress)}%</span>
         </div>
         <p className="text-sm text-gray-600 mt-1">
-          {plan.topics.filter((topic) => topic.completed).length} of{" "}
-          {plan.topics.length} topics completed
+          {plan.completedTopics} of {plan.totalTopics} topics completed
         </p>
       </div>
 
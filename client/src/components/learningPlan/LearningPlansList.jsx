@@ -12,6 +12,22 @@ const LearningPlansList = () => {
   const navigate = useNavigate();
   const [plans, setPlans] = useState([]);
   const [loading, setLoading] = useState(true);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
+
+  const fetchPage = async (cursor) => {
+    const response = await axios.get(
+      "http://localhost:8081/api/user/learning-plans",
+      {
+        params: cursor ? { cursor } : {},
+        headers: {
+          Authorization: `Bearer ${localStorage.getItem("token")}`,
+        },
+      }
+    );
+    setNextCursor(response.headers["x-next-cursor"] || null);
+    return response.data;
+  };
 
   useEffect(() => {
     const fetchPlans = async () => {
@@ -25,15 +41,7 @@ const LearningPlansList = () => {
         return;
       }
       try {
-        const response = await axios.get(
-          "http://localhost:8081/api/user/learning-plans",
-          {
-            headers: {
-              Authorization: `Bearer ${localStorage.getItem("token")}`,
-            },
-          }
-        );
-        setPlans(response.data);
+        setPlans(await fetchPage());
       } catch (error) {
         MySwal.fire({
           icon: "error",
@@ -47,6 +55,22 @@ const LearningPlansList = () => {
     fetchPlans();
   }, [currentUser]);
 
+  const handleLoadMore = async () => {
+    setLoadingMore(true);
+    try {
+      const morePlans = await fetchPage(nextCursor);
+      setPlans((prev) => [...prev, ...morePlans]);
+    } catch (error) {
+      MySwal.fire({
+        icon: "error",
+        title: "Error",
+        text: "Failed to load learning plans.",
+      });
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const handleDelete = async (planId) => {
     const result = await MySwal.fire({
       title: "Are you sure?",
@@ -127,7 +151,7 @@ const LearningPlansList = () => {
 
               <div className="flex justify-between items-center">
                 <div className="text-sm text-gray-500">
-                  Topics: {plan.topics.length}
+                  Topics: {plan.totalTopics}
                 </div>
                 <div className="space-x-2">
                   <button
@@ -154,6 +178,18 @@ const LearningPlansList = () => {
           ))}
         </div>
       )}
+
+      {nextCursor && (
+        <div className="flex justify-center mt-6">
+          <button
+            onClick={handleLoadMore}
+            disabled={loadingMore}
+            className="px-4 py-2 text-sm text-blue-500 border border-blue-500 rounded-md hover:bg-blue-50 disabled:opacity-50 transition-colors"
+          >
+            {loadingMore ? "Loading..." : "Load more"}
+          </button>
+        </div>
+      )}
     </div>
   );
 };
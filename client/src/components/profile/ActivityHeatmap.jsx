@@ -0,0 +1,86 @@
+import React, { useEffect, useState } from "react";
+import axios from "axios";
+
+const DAY_MS = 24 * 60 * 60 * 1000;
+
+const shade = (count) => {
+  if (!count) return "bg-gray-100";
+  if (count < 2) return "bg-green-200";
+  if (count < 4) return "bg-green-400";
+  if (count < 7) return "bg-green-600";
+  return "bg-green-800";
+};
+
+// Last 365 days of progress updates and completed topics, one square per day, weeks as columns
+const ActivityHeatmap = ({ userId }) => {
+  const [activity, setActivity] = useState(null);
+
+  useEffect(() => {
+    const fetchActivity = async () => {
+      try {
+        const response = await axios.get(
+          `http://localhost:8081/api/user/${userId}/activity`,
+          {
+            headers: {
+              Authorization: `Bearer ${localStorage.getItem("token")}`,
+            },
+          }
+        );
+        setActivity(response.data);
+      } catch (error) {
+        console.error("Error fetching activity:", error);
+      }
+    };
+    fetchActivity();
+  }, [userId]);
+
+  if (!activity) return null;
+
+  // Days are UTC dates; pad the first column so every column starts on a Sunday
+  const from = new Date(`${activity.from}T00:00:00Z`);
+  const to = new Date(`${activity.to}T00:00:00Z`);
+  const cells = [];
+  for (let i = 0; i < from.getUTCDay(); i++) cells.push(null);
+  for (let day = from; day <= to; day = new Date(day.getTime() + DAY_MS)) {
+    const key = day.toISOString().slice(0, 10);
+    cells.push({ key, count: activity.days[key] || 0 });
+  }
+  const weeks = [];
+  for (let i = 0; i < cells.length; i += 7) weeks.push(cells.slice(i, i + 7));
+
+  return (
+    <div className="px-6 py-4 border-b border-gray-200">
+      <div className="flex justify-between items-baseline mb-2">
+        <p className="text-sm text-gray-700">
+          <span className="font-semibold">{activity.total}</span> activities in
+          the last year
+        </p>
+        <p className="text-sm text-gray-700">
+          Current streak:{" "}
+          <span className="font-semibold">{activity.currentStreak}</span> days
+          · Longest:{" "}
+          <span className="font-semibold">{activity.longestStreak}</span> days
+        </p>
+      </div>
+      <div className="flex gap-0.5 overflow-x-auto">
+        {weeks.map((week, w) => (
+          <div key={w} className="flex flex-col gap-0.5">
+            {week.map((cell, d) =>
+              cell ? (
+                <div
+                  key={cell.key}
+                  title={`${cell.count} on ${cell.key}`}
+                  className={`w-2.5 h-2.5 rounded-sm ${shade(cell.count)}`}
+                />
+              ) : (
+                <div key={`pad-${d}`} className="w-2.5 h-2.5" />
+              )
+            )}
+          </div>
+        ))}
+      </div>
+    </div>
+  );
+};
+
+export default ActivityHeatmap;
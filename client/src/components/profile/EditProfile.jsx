@@ -12,7 +12,7 @@ import { MdOutlineEmail } from "react-icons/md";
 const MySwal = withReactContent(Swal);
 
 const EditProfile = () => {
-  const { currentUser } = useContext(AuthContext);
+  const { currentUser, setToken } = useContext(AuthContext);
   const navigate = useNavigate();
   const [name, setName] = useState("");
   const [email, setEmail] = useState("");
@@ -101,6 +101,11 @@ const EditProfile = () => {
         timer: 1500,
       });
 
+      // The server re-issues the token so its name and picture claims stay current
+      if (response.data.token) {
+        setToken(response.data.token);
+      }
+
       // Update local state
       setPictureUrl(response.data.pictureUrl);
       setFile(null);
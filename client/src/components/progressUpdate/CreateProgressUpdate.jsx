@@ -15,20 +15,40 @@ const CreateProgressUpdate = () => {
   const [learningPlanId, setLearningPlanId] = useState("");
   const [plans, setPlans] = useState([]);
   const [loading, setLoading] = useState(false);
+  const [plansCursor, setPlansCursor] = useState(null);
+
+  const fetchPlanPage = async (cursor) => {
+    const response = await axios.get(
+      "http://localhost:8081/api/user/learning-plans",
+      {
+        params: cursor ? { cursor } : {},
+        headers: {
+          Authorization: `Bearer ${localStorage.getItem("token")}`,
+        },
+      }
+    );
+    setPlansCursor(response.headers["x-next-cursor"] || null);
+    return response.data;
+  };
+
+  const handleLoadMorePlans = async () => {
+    try {
+      const morePlans = await fetchPlanPage(plansCursor);
+      setPlans((prev) => [...prev, ...morePlans]);
+    } catch (error) {
+      MySwal.fire({
+        icon: "error",
+        title: "Error",
+        text: "Failed to load learning plans.",
+      });
+    }
+  };
 
   useEffect(() => {
     const fetchPlans = async () => {
       if (!currentUser) return;
       try {
-        const response = await axios.get(
-          "http://localhost:8081/api/user/learning-plans",
-          {
-            headers: {
-              Authorization: `Bearer ${localStorage.getItem("token")}`,
-            },
-          }
-        );
-        setPlans(response.data);
+        setPlans(await fetchPlanPage());
       } catch (error) {
         MySwal.fire({
           icon: "error",
@@ -133,6 +153,16 @@ const CreateProgressUpdate = () => {
               </option>
             ))}
           </select>
+          {plansCursor && (
+            <button
+              type="button"
+              onClick={handleLoadMorePlans}
+              className="mt-1 text-sm text-blue-500 hover:text-blue-700"
+              disabled={loading}
+            >
+              Load more plans
+            </button>
+          )}
         </div>
         <button
           type="submit"
@@ -17,6 +17,34 @@ const EditProgressUpdate = () => {
   const [learningPlanId, setLearningPlanId] = useState("");
   const [plans, setPlans] = useState([]);
   const [loading, setLoading] = useState(false);
+  const [plansCursor, setPlansCursor] = useState(null);
+
+  const fetchPlanPage = async (cursor) => {
+    const response = await axios.get(
+      "http://localhost:8081/api/user/learning-plans",
+      {
+        params: cursor ? { cursor } : {},
+        headers: {
+          Authorization: `Bearer ${localStorage.getItem("token")}`,
+        },
+      }
+    );
+    setPlansCursor(response.headers["x-next-cursor"] || null);
+    return response.data;
+  };
+
+  const handleLoadMorePlans = async () => {
+    try {
+      const morePlans = await fetchPlanPage(plansCursor);
+      setPlans((prev) => [...prev, ...morePlans]);
+    } catch (error) {
+      MySwal.fire({
+        icon: "error",
+        title: "Error",
+        text: "Failed to load learning plans.",
+      });
+    }
+  };
 
   useEffect(() => {
     const fetchData = async () => {
@@ -34,18 +62,10 @@ const EditProgressUpdate = () => {
         );
         setContent(updateResponse.data.content);
         setTemplateType(updateResponse.data.templateType);
-        setLearningPlanId(updateResponse.data.learningPlan?.id || "");
+        setLearningPlanId(updateResponse.data.learningPlanId || "");
 
         // Fetch learning plans
-        const plansResponse = await axios.get(
-          "http://localhost:8081/api/user/learning-plans",
-          {
-            headers: {
-              Authorization: `Bearer ${localStorage.getItem("token")}`,
-            },
-          }
-        );
-        setPlans(plansResponse.data);
+        setPlans(await fetchPlanPage());
       } catch (error) {
         MySwal.fire({
           icon: "error",
@@ -158,6 +178,16 @@ const EditProgressUpdate = () => {
               </option>
             ))}
           </select>
+          {plansCursor && (
+            <button
+              type="button"
+              onClick={handleLoadMorePlans}
+              className="mt-1 text-sm text-blue-500 hover:text-blue-700"
+              disabled={loading}
+            >
+              Load more plans
+            </button>
+          )}
         </div>
         <button
           type="submit"
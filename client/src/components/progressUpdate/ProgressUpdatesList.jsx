@@ -216,16 +216,16 @@ const ProgressUpdatesList = () => {
                 {update.content}
               </div>
 
-              {update.learningPlan && !planId && (
+              {update.learningPlanId && !planId && (
                 <div className="mb-3 text-sm">
                   <span className="text-gray-600">Plan: </span>
                   <span
                     className="cursor-pointer text-blue-600 hover:text-blue-800 hover:underline"
                     onClick={() =>
-                      navigate(`/learning-plan/${update.learningPlan.id}`)
+                      navigate(`/learning-plan/${update.learningPlanId}`)
                     }
                   >
-                    {update.learningPlan.title}
+                    {update.learningPlanTitle}
                   </span>
                 </div>
               )}
@@ -7,14 +7,21 @@ const Feed = () => {
   const [posts, setPosts] = useState([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
+
+  const fetchPosts = async (cursor) => {
+    const response = await axios.get("http://localhost:8081/api/user/timeline", {
+      params: cursor ? { cursor } : {},
+    });
+    setNextCursor(response.headers["x-next-cursor"] || null);
+    return response.data;
+  };
 
   useEffect(() => {
-    const fetchPosts = async () => {
+    const fetchFirstPage = async () => {
       try {
-        const response = await axios.get(
-          "http://localhost:8081/api/user/posts"
-        );
-        setPosts(response.data);
+        setPosts(await fetchPosts());
         setLoading(false);
       } catch (err) {
         setError("Failed to load posts. Please try again later.");
@@ -22,9 +29,21 @@ const Feed = () => {
       }
     };
 
-    fetchPosts();
+    fetchFirstPage();
   }, []);
 
+  const handleLoadMore = async () => {
+    setLoadingMore(true);
+    try {
+      const morePosts = await fetchPosts(nextCursor);
+      setPosts((prev) => [...prev, ...morePosts]);
+    } catch (err) {
+      setError("Failed to load posts. Please try again later.");
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   if (loading) {
     return <div className="flex justify-center mt-6">Loading...</div>;
   }
@@ -54,6 +73,18 @@ const Feed = () => {
           ))}
         </div>
       )}
+
+      {nextCursor && (
+        <div className="flex justify-center mt-6">
+          <button
+            onClick={handleLoadMore}
+            disabled={loadingMore}
+            className="px-4 py-2 text-sm text-blue-500 border border-blue-500 rounded-md hover:bg-blue-50 disabled:opacity-50 transition-colors"
+          >
+            {loadingMore ? "Loading..." : "Load more"}
+          </button>
+        </div>
+      )}
     </div>
   );
 };
@@ -12,6 +12,25 @@ const NetworkPage = () => {
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
   const [activeTab, setActiveTab] = useState("following");
+  // Next-page cursors (X-Next-Cursor) of the followers and following lists
+  const [cursors, setCursors] = useState({});
+  const [loadingMore, setLoadingMore] = useState(false);
+
+  // Newest first, 100 at a time
+  const fetchEdges = async (list, cursor) => {
+    const response = await axios.get(
+      `http://localhost:8081/api/user/${currentUser.id}/${list}`,
+      {
+        params: cursor ? { limit: 100, cursor } : { limit: 100 },
+        headers: {
+          Authorization: `Bearer ${localStorage.getItem("token")}`,
+        },
+      }
+    );
+    const next = response.headers["x-next-cursor"] || null;
+    setCursors((prev) => ({ ...prev, [list]: next }));
+    return response.data;
+  };
 
   useEffect(() => {
     const fetchNetwork = async () => {
@@ -22,47 +41,13 @@ const NetworkPage = () => {
       }
 
       try {
-        // Fetch current user with followers and following
-        const userResponse = await axios.get(
-          "http://localhost:8081/api/user/me",
-          {
-            headers: {
-              Authorization: `Bearer ${localStorage.getItem("token")}`,
-            },
-          }
-        );
+        // Fetch the first page of followers and following
+        const [followersData, followingData] = await Promise.all([
+          fetchEdges("followers"),
+          fetchEdges("following"),
+        ]);
 
-        // Fetch followers
-        const followersData = await Promise.all(
-          userResponse.data.followers.map(async (userId) => {
-            const response = await axios.get(
-              `http://localhost:8081/api/user/${userId}`,
-              {
-                headers: {
-                  Authorization: `Bearer ${localStorage.getItem("token")}`,
-                },
-              }
-            );
-            return response.data;
-          })
-        );
-
-        // Fetch following
-        const followingData = await Promise.all(
-          userResponse.data.following.map(async (userId) => {
-            const response = await axios.get(
-              `http://localhost:8081/api/user/${userId}`,
-              {
-                headers: {
-                  Authorization: `Bearer ${localStorage.getItem("token")}`,
-                },
-              }
-            );
-            return response.data;
-          })
-        );
-
-        // Fetch other users (not followers or following)
+        // Fetch people you may know (ranked by the server)
         const otherUsersResponse = await axios.get(
           "http://localhost:8081/api/users",
           {
@@ -85,6 +70,36 @@ const NetworkPage = () => {
     fetchNetwork();
   }, [currentUser]);
 
+  const handleLoadMore = async (list) => {
+    setLoadingMore(true);
+    try {
+      const more = await fetchEdges(list, cursors[list]);
+      const setList = list === "followers" ? setFollowers : setFollowing;
+      // Users followed from this page may already be listed
+      setList((prev) => [
+        ...prev,
+        ...more.filter((u) => !prev.some((p) => p.id === u.id)),
+      ]);
+    } catch (error) {
+      console.error("Error loading more users:", error);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
+  const LoadMoreButton = ({ list }) =>
+    cursors[list] ? (
+      <div className="flex justify-center mt-6">
+        <button
+          onClick={() => handleLoadMore(list)}
+          disabled={loadingMore}
+          className="px-4 py-2 text-sm text-blue-500 border border-blue-500 rounded-md hover:bg-blue-50 disabled:opacity-50 transition-colors"
+        >
+          {loadingMore ? "Loading..." : "Load more"}
+        </button>
+      </div>
+    ) : null;
+
   const handleFollowChange = async (userId, isFollowing) => {
     try {
       if (isFollowing) {
@@ -160,6 +175,11 @@ const NetworkPage = () => {
               {user.title && (
                 <p className="text-sm text-gray-600">{user.title}</p>
               )}
+              {user.mutualCount > 0 && (
+                <p className="text-xs text-gray-500">
+                  Followed by {user.mutualCount} you follow
+                </p>
+              )}
             </div>
           </Link>
         </div>
@@ -279,6 +299,7 @@ const NetworkPage = () => {
                   ))}
                 </div>
               )}
+              <LoadMoreButton list="following" />
             </div>
           )}
 
@@ -300,6 +321,7 @@ const NetworkPage = () => {
                   ))}
                 </div>
               )}
+              <LoadMoreButton list="followers" />
             </div>
           )}
 
@@ -5,6 +5,7 @@ import Swal from "sweetalert2";
 import withReactContent from "sweetalert2-react-content";
 import { AuthContext } from "../../context/AuthContext";
 import PostCard from "../../components/Posts/PostCard";
+import ActivityHeatmap from "../../components/profile/ActivityHeatmap";
 
 const MySwal = withReactContent(Swal);
 
@@ -20,6 +21,32 @@ const ProfilePage = () => {
   const [error, setError] = useState(null);
   const [isFollowing, setIsFollowing] = useState(false);
   const [activeTab, setActiveTab] = useState("posts");
+  // Next-page cursor of each list (X-Next-Cursor), null once it is exhausted
+  const [cursors, setCursors] = useState({});
+  const [loadingMore, setLoadingMore] = useState(false);
+
+  const listUrls = {
+    posts: `http://localhost:8081/api/user/posts/user/${userId}`,
+    updates: `http://localhost:8081/api/user/progress-updates?userId=${userId}`,
+    learningPlans: `http://localhost:8081/api/user/learning-plans?userId=${userId}`,
+  };
+  const listSetters = {
+    posts: setPosts,
+    updates: setUpdates,
+    learningPlans: setPlans,
+  };
+
+  const fetchList = async (list, cursor) => {
+    const response = await axios.get(listUrls[list], {
+      params: cursor ? { cursor } : {},
+      headers: {
+        Authorization: `Bearer ${localStorage.getItem("token")}`,
+      },
+    });
+    const next = response.headers["x-next-cursor"] || null;
+    setCursors((prev) => ({ ...prev, [list]: next }));
+    return response.data;
+  };
 
   useEffect(() => {
     const fetchProfile = async () => {
@@ -34,52 +61,16 @@ const ProfilePage = () => {
           }
         );
         setUser(userResponse.data);
-
-        // Check if current user is following this user
-        if (currentUser) {
-          const currentUserResponse = await axios.get(
-            "http://localhost:8081/api/user/me",
-            {
-              headers: {
-                Authorization: `Bearer ${localStorage.getItem("token")}`,
-              },
-            }
-          );
-          setIsFollowing(currentUserResponse.data.following.includes(userId));
-        }
+        setIsFollowing(Boolean(userResponse.data.followedByMe));
 
         // Fetch user's posts
-        const postsResponse = await axios.get(
-          `http://localhost:8081/api/user/posts/user/${userId}`,
-          {
-            headers: {
-              Authorization: `Bearer ${localStorage.getItem("token")}`,
-            },
-          }
-        );
-        setPosts(postsResponse.data);
+        setPosts(await fetchList("posts"));
 
         // Fetch user's progress updates
-        const progressResponse = await axios.get(
-          `http://localhost:8081/api/user/progress-updates?userId=${userId}`,
-          {
-            headers: {
-              Authorization: `Bearer ${localStorage.getItem("token")}`,
-            },
-          }
-        );
-        setUpdates(progressResponse.data);
+        setUpdates(await fetchList("updates"));
 
         // Fetch user's learning plans
-        const plansResponse = await axios.get(
-          `http://localhost:8081/api/user/learning-plans?userId=${userId}`,
-          {
-            headers: {
-              Authorization: `Bearer ${localStorage.getItem("token")}`,
-            },
-          }
-        );
-        setPlans(plansResponse.data);
+        setPlans(await fetchList("learningPlans"));
 
         setLoading(false);
       } catch (error) {
@@ -93,6 +84,23 @@ const ProfilePage = () => {
     fetchProfile();
   }, [userId, currentUser]);
 
+  const handleLoadMore = async () => {
+    const list = activeTab;
+    setLoadingMore(true);
+    try {
+      const more = await fetchList(list, cursors[list]);
+      listSetters[list]((prev) => [...prev, ...more]);
+    } catch (error) {
+      MySwal.fire({
+        icon: "error",
+        title: "Error",
+        text: error.response?.data?.message || "Failed to load more.",
+      });
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const handleFollow = async () => {
     if (!currentUser) {
       MySwal.fire({
@@ -114,7 +122,7 @@ const ProfilePage = () => {
       setIsFollowing(true);
       setUser((prev) => ({
         ...prev,
-        followers: [...prev.followers, currentUser.id],
+        followerCount: prev.followerCount + 1,
       }));
       MySwal.fire({
         icon: "success",
@@ -152,7 +160,7 @@ const ProfilePage = () => {
       setIsFollowing(false);
       setUser((prev) => ({
         ...prev,
-        followers: prev.followers.filter((id) => id !== currentUser.id),
+        followerCount: Math.max(prev.followerCount - 1, 0),
       }));
       MySwal.fire({
         icon: "success",
@@ -244,11 +252,11 @@ const ProfilePage = () => {
             <p className="text-blue-500">{user.email}</p>
             <div className="flex space-x-6 mt-2">
               <p className="text-sm">
-                <span className="font-semibold">{user.followers.length}</span>{" "}
+                <span className="font-semibold">{user.followerCount}</span>{" "}
                 Followers
               </p>
               <p className="text-sm">
-                <span className="font-semibold">{user.following.length}</span>{" "}
+                <span className="font-semibold">{user.followingCount}</span>{" "}
                 Following
               </p>
             </div>
@@ -271,6 +279,8 @@ const ProfilePage = () => {
         )}
       </div>
 
+      <ActivityHeatmap userId={userId} />
+
       {/* Tab Navigation */}
       <div className="border-b border-gray-200">
         <nav className="flex">
@@ -466,6 +476,18 @@ const ProfilePage = () => {
             )}
           </>
         )}
+
+        {cursors[activeTab] && (
+          <div className="flex justify-center mt-6">
+            <button
+              onClick={handleLoadMore}
+              disabled={loadingMore}
+              className="px-4 py-2 text-sm text-blue-500 border border-blue-500 rounded-md hover:bg-blue-50 disabled:opacity-50 transition-colors"
+            >
+              {loadingMore ? "Loading..." : "Load more"}
+            </button>
+          </div>
+        )}
       </div>
     </div>
   );